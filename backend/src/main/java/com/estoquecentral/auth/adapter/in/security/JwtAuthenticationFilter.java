@@ -1,5 +1,6 @@
 package com.estoquecentral.auth.adapter.in.security;
 
+import com.estoquecentral.auth.application.AuthPrincipalCache;
 import com.estoquecentral.auth.application.JwtService;
 import com.estoquecentral.auth.application.PublicUserService;
 import com.estoquecentral.auth.application.UserService;
@@ -39,6 +40,10 @@ import java.util.UUID;
  *   <li>Populates Spring SecurityContext with authenticated user</li>
  * </ol>
  *
+ * <p><strong>Caching:</strong> Parsed claims and the user's active flag come from
+ * {@link AuthPrincipalCache}, so repeated requests with the same token neither re-verify
+ * the signature nor query public.users.
+ *
  * <p><strong>Integration with Multi-Tenancy:</strong>
  * This filter extracts tenantId from JWT and sets it in TenantContext,
  * allowing TenantRoutingDataSource to route database queries to the
@@ -48,6 +53,7 @@ import java.util.UUID;
  * This filter runs BEFORE UsernamePasswordAuthenticationFilter in the chain.
  *
  * @see JwtService
+ * @see AuthPrincipalCache
  * @see UserService
  * @see TenantContext
  * @see com.estoquecentral.shared.tenant.TenantRoutingDataSource
@@ -63,12 +69,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserService userService;
     private final PublicUserService publicUserService;
+    private final AuthPrincipalCache principalCache;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtService jwtService, UserService userService, PublicUserService publicUserService) {
+    public JwtAuthenticationFilter(JwtService jwtService, UserService userService, PublicUserService publicUserService,
+                                   AuthPrincipalCache principalCache) {
         this.jwtService = jwtService;
         this.userService = userService;
         this.publicUserService = publicUserService;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -113,11 +122,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Step 2: Extract JWT token
             String jwt = authHeader.substring(BEARER_PREFIX.length()).trim();
 
-            // Step 3: Validate token and extract claims
-            Claims claims = jwtService.validateToken(jwt);
+            // Step 3: Validate token (once per token) and extract claims
+            Claims claims = principalCache.getClaims(jwt, jwtService::validateToken);
             String userIdStr = claims.getSubject();
             String tenantIdStr = claims.get("tenantId", String.class);
-            List<String> roles = jwtService.getRolesFromToken(jwt);
+            List<String> roles = jwtService.getRolesFromClaims(claims);
 
             logg.debug("JWT validated for user: {} (tenant: {})", userIdStr, tenantIdStr);
 
@@ -135,10 +144,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 TenantContext.setTenantId(tenantId.toString());
                 logg.trace("TenantContext set to: {}", tenantId);
 
-                // Load user from public.users and validate
-                com.estoquecentral.auth.domain.User publicUser = publicUserService.getUserById(userId);
-
-                if (!publicUser.getAtivo()) {
+                // Check user is active in public.users (cached)
+                if (!isUserActive(userId)) {
                     logg.warn("Inactive user attempted to access tenant: {}", userId);
                     filterChain.doFilter(request, response);
                     return;
@@ -165,11 +172,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 // Public user without company/tenant (new user flow)
                 logg.debug("Public user (no tenant): userId={}", userId);
 
-                // Load user from public.users
-                com.estoquecentral.auth.domain.User publicUser = publicUserService.getUserById(userId);
-
-                // Check if user is active
-                if (!publicUser.getAtivo()) {
+                // Check if user is active in public.users (cached)
+                if (!isUserActive(userId)) {
                     logg.warn("Inactive public user attempted to login: {}", userId);
                     filterChain.doFilter(request, response);
                     return;
@@ -210,4 +214,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // NOTE: TenantContext.clear() is called by TenantInterceptor.afterCompletion()
         // We don't clear it here to allow access during request processing
     }
+
+    private boolean isUserActive(UUID userId) {
+        return principalCache.isActive(userId, () -> publicUserService.getUserById(userId).getAtivo());
+    }
 }
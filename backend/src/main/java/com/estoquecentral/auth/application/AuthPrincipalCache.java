@@ -0,0 +1,301 @@
+package com.estoquecentral.auth.application;
+
+import com.estoquecentral.shared.tenant.TenantContext;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * AuthPrincipalCache - Bounded in-process cache of authenticated principals
+ *
+ * <p>Keeps request authentication free of database queries in steady state:
+ * <ul>
+ *   <li><strong>Tokens:</strong> verified JWT claims, keyed by the token, until the token expires</li>
+ *   <li><strong>Active flags:</strong> public.users ativo flag, keyed by user</li>
+ *   <li><strong>Roles:</strong> role names from the user's profile, keyed by tenant + user</li>
+ * </ul>
+ *
+ * <p><strong>Invalidation:</strong> User activation/deactivation and profile assignment
+ * ({@link UserService}, {@link PublicUserService}) and profile or role changes
+ * ({@link ProfileService}, {@link RoleService}) invalidate the affected entries after the
+ * transaction commits. With Redis enabled the invalidation is broadcast so every node drops
+ * its entries too. Entries also expire after <code>auth.principal-cache.ttl-ms</code>.
+ *
+ * <p>A load that started before an invalidation is returned to its caller but not stored.
+ *
+ * @see com.estoquecentral.auth.adapter.in.security.JwtAuthenticationFilter
+ * @see com.estoquecentral.shared.security.RoleCheckAspect
+ */
+@Component
+public class AuthPrincipalCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthPrincipalCache.class);
+
+    private static final String INVALIDATION_TOPIC = "auth-principal-invalidation";
+    private static final String PUBLIC_TENANT_KEY = "public";
+    private static final String SEPARATOR = "|";
+
+    private final long ttlMs;
+    private final LongSupplier clock;
+    private final RTopic invalidationTopic;
+
+    private final BoundedMap<Claims> tokens;
+    private final BoundedMap<Boolean> activeFlags;
+    private final BoundedMap<Set<String>> roles;
+
+    /** Incremented on every invalidation; loads that raced one are not stored. */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * In-process cache without cross-node invalidation (tests, no Redis).
+     */
+    public AuthPrincipalCache(int maxEntries, long ttlMs) {
+        this(null, maxEntries, ttlMs, System::currentTimeMillis);
+    }
+
+    @Autowired
+    public AuthPrincipalCache(ObjectProvider<RedissonClient> redissonClient,
+                              @Value("${auth.principal-cache.max-entries:10000}") int maxEntries,
+                              @Value("${auth.principal-cache.ttl-ms:60000}") long ttlMs) {
+        this(redissonClient.getIfAvailable(), maxEntries, ttlMs, System::currentTimeMillis);
+    }
+
+    AuthPrincipalCache(RedissonClient redissonClient, int maxEntries, long ttlMs, LongSupplier clock) {
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+        this.tokens = new BoundedMap<>(maxEntries);
+        this.activeFlags = new BoundedMap<>(maxEntries);
+        this.roles = new BoundedMap<>(maxEntries);
+
+        if (redissonClient != null) {
+            this.invalidationTopic = redissonClient.getTopic(INVALIDATION_TOPIC);
+            this.invalidationTopic.addListener(String.class, (channel, message) -> applyInvalidation(message));
+        } else {
+            this.invalidationTopic = null;
+        }
+    }
+
+    /**
+     * Returns the verified claims of a token, parsing it only on a miss.
+     *
+     * <p>Entries never outlive the token's expiration. Parse failures are not cached.
+     *
+     * @param token  the JWT token
+     * @param parser validates the token (e.g., {@link JwtService#validateToken(String)})
+     * @return the token claims
+     */
+    public Claims getClaims(String token, Function<String, Claims> parser) {
+        long now = clock.getAsLong();
+        Claims cached = tokens.get(token, now);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        Claims claims = parser.apply(token);
+        long expiresAt = now + ttlMs;
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            expiresAt = Math.min(expiresAt, expiration.getTime());
+        }
+        tokens.put(token, claims, expiresAt);
+        return claims;
+    }
+
+    /**
+     * Returns whether the user (public.users) is active, loading it only on a miss.
+     *
+     * @param userId the user ID
+     * @param loader loads the flag from the database
+     * @return true if the user is active
+     */
+    public boolean isActive(UUID userId, Supplier<Boolean> loader) {
+        return Boolean.TRUE.equals(getOrLoad(activeFlags, userId.toString(), loader));
+    }
+
+    /**
+     * Returns the user's role names in the given tenant, loading them only on a miss.
+     *
+     * @param tenantId the tenant ID (null for the public schema)
+     * @param userId   the user ID
+     * @param loader   loads the role names from the database
+     * @return role names (e.g., "ADMIN")
+     */
+    public Set<String> getRoles(String tenantId, UUID userId, Supplier<Set<String>> loader) {
+        return getOrLoad(roles, rolesKey(tenantKey(tenantId), userId.toString()), loader);
+    }
+
+    /**
+     * Invalidates the user's active flag and roles in every tenant (after commit).
+     *
+     * @param userId the user ID
+     */
+    public void invalidateUser(UUID userId) {
+        afterCommit("user" + SEPARATOR + userId);
+    }
+
+    /**
+     * Invalidates the user's roles in the current tenant (after commit).
+     *
+     * @param userId the user ID
+     */
+    public void invalidateUserRoles(UUID userId) {
+        afterCommit("roles" + SEPARATOR + currentTenantKey() + SEPARATOR + userId);
+    }
+
+    /**
+     * Invalidates the roles of every user in the current tenant (after commit).
+     * Used when profiles or roles change.
+     */
+    public void invalidateTenantRoles() {
+        afterCommit("tenant" + SEPARATOR + currentTenantKey());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.principal.cache.requests", hits, AtomicLong::get)
+                .description("Authentication lookups served from the principal cache")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("auth.principal.cache.requests", misses, AtomicLong::get)
+                .description("Authentication lookups that parsed a token or queried the database")
+                .tag("result", "miss")
+                .register(registry);
+    }
+
+    private <V> V getOrLoad(BoundedMap<V> map, String key, Supplier<V> loader) {
+        long now = clock.getAsLong();
+        V cached = map.get(key, now);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        long generation = invalidations.get();
+        V value = loader.get();
+        if (value != null && invalidations.get() == generation) {
+            map.put(key, value, now + ttlMs);
+        }
+        return value;
+    }
+
+    private void afterCommit(String message) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(message);
+                }
+            });
+        } else {
+            invalidate(message);
+        }
+    }
+
+    private void invalidate(String message) {
+        applyInvalidation(message);
+
+        if (invalidationTopic != null) {
+            try {
+                invalidationTopic.publish(message);
+            } catch (RuntimeException e) {
+                logger.warn("Could not broadcast principal invalidation {}: {}", message, e.getMessage());
+            }
+        }
+    }
+
+    private void applyInvalidation(String message) {
+        invalidations.incrementAndGet();
+
+        String[] parts = message.split("\\" + SEPARATOR);
+        switch (parts[0]) {
+            case "user" -> {
+                activeFlags.removeIf(key -> key.equals(parts[1]));
+                roles.removeIf(key -> key.endsWith(SEPARATOR + parts[1]));
+            }
+            case "roles" -> roles.removeIf(key -> key.equals(rolesKey(parts[1], parts[2])));
+            case "tenant" -> roles.removeIf(key -> key.startsWith(parts[1] + SEPARATOR));
+            default -> logger.warn("Unknown principal invalidation: {}", message);
+        }
+        logger.debug("Applied principal invalidation {}", message);
+    }
+
+    private static String rolesKey(String tenantKey, String userId) {
+        return tenantKey + SEPARATOR + userId;
+    }
+
+    private static String currentTenantKey() {
+        return tenantKey(TenantContext.getTenantId());
+    }
+
+    private static String tenantKey(String tenantId) {
+        return tenantId == null || tenantId.isBlank() ? PUBLIC_TENANT_KEY : tenantId;
+    }
+
+    /**
+     * Access-ordered (LRU) map with per-entry expiration, guarded by its own monitor.
+     */
+    private static final class BoundedMap<V> {
+
+        private final LinkedHashMap<String, Entry<V>> entries;
+
+        BoundedMap(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        synchronized V get(String key, long now) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= now) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+
+        synchronized void put(String key, V value, long expiresAt) {
+            entries.put(key, new Entry<>(value, expiresAt));
+        }
+
+        synchronized void removeIf(Predicate<String> keyFilter) {
+            entries.keySet().removeIf(keyFilter);
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
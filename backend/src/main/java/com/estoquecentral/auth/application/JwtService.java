@@ -219,9 +219,18 @@ public class JwtService {
      * @return List of role strings (empty list if user has no profile)
      * @throws io.jsonwebtoken.JwtException if token is invalid
      */
-    @SuppressWarnings("unchecked")
     public List<String> getRolesFromToken(String token) {
-        Claims claims = validateToken(token);
+        return getRolesFromClaims(validateToken(token));
+    }
+
+    /**
+     * Extracts roles from already validated token claims.
+     *
+     * @param claims the token claims
+     * @return List of role strings (empty list if user has no profile)
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> getRolesFromClaims(Claims claims) {
         List<String> roles = claims.get("roles", List.class);
         return roles != null ? roles : Collections.emptyList();
     }
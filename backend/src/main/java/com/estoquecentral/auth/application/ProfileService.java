@@ -43,15 +43,18 @@ public class ProfileService {
     private final ProfileRepository profileRepository;
     private final ProfileRoleRepository profileRoleRepository;
     private final RoleRepository roleRepository;
+    private final AuthPrincipalCache principalCache;
 
     @Autowired
     public ProfileService(
             ProfileRepository profileRepository,
             ProfileRoleRepository profileRoleRepository,
-            RoleRepository roleRepository) {
+            RoleRepository roleRepository,
+            AuthPrincipalCache principalCache) {
         this.profileRepository = profileRepository;
         this.profileRoleRepository = profileRoleRepository;
         this.roleRepository = roleRepository;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -192,6 +195,7 @@ public class ProfileService {
 
         // Replace roles
         assignRolesToProfile(profileId, roleIds);
+        principalCache.invalidateTenantRoles();
 
         logger.info("Profile roles updated successfully");
     }
@@ -211,6 +215,7 @@ public class ProfileService {
         Profile profile = getById(id);
         profile.deactivate();
         profileRepository.save(profile);
+        principalCache.invalidateTenantRoles();
 
         logger.info("Profile deactivated successfully: {}", id);
     }
@@ -230,6 +235,7 @@ public class ProfileService {
         Profile profile = getById(id);
         profile.activate();
         profileRepository.save(profile);
+        principalCache.invalidateTenantRoles();
 
         logger.info("Profile activated successfully: {}", id);
     }
@@ -34,9 +34,11 @@ public class PublicUserService {
     private static final Logger logger = LoggerFactory.getLogger(PublicUserService.class);
 
     private final PublicUserRepository publicUserRepository;
+    private final AuthPrincipalCache principalCache;
 
-    public PublicUserService(PublicUserRepository publicUserRepository) {
+    public PublicUserService(PublicUserRepository publicUserRepository, AuthPrincipalCache principalCache) {
         this.publicUserRepository = publicUserRepository;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -157,6 +159,7 @@ public class PublicUserService {
         User user = getUserById(userId);
         user.setAtivo(false);
         publicUserRepository.save(user);
+        principalCache.invalidateUser(userId);
 
         logger.info("User deactivated successfully in public.users: {}", userId);
     }
@@ -174,6 +177,7 @@ public class PublicUserService {
         User user = getUserById(userId);
         user.setAtivo(true);
         publicUserRepository.save(user);
+        principalCache.invalidateUser(userId);
 
         logger.info("User activated successfully in public.users: {}", userId);
     }
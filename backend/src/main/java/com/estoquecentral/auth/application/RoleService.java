@@ -33,10 +33,12 @@ public class RoleService {
     private static final Logger logger = LoggerFactory.getLogger(RoleService.class);
 
     private final RoleRepository roleRepository;
+    private final AuthPrincipalCache principalCache;
 
     @Autowired
-    public RoleService(RoleRepository roleRepository) {
+    public RoleService(RoleRepository roleRepository, AuthPrincipalCache principalCache) {
         this.roleRepository = roleRepository;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -156,6 +158,7 @@ public class RoleService {
         Role role = getById(id);
         role.deactivate();
         roleRepository.save(role);
+        principalCache.invalidateTenantRoles();
 
         logger.info("Role deactivated successfully: {}", id);
     }
@@ -175,6 +178,7 @@ public class RoleService {
         Role role = getById(id);
         role.activate();
         roleRepository.save(role);
+        principalCache.invalidateTenantRoles();
 
         logger.info("Role activated successfully: {}", id);
     }
@@ -44,15 +44,18 @@ public class UserService {
     private final UsuarioRepository usuarioRepository;
     private final TenantRepository tenantRepository;
     private final ProfileService profileService;
+    private final AuthPrincipalCache principalCache;
 
     @Autowired
     public UserService(
             UsuarioRepository usuarioRepository,
             TenantRepository tenantRepository,
-            ProfileService profileService) {
+            ProfileService profileService,
+            AuthPrincipalCache principalCache) {
         this.usuarioRepository = usuarioRepository;
         this.tenantRepository = tenantRepository;
         this.profileService = profileService;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -212,6 +215,7 @@ public class UserService {
         Usuario usuario = getUserById(userId);
         usuario.setAtivo(false);
         usuarioRepository.save(usuario);
+        principalCache.invalidateUser(userId);
 
         logger.info("User deactivated successfully: {}", userId);
     }
@@ -229,6 +233,7 @@ public class UserService {
         Usuario usuario = getUserById(userId);
         usuario.setAtivo(true);
         usuarioRepository.save(usuario);
+        principalCache.invalidateUser(userId);
 
         logger.info("User activated successfully: {}", userId);
     }
@@ -249,6 +254,7 @@ public class UserService {
         Usuario usuario = getUserById(userId);
         usuario.assignProfile(profileId);
         usuarioRepository.save(usuario);
+        principalCache.invalidateUserRoles(userId);
 
         logger.info("Profile assigned successfully");
     }
@@ -1,6 +1,7 @@
 package com.estoquecentral.company.application;
 
 import com.estoquecentral.common.exception.SchemaProvisioningException;
+import com.estoquecentral.shared.tenant.config.TenantSchemaTemplateService;
 import org.flywaydb.core.Flyway;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,8 +20,8 @@ import java.util.UUID;
  *
  * <p>Responsibilities:
  * <ul>
- *   <li>Creates a new PostgreSQL schema for the tenant</li>
- *   <li>Runs Flyway migrations to create tenant tables</li>
+ *   <li>Clones the pre-migrated template schema (or claims one from the warm pool)</li>
+ *   <li>Falls back to creating the schema and running Flyway migrations</li>
  *   <li>Seeds default profiles (Admin, Gerente, Vendedor)</li>
  *   <li>Completes in < 30 seconds (NFR2)</li>
  * </ul>
@@ -37,10 +38,13 @@ public class CompanyTenantProvisioner {
 
     private final DataSource dataSource;
     private final JdbcTemplate jdbcTemplate;
+    private final TenantSchemaTemplateService tenantSchemaTemplateService;
 
-    public CompanyTenantProvisioner(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+    public CompanyTenantProvisioner(DataSource dataSource, JdbcTemplate jdbcTemplate,
+                                    TenantSchemaTemplateService tenantSchemaTemplateService) {
         this.dataSource = dataSource;
         this.jdbcTemplate = jdbcTemplate;
+        this.tenantSchemaTemplateService = tenantSchemaTemplateService;
     }
 
     /**
@@ -49,8 +53,8 @@ public class CompanyTenantProvisioner {
      * <p><strong>Process:</strong>
      * <ol>
      *   <li>Generate unique tenant ID (UUID)</li>
-     *   <li>Create PostgreSQL schema: tenant_{uuid_without_hyphens}</li>
-     *   <li>Run Flyway migrations on the schema (creates tables)</li>
+     *   <li>Clone the template schema into tenant_{uuid_without_hyphens} (warm pool first)</li>
+     *   <li>Fallback: create the schema and run Flyway migrations on it (creates tables)</li>
      *   <li>Seed default profiles: Admin, Gerente, Vendedor (via V068 migration)</li>
      * </ol>
      *
@@ -72,11 +76,14 @@ public class CompanyTenantProvisioner {
         long startTime = System.currentTimeMillis();
 
         try {
-            // Step 1: Create PostgreSQL schema
-            createSchema(schemaName);
+            // Step 1: Clone the pre-migrated template (single DDL pass)
+            if (!tenantSchemaTemplateService.provisionFromTemplate(schemaName)) {
+                // Step 1b: Create PostgreSQL schema
+                createSchema(schemaName);
 
-            // Step 2: Run Flyway migrations on the tenant schema
-            runMigrations(schemaName);
+                // Step 2: Run Flyway migrations on the tenant schema
+                runMigrations(schemaName);
+            }
 
             long duration = System.currentTimeMillis() - startTime;
             logger.info("Tenant provisioned successfully in {}ms: tenantId={}, schemaName={}",
@@ -30,8 +30,9 @@ import java.util.Map;
  * </ul>
  *
  * <p><strong>Key Format:</strong>
- * All cache keys are automatically prefixed with tenant ID via TenantCacheKeyGenerator:
- * <pre>tenant:{tenantId}:{cacheName}:{key}</pre>
+ * All cache keys are automatically prefixed with tenant ID and namespace generation via TenantCacheKeyGenerator:
+ * <pre>tenant:{tenantId}:g{tenantGeneration}.{cacheGeneration}:{className}:{methodName}:{args}</pre>
+ * Tenant/cache eviction bumps the generation (see TenantCacheGenerations) instead of scanning keys.
  *
  * <p><strong>Eviction Policy:</strong>
  * Redis is configured with LRU (Least Recently Used) eviction when memory limit is reached.
@@ -0,0 +1,40 @@
+package com.estoquecentral.config;
+
+import com.estoquecentral.shared.tenant.TenantContextTaskDecorator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * DashboardExecutorConfig - Thread pool for dashboard fan-out queries
+ *
+ * <p>The complete dashboard loads its sections concurrently, each on its own connection.
+ * The pool (<code>dashboard.fan-out.pool-size</code>) bounds how many connections dashboard
+ * requests can hold at once; when the queue (<code>dashboard.fan-out.queue-capacity</code>)
+ * is full the section is rejected and returned as unavailable, so a saturated pool never
+ * makes the request thread run a query past the dashboard deadline.
+ * Tasks run with the submitting request's tenant and security context.
+ *
+ * @see com.estoquecentral.reporting.application.DashboardService
+ */
+@Configuration
+public class DashboardExecutorConfig {
+
+    @Bean(name = "dashboardExecutor")
+    public ThreadPoolTaskExecutor dashboardExecutor(
+            @Value("${dashboard.fan-out.pool-size:8}") int poolSize,
+            @Value("${dashboard.fan-out.queue-capacity:64}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("dashboard-");
+        executor.setTaskDecorator(new TenantContextTaskDecorator());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
@@ -0,0 +1,185 @@
+package com.estoquecentral.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PushbackInputStream;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Interceptor for outbound HTTP calls (Mercado Livre, NFC-e middleware, ...)
+ *
+ * <ul>
+ *   <li>Limits concurrent requests per host; a permit is held until the response is closed,
+ *       which also caps the pooled connections per host.</li>
+ *   <li>Asks for gzip and transparently decompresses gzip responses.</li>
+ *   <li>Records the timer <code>http.client.outbound</code> tagged with host, method, status
+ *       and the endpoint template (ID-like path segments replaced by <code>{id}</code>, query
+ *       dropped) so per-item URLs do not create one series each.</li>
+ * </ul>
+ *
+ * @see WebClientConfig
+ */
+public class OutboundHttpInterceptor implements ClientHttpRequestInterceptor {
+
+    static final String METRIC_NAME = "http.client.outbound";
+
+    /** Path segments containing a digit are IDs (MLB123, 2000003508, UUIDs, ...). */
+    private static final Pattern ID_SEGMENT = Pattern.compile("[^/]*\\d[^/]*");
+
+    private final MeterRegistry meterRegistry;
+    private final int maxConcurrentPerHost;
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    public OutboundHttpInterceptor(MeterRegistry meterRegistry, int maxConcurrentPerHost) {
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrentPerHost = Math.max(1, maxConcurrentPerHost);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String host = String.valueOf(request.getURI().getHost());
+        Semaphore permits = hostPermits.computeIfAbsent(host, h -> new Semaphore(maxConcurrentPerHost, true));
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection to " + host);
+        }
+
+        if (!request.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = String.valueOf(response.getStatusCode().value());
+            return new OutboundResponse(response, permits);
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .tag("host", host)
+                    .tag("method", request.getMethod().name())
+                    .tag("uri", uriTemplate(request.getURI()))
+                    .tag("status", status)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Endpoint template of a URI, e.g. <code>/items/MLB123/description?x=1</code> becomes
+     * <code>/items/{id}/description</code>
+     */
+    static String uriTemplate(URI uri) {
+        String path = uri.getRawPath();
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+
+        StringBuilder template = new StringBuilder();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            template.append('/').append(ID_SEGMENT.matcher(segment).matches() ? "{id}" : segment);
+        }
+        return template.isEmpty() ? "/" : template.toString();
+    }
+
+    /**
+     * Response that releases the host permit on close and gunzips the body when needed
+     */
+    private static final class OutboundResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final boolean gzip;
+        private HttpHeaders headers;
+        private InputStream body;
+
+        OutboundResponse(ClientHttpResponse delegate, Semaphore permits) {
+            this.delegate = delegate;
+            this.permits = permits;
+            this.gzip = "gzip".equalsIgnoreCase(delegate.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            if (headers == null) {
+                if (gzip) {
+                    // Body is handed out decoded
+                    HttpHeaders decoded = new HttpHeaders();
+                    decoded.putAll(delegate.getHeaders());
+                    decoded.remove(HttpHeaders.CONTENT_ENCODING);
+                    decoded.remove(HttpHeaders.CONTENT_LENGTH);
+                    headers = HttpHeaders.readOnlyHttpHeaders(decoded);
+                } else {
+                    headers = delegate.getHeaders();
+                }
+            }
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                if (gzip) {
+                    // Empty bodies (204, HEAD) may still carry Content-Encoding
+                    PushbackInputStream raw = new PushbackInputStream(delegate.getBody(), 1);
+                    int first = raw.read();
+                    if (first == -1) {
+                        body = InputStream.nullInputStream();
+                    } else {
+                        raw.unread(first);
+                        body = new GZIPInputStream(raw);
+                    }
+                } else {
+                    body = delegate.getBody();
+                }
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        }
+    }
+}
@@ -1,22 +1,77 @@
 package com.estoquecentral.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 /**
  * Web client configuration
  * Provides RestTemplate bean for HTTP client operations
+ *
+ * <p>Requests go through one shared JDK {@link HttpClient}, which keeps connections alive and
+ * reuses them (HTTP/2 where the server supports it). Timeouts come from
+ * <code>http.client.connect-timeout-ms</code> / <code>http.client.read-timeout-ms</code>;
+ * per-host limits, gzip and timers from {@link OutboundHttpInterceptor}.
  */
 @Configuration
 public class WebClientConfig {
 
+    @Value("${http.client.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${http.client.read-timeout-ms:30000}")
+    private long readTimeoutMs;
+
+    @Value("${http.client.max-connections-per-host:20}")
+    private int maxConnectionsPerHost;
+
+    /**
+     * Pooled HTTP client shared by outbound calls
+     */
+    @Bean
+    public HttpClient outboundHttpClient() {
+        return HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Bean
+    public OutboundHttpInterceptor outboundHttpInterceptor(MeterRegistry meterRegistry) {
+        return new OutboundHttpInterceptor(meterRegistry, maxConnectionsPerHost);
+    }
+
     /**
      * RestTemplate bean for HTTP client operations
      * Used by marketplace integrations and external API calls
+     *
+     * <p>Built directly rather than from RestTemplateBuilder: callers pass concrete URLs, which
+     * the builder's observation would tag one series per URL. {@link OutboundHttpInterceptor}
+     * records endpoint templates instead.
+     */
+    @Bean
+    public RestTemplate restTemplate(HttpClient outboundHttpClient, OutboundHttpInterceptor outboundHttpInterceptor) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(outboundHttpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(outboundHttpInterceptor);
+        return restTemplate;
+    }
+
+    /**
+     * Applies the same per-host limits, gzip and timers to RestTemplates built from
+     * RestTemplateBuilder (e.g. NfceService)
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplateCustomizer outboundHttpCustomizer(OutboundHttpInterceptor outboundHttpInterceptor) {
+        return restTemplate -> restTemplate.getInterceptors().add(outboundHttpInterceptor);
     }
 }
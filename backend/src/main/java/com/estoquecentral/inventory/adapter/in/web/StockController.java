@@ -8,6 +8,7 @@ import com.estoquecentral.inventory.adapter.in.dto.StockByLocationResponse;
 import com.estoquecentral.inventory.adapter.in.dto.StockResponse;
 import com.estoquecentral.inventory.application.InventoryService;
 import com.estoquecentral.inventory.application.StockService;
+import com.estoquecentral.reporting.application.ProductAbcClassificationService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -22,7 +23,7 @@ import java.util.UUID;
  * Story 2.7: Multi-Warehouse Stock Control
  *
  * Endpoints:
- * - GET /api/stock - List all stock with filters
+ * - GET /api/stock - List all stock with filters (including ABC class)
  * - GET /api/stock/product/{productId} - Get stock by product (aggregated)
  * - GET /api/stock/product/{productId}/by-location - Get stock by product drill-down
  * - GET /api/stock/variant/{variantId} - Get stock by variant (aggregated)
@@ -38,15 +39,21 @@ public class StockController {
 
     private final StockService stockService;
     private final InventoryService inventoryService;
+    private final ProductAbcClassificationService abcClassificationService;
 
-    public StockController(StockService stockService, InventoryService inventoryService) {
+    public StockController(StockService stockService,
+                           InventoryService inventoryService,
+                           ProductAbcClassificationService abcClassificationService) {
         this.stockService = stockService;
         this.inventoryService = inventoryService;
+        this.abcClassificationService = abcClassificationService;
     }
 
     /**
      * AC2: Get all stock with optional filters
-     * GET /api/stock?productId=xxx&variantId=xxx&locationId=xxx&belowMinimum=true
+     * GET /api/stock?productId=xxx&variantId=xxx&locationId=xxx&belowMinimum=true&abcClass=A&abcWindowDays=90
+     * abcClass filters by the precomputed ABC curve (/api/reports/abc-curve), default window when abcWindowDays is omitted;
+     * 400 for a class other than A, B or C or a window that is not computed (same checks as the ABC curve)
      */
     @GetMapping
     public ResponseEntity<List<StockResponse>> getAllStock(
@@ -54,9 +61,12 @@ public class StockController {
             @RequestParam(required = false) UUID productId,
             @RequestParam(required = false) UUID variantId,
             @RequestParam(required = false) UUID locationId,
-            @RequestParam(required = false) Boolean belowMinimum
+            @RequestParam(required = false) Boolean belowMinimum,
+            @RequestParam(required = false) String abcClass,
+            @RequestParam(required = false) Integer abcWindowDays
     ) {
-        List<StockResponse> stock = stockService.getAllStock(tenantId, productId, variantId, locationId, belowMinimum);
+        List<StockResponse> stock = stockService.getAllStock(tenantId, productId, variantId, locationId, belowMinimum,
+                abcClassificationService.normalizeClass(abcClass), abcClassificationService.resolveWindow(abcWindowDays));
         return ResponseEntity.ok(stock);
     }
 
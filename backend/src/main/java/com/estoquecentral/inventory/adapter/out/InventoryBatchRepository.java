@@ -0,0 +1,93 @@
+package com.estoquecentral.inventory.adapter.out;
+
+import com.estoquecentral.inventory.domain.StockLine;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * InventoryBatchRepository - Set-based stock mutations for multi-item operations
+ *
+ * <p>Applies the stock change of every line in a single statement (one round trip for
+ * the whole basket), with the same conditions as the per-row statements in
+ * {@link InventoryRepository}. Lines that fail their condition are not updated and
+ * are missing from the result; the caller is expected to roll back the transaction.
+ *
+ * <p>Rows are locked in inventory id order first (<code>SELECT ... ORDER BY id FOR UPDATE</code>),
+ * whatever the order of the lines, so concurrent baskets over the same items cannot deadlock.
+ *
+ * @see InventoryRepository#decrementAvailable
+ */
+@Repository
+public class InventoryBatchRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public InventoryBatchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Decreases quantity for each line if enough is available for sale
+     * (quantity - reserved >= line quantity)
+     *
+     * @param tenantId tenant ID
+     * @param locationId location ID
+     * @param lines one line per product/variant (merge duplicates first)
+     * @return quantity after the change by item ID (see {@link StockLine#itemId()}),
+     *         only for the lines that were applied
+     */
+    public Map<UUID, BigDecimal> decrementAvailable(UUID tenantId, UUID locationId, Collection<StockLine> lines) {
+        if (lines.isEmpty()) {
+            return Map.of();
+        }
+
+        List<Object[]> values = lines.stream()
+                .map(line -> new Object[]{line.itemId(), line.isVariant(), line.quantity()})
+                .toList();
+
+        // Lock the rows in id order before updating: two baskets sharing items always
+        // queue on the same first row instead of deadlocking
+        String sql = """
+            WITH basket(item_id, is_variant, quantity) AS (
+                VALUES :lines
+            ),
+            locked AS (
+                SELECT i.id, basket.item_id, basket.quantity
+                  FROM inventory i
+                  JOIN basket
+                    ON (basket.is_variant AND i.variant_id = basket.item_id)
+                    OR (NOT basket.is_variant AND i.product_id = basket.item_id)
+                 WHERE i.tenant_id = :tenantId
+                   AND i.location_id = :locationId
+                 ORDER BY i.id
+                   FOR UPDATE OF i
+            )
+            UPDATE inventory i
+               SET quantity = i.quantity - locked.quantity,
+                   updated_at = NOW()
+              FROM locked
+             WHERE i.id = locked.id
+               AND i.quantity - i.reserved_quantity >= locked.quantity
+            RETURNING locked.item_id, i.quantity
+            """;
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("locationId", locationId)
+                .addValue("lines", values);
+
+        Map<UUID, BigDecimal> quantityAfter = new HashMap<>();
+        jdbcTemplate.query(sql, params, rs -> {
+            quantityAfter.put(rs.getObject("item_id", UUID.class), rs.getBigDecimal("quantity"));
+        });
+        return quantityAfter;
+    }
+}
@@ -1,11 +1,14 @@
 package com.estoquecentral.inventory.adapter.out;
 
 import com.estoquecentral.inventory.domain.Inventory;
+import com.estoquecentral.inventory.domain.StockBalance;
 import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -25,7 +28,18 @@ import java.util.UUID;
  *   <li>Aggregate inventory across locations</li>
  * </ul>
  *
+ * <p><strong>Atomic stock mutations:</strong> Stock changes are single conditional
+ * <code>UPDATE ... RETURNING *</code> statements: the check (e.g., enough quantity for sale)
+ * and the change happen in one round trip under the row lock, so concurrent terminals and
+ * marketplace orders cannot lose updates or oversell. They return the row after the change,
+ * or empty when the row does not exist or the condition failed. Pass exactly one of
+ * <code>productId</code> (simple/composite products) or <code>variantId</code>; use
+ * {@link StockBalance} to derive the before/after balances for the movement ledger.
+ * Entries that may create the row (first stock of a product at a location) are a single
+ * <code>INSERT ... ON CONFLICT DO UPDATE</code> instead.
+ *
  * @see Inventory
+ * @see StockBalance
  */
 @Repository
 public interface InventoryRepository extends CrudRepository<Inventory, UUID> {
@@ -68,6 +82,25 @@ public interface InventoryRepository extends CrudRepository<Inventory, UUID> {
         @Param("variantId") UUID variantId,
         @Param("locationId") UUID locationId);
 
+    /**
+     * Finds the inventory of several products and variants at a location in one query
+     *
+     * @param tenantId tenant ID
+     * @param itemIds product IDs and variant IDs (matched against either column)
+     * @param locationId location ID
+     * @return inventories found (missing items have no row)
+     */
+    @Query("""
+        SELECT * FROM inventory
+        WHERE tenant_id = :tenantId
+          AND (product_id IN (:itemIds) OR variant_id IN (:itemIds))
+          AND location_id = :locationId
+        """)
+    List<Inventory> findAllByTenantIdAndItemIdsAndLocationId(
+        @Param("tenantId") UUID tenantId,
+        @Param("itemIds") Collection<UUID> itemIds,
+        @Param("locationId") UUID locationId);
+
     /**
      * Finds all inventory records for a product (all locations)
      *
@@ -316,4 +349,199 @@ public interface InventoryRepository extends CrudRepository<Inventory, UUID> {
         @Param("tenantId") UUID tenantId,
         @Param("variantId") UUID variantId,
         @Param("locationId") UUID locationId);
+
+    /**
+     * Removes quantity if enough is available for sale (quantity - reserved >= amount)
+     *
+     * @param tenantId tenant ID
+     * @param productId product ID (null for variants)
+     * @param variantId variant ID (null for products)
+     * @param locationId location ID
+     * @param quantity quantity to remove (positive)
+     * @return inventory after the change, or empty if not found or insufficient
+     */
+    @Query("""
+        UPDATE inventory
+           SET quantity = quantity - :quantity,
+               updated_at = NOW()
+         WHERE tenant_id = :tenantId
+           AND (product_id = :productId OR variant_id = :variantId)
+           AND location_id = :locationId
+           AND quantity - reserved_quantity >= :quantity
+        RETURNING *
+        """)
+    Optional<Inventory> decrementAvailable(
+        @Param("tenantId") UUID tenantId,
+        @Param("productId") UUID productId,
+        @Param("variantId") UUID variantId,
+        @Param("locationId") UUID locationId,
+        @Param("quantity") BigDecimal quantity);
+
+    /**
+     * Adds quantity
+     *
+     * @param tenantId tenant ID
+     * @param productId product ID (null for variants)
+     * @param variantId variant ID (null for products)
+     * @param locationId location ID
+     * @param quantity quantity to add (positive)
+     * @return inventory after the change, or empty if not found
+     */
+    @Query("""
+        UPDATE inventory
+           SET quantity = quantity + :quantity,
+               updated_at = NOW()
+         WHERE tenant_id = :tenantId
+           AND (product_id = :productId OR variant_id = :variantId)
+           AND location_id = :locationId
+        RETURNING *
+        """)
+    Optional<Inventory> incrementQuantity(
+        @Param("tenantId") UUID tenantId,
+        @Param("productId") UUID productId,
+        @Param("variantId") UUID variantId,
+        @Param("locationId") UUID locationId,
+        @Param("quantity") BigDecimal quantity);
+
+    /**
+     * Adds quantity, creating the product's inventory row at the location if it does not exist
+     * (INSERT ... ON CONFLICT, so concurrent first entries add up instead of failing)
+     *
+     * @param tenantId tenant ID
+     * @param productId product ID
+     * @param locationId location ID
+     * @param quantity quantity to add (positive)
+     * @return inventory after the change
+     */
+    @Query("""
+        INSERT INTO inventory (id, tenant_id, product_id, location_id, quantity, reserved_quantity, cost,
+                               created_at, updated_at)
+        VALUES (gen_random_uuid(), :tenantId, :productId, :locationId, :quantity, 0, 0, NOW(), NOW())
+        ON CONFLICT (product_id, location_id) DO UPDATE
+           SET quantity = inventory.quantity + EXCLUDED.quantity,
+               updated_at = NOW()
+        RETURNING *
+        """)
+    Inventory upsertQuantity(
+        @Param("tenantId") UUID tenantId,
+        @Param("productId") UUID productId,
+        @Param("locationId") UUID locationId,
+        @Param("quantity") BigDecimal quantity);
+
+    /**
+     * Adds received quantity and recalculates the weighted average cost in the same statement
+     * (same formula as WeightedAverageCostCalculator: rounded to 2 decimals, HALF_UP), creating
+     * the inventory row at the received cost if it does not exist
+     *
+     * @param tenantId tenant ID
+     * @param productId product ID
+     * @param locationId location ID
+     * @param quantity quantity received (positive)
+     * @param unitCost unit cost of the received items
+     * @return inventory after the change
+     */
+    @Query("""
+        INSERT INTO inventory (id, tenant_id, product_id, location_id, quantity, reserved_quantity, cost,
+                               created_at, updated_at)
+        VALUES (gen_random_uuid(), :tenantId, :productId, :locationId, :quantity, 0, ROUND(:unitCost, 2),
+                NOW(), NOW())
+        ON CONFLICT (product_id, location_id) DO UPDATE
+           SET cost = CASE
+                   WHEN inventory.quantity <= 0 THEN ROUND(:unitCost, 2)
+                   ELSE ROUND((inventory.quantity * COALESCE(inventory.cost, 0) + :quantity * :unitCost)
+                              / (inventory.quantity + :quantity), 2)
+               END,
+               quantity = inventory.quantity + EXCLUDED.quantity,
+               updated_at = NOW()
+        RETURNING *
+        """)
+    Inventory receiveQuantity(
+        @Param("tenantId") UUID tenantId,
+        @Param("productId") UUID productId,
+        @Param("locationId") UUID locationId,
+        @Param("quantity") BigDecimal quantity,
+        @Param("unitCost") BigDecimal unitCost);
+
+    /**
+     * Reserves quantity if enough is available for sale (quantity - reserved >= amount)
+     *
+     * @param tenantId tenant ID
+     * @param productId product ID (null for variants)
+     * @param variantId variant ID (null for products)
+     * @param locationId location ID
+     * @param quantity quantity to reserve (positive)
+     * @return inventory after the change, or empty if not found or insufficient
+     */
+    @Query("""
+        UPDATE inventory
+           SET reserved_quantity = reserved_quantity + :quantity,
+               updated_at = NOW()
+         WHERE tenant_id = :tenantId
+           AND (product_id = :productId OR variant_id = :variantId)
+           AND location_id = :locationId
+           AND quantity - reserved_quantity >= :quantity
+        RETURNING *
+        """)
+    Optional<Inventory> reserveAvailable(
+        @Param("tenantId") UUID tenantId,
+        @Param("productId") UUID productId,
+        @Param("variantId") UUID variantId,
+        @Param("locationId") UUID locationId,
+        @Param("quantity") BigDecimal quantity);
+
+    /**
+     * Releases a reservation if at least that much is reserved
+     *
+     * @param tenantId tenant ID
+     * @param productId product ID (null for variants)
+     * @param variantId variant ID (null for products)
+     * @param locationId location ID
+     * @param quantity quantity to release (positive)
+     * @return inventory after the change, or empty if not found or not enough reserved
+     */
+    @Query("""
+        UPDATE inventory
+           SET reserved_quantity = reserved_quantity - :quantity,
+               updated_at = NOW()
+         WHERE tenant_id = :tenantId
+           AND (product_id = :productId OR variant_id = :variantId)
+           AND location_id = :locationId
+           AND reserved_quantity >= :quantity
+        RETURNING *
+        """)
+    Optional<Inventory> releaseReserved(
+        @Param("tenantId") UUID tenantId,
+        @Param("productId") UUID productId,
+        @Param("variantId") UUID variantId,
+        @Param("locationId") UUID locationId,
+        @Param("quantity") BigDecimal quantity);
+
+    /**
+     * Fulfills a reservation: removes the quantity from both quantity and reserved,
+     * if at least that much is reserved
+     *
+     * @param tenantId tenant ID
+     * @param productId product ID (null for variants)
+     * @param variantId variant ID (null for products)
+     * @param locationId location ID
+     * @param quantity quantity to fulfill (positive)
+     * @return inventory after the change, or empty if not found or not enough reserved
+     */
+    @Query("""
+        UPDATE inventory
+           SET quantity = quantity - :quantity,
+               reserved_quantity = reserved_quantity - :quantity,
+               updated_at = NOW()
+         WHERE tenant_id = :tenantId
+           AND (product_id = :productId OR variant_id = :variantId)
+           AND location_id = :locationId
+           AND reserved_quantity >= :quantity
+        RETURNING *
+        """)
+    Optional<Inventory> fulfillReserved(
+        @Param("tenantId") UUID tenantId,
+        @Param("productId") UUID productId,
+        @Param("variantId") UUID variantId,
+        @Param("locationId") UUID locationId,
+        @Param("quantity") BigDecimal quantity);
 }
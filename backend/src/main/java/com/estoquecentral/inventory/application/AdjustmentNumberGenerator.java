@@ -1,28 +1,30 @@
 package com.estoquecentral.inventory.application;
 
 import com.estoquecentral.inventory.adapter.out.StockAdjustmentRepository;
+import com.estoquecentral.shared.numbering.DocumentNumberService;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.Optional;
 import java.util.UUID;
 
 /**
  * AdjustmentNumberGenerator - Generates sequential adjustment numbers
  * Format: ADJ-YYYYMM-0001
  * Story 3.5: Stock Adjustment
+ *
+ * @see DocumentNumberService
  */
 @Service
 public class AdjustmentNumberGenerator {
 
-    private static final String PREFIX = "ADJ-";
-    private static final DateTimeFormatter YEAR_MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String PREFIX = "ADJ";
 
     private final StockAdjustmentRepository adjustmentRepository;
+    private final DocumentNumberService documentNumberService;
 
-    public AdjustmentNumberGenerator(StockAdjustmentRepository adjustmentRepository) {
+    public AdjustmentNumberGenerator(StockAdjustmentRepository adjustmentRepository,
+            DocumentNumberService documentNumberService) {
         this.adjustmentRepository = adjustmentRepository;
+        this.documentNumberService = documentNumberService;
     }
 
     /**
@@ -33,23 +35,7 @@ public class AdjustmentNumberGenerator {
      * @return Generated adjustment number
      */
     public String generateAdjustmentNumber(UUID tenantId) {
-        LocalDate now = LocalDate.now();
-        String yearMonth = now.format(YEAR_MONTH_FORMATTER);
-
-        // Find max adjustment number for this tenant and month
-        Optional<String> maxAdjustmentNumber = adjustmentRepository
-                .findMaxAdjustmentNumberByTenantAndYearMonth(tenantId, yearMonth);
-
-        int nextSequence = 1;
-
-        if (maxAdjustmentNumber.isPresent()) {
-            String lastNumber = maxAdjustmentNumber.get();
-            // Extract sequence from ADJ-YYYYMM-0001
-            String sequencePart = lastNumber.substring(lastNumber.lastIndexOf('-') + 1);
-            nextSequence = Integer.parseInt(sequencePart) + 1;
-        }
-
-        // Format: ADJ-202511-0001
-        return String.format("%s%s-%04d", PREFIX, yearMonth, nextSequence);
+        return documentNumberService.nextNumber(tenantId, PREFIX, yearMonth ->
+                adjustmentRepository.findMaxAdjustmentNumberByTenantAndYearMonth(tenantId, yearMonth));
     }
 }
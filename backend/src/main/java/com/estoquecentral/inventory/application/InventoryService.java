@@ -8,6 +8,7 @@ import com.estoquecentral.inventory.adapter.out.LocationRepository;
 import com.estoquecentral.inventory.domain.*;
 import com.estoquecentral.shared.tenant.TenantContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -19,6 +20,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 
 /**
  * InventoryService - Business logic for inventory management
@@ -34,6 +36,12 @@ import java.util.UUID;
  *
  * <p><strong>Story 3.1 scope:</strong> Basic inventory control for simple products.
  *
+ * <p><strong>Concurrency:</strong> Add/remove/reserve/unreserve/fulfill are single conditional
+ * UPDATEs (see InventoryRepository) returning the new balances - no read-modify-write.
+ *
+ * <p>Every stock write publishes a {@link StockChangedEvent} (dashboard cache invalidation,
+ * marketplace stock sync).
+ *
  * @see Inventory
  * @see InventoryMovement
  */
@@ -46,18 +54,21 @@ public class InventoryService {
     private final ProductRepository productRepository;
     private final LocationRepository locationRepository;
     private final StockMovementService stockMovementService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public InventoryService(InventoryRepository inventoryRepository,
                             InventoryMovementRepository movementRepository,
                             ProductRepository productRepository,
                             LocationRepository locationRepository,
-                            StockMovementService stockMovementService) {
+                            StockMovementService stockMovementService,
+                            ApplicationEventPublisher eventPublisher) {
         this.inventoryRepository = inventoryRepository;
         this.movementRepository = movementRepository;
         this.productRepository = productRepository;
         this.locationRepository = locationRepository;
         this.stockMovementService = stockMovementService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -153,6 +164,8 @@ public class InventoryService {
             );
         }
 
+        eventPublisher.publishEvent(new StockChangedEvent(tenantId, productId, null));
+
         return inventory;
     }
 
@@ -196,6 +209,8 @@ public class InventoryService {
             );
         }
 
+        eventPublisher.publishEvent(new StockChangedEvent(tenantId, null, variantId));
+
         return inventory;
     }
 
@@ -217,19 +232,22 @@ public class InventoryService {
                                String referenceType, UUID referenceId, UUID userId) {
         validateQuantity(quantity);
 
-        Inventory inventory = getOrCreateInventory(productId, locationId);
-
-        BigDecimal before = inventory.getQuantityAvailable();
-        inventory.addQuantity(quantity);
-        BigDecimal after = inventory.getQuantityAvailable();
-
-        inventory = inventoryRepository.save(inventory);
+        UUID tenantId = getTenantIdAsUUID();
+        Inventory inventory = inventoryRepository.incrementQuantity(tenantId, productId, null, locationId, quantity)
+                .orElseGet(() -> {
+                    // First stock for this product/location: create and add in one upsert
+                    validateControlsInventory(productId);
+                    return inventoryRepository.upsertQuantity(tenantId, productId, locationId, quantity);
+                });
+        StockBalance balance = StockBalance.of(inventory, quantity, BigDecimal.ZERO);
 
         createMovement(
                 inventory.getTenantId(), productId, MovementType.ENTRY, quantity, locationId,
-                before, after, reason, notes, referenceType, referenceId, userId
+                balance.quantityBefore(), balance.quantityAfter(), reason, notes, referenceType, referenceId, userId
         );
 
+        eventPublisher.publishEvent(new StockChangedEvent(tenantId, productId, null));
+
         return inventory;
     }
 
@@ -252,20 +270,19 @@ public class InventoryService {
         validateQuantity(quantity);
 
         UUID tenantId = getTenantIdAsUUID();
-        Inventory inventory = inventoryRepository.findByTenantIdAndProductIdAndLocationId(tenantId, productId, locationId)
-                .orElseThrow(() -> new IllegalArgumentException("Inventory not found for product: " + productId));
-
-        BigDecimal before = inventory.getQuantityAvailable();
-        inventory.removeQuantity(quantity);
-        BigDecimal after = inventory.getQuantityAvailable();
-
-        inventory = inventoryRepository.save(inventory);
+        Inventory inventory = inventoryRepository.decrementAvailable(tenantId, productId, null, locationId, quantity)
+                .orElseThrow(() -> stockNotChanged(tenantId, productId, locationId,
+                        current -> String.format("Insufficient quantity for sale. Available: %s, Requested: %s",
+                                current.getComputedQuantityForSale(), quantity)));
+        StockBalance balance = StockBalance.of(inventory, quantity.negate(), BigDecimal.ZERO);
 
         createMovement(
                 inventory.getTenantId(), productId, MovementType.EXIT, quantity, locationId,
-                before, after, reason, notes, referenceType, referenceId, userId
+                balance.quantityBefore(), balance.quantityAfter(), reason, notes, referenceType, referenceId, userId
         );
 
+        eventPublisher.publishEvent(new StockChangedEvent(tenantId, productId, null));
+
         return inventory;
     }
 
@@ -304,6 +321,8 @@ public class InventoryService {
                 before, after, reason, notes, null, null, userId
         );
 
+        eventPublisher.publishEvent(new StockChangedEvent(tenantId, productId, null));
+
         return inventory;
     }
 
@@ -323,22 +342,21 @@ public class InventoryService {
         validateQuantity(quantity);
 
         UUID tenantId = getTenantIdAsUUID();
-        Inventory inventory = inventoryRepository.findByTenantIdAndProductIdAndLocationId(tenantId, productId, locationId)
-                .orElseThrow(() -> new IllegalArgumentException("Inventory not found for product: " + productId));
-
-        BigDecimal reservedBefore = inventory.getReservedQuantity();
-        inventory.reserve(quantity);
-        BigDecimal reservedAfter = inventory.getReservedQuantity();
-
-        inventory = inventoryRepository.save(inventory);
+        Inventory inventory = inventoryRepository.reserveAvailable(tenantId, productId, null, locationId, quantity)
+                .orElseThrow(() -> stockNotChanged(tenantId, productId, locationId,
+                        current -> String.format("Insufficient quantity for sale to reserve. Available: %s, Requested: %s",
+                                current.getComputedQuantityForSale(), quantity)));
+        StockBalance balance = StockBalance.of(inventory, BigDecimal.ZERO, quantity);
 
         createMovement(
                 inventory.getTenantId(), productId, MovementType.RESERVE, quantity, locationId,
-                reservedBefore, reservedAfter,
+                balance.reservedBefore(), balance.reservedAfter(),
                 MovementReason.RESERVATION, "Stock reserved",
                 referenceType, referenceId, userId
         );
 
+        eventPublisher.publishEvent(new StockChangedEvent(tenantId, productId, null));
+
         return inventory;
     }
 
@@ -358,22 +376,21 @@ public class InventoryService {
         validateQuantity(quantity);
 
         UUID tenantId = getTenantIdAsUUID();
-        Inventory inventory = inventoryRepository.findByTenantIdAndProductIdAndLocationId(tenantId, productId, locationId)
-                .orElseThrow(() -> new IllegalArgumentException("Inventory not found for product: " + productId));
-
-        BigDecimal reservedBefore = inventory.getReservedQuantity();
-        inventory.unreserve(quantity);
-        BigDecimal reservedAfter = inventory.getReservedQuantity();
-
-        inventory = inventoryRepository.save(inventory);
+        Inventory inventory = inventoryRepository.releaseReserved(tenantId, productId, null, locationId, quantity)
+                .orElseThrow(() -> stockNotChanged(tenantId, productId, locationId,
+                        current -> String.format("Cannot unreserve more than reserved. Reserved: %s, Requested: %s",
+                                current.getReservedQuantity(), quantity)));
+        StockBalance balance = StockBalance.of(inventory, BigDecimal.ZERO, quantity.negate());
 
         createMovement(
                 inventory.getTenantId(), productId, MovementType.RELEASE, quantity, locationId,
-                reservedBefore, reservedAfter,
+                balance.reservedBefore(), balance.reservedAfter(),
                 MovementReason.UNRESERVATION, "Stock unreserved",
                 referenceType, referenceId, userId
         );
 
+        eventPublisher.publishEvent(new StockChangedEvent(tenantId, productId, null));
+
         return inventory;
     }
 
@@ -393,21 +410,20 @@ public class InventoryService {
         validateQuantity(quantity);
 
         UUID tenantId = getTenantIdAsUUID();
-        Inventory inventory = inventoryRepository.findByTenantIdAndProductIdAndLocationId(tenantId, productId, locationId)
-                .orElseThrow(() -> new IllegalArgumentException("Inventory not found for product: " + productId));
-
-        BigDecimal before = inventory.getQuantityAvailable();
-        inventory.fulfillReservation(quantity);
-        BigDecimal after = inventory.getQuantityAvailable();
-
-        inventory = inventoryRepository.save(inventory);
+        Inventory inventory = inventoryRepository.fulfillReserved(tenantId, productId, null, locationId, quantity)
+                .orElseThrow(() -> stockNotChanged(tenantId, productId, locationId,
+                        current -> String.format("Cannot fulfill more than reserved. Reserved: %s, Requested: %s",
+                                current.getReservedQuantity(), quantity)));
+        StockBalance balance = StockBalance.of(inventory, quantity.negate(), quantity.negate());
 
         createMovement(
                 inventory.getTenantId(), productId, MovementType.SALE, quantity, locationId,
-                before, after, MovementReason.SALE, "Fulfilled reservation",
+                balance.quantityBefore(), balance.quantityAfter(), MovementReason.SALE, "Fulfilled reservation",
                 referenceType, referenceId, userId
         );
 
+        eventPublisher.publishEvent(new StockChangedEvent(tenantId, productId, null));
+
         return inventory;
     }
 
@@ -556,25 +572,13 @@ public class InventoryService {
 
     // ==================== Private Helper Methods ====================
 
-    private Inventory getOrCreateInventory(UUID productId, UUID locationId) {
-        UUID tenantId = getTenantIdAsUUID();
-        Optional<Inventory> existing = inventoryRepository.findByTenantIdAndProductIdAndLocationId(
-                tenantId, productId, locationId);
-
-        if (existing.isPresent()) {
-            return existing.get();
-        }
-
-        // Auto-create inventory if not exists
+    private void validateControlsInventory(UUID productId) {
         Product product = productRepository.findByIdAndActive(productId)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found: " + productId));
 
         if (!product.shouldControlInventory()) {
             throw new IllegalArgumentException("Product does not control inventory: " + productId);
         }
-
-        Inventory inventory = new Inventory(tenantId, productId, locationId, BigDecimal.ZERO);
-        return inventoryRepository.save(inventory);
     }
 
     private void createMovement(UUID tenantId, UUID productId, MovementType type,
@@ -595,6 +599,16 @@ public class InventoryService {
         // Future: Remove InventoryMovement table and use only StockMovement
     }
 
+    /**
+     * Explains why a conditional stock update matched no row (failure path only)
+     */
+    private IllegalArgumentException stockNotChanged(UUID tenantId, UUID productId, UUID locationId,
+                                                     Function<Inventory, String> reason) {
+        return inventoryRepository.findByTenantIdAndProductIdAndLocationId(tenantId, productId, locationId)
+                .map(current -> new IllegalArgumentException(reason.apply(current)))
+                .orElseGet(() -> new IllegalArgumentException("Inventory not found for product: " + productId));
+    }
+
     private void validateQuantity(BigDecimal quantity) {
         if (quantity == null || quantity.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Quantity must be positive");
@@ -6,7 +6,9 @@ import com.estoquecentral.inventory.adapter.in.dto.StockMovementResponse;
 import com.estoquecentral.inventory.adapter.out.InventoryRepository;
 import com.estoquecentral.inventory.adapter.out.StockMovementRepository;
 import com.estoquecentral.inventory.domain.Inventory;
+import com.estoquecentral.inventory.domain.StockChangedEvent;
 import com.estoquecentral.inventory.domain.StockMovement;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,13 +37,16 @@ public class StockMovementService {
     private final StockMovementRepository movementRepository;
     private final InventoryRepository inventoryRepository;
     private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     public StockMovementService(StockMovementRepository movementRepository,
                                InventoryRepository inventoryRepository,
-                               JdbcTemplate jdbcTemplate) {
+                               JdbcTemplate jdbcTemplate,
+                               ApplicationEventPublisher eventPublisher) {
         this.movementRepository = movementRepository;
         this.inventoryRepository = inventoryRepository;
         this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
     }
 
     // ============================================================
@@ -88,6 +93,7 @@ public class StockMovementService {
         // Save both (order matters: inventory first, then movement)
         inventoryRepository.save(inventory);
         StockMovement savedMovement = movementRepository.save(movement);
+        eventPublisher.publishEvent(new StockChangedEvent(tenantId, request.getProductId(), request.getVariantId()));
 
         // Convert to response and enrich with names
         StockMovementResponse response = StockMovementResponse.fromEntity(savedMovement);
@@ -111,7 +117,9 @@ public class StockMovementService {
         );
 
         movement.validate();
-        return movementRepository.save(movement);
+        StockMovement savedMovement = movementRepository.save(movement);
+        eventPublisher.publishEvent(new StockChangedEvent(tenantId, productId, variantId));
+        return savedMovement;
     }
 
     // ============================================================
@@ -4,15 +4,17 @@ import com.estoquecentral.inventory.adapter.out.InventoryRepository;
 import com.estoquecentral.inventory.adapter.out.StockMovementRepository;
 import com.estoquecentral.inventory.domain.Inventory;
 import com.estoquecentral.inventory.domain.MovementType;
+import com.estoquecentral.inventory.domain.StockBalance;
+import com.estoquecentral.inventory.domain.StockChangedEvent;
 import com.estoquecentral.inventory.domain.StockMovement;
-import com.estoquecentral.marketplace.application.MarketplaceStockSyncService;
-import com.estoquecentral.marketplace.adapter.out.MarketplaceListingRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.function.Function;
 
 /**
  * StockReservationService - Manages stock reservations for sales orders
@@ -32,24 +34,24 @@ import java.util.UUID;
  * <pre>
  * quantity_for_sale = quantity_available - reserved_quantity
  * </pre>
+ *
+ * <p><strong>Concurrency:</strong> Each operation is a single conditional UPDATE
+ * (see InventoryRepository), so concurrent orders cannot over-reserve or lose updates.
  */
 @Service
 public class StockReservationService {
 
     private final InventoryRepository inventoryRepository;
     private final StockMovementRepository stockMovementRepository;
-    private final MarketplaceStockSyncService marketplaceStockSyncService;
-    private final MarketplaceListingRepository marketplaceListingRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public StockReservationService(
             InventoryRepository inventoryRepository,
             StockMovementRepository stockMovementRepository,
-            MarketplaceStockSyncService marketplaceStockSyncService,
-            MarketplaceListingRepository marketplaceListingRepository) {
+            ApplicationEventPublisher eventPublisher) {
         this.inventoryRepository = inventoryRepository;
         this.stockMovementRepository = stockMovementRepository;
-        this.marketplaceStockSyncService = marketplaceStockSyncService;
-        this.marketplaceListingRepository = marketplaceListingRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -80,21 +82,14 @@ public class StockReservationService {
             throw new IllegalArgumentException("Quantity must be positive");
         }
 
-        // Find inventory record
-        Inventory inventory = findInventory(tenantId, productId, variantId, locationId);
-
-        // Validate sufficient quantity for sale
-        BigDecimal forSale = inventory.getComputedQuantityForSale();
-        if (forSale.compareTo(quantity) < 0) {
-            throw new IllegalArgumentException(
-                String.format("Insufficient stock for sale. Available: %s, Requested: %s",
-                    forSale, quantity));
-        }
+        // Reserve quantity if enough is available for sale (atomic check-and-update)
+        Inventory inventory = inventoryRepository.reserveAvailable(
+                tenantId, productId, inventoryVariantId(productId, variantId), locationId, quantity)
+            .orElseThrow(() -> stockNotChanged(tenantId, productId, variantId, locationId,
+                current -> String.format("Insufficient stock for sale. Available: %s, Requested: %s",
+                    current.getComputedQuantityForSale(), quantity)));
 
-        // Reserve quantity
-        BigDecimal balanceBefore = inventory.getReservedQuantity();
-        inventory.reserve(quantity);
-        inventoryRepository.save(inventory);
+        BigDecimal balanceBefore = StockBalance.of(inventory, BigDecimal.ZERO, quantity).reservedBefore();
 
         // Create RESERVE movement (audit trail)
         StockMovement movement = new StockMovement(
@@ -111,6 +106,8 @@ public class StockReservationService {
             "Reserva OV " + orderNumber
         );
         stockMovementRepository.save(movement);
+
+        eventPublisher.publishEvent(new StockChangedEvent(tenantId, productId, inventoryVariantId(productId, variantId)));
     }
 
     /**
@@ -140,13 +137,14 @@ public class StockReservationService {
             throw new IllegalArgumentException("Quantity must be positive");
         }
 
-        // Find inventory record
-        Inventory inventory = findInventory(tenantId, productId, variantId, locationId);
+        // Release reservation if at least that much is reserved (atomic check-and-update)
+        Inventory inventory = inventoryRepository.releaseReserved(
+                tenantId, productId, inventoryVariantId(productId, variantId), locationId, quantity)
+            .orElseThrow(() -> stockNotChanged(tenantId, productId, variantId, locationId,
+                current -> String.format("Cannot unreserve more than reserved. Reserved: %s, Requested: %s",
+                    current.getReservedQuantity(), quantity)));
 
-        // Release reservation
-        BigDecimal balanceBefore = inventory.getReservedQuantity();
-        inventory.unreserve(quantity);
-        inventoryRepository.save(inventory);
+        BigDecimal balanceBefore = StockBalance.of(inventory, BigDecimal.ZERO, quantity.negate()).reservedBefore();
 
         // Create RELEASE movement (audit trail)
         StockMovement movement = new StockMovement(
@@ -163,6 +161,8 @@ public class StockReservationService {
             reason
         );
         stockMovementRepository.save(movement);
+
+        eventPublisher.publishEvent(new StockChangedEvent(tenantId, productId, inventoryVariantId(productId, variantId)));
     }
 
     /**
@@ -193,13 +193,14 @@ public class StockReservationService {
             throw new IllegalArgumentException("Quantity must be positive");
         }
 
-        // Find inventory record
-        Inventory inventory = findInventory(tenantId, productId, variantId, locationId);
+        // Fulfill reservation (removes from both available and reserved, atomic check-and-update)
+        Inventory inventory = inventoryRepository.fulfillReserved(
+                tenantId, productId, inventoryVariantId(productId, variantId), locationId, quantity)
+            .orElseThrow(() -> stockNotChanged(tenantId, productId, variantId, locationId,
+                current -> String.format("Cannot fulfill more than reserved. Reserved: %s, Requested: %s",
+                    current.getReservedQuantity(), quantity)));
 
-        // Fulfill reservation (removes from both available and reserved)
-        BigDecimal balanceBefore = inventory.getQuantityAvailable();
-        inventory.fulfillReservation(quantity);
-        inventoryRepository.save(inventory);
+        BigDecimal balanceBefore = StockBalance.of(inventory, quantity.negate(), quantity.negate()).quantityBefore();
 
         // Create SALE movement (audit trail)
         StockMovement movement = new StockMovement(
@@ -217,8 +218,26 @@ public class StockReservationService {
         );
         stockMovementRepository.save(movement);
 
-        // Story 5.4: Enqueue stock sync to marketplaces after fulfillment
-        enqueueMarketplaceStockSync(tenantId, productId, variantId);
+        // Story 5.4: Stock sync to marketplaces (queued after commit)
+        eventPublisher.publishEvent(new StockChangedEvent(tenantId, productId, inventoryVariantId(productId, variantId)));
+    }
+
+    /**
+     * Explains why a conditional update matched no row (failure path only)
+     *
+     * @throws IllegalArgumentException if the inventory record does not exist
+     */
+    private IllegalArgumentException stockNotChanged(UUID tenantId, UUID productId, UUID variantId, UUID locationId,
+                                                     Function<Inventory, String> reason) {
+        Inventory current = findInventory(tenantId, productId, variantId, locationId);
+        return new IllegalArgumentException(reason.apply(current));
+    }
+
+    /**
+     * Inventory key used by this service: the product when given, otherwise the variant
+     */
+    private static UUID inventoryVariantId(UUID productId, UUID variantId) {
+        return productId != null ? null : variantId;
     }
 
     /**
@@ -237,31 +256,4 @@ public class StockReservationService {
             throw new IllegalArgumentException("Either productId or variantId must be provided");
         }
     }
-
-    /**
-     * Enqueue stock sync to marketplaces after sale/fulfillment
-     * Story 5.4: Integration with marketplace stock sync
-     */
-    private void enqueueMarketplaceStockSync(UUID tenantId, UUID productId, UUID variantId) {
-        try {
-            // Check if product has marketplace listings
-            var listings = marketplaceListingRepository.findByProductId(productId);
-
-            if (!listings.isEmpty()) {
-                // Enqueue sync for each marketplace
-                for (var listing : listings) {
-                    marketplaceStockSyncService.enqueueStockSync(
-                            tenantId,
-                            productId,
-                            variantId,
-                            listing.getMarketplace()
-                    );
-                }
-            }
-        } catch (Exception e) {
-            // Log error but don't fail fulfillment if sync enqueue fails
-            // Sync can be triggered manually later if needed
-            System.err.println("Error enqueuing marketplace stock sync: " + e.getMessage());
-        }
-    }
 }
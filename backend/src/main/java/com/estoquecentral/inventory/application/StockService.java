@@ -153,8 +153,11 @@ public class StockService {
 
     /**
      * AC2: Get all stock for tenant (with optional filters)
+     * abcClass (A, B or C, validated by the caller) keeps only products of that class on the
+     * precomputed ABC curve of abcWindowDays
      */
-    public List<StockResponse> getAllStock(UUID tenantId, UUID productId, UUID variantId, UUID locationId, Boolean belowMinimum) {
+    public List<StockResponse> getAllStock(UUID tenantId, UUID productId, UUID variantId, UUID locationId, Boolean belowMinimum,
+                                           String abcClass, int abcWindowDays) {
         String sql = "SELECT * FROM v_stock_summary WHERE tenant_id = ?";
         List<Object> params = new ArrayList<>();
         params.add(tenantId);
@@ -178,6 +181,13 @@ public class StockService {
             sql += " AND stock_status IN ('LOW', 'CRITICAL')";
         }
 
+        if (abcClass != null) {
+            sql += " AND product_id IN (SELECT product_id FROM product_abc_classification" +
+                   " WHERE window_days = ? AND abc_class = ?)";
+            params.add(abcWindowDays);
+            params.add(abcClass);
+        }
+
         sql += " ORDER BY product_name, location_name";
 
         return jdbcTemplate.query(sql, params.toArray(), (rs, rowNum) -> {
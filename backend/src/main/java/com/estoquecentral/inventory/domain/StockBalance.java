@@ -0,0 +1,42 @@
+package com.estoquecentral.inventory.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * StockBalance - Inventory balances before and after an atomic stock mutation
+ *
+ * <p>Built from the row returned by a conditional update in
+ * {@link com.estoquecentral.inventory.adapter.out.InventoryRepository} and the deltas it
+ * applied. The update is a single statement, so <code>before = after - delta</code> is exact
+ * even under concurrency.
+ *
+ * @param inventory      inventory row after the change
+ * @param quantityBefore quantity (on hand) before the change
+ * @param quantityAfter  quantity (on hand) after the change
+ * @param reservedBefore reserved quantity before the change
+ * @param reservedAfter  reserved quantity after the change
+ */
+public record StockBalance(
+        Inventory inventory,
+        BigDecimal quantityBefore,
+        BigDecimal quantityAfter,
+        BigDecimal reservedBefore,
+        BigDecimal reservedAfter) {
+
+    /**
+     * @param after         inventory row returned by the update
+     * @param quantityDelta change applied to quantity (negative for exits)
+     * @param reservedDelta change applied to reserved quantity
+     * @return balances before and after the change
+     */
+    public static StockBalance of(Inventory after, BigDecimal quantityDelta, BigDecimal reservedDelta) {
+        BigDecimal quantityAfter = after.getQuantityAvailable();
+        BigDecimal reservedAfter = after.getReservedQuantity();
+        return new StockBalance(
+                after,
+                quantityAfter.subtract(quantityDelta),
+                quantityAfter,
+                reservedAfter.subtract(reservedDelta),
+                reservedAfter);
+    }
+}
@@ -0,0 +1,20 @@
+package com.estoquecentral.inventory.domain;
+
+import java.util.UUID;
+
+/**
+ * StockChangedEvent - Sellable stock of a product or variant changed
+ *
+ * <p>Published inside the transaction that changed the stock. Listeners that talk to other
+ * systems (e.g., marketplace stock sync) handle it after commit.
+ *
+ * @param tenantId  tenant ID
+ * @param productId product ID (null for variants)
+ * @param variantId variant ID (null for simple products)
+ */
+public record StockChangedEvent(UUID tenantId, UUID productId, UUID variantId) {
+
+    public static StockChangedEvent of(UUID tenantId, StockLine line) {
+        return new StockChangedEvent(tenantId, line.productId(), line.variantId());
+    }
+}
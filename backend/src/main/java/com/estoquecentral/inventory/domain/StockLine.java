@@ -0,0 +1,35 @@
+package com.estoquecentral.inventory.domain;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * StockLine - Quantity of one product or variant in a multi-item stock operation
+ *
+ * <p>Exactly one of <code>productId</code> (simple/composite products) or
+ * <code>variantId</code> is set, matching the inventory row it applies to.
+ *
+ * @param productId product ID (null for variants)
+ * @param variantId variant ID (null for simple/composite products)
+ * @param quantity  quantity (positive)
+ */
+public record StockLine(UUID productId, UUID variantId, BigDecimal quantity) {
+
+    /**
+     * @return the variant ID for variants, otherwise the product ID
+     */
+    public UUID itemId() {
+        return variantId != null ? variantId : productId;
+    }
+
+    public boolean isVariant() {
+        return variantId != null;
+    }
+
+    /**
+     * @return a line for the same item with both quantities
+     */
+    public StockLine plus(StockLine other) {
+        return new StockLine(productId, variantId, quantity.add(other.quantity));
+    }
+}
@@ -183,6 +183,20 @@ public class MercadoLivreController {
         }
     }
 
+    /**
+     * AC2: Progress of the running (or latest) listings preview
+     * GET /api/integrations/mercadolivre/listings/progress
+     * Story 5.2: Import Products from Mercado Livre
+     */
+    @GetMapping("/listings/progress")
+    public ResponseEntity<ListingPreviewProgress> getListingsProgress() {
+        UUID tenantId = UUID.fromString(TenantContext.getTenantId());
+
+        return importService.getListingsPreviewProgress(tenantId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.noContent().build());
+    }
+
     /**
      * AC3: Import selected listings
      * POST /api/integrations/mercadolivre/import-listings
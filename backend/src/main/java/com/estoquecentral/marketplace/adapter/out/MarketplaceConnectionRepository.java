@@ -3,6 +3,7 @@ package com.estoquecentral.marketplace.adapter.out;
 import com.estoquecentral.marketplace.domain.ConnectionStatus;
 import com.estoquecentral.marketplace.domain.Marketplace;
 import com.estoquecentral.marketplace.domain.MarketplaceConnection;
+import org.springframework.data.jdbc.repository.query.Modifying;
 import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
@@ -29,6 +30,12 @@ public interface MarketplaceConnectionRepository extends CrudRepository<Marketpl
         @Param("marketplace") String marketplace
     );
 
+    /**
+     * Find connection by ID and lock the row until the transaction ends (token refresh)
+     */
+    @Query("SELECT * FROM marketplace_connections WHERE id = :id FOR UPDATE")
+    Optional<MarketplaceConnection> findByIdForUpdate(@Param("id") UUID id);
+
     /**
      * Find all connections for a tenant
      */
@@ -100,6 +107,19 @@ public interface MarketplaceConnectionRepository extends CrudRepository<Marketpl
         @Param("status") String status
     );
 
+    /**
+     * Advance the order polling cursor (only these columns, so concurrent token updates are kept)
+     * Story 5.5: Order polling job
+     */
+    @Modifying
+    @Query("UPDATE marketplace_connections " +
+           "SET orders_polled_until = :polledUntil " +
+           "WHERE id = :id")
+    void updateOrderPollingCursor(
+        @Param("id") UUID id,
+        @Param("polledUntil") LocalDateTime polledUntil
+    );
+
     /**
      * Check if connection exists for tenant and marketplace
      */
@@ -6,6 +6,7 @@ import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -30,6 +31,19 @@ public interface MarketplaceListingRepository extends CrudRepository<Marketplace
         @Param("listingIdMarketplace") String listingIdMarketplace
     );
 
+    /**
+     * Find listings by tenant, marketplace and several listing IDs from marketplace (one query)
+     */
+    @Query("SELECT * FROM marketplace_listings " +
+           "WHERE tenant_id = :tenantId " +
+           "AND marketplace = CAST(:marketplace AS VARCHAR) " +
+           "AND listing_id_marketplace IN (:listingIdsMarketplace)")
+    List<MarketplaceListing> findByTenantIdAndMarketplaceAndListingIds(
+        @Param("tenantId") UUID tenantId,
+        @Param("marketplace") String marketplace,
+        @Param("listingIdsMarketplace") Collection<String> listingIdsMarketplace
+    );
+
     /**
      * Find all listings for a tenant and marketplace
      */
@@ -66,6 +80,19 @@ public interface MarketplaceListingRepository extends CrudRepository<Marketplace
         @Param("listingIdMarketplace") String listingIdMarketplace
     );
 
+    /**
+     * Of the given marketplace listing IDs, return those already imported (one query)
+     */
+    @Query("SELECT listing_id_marketplace FROM marketplace_listings " +
+           "WHERE tenant_id = :tenantId " +
+           "AND marketplace = CAST(:marketplace AS VARCHAR) " +
+           "AND listing_id_marketplace IN (:listingIdsMarketplace)")
+    List<String> findImportedListingIds(
+        @Param("tenantId") UUID tenantId,
+        @Param("marketplace") String marketplace,
+        @Param("listingIdsMarketplace") Collection<String> listingIdsMarketplace
+    );
+
     /**
      * Find active listings for sync
      */
@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -41,6 +42,17 @@ public interface MarketplaceOrderRepository extends CrudRepository<MarketplaceOr
         @Param("orderIdMarketplace") String orderIdMarketplace
     );
 
+    /**
+     * Of the given external order IDs, return those already imported (one query)
+     */
+    @Query("SELECT order_id_marketplace FROM marketplace_orders WHERE tenant_id = :tenantId " +
+           "AND marketplace = :marketplace AND order_id_marketplace IN (:orderIdsMarketplace)")
+    List<String> findExistingOrderIds(
+        @Param("tenantId") UUID tenantId,
+        @Param("marketplace") String marketplace,
+        @Param("orderIdsMarketplace") Collection<String> orderIdsMarketplace
+    );
+
     /**
      * Find all orders for a tenant and marketplace
      */
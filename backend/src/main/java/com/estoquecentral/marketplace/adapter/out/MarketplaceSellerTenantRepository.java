@@ -0,0 +1,72 @@
+package com.estoquecentral.marketplace.adapter.out;
+
+import com.estoquecentral.marketplace.domain.Marketplace;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * MarketplaceSellerTenantRepository - Data access for public.marketplace_seller_tenants
+ *
+ * <p>Maps a marketplace seller account (e.g. Mercado Livre user_id) to the tenant that
+ * connected it. Lives in the public schema because webhooks arrive without a tenant.
+ */
+@Repository
+public class MarketplaceSellerTenantRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public MarketplaceSellerTenantRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records (or moves) the seller account to the tenant
+     *
+     * @return 1 if the mapping was created or moved, 0 if it was already in place
+     */
+    public int upsert(Marketplace marketplace, String userIdMarketplace, UUID tenantId) {
+        return jdbcTemplate.update("""
+                INSERT INTO public.marketplace_seller_tenants (marketplace, user_id_marketplace, tenant_id)
+                VALUES (:marketplace, :userId, :tenantId)
+                ON CONFLICT (marketplace, user_id_marketplace) DO UPDATE
+                   SET tenant_id = EXCLUDED.tenant_id, updated_at = CURRENT_TIMESTAMP
+                 WHERE public.marketplace_seller_tenants.tenant_id <> EXCLUDED.tenant_id
+                """, new MapSqlParameterSource()
+                .addValue("marketplace", marketplace.name())
+                .addValue("userId", userIdMarketplace)
+                .addValue("tenantId", tenantId));
+    }
+
+    /**
+     * Removes the seller account mapping, only if it still points to the tenant
+     *
+     * @return 1 if the mapping was removed
+     */
+    public int delete(Marketplace marketplace, String userIdMarketplace, UUID tenantId) {
+        return jdbcTemplate.update("""
+                DELETE FROM public.marketplace_seller_tenants
+                 WHERE marketplace = :marketplace AND user_id_marketplace = :userId AND tenant_id = :tenantId
+                """, new MapSqlParameterSource()
+                .addValue("marketplace", marketplace.name())
+                .addValue("userId", userIdMarketplace)
+                .addValue("tenantId", tenantId));
+    }
+
+    /**
+     * Finds the tenant of a seller account
+     */
+    public Optional<UUID> findTenantId(Marketplace marketplace, String userIdMarketplace) {
+        List<UUID> tenantIds = jdbcTemplate.queryForList("""
+                SELECT tenant_id FROM public.marketplace_seller_tenants
+                 WHERE marketplace = :marketplace AND user_id_marketplace = :userId
+                """, new MapSqlParameterSource()
+                .addValue("marketplace", marketplace.name())
+                .addValue("userId", userIdMarketplace), UUID.class);
+        return tenantIds.stream().findFirst();
+    }
+}
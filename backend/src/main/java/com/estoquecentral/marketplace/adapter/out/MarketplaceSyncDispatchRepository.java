@@ -0,0 +1,35 @@
+package com.estoquecentral.marketplace.adapter.out;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * MarketplaceSyncDispatchRepository - Finds the tenants the stock sync dispatcher must drain
+ *
+ * <p>Runs in the public schema: one call to <code>public.marketplace_sync_due_tenants()</code>
+ * (V060, lease expiry since V062) checks the sync queue of every active tenant schema, so a
+ * dispatch round costs one query however many tenants there are.
+ *
+ * @see MarketplaceSyncQueueRepository#claimPendingItemsByTenant
+ */
+@Repository
+public class MarketplaceSyncDispatchRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public MarketplaceSyncDispatchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return active tenants with PENDING items due or PROCESSING items whose lease expired
+     */
+    public List<UUID> findTenantsWithDueItems() {
+        return jdbcTemplate.queryForList("SELECT tenant_id FROM public.marketplace_sync_due_tenants()",
+                Map.of(), UUID.class);
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,6 +21,12 @@ import java.util.UUID;
 @Repository
 public interface MarketplaceSyncQueueRepository extends CrudRepository<MarketplaceSyncQueue, UUID> {
 
+    /** Conflict target of the partial unique index on PENDING items (V083). */
+    String PENDING_ITEM_CONFLICT =
+        "ON CONFLICT (tenant_id, product_id, " +
+        "COALESCE(variant_id, CAST('00000000-0000-0000-0000-000000000000' AS UUID)), " +
+        "marketplace, sync_type) WHERE status = 'PENDING' ";
+
     /**
      * Find pending items ordered by priority and creation time
      * AC2: Worker de Sincronização
@@ -30,16 +38,132 @@ public interface MarketplaceSyncQueueRepository extends CrudRepository<Marketpla
     List<MarketplaceSyncQueue> findPendingItems(@Param("limit") int limit);
 
     /**
-     * Find pending items for a specific tenant
+     * Atomically claims due items for a tenant (multi-node safe)
+     *
+     * <p>Takes PENDING items whose backoff has elapsed and PROCESSING items whose lease
+     * expired or is missing (crashed worker, rows left PROCESSING before leases existed),
+     * skipping rows another worker is claiming right now, and marks them PROCESSING with a
+     * lease of <code>leaseSeconds</code>. Rows are returned unordered. Claim only what can be
+     * processed within the lease: an item still being worked on when it expires is claimed
+     * again by another worker.
      */
-    @Query("SELECT * FROM marketplace_sync_queue " +
-           "WHERE tenant_id = :tenantId " +
-           "AND status = 'PENDING' " +
-           "ORDER BY priority DESC, created_at ASC " +
-           "LIMIT :limit")
-    List<MarketplaceSyncQueue> findPendingItemsByTenant(
+    @Query("UPDATE marketplace_sync_queue q " +
+           "SET status = 'PROCESSING', " +
+           "    locked_until = NOW() + :leaseSeconds * INTERVAL '1 second', " +
+           "    updated_at = NOW() " +
+           "WHERE q.id IN (" +
+           "    SELECT id FROM marketplace_sync_queue " +
+           "    WHERE tenant_id = :tenantId " +
+           "    AND ((status = 'PENDING' AND (next_attempt_at IS NULL OR next_attempt_at <= NOW())) " +
+           "      OR (status = 'PROCESSING' AND (locked_until IS NULL OR locked_until < NOW()))) " +
+           "    ORDER BY priority DESC, created_at ASC " +
+           "    LIMIT :limit " +
+           "    FOR UPDATE SKIP LOCKED) " +
+           "RETURNING q.*")
+    List<MarketplaceSyncQueue> claimPendingItemsByTenant(
+        @Param("tenantId") UUID tenantId,
+        @Param("limit") int limit,
+        @Param("leaseSeconds") int leaseSeconds
+    );
+
+    /**
+     * Stores the outcome of a claimed item, only if the claim (lease) is still ours
+     *
+     * <p>A retry (PENDING) is dropped as FAILED when a newer PENDING item for the same
+     * product/variant was queued meanwhile; that item syncs the current stock anyway.
+     *
+     * @return 0 if the lease expired and another worker claimed the item
+     */
+    @Modifying
+    @Query("UPDATE marketplace_sync_queue q " +
+           "SET status = CASE " +
+           "        WHEN :status = 'PENDING' AND EXISTS (" +
+           "            SELECT 1 FROM marketplace_sync_queue p " +
+           "            WHERE p.status = 'PENDING' " +
+           "            AND p.tenant_id = q.tenant_id " +
+           "            AND p.product_id = q.product_id " +
+           "            AND p.variant_id IS NOT DISTINCT FROM q.variant_id " +
+           "            AND p.marketplace = q.marketplace " +
+           "            AND p.sync_type = q.sync_type) " +
+           "        THEN 'FAILED' " +
+           "        ELSE :status END, " +
+           "    retry_count = :retryCount, " +
+           "    last_error = :lastError, " +
+           "    next_attempt_at = :nextAttemptAt, " +
+           "    processed_at = :processedAt, " +
+           "    locked_until = NULL, " +
+           "    updated_at = NOW() " +
+           "WHERE id = :id " +
+           "AND status = 'PROCESSING' " +
+           "AND locked_until = :lockedUntil")
+    int releaseClaim(
+        @Param("id") UUID id,
+        @Param("lockedUntil") LocalDateTime lockedUntil,
+        @Param("status") String status,
+        @Param("retryCount") int retryCount,
+        @Param("lastError") String lastError,
+        @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+        @Param("processedAt") LocalDateTime processedAt
+    );
+
+    /**
+     * Enqueues an item unless one is already PENDING (single statement, race-free)
+     * AC1: Deduplica
+     *
+     * <p>An existing PENDING item is raised to the given priority (manual sync).
+     */
+    @Modifying
+    @Query("INSERT INTO marketplace_sync_queue " +
+           "    (tenant_id, product_id, variant_id, marketplace, sync_type, priority, status) " +
+           "VALUES (:tenantId, :productId, :variantId, :marketplace, :syncType, :priority, 'PENDING') " +
+           PENDING_ITEM_CONFLICT +
+           "DO UPDATE SET priority = EXCLUDED.priority, updated_at = NOW() " +
+           "WHERE marketplace_sync_queue.priority < EXCLUDED.priority")
+    int upsertPendingItem(
+        @Param("tenantId") UUID tenantId,
+        @Param("productId") UUID productId,
+        @Param("variantId") UUID variantId,
+        @Param("marketplace") String marketplace,
+        @Param("syncType") String syncType,
+        @Param("priority") int priority
+    );
+
+    /**
+     * Enqueues a stock sync for every marketplace listing of the given products, due after
+     * debounceMs (one statement; items already PENDING are left as they are)
+     */
+    @Modifying
+    @Query("INSERT INTO marketplace_sync_queue " +
+           "    (tenant_id, product_id, variant_id, marketplace, sync_type, priority, status, next_attempt_at) " +
+           "SELECT DISTINCT :tenantId, l.product_id, CAST(NULL AS UUID), l.marketplace, 'STOCK', 0, 'PENDING', " +
+           "       NOW() + :debounceMs * INTERVAL '1 millisecond' " +
+           "FROM marketplace_listings l " +
+           "WHERE l.product_id IN (:productIds) " +
+           PENDING_ITEM_CONFLICT +
+           "DO NOTHING")
+    int enqueueStockSyncForProducts(
+        @Param("tenantId") UUID tenantId,
+        @Param("productIds") Collection<UUID> productIds,
+        @Param("debounceMs") long debounceMs
+    );
+
+    /**
+     * Enqueues a stock sync for every marketplace listing of the given variants, due after
+     * debounceMs (one statement; items already PENDING are left as they are)
+     */
+    @Modifying
+    @Query("INSERT INTO marketplace_sync_queue " +
+           "    (tenant_id, product_id, variant_id, marketplace, sync_type, priority, status, next_attempt_at) " +
+           "SELECT DISTINCT :tenantId, l.product_id, l.variant_id, l.marketplace, 'STOCK', 0, 'PENDING', " +
+           "       NOW() + :debounceMs * INTERVAL '1 millisecond' " +
+           "FROM marketplace_listings l " +
+           "WHERE l.variant_id IN (:variantIds) " +
+           PENDING_ITEM_CONFLICT +
+           "DO NOTHING")
+    int enqueueStockSyncForVariants(
         @Param("tenantId") UUID tenantId,
-        @Param("limit") int limit
+        @Param("variantIds") Collection<UUID> variantIds,
+        @Param("debounceMs") long debounceMs
     );
 
     /**
@@ -0,0 +1,130 @@
+package com.estoquecentral.marketplace.adapter.out;
+
+import com.estoquecentral.marketplace.domain.Marketplace;
+import com.estoquecentral.marketplace.domain.MarketplaceWebhookTask;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * MarketplaceWebhookInboxRepository - Data access for public.marketplace_webhook_inbox
+ *
+ * <p>Webhooks append with a single INSERT; repeated notifications for the same resource
+ * collapse into one row and bump <code>notifications</code>. Workers claim rows with
+ * <code>FOR UPDATE SKIP LOCKED</code> and a lease (<code>locked_until</code>), like the
+ * fiscal emission outbox.
+ *
+ * @see com.estoquecentral.marketplace.application.MercadoLivreWebhookWorker
+ */
+@Repository
+public class MarketplaceWebhookInboxRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public MarketplaceWebhookInboxRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Stores a notification (or bumps the pending row for the same resource)
+     */
+    public void append(Marketplace marketplace, String topic, String resource, String userIdMarketplace) {
+        jdbcTemplate.update("""
+                INSERT INTO public.marketplace_webhook_inbox (marketplace, topic, resource, user_id_marketplace)
+                VALUES (:marketplace, :topic, :resource, :userId)
+                ON CONFLICT (marketplace, topic, resource) DO UPDATE
+                   SET notifications = public.marketplace_webhook_inbox.notifications + 1,
+                       available_at = LEAST(public.marketplace_webhook_inbox.available_at, EXCLUDED.available_at),
+                       user_id_marketplace = COALESCE(EXCLUDED.user_id_marketplace,
+                                                      public.marketplace_webhook_inbox.user_id_marketplace)
+                """, new MapSqlParameterSource()
+                .addValue("marketplace", marketplace.name())
+                .addValue("topic", topic)
+                .addValue("resource", resource)
+                .addValue("userId", userIdMarketplace));
+    }
+
+    /**
+     * Claims up to <code>limit</code> available rows not leased by another worker, oldest first
+     *
+     * @param limit maximum rows to claim
+     * @param leaseSeconds how long the rows stay claimed
+     * @return claimed rows
+     */
+    public List<MarketplaceWebhookTask> claim(int limit, int leaseSeconds) {
+        return jdbcTemplate.query("""
+                UPDATE public.marketplace_webhook_inbox i
+                   SET locked_until = NOW() + :leaseSeconds * INTERVAL '1 second',
+                       attempts = i.attempts + 1
+                 WHERE i.id IN (
+                       SELECT id FROM public.marketplace_webhook_inbox
+                        WHERE available_at <= NOW()
+                          AND (locked_until IS NULL OR locked_until < NOW())
+                        ORDER BY received_at
+                        LIMIT :limit
+                        FOR UPDATE SKIP LOCKED)
+                RETURNING i.id, i.marketplace, i.topic, i.resource, i.user_id_marketplace,
+                          i.notifications, i.attempts
+                """, new MapSqlParameterSource()
+                .addValue("limit", limit)
+                .addValue("leaseSeconds", leaseSeconds),
+                (rs, rowNum) -> new MarketplaceWebhookTask(
+                        rs.getObject("id", UUID.class),
+                        Marketplace.valueOf(rs.getString("marketplace")),
+                        rs.getString("topic"),
+                        rs.getString("resource"),
+                        rs.getString("user_id_marketplace"),
+                        rs.getInt("notifications"),
+                        rs.getInt("attempts")));
+    }
+
+    /**
+     * Removes a processed row; if new notifications arrived while it was being processed,
+     * releases it for another pass instead
+     *
+     * @param task the processed claim
+     */
+    public void complete(MarketplaceWebhookTask task) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", task.id())
+                .addValue("notifications", task.notifications());
+        int deleted = jdbcTemplate.update("""
+                DELETE FROM public.marketplace_webhook_inbox
+                 WHERE id = :id AND notifications = :notifications
+                """, params);
+        if (deleted == 0) {
+            jdbcTemplate.update("""
+                    UPDATE public.marketplace_webhook_inbox
+                       SET locked_until = NULL, attempts = 0, last_error = NULL
+                     WHERE id = :id
+                    """, params);
+        }
+    }
+
+    /**
+     * Releases a failed row so it is retried after <code>delaySeconds</code>
+     */
+    public void retryLater(UUID id, long delaySeconds, String error) {
+        jdbcTemplate.update("""
+                UPDATE public.marketplace_webhook_inbox
+                   SET locked_until = NULL,
+                       available_at = NOW() + :delaySeconds * INTERVAL '1 second',
+                       last_error = :error
+                 WHERE id = :id
+                """, new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("delaySeconds", delaySeconds)
+                .addValue("error", error));
+    }
+
+    /**
+     * Removes a row regardless of new notifications (given up)
+     */
+    public void delete(UUID id) {
+        jdbcTemplate.update("DELETE FROM public.marketplace_webhook_inbox WHERE id = :id",
+                new MapSqlParameterSource("id", id));
+    }
+}
@@ -0,0 +1,153 @@
+package com.estoquecentral.marketplace.application;
+
+import org.redisson.api.RRateLimiter;
+import org.redisson.api.RateIntervalUnit;
+import org.redisson.api.RateType;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket rate limiter per marketplace connection
+ *
+ * <p>Every Mercado Livre request made with a connection's access token takes one token from
+ * that connection's bucket. Buckets refill at
+ * <code>marketplace.mercadolivre.rate-limit.requests-per-second</code> and hold up to
+ * <code>marketplace.mercadolivre.rate-limit.burst</code> tokens, keeping each seller under
+ * ML's request quota while different connections proceed independently.
+ *
+ * <p>With Redis enabled the bucket is a Redisson {@link RRateLimiter} shared by every node
+ * (<code>burst</code> permits per <code>burst / requests-per-second</code> seconds), so the
+ * quota holds however many nodes sync the same seller. Without Redis, or while Redis fails,
+ * each node keeps a local bucket: callers reserve a token and wait for it, so concurrent
+ * callers on one connection are served in order instead of spinning.
+ *
+ * @see MercadoLivreApiClient
+ */
+@Component
+public class MarketplaceRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(MarketplaceRateLimiter.class);
+    private static final String SHARED_LIMITER_PREFIX = "marketplace-rate-limit:";
+
+    @Nullable
+    private final RedissonClient redissonClient;
+    private final double permitsPerSecond;
+    private final double burst;
+    private final LongSupplier nanoClock;
+    private final Map<UUID, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<UUID, RRateLimiter> sharedLimiters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MarketplaceRateLimiter(
+        ObjectProvider<RedissonClient> redissonClient,
+        @Value("${marketplace.mercadolivre.rate-limit.requests-per-second:5}") double permitsPerSecond,
+        @Value("${marketplace.mercadolivre.rate-limit.burst:10}") int burst
+    ) {
+        this(redissonClient.getIfAvailable(), permitsPerSecond, burst, System::nanoTime);
+    }
+
+    MarketplaceRateLimiter(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        this(null, permitsPerSecond, burst, nanoClock);
+    }
+
+    MarketplaceRateLimiter(@Nullable RedissonClient redissonClient, double permitsPerSecond, int burst,
+                           LongSupplier nanoClock) {
+        this.redissonClient = redissonClient;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(1, burst);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Blocks until the connection may send one more request
+     *
+     * @param connectionId marketplace connection ID
+     */
+    public void acquire(UUID connectionId) {
+        if (permitsPerSecond <= 0) {
+            return;
+        }
+        if (redissonClient != null) {
+            try {
+                sharedLimiter(connectionId).acquire();
+                return;
+            } catch (RedisException e) {
+                log.warn("Shared rate limiter unavailable for connection {}, using the local one: {}",
+                    connectionId, e.getMessage());
+            }
+        }
+
+        long waitNanos = reserve(connectionId);
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for marketplace rate limit", e);
+            }
+        }
+    }
+
+    /**
+     * Rate limiter shared by all nodes for the connection (created with the configured rate
+     * the first time any node uses it)
+     */
+    private RRateLimiter sharedLimiter(UUID connectionId) {
+        return sharedLimiters.computeIfAbsent(connectionId, id -> {
+            RRateLimiter limiter = redissonClient.getRateLimiter(SHARED_LIMITER_PREFIX + id);
+            long intervalMillis = Math.max(1, Math.round(burst * 1000 / permitsPerSecond));
+            limiter.trySetRate(RateType.OVERALL, (long) burst, intervalMillis, RateIntervalUnit.MILLISECONDS);
+            return limiter;
+        });
+    }
+
+    /**
+     * Reserves one token for the connection in the local bucket
+     *
+     * @param connectionId marketplace connection ID
+     * @return nanoseconds the caller must wait before using it (0 = now)
+     */
+    long reserve(UUID connectionId) {
+        if (permitsPerSecond <= 0) {
+            return 0;
+        }
+        return buckets.computeIfAbsent(connectionId, id -> new TokenBucket(burst, nanoClock.getAsLong()))
+            .reserve(permitsPerSecond / TimeUnit.SECONDS.toNanos(1), burst, nanoClock.getAsLong());
+    }
+
+    /**
+     * Token bucket; a negative balance means tokens already promised to waiting callers.
+     */
+    private static final class TokenBucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        synchronized long reserve(double permitsPerNano, double capacity, long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * permitsPerNano);
+                refilledAt = now;
+            }
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / permitsPerNano);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.estoquecentral.marketplace.application;
+
+import com.estoquecentral.marketplace.adapter.out.MarketplaceSellerTenantRepository;
+import com.estoquecentral.marketplace.domain.Marketplace;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Resolves marketplace seller accounts to tenants
+ * Story 5.5: Import and Process Orders from Mercado Livre - AC2
+ *
+ * <p>Webhooks identify the seller (ML <code>user_id</code>), not the tenant. The mapping is
+ * stored in <code>public.marketplace_seller_tenants</code> when OAuth completes and removed on
+ * disconnect. Resolved sellers are kept in memory for
+ * <code>marketplace.seller-directory.ttl-ms</code>; when a mapping is moved or removed the
+ * entry is dropped after the transaction commits and, with Redis enabled, on every node.
+ * Unknown sellers are looked up again on every call.
+ */
+@Component
+public class MarketplaceSellerDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(MarketplaceSellerDirectory.class);
+
+    private static final String INVALIDATION_TOPIC = "marketplace-seller-invalidation";
+
+    private record Entry(UUID tenantId, long expiresAt) {
+    }
+
+    private final MarketplaceSellerTenantRepository sellerTenantRepository;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final RTopic invalidationTopic;
+    private final Map<String, Entry> tenantsBySeller = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MarketplaceSellerDirectory(
+        MarketplaceSellerTenantRepository sellerTenantRepository,
+        ObjectProvider<RedissonClient> redissonClient,
+        @Value("${marketplace.seller-directory.ttl-ms:300000}") long ttlMillis
+    ) {
+        this(sellerTenantRepository, redissonClient.getIfAvailable(), ttlMillis, System::currentTimeMillis);
+    }
+
+    MarketplaceSellerDirectory(
+        MarketplaceSellerTenantRepository sellerTenantRepository,
+        RedissonClient redissonClient,
+        long ttlMillis,
+        LongSupplier clock
+    ) {
+        this.sellerTenantRepository = sellerTenantRepository;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+
+        if (redissonClient != null) {
+            this.invalidationTopic = redissonClient.getTopic(INVALIDATION_TOPIC);
+            this.invalidationTopic.addListener(String.class, (channel, key) -> tenantsBySeller.remove(key));
+        } else {
+            this.invalidationTopic = null;
+        }
+    }
+
+    /**
+     * Records that the seller account belongs to the tenant
+     */
+    public void register(Marketplace marketplace, String userIdMarketplace, UUID tenantId) {
+        if (userIdMarketplace == null) {
+            return;
+        }
+        String key = key(marketplace, userIdMarketplace);
+        if (tenantId.equals(cachedTenant(key))) {
+            return;
+        }
+
+        if (sellerTenantRepository.upsert(marketplace, userIdMarketplace, tenantId) > 0) {
+            // New or moved (reconnected by another tenant): other nodes may hold the old tenant
+            invalidate(key);
+            log.debug("Registered {} seller {} for tenant {}", marketplace, userIdMarketplace, tenantId);
+        }
+        cache(key, tenantId);
+    }
+
+    /**
+     * Removes the seller account from the tenant (disconnect)
+     *
+     * <p>A mapping already moved to another tenant is left alone.
+     */
+    public void unregister(Marketplace marketplace, String userIdMarketplace, UUID tenantId) {
+        if (userIdMarketplace == null) {
+            return;
+        }
+
+        if (sellerTenantRepository.delete(marketplace, userIdMarketplace, tenantId) > 0) {
+            invalidate(key(marketplace, userIdMarketplace));
+            log.debug("Unregistered {} seller {} from tenant {}", marketplace, userIdMarketplace, tenantId);
+        }
+    }
+
+    /**
+     * Finds the tenant that connected the seller account
+     */
+    public Optional<UUID> resolveTenant(Marketplace marketplace, String userIdMarketplace) {
+        if (userIdMarketplace == null) {
+            return Optional.empty();
+        }
+
+        String key = key(marketplace, userIdMarketplace);
+        UUID cached = cachedTenant(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<UUID> tenantId = sellerTenantRepository.findTenantId(marketplace, userIdMarketplace);
+        tenantId.ifPresent(id -> cache(key, id));
+        return tenantId;
+    }
+
+    private UUID cachedTenant(String key) {
+        Entry entry = tenantsBySeller.get(key);
+        return entry != null && entry.expiresAt() > clock.getAsLong() ? entry.tenantId() : null;
+    }
+
+    private void cache(String key, UUID tenantId) {
+        if (ttlMillis > 0) {
+            tenantsBySeller.put(key, new Entry(tenantId, clock.getAsLong() + ttlMillis));
+        }
+    }
+
+    /**
+     * Drops the entry here now and, after commit, here again and on every node
+     */
+    private void invalidate(String key) {
+        tenantsBySeller.remove(key);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcast(key);
+                }
+            });
+        } else {
+            broadcast(key);
+        }
+    }
+
+    private void broadcast(String key) {
+        tenantsBySeller.remove(key);
+
+        if (invalidationTopic != null) {
+            try {
+                invalidationTopic.publish(key);
+            } catch (RuntimeException e) {
+                log.warn("Could not broadcast seller invalidation {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private static String key(Marketplace marketplace, String userIdMarketplace) {
+        return marketplace.name() + ":" + userIdMarketplace;
+    }
+}
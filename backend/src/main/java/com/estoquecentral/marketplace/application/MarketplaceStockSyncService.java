@@ -4,30 +4,53 @@ import com.estoquecentral.inventory.adapter.out.InventoryRepository;
 import com.estoquecentral.inventory.domain.Inventory;
 import com.estoquecentral.marketplace.adapter.out.*;
 import com.estoquecentral.marketplace.domain.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 
 /**
  * Service for synchronizing stock to marketplaces
  * Story 5.4: Stock Synchronization to Mercado Livre
+ *
+ * <p><strong>Multi-node:</strong> Queue items are claimed atomically (FOR UPDATE SKIP LOCKED)
+ * a few at a time with a lease of <code>marketplace.sync.lease-seconds</code>; items orphaned by
+ * a crashed worker are claimed again after the lease expires. An outcome is only stored while the
+ * claim is still held, so two workers never both process the same item in one lease.
+ *
+ * <p>Records <code>marketplace.sync.lag</code> (per tenant and marketplace): time from an item
+ * being queued to its stock reaching the marketplace.
  */
 @Service
 public class MarketplaceStockSyncService {
 
     private static final Logger log = LoggerFactory.getLogger(MarketplaceStockSyncService.class);
-    private static final int BATCH_SIZE = 10;
+
+    /** Same order as the claim query: high priority first, then oldest. */
+    private static final Comparator<MarketplaceSyncQueue> QUEUE_ORDER = Comparator
+        .comparing((MarketplaceSyncQueue item) -> item.getPriority() != null ? item.getPriority() : 0).reversed()
+        .thenComparing(MarketplaceSyncQueue::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()));
 
     private final MarketplaceSyncQueueRepository queueRepository;
     private final MarketplaceSyncLogRepository logRepository;
     private final MarketplaceListingRepository listingRepository;
     private final InventoryRepository inventoryRepository;
     private final MercadoLivreApiClient apiClient;
+    private final MeterRegistry meterRegistry;
+    private final int leaseSeconds;
+    private final int claimSize;
     private SafetyMarginService safetyMarginService;  // Lazy injection to avoid circular dependency
 
     public MarketplaceStockSyncService(
@@ -35,13 +58,19 @@ public class MarketplaceStockSyncService {
         MarketplaceSyncLogRepository logRepository,
         MarketplaceListingRepository listingRepository,
         InventoryRepository inventoryRepository,
-        MercadoLivreApiClient apiClient
+        MercadoLivreApiClient apiClient,
+        MeterRegistry meterRegistry,
+        @Value("${marketplace.sync.lease-seconds:120}") int leaseSeconds,
+        @Value("${marketplace.sync.claim-size:5}") int claimSize
     ) {
         this.queueRepository = queueRepository;
         this.logRepository = logRepository;
         this.listingRepository = listingRepository;
         this.inventoryRepository = inventoryRepository;
         this.apiClient = apiClient;
+        this.meterRegistry = meterRegistry;
+        this.leaseSeconds = leaseSeconds;
+        this.claimSize = Math.max(1, claimSize);
     }
 
     /**
@@ -54,27 +83,43 @@ public class MarketplaceStockSyncService {
 
     /**
      * AC1: Enqueue product for sync (with deduplication)
+     * Single INSERT ... ON CONFLICT: a PENDING item for the same product/variant is reused.
      */
-    @Transactional
     public void enqueueStockSync(UUID tenantId, UUID productId, UUID variantId, Marketplace marketplace) {
-        // Check if already in queue (deduplication)
-        var existing = queueRepository.findExistingQueueItem(
+        int inserted = queueRepository.upsertPendingItem(
             tenantId, productId, variantId,
-            marketplace.name(), SyncType.STOCK.name()
+            marketplace.name(), SyncType.STOCK.name(), 0
         );
 
-        if (existing.isPresent()) {
+        if (inserted == 0) {
             log.debug("Product {} already in sync queue, skipping", productId);
             return;
         }
 
-        // Create new queue item
-        MarketplaceSyncQueue queueItem = new MarketplaceSyncQueue(tenantId, productId, variantId, marketplace);
-        queueRepository.save(queueItem);
-
         log.info("Enqueued product {} for stock sync to {}", productId, marketplace);
     }
 
+    /**
+     * AC1: Enqueue stock sync for every marketplace listing of the given products and variants
+     * Used by {@link MarketplaceStockSyncTrigger} for stock changes: new items are due after
+     * {@code debounce}, and changes in the meantime find them still PENDING (at most two
+     * statements, whatever the number of items).
+     *
+     * @return number of queue items created
+     */
+    @Transactional
+    public int enqueueStockSync(UUID tenantId, Collection<UUID> productIds, Collection<UUID> variantIds,
+                                Duration debounce) {
+        int enqueued = 0;
+        if (!productIds.isEmpty()) {
+            enqueued += queueRepository.enqueueStockSyncForProducts(tenantId, productIds, debounce.toMillis());
+        }
+        if (!variantIds.isEmpty()) {
+            enqueued += queueRepository.enqueueStockSyncForVariants(tenantId, variantIds, debounce.toMillis());
+        }
+        return enqueued;
+    }
+
     /**
      * AC3: Manual sync - force immediate sync with high priority
      */
@@ -90,54 +135,49 @@ public class MarketplaceStockSyncService {
             return;
         }
 
-        // Create high-priority queue items
+        // Create high-priority queue items (or raise a pending one to high priority)
         for (MarketplaceListing listing : listings) {
-            MarketplaceSyncQueue queueItem = new MarketplaceSyncQueue(
-                tenantId, productId, listing.getVariantId(), listing.getMarketplace()
+            queueRepository.upsertPendingItem(
+                tenantId, productId, listing.getVariantId(),
+                listing.getMarketplace().name(), SyncType.STOCK.name(), 1
             );
-            queueItem.setPriority(1); // High priority
-            queueRepository.save(queueItem);
         }
 
         log.info("Created {} high-priority sync queue items for manual sync", listings.size());
     }
 
     /**
-     * AC2: Process sync queue for a specific tenant (called by scheduled worker)
-     */
-    @Transactional
-    public void processSyncQueueForTenant(UUID tenantId) {
-        List<MarketplaceSyncQueue> pendingItems = queueRepository.findPendingItemsByTenant(tenantId, BATCH_SIZE);
-
-        if (pendingItems.isEmpty()) {
-            return;
-        }
-
-        log.info("Processing {} items from sync queue for tenant {}", pendingItems.size(), tenantId);
-
-        for (MarketplaceSyncQueue item : pendingItems) {
-            processSyncItem(item);
-        }
-    }
-
-    /**
-     * AC2: Process sync queue (called by scheduled worker)
-     * @deprecated Use processSyncQueueForTenant() instead to ensure proper tenant context
+     * AC2: Process one batch of the sync queue for a specific tenant (called by scheduled worker)
+     *
+     * <p>Not transactional: each item is saved on its own, so no transaction is held open
+     * during marketplace API calls. Items are claimed <code>marketplace.sync.claim-size</code>
+     * at a time, so each claim is processed well within its lease even when API calls wait
+     * for the rate limiter; other workers keep claiming the rest of the batch.
+     *
+     * @return number of items claimed from the queue (less than batchSize when drained)
      */
-    @Deprecated
-    @Transactional
-    public void processSyncQueue() {
-        List<MarketplaceSyncQueue> pendingItems = queueRepository.findPendingItems(BATCH_SIZE);
+    public int processSyncQueueForTenant(UUID tenantId, int batchSize) {
+        int processed = 0;
+        while (processed < batchSize) {
+            int limit = Math.min(claimSize, batchSize - processed);
+            List<MarketplaceSyncQueue> claimed = new ArrayList<>(
+                queueRepository.claimPendingItemsByTenant(tenantId, limit, leaseSeconds));
+            claimed.sort(QUEUE_ORDER);
+
+            for (MarketplaceSyncQueue item : claimed) {
+                processSyncItem(item);
+            }
+            processed += claimed.size();
 
-        if (pendingItems.isEmpty()) {
-            return;
+            if (claimed.size() < limit) {
+                break;
+            }
         }
 
-        log.info("Processing {} items from sync queue", pendingItems.size());
-
-        for (MarketplaceSyncQueue item : pendingItems) {
-            processSyncItem(item);
+        if (processed > 0) {
+            log.info("Processed {} items from sync queue for tenant {}", processed, tenantId);
         }
+        return processed;
     }
 
     /**
@@ -145,16 +185,16 @@ public class MarketplaceStockSyncService {
      * AC5: Tratamento de Erros
      */
     private void processSyncItem(MarketplaceSyncQueue item) {
-        item.markAsProcessing();
-        queueRepository.save(item);
-
         try {
             // Sync the stock
             syncStockToMarketplace(item);
 
             // Mark as completed
             item.markAsCompleted();
-            queueRepository.save(item);
+            if (!releaseClaim(item)) {
+                return;
+            }
+            recordSyncLag(item);
 
             log.info("Successfully synced product {} to {}", item.getProductId(), item.getMarketplace());
 
@@ -164,7 +204,9 @@ public class MarketplaceStockSyncService {
 
             // AC5: Retry logic with backoff
             item.markAsFailed(e.getMessage());
-            queueRepository.save(item);
+            if (!releaseClaim(item)) {
+                return;
+            }
 
             // If max retries exceeded, log final failure
             if (!item.canRetry()) {
@@ -174,6 +216,44 @@ public class MarketplaceStockSyncService {
         }
     }
 
+    /**
+     * Stores the item outcome if our claim is still valid
+     *
+     * @return false if the lease expired and another worker owns the item
+     */
+    private boolean releaseClaim(MarketplaceSyncQueue item) {
+        int updated = queueRepository.releaseClaim(
+            item.getId(),
+            item.getLockedUntil(),
+            item.getStatus().name(),
+            item.getRetryCount(),
+            item.getLastError(),
+            item.getNextAttemptAt(),
+            item.getProcessedAt()
+        );
+        if (updated == 0) {
+            log.warn("Lease expired for sync item {} (product {}), outcome discarded",
+                item.getId(), item.getProductId());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records time from enqueue to successful sync
+     */
+    private void recordSyncLag(MarketplaceSyncQueue item) {
+        if (item.getCreatedAt() == null) {
+            return;
+        }
+        Timer.builder("marketplace.sync.lag")
+            .description("Time from stock change being queued to marketplace update")
+            .tag("tenant", String.valueOf(item.getTenantId()))
+            .tag("marketplace", item.getMarketplace().name())
+            .register(meterRegistry)
+            .record(Duration.between(item.getCreatedAt(), LocalDateTime.now()));
+    }
+
     /**
      * AC2: Sync stock to marketplace
      */
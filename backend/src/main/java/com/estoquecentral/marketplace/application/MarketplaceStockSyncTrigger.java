@@ -0,0 +1,61 @@
+package com.estoquecentral.marketplace.application;
+
+import com.estoquecentral.inventory.domain.StockChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Turns stock changes into marketplace sync queue items
+ * Story 5.4: Stock Synchronization to Mercado Livre - AC1
+ *
+ * <p>Sales and reservations publish {@link StockChangedEvent}s; this listener queues the item
+ * just before the stock change commits, in the same transaction: a committed change always has
+ * its queue item (a crash or deploy cannot lose it) and a rolled-back one never gets one. No
+ * marketplace work runs inside the POS transaction, only one INSERT ... ON CONFLICT.
+ *
+ * <p>Debounced on the consumer side: a new item is only due <code>marketplace.sync.debounce-ms</code>
+ * after it was queued, and changes in the meantime find it still PENDING and leave it as it is,
+ * so a SKU sold fifty times in the window becomes one marketplace update.
+ *
+ * @see MarketplaceStockSyncService#enqueueStockSync(UUID, java.util.Collection, java.util.Collection, Duration)
+ */
+@Component
+public class MarketplaceStockSyncTrigger {
+
+    private static final Logger log = LoggerFactory.getLogger(MarketplaceStockSyncTrigger.class);
+
+    private final MarketplaceStockSyncService syncService;
+    private final Duration debounce;
+
+    public MarketplaceStockSyncTrigger(
+        MarketplaceStockSyncService syncService,
+        @Value("${marketplace.sync.debounce-ms:2000}") long debounceMs
+    ) {
+        this.syncService = syncService;
+        this.debounce = Duration.ofMillis(debounceMs);
+    }
+
+    /**
+     * Queues the changed stock item in the transaction that changed it (right away without one)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (event.tenantId() == null || (event.productId() == null && event.variantId() == null)) {
+            return;
+        }
+
+        int enqueued = event.variantId() != null
+            ? syncService.enqueueStockSync(event.tenantId(), List.of(), List.of(event.variantId()), debounce)
+            : syncService.enqueueStockSync(event.tenantId(), List.of(event.productId()), List.of(), debounce);
+        log.debug("Stock change of product {} / variant {} queued {} sync items for tenant {}",
+            event.productId(), event.variantId(), enqueued, event.tenantId());
+    }
+}
@@ -1,7 +1,7 @@
 package com.estoquecentral.marketplace.application;
 
 import com.estoquecentral.marketplace.adapter.out.MarketplaceConnectionRepository;
-import com.estoquecentral.marketplace.domain.EncryptedStringConverter;
+import com.estoquecentral.marketplace.application.MercadoLivreConnectionCache.CachedConnection;
 import com.estoquecentral.marketplace.domain.Marketplace;
 import com.estoquecentral.marketplace.domain.MarketplaceConnection;
 import org.slf4j.Logger;
@@ -21,7 +21,11 @@ import java.util.UUID;
  * API Client wrapper for Mercado Livre API calls
  * Story 5.1: Mercado Livre OAuth2 Authentication - AC8
  *
- * Handles automatic token refresh on 401 errors and retry logic
+ * Handles automatic token refresh on 401 errors and retry logic. Refreshes are single-flight
+ * per connection ({@link MercadoLivreTokenRefresher}); tokens are normally renewed ahead of
+ * expiry by {@link TokenRefreshScheduledJob}, so 401s are the exception.
+ * Requests are throttled per connection by {@link MarketplaceRateLimiter}; the connection
+ * and decrypted access token come from {@link MercadoLivreConnectionCache}.
  */
 @Service
 public class MercadoLivreApiClient {
@@ -30,20 +34,23 @@ public class MercadoLivreApiClient {
     private static final String ML_API_BASE = "https://api.mercadolibre.com";
 
     private final MarketplaceConnectionRepository connectionRepository;
-    private final EncryptedStringConverter encryptedStringConverter;
-    private final MercadoLivreOAuthService oauthService;
+    private final MercadoLivreConnectionCache connectionCache;
+    private final MercadoLivreTokenRefresher tokenRefresher;
     private final RestTemplate restTemplate;
+    private final MarketplaceRateLimiter rateLimiter;
 
     public MercadoLivreApiClient(
         MarketplaceConnectionRepository connectionRepository,
-        EncryptedStringConverter encryptedStringConverter,
-        MercadoLivreOAuthService oauthService,
-        RestTemplate restTemplate
+        MercadoLivreConnectionCache connectionCache,
+        MercadoLivreTokenRefresher tokenRefresher,
+        RestTemplate restTemplate,
+        MarketplaceRateLimiter rateLimiter
     ) {
         this.connectionRepository = connectionRepository;
-        this.encryptedStringConverter = encryptedStringConverter;
-        this.oauthService = oauthService;
+        this.connectionCache = connectionCache;
+        this.tokenRefresher = tokenRefresher;
         this.restTemplate = restTemplate;
+        this.rateLimiter = rateLimiter;
     }
 
     /**
@@ -95,7 +102,7 @@ public class MercadoLivreApiClient {
         Class<T> responseType,
         UUID tenantId
     ) {
-        MarketplaceConnection connection = getConnection(tenantId);
+        CachedConnection connection = connectionCache.get(tenantId);
 
         try {
             // First attempt
@@ -105,12 +112,16 @@ public class MercadoLivreApiClient {
             if (e.getStatusCode() == HttpStatus.UNAUTHORIZED) {
                 log.warn("Received 401 Unauthorized. Refreshing token and retrying for tenant: {}", tenantId);
 
-                // Token expired - refresh and retry
+                // Token expired - refresh (or wait for the refresh already running) and retry
                 try {
-                    oauthService.refreshToken(connection.getId());
+                    tokenRefresher.refresh(
+                        connection.connectionId(),
+                        connection.connection().getAccessToken(),
+                        MercadoLivreTokenRefresher.Trigger.UNAUTHORIZED
+                    );
 
-                    // Reload connection with new token
-                    connection = getConnection(tenantId);
+                    // Reload connection with new token (refresh invalidated the cache)
+                    connection = connectionCache.get(tenantId);
 
                     // Retry request
                     return executeRequest(endpoint, method, body, responseType, connection);
@@ -135,13 +146,14 @@ public class MercadoLivreApiClient {
         HttpMethod method,
         Object body,
         Class<T> responseType,
-        MarketplaceConnection connection
+        CachedConnection connection
     ) {
+        rateLimiter.acquire(connection.connectionId());
+
         String url = ML_API_BASE + endpoint;
-        String decryptedAccessToken = encryptedStringConverter.decrypt(connection.getAccessToken());
 
         HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(decryptedAccessToken);
+        headers.setBearerAuth(connection.accessToken());
 
         HttpEntity<?> requestEntity = new HttpEntity<>(body, headers);
 
@@ -157,17 +169,6 @@ public class MercadoLivreApiClient {
         return response.getBody();
     }
 
-    /**
-     * Get active Mercado Livre connection for tenant
-     */
-    private MarketplaceConnection getConnection(UUID tenantId) {
-        return connectionRepository
-            .findByTenantIdAndMarketplace(tenantId, Marketplace.MERCADO_LIVRE.name())
-            .orElseThrow(() -> new IllegalStateException(
-                "No Mercado Livre connection found for tenant: " + tenantId
-            ));
-    }
-
     /**
      * Check if tenant has an active Mercado Livre connection
      */
@@ -193,12 +194,12 @@ public class MercadoLivreApiClient {
             // POST https://api.mercadolibre.com/pictures
             // Body: { "source": "http://example.com/image.jpg" }
 
-            MarketplaceConnection connection = getConnection(tenantId);
+            CachedConnection connection = connectionCache.get(tenantId);
+            rateLimiter.acquire(connection.connectionId());
             String url = ML_API_BASE + "/pictures";
-            String decryptedAccessToken = encryptedStringConverter.decrypt(connection.getAccessToken());
 
             HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(decryptedAccessToken);
+            headers.setBearerAuth(connection.accessToken());
             headers.setContentType(org.springframework.http.MediaType.APPLICATION_JSON);
 
             // Create request body with image URL
@@ -0,0 +1,115 @@
+package com.estoquecentral.marketplace.application;
+
+import com.estoquecentral.marketplace.adapter.out.MarketplaceConnectionRepository;
+import com.estoquecentral.marketplace.domain.EncryptedStringConverter;
+import com.estoquecentral.marketplace.domain.Marketplace;
+import com.estoquecentral.marketplace.domain.MarketplaceConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived per-tenant cache of the Mercado Livre connection and its decrypted access token
+ * Story 5.1: Mercado Livre OAuth2 Authentication - AC5, AC8
+ *
+ * <p>Saves a connection query and a token decryption on every API call. Entries live for
+ * <code>marketplace.mercadolivre.connection-cache-ttl-ms</code> (0 disables caching) and are
+ * dropped whenever {@link MercadoLivreOAuthService} changes the connection: immediately and
+ * again after the transaction commits, so a concurrent reader cannot keep the old row.
+ *
+ * @see MercadoLivreApiClient
+ */
+@Component
+public class MercadoLivreConnectionCache {
+
+    /**
+     * Connection row plus its decrypted access token
+     */
+    public record CachedConnection(MarketplaceConnection connection, String accessToken) {
+
+        public UUID connectionId() {
+            return connection.getId();
+        }
+    }
+
+    private record Entry(CachedConnection value, long expiresAt) {
+    }
+
+    private final MarketplaceConnectionRepository connectionRepository;
+    private final EncryptedStringConverter encryptedStringConverter;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MercadoLivreConnectionCache(
+        MarketplaceConnectionRepository connectionRepository,
+        EncryptedStringConverter encryptedStringConverter,
+        @Value("${marketplace.mercadolivre.connection-cache-ttl-ms:60000}") long ttlMillis
+    ) {
+        this(connectionRepository, encryptedStringConverter, ttlMillis, System::currentTimeMillis);
+    }
+
+    MercadoLivreConnectionCache(
+        MarketplaceConnectionRepository connectionRepository,
+        EncryptedStringConverter encryptedStringConverter,
+        long ttlMillis,
+        LongSupplier clock
+    ) {
+        this.connectionRepository = connectionRepository;
+        this.encryptedStringConverter = encryptedStringConverter;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the tenant's Mercado Livre connection (cached)
+     *
+     * @throws IllegalStateException if the tenant has no Mercado Livre connection
+     */
+    public CachedConnection get(UUID tenantId) {
+        long now = clock.getAsLong();
+        Entry entry = entries.get(tenantId);
+        if (entry != null && entry.expiresAt() > now) {
+            return entry.value();
+        }
+
+        MarketplaceConnection connection = connectionRepository
+            .findByTenantIdAndMarketplace(tenantId, Marketplace.MERCADO_LIVRE.name())
+            .orElseThrow(() -> new IllegalStateException(
+                "No Mercado Livre connection found for tenant: " + tenantId
+            ));
+        String accessToken = connection.getAccessToken() != null
+            ? encryptedStringConverter.decrypt(connection.getAccessToken())
+            : null;
+
+        CachedConnection value = new CachedConnection(connection, accessToken);
+        if (ttlMillis > 0) {
+            entries.put(tenantId, new Entry(value, now + ttlMillis));
+        }
+        return value;
+    }
+
+    /**
+     * Drop the tenant's entry (now and, inside a transaction, again after commit)
+     */
+    public void invalidate(UUID tenantId) {
+        entries.remove(tenantId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entries.remove(tenantId);
+                }
+            });
+        }
+    }
+}
@@ -61,15 +61,21 @@ public class MercadoLivreOAuthService {
     private final MarketplaceConnectionRepository connectionRepository;
     private final EncryptedStringConverter encryptedStringConverter;
     private final RestTemplate restTemplate;
+    private final MercadoLivreConnectionCache connectionCache;
+    private final MarketplaceSellerDirectory sellerDirectory;
 
     public MercadoLivreOAuthService(
         MarketplaceConnectionRepository connectionRepository,
         EncryptedStringConverter encryptedStringConverter,
-        RestTemplate restTemplate
+        RestTemplate restTemplate,
+        MercadoLivreConnectionCache connectionCache,
+        MarketplaceSellerDirectory sellerDirectory
     ) {
         this.connectionRepository = connectionRepository;
         this.encryptedStringConverter = encryptedStringConverter;
         this.restTemplate = restTemplate;
+        this.connectionCache = connectionCache;
+        this.sellerDirectory = sellerDirectory;
     }
 
     /**
@@ -121,6 +127,7 @@ public class MercadoLivreOAuthService {
             MarketplaceConnection connection = connectionRepository
                 .findByTenantIdAndMarketplace(tenantId, Marketplace.MERCADO_LIVRE.name())
                 .orElse(new MarketplaceConnection());
+            String previousUserId = connection.getUserIdMarketplace();
 
             connection.setTenantId(tenantId);
             connection.setMarketplace(Marketplace.MERCADO_LIVRE);
@@ -136,6 +143,13 @@ public class MercadoLivreOAuthService {
             connection.setLastSyncAt(LocalDateTime.now());
 
             connectionRepository.save(connection);
+            connectionCache.invalidate(tenantId);
+
+            // Webhooks identify the seller only; a reconnect with another account drops the old one
+            if (previousUserId != null && !previousUserId.equals(userIdMarketplace)) {
+                sellerDirectory.unregister(Marketplace.MERCADO_LIVRE, previousUserId, tenantId);
+            }
+            sellerDirectory.register(Marketplace.MERCADO_LIVRE, userIdMarketplace, tenantId);
             log.info("Mercado Livre connection saved successfully for tenant: {}", tenantId);
 
         } catch (Exception e) {
@@ -150,11 +164,31 @@ public class MercadoLivreOAuthService {
      */
     @Transactional
     public void refreshToken(UUID connectionId) {
-        log.info("Refreshing token for connection: {}", connectionId);
+        refreshToken(connectionId, null);
+    }
 
-        MarketplaceConnection connection = connectionRepository.findById(connectionId)
+    /**
+     * AC4: Refresh access token unless another caller already did
+     * The connection row is locked, so concurrent refreshes (threads or nodes) run one at a time
+     * and later ones see the new token instead of spending the single-use refresh token again.
+     *
+     * @param connectionId Connection ID to refresh
+     * @param staleAccessToken Encrypted access token the caller saw, or null to always refresh
+     * @return true if a new token was requested from Mercado Livre
+     * @see MercadoLivreTokenRefresher
+     */
+    @Transactional
+    public boolean refreshToken(UUID connectionId, String staleAccessToken) {
+        MarketplaceConnection connection = connectionRepository.findByIdForUpdate(connectionId)
             .orElseThrow(() -> new IllegalArgumentException("Connection not found: " + connectionId));
 
+        if (staleAccessToken != null && !staleAccessToken.equals(connection.getAccessToken())) {
+            log.debug("Token of connection {} already refreshed, skipping", connectionId);
+            connectionCache.invalidate(connection.getTenantId());
+            return false;
+        }
+
+        log.info("Refreshing token for connection: {}", connectionId);
         TenantContext.setTenantId(connection.getTenantId().toString());
 
         try {
@@ -173,7 +207,9 @@ public class MercadoLivreOAuthService {
             connection.setErrorMessage(null);
 
             connectionRepository.save(connection);
+            connectionCache.invalidate(connection.getTenantId());
             log.info("Token refresh completed for connection: {}", connectionId);
+            return true;
 
         } catch (Exception e) {
             log.error("Error refreshing token for connection: {}", connectionId, e);
@@ -182,6 +218,7 @@ public class MercadoLivreOAuthService {
             connection.setStatus(ConnectionStatus.ERROR);
             connection.setErrorMessage("Token refresh failed: " + e.getMessage());
             connectionRepository.save(connection);
+            connectionCache.invalidate(connection.getTenantId());
 
             throw new RuntimeException("Failed to refresh token", e);
         }
@@ -219,6 +256,8 @@ public class MercadoLivreOAuthService {
         connection.setStatus(ConnectionStatus.DISCONNECTED);
         connection.setErrorMessage(null);
         connectionRepository.save(connection);
+        connectionCache.invalidate(tenantId);
+        sellerDirectory.unregister(Marketplace.MERCADO_LIVRE, connection.getUserIdMarketplace(), tenantId);
 
         log.info("Mercado Livre disconnected successfully for tenant: {}", tenantId);
     }
@@ -18,7 +18,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -91,6 +93,18 @@ public class MercadoLivreOrderImportService {
         }
     }
 
+    /**
+     * AC3: Import an order already fetched from ML (e.g. an /orders/search result)
+     * Called by the polling job for orders not imported yet
+     */
+    @Transactional
+    public void importOrder(UUID tenantId, MLOrderResponse mlOrder) {
+        MarketplaceOrder order = createMarketplaceOrder(tenantId, mlOrder);
+        orderRepository.save(order);
+
+        log.info("Order {} imported successfully", mlOrder.getId());
+    }
+
     /**
      * Update existing order status from ML
      */
@@ -151,36 +165,39 @@ public class MercadoLivreOrderImportService {
     /**
      * AC4: Identify products/variants sold in order
      * Returns list of (productId, variantId, quantity) tuples
+     *
+     * <p>All listings of the order are loaded with one query.
      */
     public List<OrderItemIdentification> identifyOrderItems(UUID tenantId, MLOrderResponse mlOrder) {
         List<OrderItemIdentification> identifications = new ArrayList<>();
 
-        if (mlOrder.getOrderItems() == null) {
+        if (mlOrder.getOrderItems() == null || mlOrder.getOrderItems().isEmpty()) {
             return identifications;
         }
 
+        Set<String> fullListingIds = mlOrder.getOrderItems().stream()
+            .map(mlItem -> fullListingId(mlItem.getItem()))
+            .collect(Collectors.toSet());
+        Map<String, MarketplaceListing> listingsById = listingRepository
+            .findByTenantIdAndMarketplaceAndListingIds(
+                tenantId,
+                Marketplace.MERCADO_LIVRE.name(),
+                fullListingIds
+            ).stream()
+            .collect(Collectors.toMap(MarketplaceListing::getListingIdMarketplace, l -> l, (a, b) -> a));
+
         for (MLOrderResponse.MLOrderItem mlItem : mlOrder.getOrderItems()) {
             String listingId = mlItem.getItem().getId();
             Long variationId = mlItem.getItem().getVariationId();
 
             log.debug("Identifying order item: listingId={}, variationId={}", listingId, variationId);
 
-            // Search for marketplace listing
-            String fullListingId = variationId != null
-                ? listingId + "-" + variationId
-                : listingId;
+            MarketplaceListing listing = listingsById.get(fullListingId(mlItem.getItem()));
 
-            Optional<MarketplaceListing> listing = listingRepository
-                .findByTenantIdAndMarketplaceAndListingId(
-                    tenantId,
-                    Marketplace.MERCADO_LIVRE.name(),
-                    fullListingId
-                );
-
-            if (listing.isPresent()) {
+            if (listing != null) {
                 OrderItemIdentification identification = new OrderItemIdentification(
-                    listing.get().getProductId(),
-                    listing.get().getVariantId(),
+                    listing.getProductId(),
+                    listing.getVariantId(),
                     mlItem.getQuantity(),
                     mlItem.getUnitPrice()
                 );
@@ -230,6 +247,15 @@ public class MercadoLivreOrderImportService {
 
     // Helper Methods
 
+    /**
+     * Listing ID as stored on import: item ID, or item ID + "-" + variation ID
+     */
+    private static String fullListingId(MLOrderResponse.MLOrderItem.MLItem item) {
+        return item.getVariationId() != null
+            ? item.getId() + "-" + item.getVariationId()
+            : item.getId();
+    }
+
     private MarketplaceOrder createMarketplaceOrder(UUID tenantId, MLOrderResponse mlOrder) {
         MarketplaceOrder order = new MarketplaceOrder();
         order.setTenantId(tenantId);
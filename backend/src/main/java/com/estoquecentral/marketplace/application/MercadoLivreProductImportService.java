@@ -6,44 +6,92 @@ import com.estoquecentral.catalog.domain.ProductType;
 import com.estoquecentral.marketplace.adapter.out.MarketplaceListingRepository;
 import com.estoquecentral.marketplace.application.dto.ImportListingsRequest;
 import com.estoquecentral.marketplace.application.dto.ImportListingsResponse;
+import com.estoquecentral.marketplace.application.dto.ListingPreviewProgress;
 import com.estoquecentral.marketplace.application.dto.ListingPreviewResponse;
 import com.estoquecentral.marketplace.application.dto.ml.MLItemResponse;
 import com.estoquecentral.marketplace.application.dto.ml.MLItemSearchResponse;
+import com.estoquecentral.marketplace.application.dto.ml.MLMultigetItemResponse;
 import com.estoquecentral.marketplace.domain.ListingStatus;
 import com.estoquecentral.marketplace.domain.Marketplace;
 import com.estoquecentral.marketplace.domain.MarketplaceListing;
 import com.estoquecentral.shared.tenant.TenantContext;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
 /**
  * Service for importing products from Mercado Livre
  * Story 5.2: Import Products from Mercado Livre - AC2, AC3, AC4
+ *
+ * <p><strong>Large catalogs:</strong> Listing IDs are collected with scan (scroll)
+ * pagination, so every listing is seen, not only the first page. Item details come from the
+ * <code>/items?ids=</code> multiget in batches of 20, fetched by a bounded pool
+ * (<code>marketplace.mercadolivre.import.fetch-concurrency</code>) and throttled per
+ * connection by {@link MarketplaceRateLimiter}. A failed multiget is retried once and then
+ * falls back to one <code>/items/{id}</code> GET per item; IDs that still fail are reported
+ * (preview progress phase PARTIAL, import errors) instead of silently left out. "Already
+ * imported" flags are resolved in one query for all IDs. Progress of a running preview is
+ * available per tenant.
  */
 @Service
 public class MercadoLivreProductImportService {
 
     private static final Logger log = LoggerFactory.getLogger(MercadoLivreProductImportService.class);
 
+    private static final int SCAN_PAGE_SIZE = 100;
+    private static final int MULTIGET_BATCH_SIZE = 20; // ML multiget limit
+    private static final int MULTIGET_ATTEMPTS = 2;
+    private static final int IMPORTED_LOOKUP_CHUNK = 5000; // stay below JDBC bind parameter limits
+
     private final MercadoLivreApiClient mlApiClient;
     private final MarketplaceListingRepository listingRepository;
     private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService fetchExecutor;
+
+    /** Progress of the latest preview per tenant. */
+    private final Map<UUID, ListingPreviewProgress> previewProgress = new ConcurrentHashMap<>();
 
     public MercadoLivreProductImportService(
         MercadoLivreApiClient mlApiClient,
         MarketplaceListingRepository listingRepository,
-        ProductRepository productRepository
+        ProductRepository productRepository,
+        PlatformTransactionManager transactionManager,
+        @Value("${marketplace.mercadolivre.import.fetch-concurrency:4}") int fetchConcurrency
     ) {
         this.mlApiClient = mlApiClient;
         this.listingRepository = listingRepository;
         this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fetchExecutor = Executors.newFixedThreadPool(Math.max(1, fetchConcurrency),
+            new CustomizableThreadFactory("ml-item-fetch-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdown();
     }
 
     /**
@@ -54,90 +102,112 @@ public class MercadoLivreProductImportService {
         log.info("Fetching listings preview for tenant: {}", tenantId);
 
         try {
-            // Get user's item IDs from ML
-            MLItemSearchResponse searchResponse = mlApiClient.get(
-                "/users/me/items/search?status=active&limit=50",
-                MLItemSearchResponse.class,
-                tenantId
-            );
-
-            List<ListingPreviewResponse> previews = new ArrayList<>();
-
-            for (String itemId : searchResponse.getResults()) {
-                try {
-                    // Get basic item info (without full details for performance)
-                    MLItemResponse item = mlApiClient.get(
-                        "/items/" + itemId,
-                        MLItemResponse.class,
-                        tenantId
-                    );
-
-                    // Check if already imported
-                    boolean alreadyImported = listingRepository.existsByTenantIdAndMarketplaceAndListingId(
-                        tenantId,
-                        Marketplace.MERCADO_LIVRE.name(),
-                        itemId
-                    );
-
-                    ListingPreviewResponse preview = new ListingPreviewResponse(
-                        item.getId(),
-                        item.getTitle(),
-                        item.getPrice(),
-                        item.getAvailableQuantity(),
-                        item.getThumbnail(),
-                        alreadyImported,
-                        item.hasVariations()
-                    );
-
-                    previews.add(preview);
-
-                } catch (Exception e) {
-                    log.error("Error fetching item {}: {}", itemId, e.getMessage());
+            // Get all of the user's item IDs from ML
+            List<String> itemIds = scanListingIds(tenantId);
+
+            // Item details, 20 per request
+            int total = itemIds.size();
+            FetchedItems fetched = fetchItems(tenantId, itemIds, processed ->
+                previewProgress.put(tenantId, new ListingPreviewProgress(
+                    ListingPreviewProgress.FETCHING, total, total, processed, List.of())));
+            Map<String, MLItemResponse> items = fetched.items();
+
+            // Check which are already imported (one query)
+            Set<String> importedIds = findImportedListingIds(tenantId, itemIds);
+
+            List<ListingPreviewResponse> previews = new ArrayList<>(items.size());
+            for (String itemId : itemIds) {
+                MLItemResponse item = items.get(itemId);
+                if (item == null) {
+                    continue;
                 }
+
+                previews.add(new ListingPreviewResponse(
+                    item.getId(),
+                    item.getTitle(),
+                    item.getPrice(),
+                    item.getAvailableQuantity(),
+                    item.getThumbnail(),
+                    importedIds.contains(itemId),
+                    item.hasVariations()
+                ));
             }
 
+            List<String> failedIds = fetched.failedIds();
+            previewProgress.put(tenantId, new ListingPreviewProgress(
+                failedIds.isEmpty() ? ListingPreviewProgress.DONE : ListingPreviewProgress.PARTIAL,
+                total, total, items.size(), failedIds));
+            if (!failedIds.isEmpty()) {
+                log.warn("Could not load {} of {} listings for tenant {}: {}",
+                    failedIds.size(), total, tenantId, failedIds);
+            }
             log.info("Found {} listings for tenant {}", previews.size(), tenantId);
             return previews;
 
         } catch (Exception e) {
+            previewProgress.remove(tenantId);
             log.error("Error fetching listings preview for tenant {}", tenantId, e);
             throw new RuntimeException("Failed to fetch listings from Mercado Livre", e);
         }
     }
 
+    /**
+     * AC2: Progress of the tenant's latest listings preview
+     *
+     * @return progress, or empty if no preview ran since startup
+     */
+    public Optional<ListingPreviewProgress> getListingsPreviewProgress(UUID tenantId) {
+        return Optional.ofNullable(previewProgress.get(tenantId));
+    }
+
     /**
      * AC3: Import selected listings
      * Creates products and marketplace_listings records
+     *
+     * <p>Details are fetched with multiget before any database work; each listing is then
+     * imported in its own transaction, so one failing listing does not roll back the others.
      */
-    @Transactional
     public ImportListingsResponse importListings(UUID tenantId, ImportListingsRequest request) {
         log.info("Importing {} listings for tenant: {}", request.getListingIds().size(), tenantId);
 
         ImportListingsResponse response = new ImportListingsResponse();
 
-        for (String listingId : request.getListingIds()) {
-            try {
-                // Check if already imported
-                if (listingRepository.existsByTenantIdAndMarketplaceAndListingId(
-                    tenantId, Marketplace.MERCADO_LIVRE.name(), listingId)) {
-                    log.debug("Listing {} already imported, skipping", listingId);
-                    response.incrementSkipped();
-                    continue;
-                }
+        // Check which are already imported (one query)
+        List<String> requestedIds = new ArrayList<>(new LinkedHashSet<>(request.getListingIds()));
+        Set<String> importedIds = findImportedListingIds(tenantId, requestedIds);
+
+        List<String> toImport = new ArrayList<>();
+        for (String listingId : requestedIds) {
+            if (importedIds.contains(listingId)) {
+                log.debug("Listing {} already imported, skipping", listingId);
+                response.incrementSkipped();
+            } else {
+                toImport.add(listingId);
+            }
+        }
 
-                // Get full item details from ML
-                MLItemResponse mlItem = mlApiClient.get(
-                    "/items/" + listingId,
-                    MLItemResponse.class,
-                    tenantId
-                );
+        // Get full item details from ML
+        FetchedItems fetched = fetchItems(tenantId, toImport, processed -> { });
+        Set<String> failedIds = new HashSet<>(fetched.failedIds());
+
+        for (String listingId : toImport) {
+            MLItemResponse mlItem = fetched.items().get(listingId);
+            if (mlItem == null) {
+                response.addError("Failed to import " + listingId + ": " + (failedIds.contains(listingId)
+                    ? "could not load item from Mercado Livre"
+                    : "item not returned by Mercado Livre"));
+                continue;
+            }
 
+            try {
                 // Import based on type (simple or with variations)
-                if (mlItem.hasVariations()) {
-                    importProductWithVariations(tenantId, mlItem);
-                } else {
-                    importSimpleProduct(tenantId, mlItem);
-                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (mlItem.hasVariations()) {
+                        importProductWithVariations(tenantId, mlItem);
+                    } else {
+                        importSimpleProduct(tenantId, mlItem);
+                    }
+                });
 
                 response.incrementImported();
                 log.info("Successfully imported listing: {}", listingId);
@@ -154,6 +224,158 @@ public class MercadoLivreProductImportService {
         return response;
     }
 
+    /**
+     * Collects all active listing IDs of the seller with scan (scroll) pagination
+     */
+    private List<String> scanListingIds(UUID tenantId) {
+        Set<String> itemIds = new LinkedHashSet<>();
+        String scrollId = null;
+        int total = 0;
+
+        do {
+            String endpoint = "/users/me/items/search?status=active&search_type=scan&limit=" + SCAN_PAGE_SIZE
+                + (scrollId != null ? "&scroll_id=" + scrollId : "");
+            MLItemSearchResponse page = mlApiClient.get(endpoint, MLItemSearchResponse.class, tenantId);
+            if (page == null || page.getResults() == null || page.getResults().isEmpty()) {
+                break;
+            }
+
+            itemIds.addAll(page.getResults());
+            if (page.getPaging() != null && page.getPaging().getTotal() != null) {
+                total = page.getPaging().getTotal();
+            }
+            previewProgress.put(tenantId, new ListingPreviewProgress(
+                ListingPreviewProgress.SCANNING, Math.max(total, itemIds.size()), itemIds.size(), 0, List.of()));
+
+            scrollId = page.getScrollId();
+        } while (scrollId != null);
+
+        log.debug("Scanned {} listing IDs for tenant {}", itemIds.size(), tenantId);
+        return new ArrayList<>(itemIds);
+    }
+
+    /**
+     * Fetches item details with the multiget endpoint, batches in parallel (bounded pool)
+     *
+     * <p>A batch whose multiget fails is retried once, then its items are fetched one by one.
+     * Entries the multiget answers with 429/5xx are fetched one by one as well.
+     *
+     * @param onProgress receives the number of IDs processed so far
+     * @return items by ID, plus the IDs whose details could not be loaded (IDs that Mercado
+     *         Livre reports as missing, e.g. 404, are in neither)
+     */
+    private FetchedItems fetchItems(UUID tenantId, List<String> itemIds, IntConsumer onProgress) {
+        Map<String, MLItemResponse> items = new ConcurrentHashMap<>();
+        Set<String> failedIds = ConcurrentHashMap.newKeySet();
+        AtomicInteger processed = new AtomicInteger();
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+
+        for (int from = 0; from < itemIds.size(); from += MULTIGET_BATCH_SIZE) {
+            List<String> batch = itemIds.subList(from, Math.min(from + MULTIGET_BATCH_SIZE, itemIds.size()));
+            batches.add(CompletableFuture.runAsync(() -> {
+                // Connection lookup happens in the tenant schema
+                TenantContext.setTenantId(tenantId.toString());
+                try {
+                    List<String> retryOneByOne = fetchBatch(tenantId, batch, items);
+                    for (String itemId : retryOneByOne) {
+                        fetchItem(tenantId, itemId, items, failedIds);
+                    }
+                } finally {
+                    TenantContext.clear();
+                    onProgress.accept(processed.addAndGet(batch.size()));
+                }
+            }, fetchExecutor));
+        }
+
+        CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).join();
+
+        List<String> failed = new ArrayList<>();
+        for (String itemId : itemIds) {
+            if (failedIds.contains(itemId)) {
+                failed.add(itemId);
+            }
+        }
+        return new FetchedItems(items, failed);
+    }
+
+    /**
+     * Loads one multiget batch into <code>items</code>
+     *
+     * @return IDs to fetch one by one (whole batch if every multiget attempt failed)
+     */
+    private List<String> fetchBatch(UUID tenantId, List<String> batch, Map<String, MLItemResponse> items) {
+        for (int attempt = 1; attempt <= MULTIGET_ATTEMPTS; attempt++) {
+            try {
+                MLMultigetItemResponse[] response = mlApiClient.get(
+                    "/items?ids=" + String.join(",", batch),
+                    MLMultigetItemResponse[].class,
+                    tenantId
+                );
+                if (response == null) {
+                    throw new IllegalStateException("empty multiget response");
+                }
+
+                // Entries come back in request order
+                List<String> retryable = new ArrayList<>();
+                for (int i = 0; i < response.length; i++) {
+                    MLMultigetItemResponse entry = response[i];
+                    if (entry.isOk()) {
+                        items.put(entry.getBody().getId(), entry.getBody());
+                    } else if (isRetryable(entry.getCode()) && i < batch.size()) {
+                        retryable.add(batch.get(i));
+                    } else {
+                        log.warn("Item not returned by multiget (code {})", entry.getCode());
+                    }
+                }
+                return retryable;
+
+            } catch (Exception e) {
+                log.warn("Multiget of {} items failed (attempt {}/{}): {}",
+                    batch.size(), attempt, MULTIGET_ATTEMPTS, e.getMessage());
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Fetches one item with <code>/items/{id}</code>, recording it as failed on error
+     */
+    private void fetchItem(UUID tenantId, String itemId, Map<String, MLItemResponse> items, Set<String> failedIds) {
+        try {
+            MLItemResponse item = mlApiClient.get("/items/" + itemId, MLItemResponse.class, tenantId);
+            if (item != null) {
+                items.put(itemId, item);
+                return;
+            }
+            log.error("Empty response fetching item {}", itemId);
+        } catch (HttpClientErrorException.NotFound e) {
+            log.warn("Item {} not found on Mercado Livre", itemId);
+            return;
+        } catch (Exception e) {
+            log.error("Error fetching item {}: {}", itemId, e.getMessage());
+        }
+        failedIds.add(itemId);
+    }
+
+    private static boolean isRetryable(Integer code) {
+        return code == null || code == 429 || code >= 500;
+    }
+
+    /**
+     * Returns the subset of IDs already imported as Mercado Livre listings
+     */
+    private Set<String> findImportedListingIds(UUID tenantId, List<String> listingIds) {
+        Set<String> imported = new HashSet<>();
+        for (int from = 0; from < listingIds.size(); from += IMPORTED_LOOKUP_CHUNK) {
+            imported.addAll(listingRepository.findImportedListingIds(
+                tenantId,
+                Marketplace.MERCADO_LIVRE.name(),
+                listingIds.subList(from, Math.min(from + IMPORTED_LOOKUP_CHUNK, listingIds.size()))
+            ));
+        }
+        return imported;
+    }
+
     /**
      * Import simple product (no variations)
      */
@@ -278,4 +500,13 @@ public class MercadoLivreProductImportService {
                 return ListingStatus.ACTIVE;
         }
     }
+
+    /**
+     * Item details loaded by {@link #fetchItems}
+     *
+     * @param items     items by ID
+     * @param failedIds IDs whose details could not be loaded, in request order
+     */
+    private record FetchedItems(Map<String, MLItemResponse> items, List<String> failedIds) {
+    }
 }
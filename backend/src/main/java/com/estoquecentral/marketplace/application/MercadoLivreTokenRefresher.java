@@ -0,0 +1,98 @@
+package com.estoquecentral.marketplace.application;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-flight OAuth2 token refresh per Mercado Livre connection
+ * Story 5.1: Mercado Livre OAuth2 Authentication - AC4, AC8
+ *
+ * <p>When many requests of one tenant see an expired token at once, only the first caller
+ * refreshes; the others wait for it and reuse the result. Callers pass the (encrypted)
+ * access token they used: if it has been replaced by the time the connection row is locked,
+ * {@link MercadoLivreOAuthService#refreshToken(UUID, String)} returns without calling ML,
+ * which also covers late waiters and other nodes. Refresh tokens are single-use, so
+ * concurrent refreshes would otherwise invalidate each other.
+ *
+ * <p>Counter <code>marketplace.token.refresh{trigger=proactive|unauthorized}</code> counts
+ * refreshes actually sent to ML.
+ *
+ * @see TokenRefreshScheduledJob
+ * @see MercadoLivreApiClient
+ */
+@Component
+public class MercadoLivreTokenRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(MercadoLivreTokenRefresher.class);
+
+    /**
+     * Why a refresh is requested
+     */
+    public enum Trigger {
+        /** Scheduled ahead of expiry */
+        PROACTIVE,
+        /** An API call got 401 */
+        UNAUTHORIZED
+    }
+
+    private final MercadoLivreOAuthService oauthService;
+    private final Map<UUID, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Trigger, Counter> refreshCounters;
+
+    public MercadoLivreTokenRefresher(MercadoLivreOAuthService oauthService, MeterRegistry meterRegistry) {
+        this.oauthService = oauthService;
+        this.refreshCounters = Map.of(
+            Trigger.PROACTIVE, refreshCounter(meterRegistry, Trigger.PROACTIVE),
+            Trigger.UNAUTHORIZED, refreshCounter(meterRegistry, Trigger.UNAUTHORIZED)
+        );
+    }
+
+    /**
+     * Refresh the connection's token unless it was already replaced
+     *
+     * @param connectionId connection to refresh (caller sets the tenant context)
+     * @param staleAccessToken encrypted access token the caller considers expired
+     * @param trigger why the refresh is requested
+     */
+    public void refresh(UUID connectionId, String staleAccessToken, Trigger trigger) {
+        CompletableFuture<Void> refresh = new CompletableFuture<>();
+        CompletableFuture<Void> running = inFlight.putIfAbsent(connectionId, refresh);
+        if (running != null) {
+            log.debug("Waiting for token refresh already running for connection {}", connectionId);
+            try {
+                running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            return;
+        }
+
+        try {
+            if (oauthService.refreshToken(connectionId, staleAccessToken)) {
+                refreshCounters.get(trigger).increment();
+            }
+            refresh.complete(null);
+        } catch (RuntimeException e) {
+            refresh.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(connectionId, refresh);
+        }
+    }
+
+    private static Counter refreshCounter(MeterRegistry meterRegistry, Trigger trigger) {
+        return Counter.builder("marketplace.token.refresh")
+            .description("OAuth token refreshes sent to Mercado Livre")
+            .tag("trigger", trigger.name().toLowerCase())
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,185 @@
+package com.estoquecentral.marketplace.application;
+
+import com.estoquecentral.marketplace.adapter.out.MarketplaceWebhookInboxRepository;
+import com.estoquecentral.marketplace.application.dto.ml.MLWebhookNotification;
+import com.estoquecentral.marketplace.domain.Marketplace;
+import com.estoquecentral.marketplace.domain.MarketplaceWebhookTask;
+import com.estoquecentral.shared.tenant.TenantContext;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Imports Mercado Livre orders notified by webhook
+ * Story 5.5: Import and Process Orders from Mercado Livre - AC2
+ *
+ * <p>The webhook only appends the notification to <code>public.marketplace_webhook_inbox</code>
+ * ({@link #accept}) and answers. This worker:
+ * <ol>
+ *   <li>Claims inbox rows (FOR UPDATE SKIP LOCKED, with a lease) for its free threads</li>
+ *   <li>Resolves the seller to a tenant through {@link MarketplaceSellerDirectory}</li>
+ *   <li>Imports the order in the tenant schema with {@link MercadoLivreOrderImportService#importOrder}</li>
+ * </ol>
+ * Failures (including sellers not mapped yet) are retried with exponential backoff up to
+ * <code>marketplace.webhook.max-attempts</code>; after that the row is dropped and the order
+ * polling job remains the fallback.
+ *
+ * @see MarketplaceWebhookInboxRepository
+ */
+@Component
+public class MercadoLivreWebhookWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(MercadoLivreWebhookWorker.class);
+
+    private static final String ORDER_RESOURCE_PREFIX = "/orders/";
+    private static final long BASE_RETRY_DELAY_SECONDS = 30;
+    private static final int MAX_BACKOFF_SHIFT = 7; // ~1 hour
+
+    private final MarketplaceWebhookInboxRepository inboxRepository;
+    private final MarketplaceSellerDirectory sellerDirectory;
+    private final MercadoLivreOrderImportService orderImportService;
+    private final int leaseSeconds;
+    private final int maxAttempts;
+
+    private final ExecutorService executor;
+    private final Semaphore freeWorkers;
+
+    public MercadoLivreWebhookWorker(
+        MarketplaceWebhookInboxRepository inboxRepository,
+        MarketplaceSellerDirectory sellerDirectory,
+        MercadoLivreOrderImportService orderImportService,
+        @Value("${marketplace.webhook.worker-threads:4}") int workerThreads,
+        @Value("${marketplace.webhook.lease-seconds:120}") int leaseSeconds,
+        @Value("${marketplace.webhook.max-attempts:8}") int maxAttempts
+    ) {
+        this.inboxRepository = inboxRepository;
+        this.sellerDirectory = sellerDirectory;
+        this.orderImportService = orderImportService;
+        this.leaseSeconds = leaseSeconds;
+        this.maxAttempts = Math.max(1, maxAttempts);
+
+        int threads = Math.max(1, workerThreads);
+        this.executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("ml-webhook-"));
+        this.freeWorkers = new Semaphore(threads);
+    }
+
+    /**
+     * Stores an order notification for processing (single INSERT, safe to call from the webhook)
+     *
+     * @return true if the notification was queued, false if it is not an order notification
+     */
+    public boolean accept(MLWebhookNotification notification) {
+        if (!notification.isOrderNotification() || notification.extractOrderId() == null) {
+            return false;
+        }
+
+        inboxRepository.append(
+            Marketplace.MERCADO_LIVRE,
+            notification.getTopic(),
+            notification.getResource(),
+            notification.getUserId() != null ? notification.getUserId().toString() : null
+        );
+        return true;
+    }
+
+    /**
+     * Claims as many inbox rows as there are free threads and hands them over
+     */
+    @Scheduled(fixedDelayString = "${marketplace.webhook.poll-interval-ms:1000}")
+    public void pollInbox() {
+        int free = freeWorkers.availablePermits();
+        if (free == 0) {
+            return;
+        }
+
+        List<MarketplaceWebhookTask> tasks;
+        try {
+            tasks = inboxRepository.claim(free, leaseSeconds);
+        } catch (Exception e) {
+            log.error("Error claiming marketplace webhook inbox rows: {}", e.getMessage(), e);
+            return;
+        }
+
+        for (MarketplaceWebhookTask task : tasks) {
+            freeWorkers.acquireUninterruptibly();
+            try {
+                executor.execute(() -> {
+                    try {
+                        process(task);
+                    } finally {
+                        freeWorkers.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Shutting down: the lease expires and another node picks the row up
+                freeWorkers.release();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Imports the order of one claimed notification
+     */
+    void process(MarketplaceWebhookTask task) {
+        Optional<UUID> tenantId;
+        try {
+            tenantId = sellerDirectory.resolveTenant(task.marketplace(), task.userIdMarketplace());
+        } catch (Exception e) {
+            fail(task, "Tenant resolution failed: " + e.getMessage());
+            return;
+        }
+
+        if (tenantId.isEmpty()) {
+            fail(task, "No tenant connected for seller " + task.userIdMarketplace());
+            return;
+        }
+
+        String orderId = task.resource().substring(ORDER_RESOURCE_PREFIX.length());
+        TenantContext.setTenantId(tenantId.get().toString());
+        try {
+            orderImportService.importOrder(tenantId.get(), orderId);
+            inboxRepository.complete(task);
+            log.debug("Webhook order {} processed for tenant {}", orderId, tenantId.get());
+        } catch (Exception e) {
+            fail(task, e.getMessage());
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private void fail(MarketplaceWebhookTask task, String error) {
+        try {
+            if (task.attempts() >= maxAttempts) {
+                log.error("Giving up on webhook {} for seller {} after {} attempts: {}",
+                    task.resource(), task.userIdMarketplace(), task.attempts(), error);
+                inboxRepository.delete(task.id());
+                return;
+            }
+
+            long delaySeconds = BASE_RETRY_DELAY_SECONDS << Math.min(task.attempts() - 1, MAX_BACKOFF_SHIFT);
+            log.warn("Webhook {} for seller {} failed (attempt {}), retrying in {}s: {}",
+                task.resource(), task.userIdMarketplace(), task.attempts(), delaySeconds, error);
+            inboxRepository.retryLater(task.id(), delaySeconds, error);
+        } catch (Exception e) {
+            // Row stays claimed until the lease expires, then it is retried
+            log.error("Error recording webhook failure for {}: {}", task.resource(), e.getMessage(), e);
+        }
+    }
+}
@@ -3,49 +3,100 @@ package com.estoquecentral.marketplace.application;
 import com.estoquecentral.auth.adapter.out.TenantRepository;
 import com.estoquecentral.auth.domain.Tenant;
 import com.estoquecentral.marketplace.adapter.out.MarketplaceConnectionRepository;
+import com.estoquecentral.marketplace.adapter.out.MarketplaceOrderRepository;
+import com.estoquecentral.marketplace.application.dto.ml.MLOrderResponse;
+import com.estoquecentral.marketplace.application.dto.ml.MLOrderSearchResponse;
 import com.estoquecentral.marketplace.domain.ConnectionStatus;
 import com.estoquecentral.marketplace.domain.Marketplace;
 import com.estoquecentral.marketplace.domain.MarketplaceConnection;
 import com.estoquecentral.shared.tenant.TenantContext;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Scheduled job for polling Mercado Livre orders
  * Story 5.5: Import and Process Orders from Mercado Livre - AC3
  *
- * Alternative to webhooks for fetching new orders
- * Runs periodically to check for new orders from ML
+ * Safety net for missed webhooks (see {@link MercadoLivreWebhookWorker}, the primary path).
+ *
+ * <p><strong>Incremental:</strong> Each connection keeps a cursor (date_created of the last
+ * processed order). A cycle asks <code>/orders/search</code> only for orders created
+ * since the cursor (minus a small overlap), oldest first and paginated, skips orders already
+ * imported with one existence query per page, and imports the rest from the search results
+ * (no per-order request). A tenant without new orders costs one API call per cycle.
+ *
+ * <p>Tenants are polled in parallel on a bounded pool
+ * (<code>marketplace.order-polling.parallelism</code>).
  */
 @Component
 public class OrderPollingScheduledJob {
 
     private static final Logger log = LoggerFactory.getLogger(OrderPollingScheduledJob.class);
 
+    private static final int PAGE_SIZE = 50;
+    /** Re-read this window before the cursor: orders can become searchable slightly late. */
+    private static final Duration CURSOR_OVERLAP = Duration.ofMinutes(5);
+    /** ML date format; a "-00:00" offset avoids a '+' in the query string. */
+    private static final DateTimeFormatter ML_DATE_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'-00:00'");
+
     private final MarketplaceConnectionRepository connectionRepository;
+    private final MarketplaceOrderRepository orderRepository;
     private final MercadoLivreOrderImportService orderImportService;
+    private final MercadoLivreApiClient mlApiClient;
     private final TenantRepository tenantRepository;
+    private final MarketplaceSellerDirectory sellerDirectory;
+    private final Duration initialLookback;
+    private final int maxPagesPerCycle;
+    private final ExecutorService executor;
 
     public OrderPollingScheduledJob(
         MarketplaceConnectionRepository connectionRepository,
+        MarketplaceOrderRepository orderRepository,
         MercadoLivreOrderImportService orderImportService,
-        TenantRepository tenantRepository
+        MercadoLivreApiClient mlApiClient,
+        TenantRepository tenantRepository,
+        MarketplaceSellerDirectory sellerDirectory,
+        @Value("${marketplace.order-polling.parallelism:4}") int parallelism,
+        @Value("${marketplace.order-polling.initial-lookback-hours:24}") long initialLookbackHours,
+        @Value("${marketplace.order-polling.max-pages-per-cycle:20}") int maxPagesPerCycle
     ) {
         this.connectionRepository = connectionRepository;
+        this.orderRepository = orderRepository;
         this.orderImportService = orderImportService;
+        this.mlApiClient = mlApiClient;
         this.tenantRepository = tenantRepository;
+        this.sellerDirectory = sellerDirectory;
+        this.initialLookback = Duration.ofHours(initialLookbackHours);
+        this.maxPagesPerCycle = Math.max(1, maxPagesPerCycle);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism),
+            new CustomizableThreadFactory("ml-order-poll-"));
     }
 
     /**
-     * Poll for new orders every 10 minutes
+     * Poll for new orders (default every 10 minutes, start after 1 minute)
      * Note: In production, webhooks are preferred over polling
      * This is a backup mechanism
      */
-    @Scheduled(fixedDelay = 600000, initialDelay = 60000)  // 10 minutes, start after 1 minute
+    @Scheduled(fixedDelayString = "${marketplace.order-polling.interval-ms:600000}", initialDelay = 60000)
     public void pollForNewOrders() {
         log.debug("Starting order polling job");
 
@@ -60,62 +111,144 @@ public class OrderPollingScheduledJob {
 
             log.debug("Polling orders for {} active tenants", activeTenants.size());
 
-            // Process each tenant
-            for (Tenant tenant : activeTenants) {
-                try {
-                    // Set tenant context
-                    TenantContext.setTenantId(tenant.getId().toString());
-
-                    // Find active ML connections for this tenant
-                    List<MarketplaceConnection> connections = connectionRepository
-                        .findByTenantAndMarketplaceAndStatus(
-                            tenant.getId(),
-                            Marketplace.MERCADO_LIVRE.name(),
-                            ConnectionStatus.CONNECTED.name()
-                        );
-
-                    if (connections.isEmpty()) {
-                        continue;
-                    }
+            // Fan out; wait so cycles do not overlap
+            CompletableFuture.allOf(activeTenants.stream()
+                .map(tenant -> CompletableFuture.runAsync(() -> pollTenant(tenant.getId()), executor))
+                .toArray(CompletableFuture[]::new)
+            ).join();
 
-                    log.info("Found {} active ML connections to poll for tenant {}",
-                        connections.size(), tenant.getId());
+            log.debug("Order polling job completed");
 
-                    // Poll orders for this tenant
-                    pollOrdersForTenant(tenant.getId());
+        } catch (Exception e) {
+            log.error("Error in order polling job", e);
+        }
+    }
 
-                } catch (Exception e) {
-                    log.error("Error polling orders for tenant: {}", tenant.getId(), e);
-                } finally {
-                    // Always clear tenant context
-                    TenantContext.clear();
-                }
-            }
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
 
-            log.debug("Order polling job completed");
+    private void pollTenant(UUID tenantId) {
+        try {
+            // Set tenant context
+            TenantContext.setTenantId(tenantId.toString());
+
+            // Find active ML connections for this tenant
+            List<MarketplaceConnection> connections = connectionRepository
+                .findByTenantAndMarketplaceAndStatus(
+                    tenantId,
+                    Marketplace.MERCADO_LIVRE.name(),
+                    ConnectionStatus.CONNECTED.name()
+                );
+
+            for (MarketplaceConnection connection : connections) {
+                // Connections made before the seller map existed: register them for webhooks
+                sellerDirectory.register(Marketplace.MERCADO_LIVRE, connection.getUserIdMarketplace(), tenantId);
+
+                pollOrdersForConnection(tenantId, connection);
+            }
 
         } catch (Exception e) {
-            log.error("Error in order polling job", e);
+            log.error("Error polling orders for tenant: {}", tenantId, e);
+        } finally {
+            // Always clear tenant context
+            TenantContext.clear();
         }
     }
 
     /**
-     * Poll orders for a single tenant
-     * In a full implementation, this would:
-     * 1. Call /orders/search to find recent orders
-     * 2. Import each order that isn't already imported
+     * Poll orders created since the connection's cursor and import the new ones
      *
-     * For now, this is a placeholder
+     * <p>Orders are processed oldest first; the cursor stops at the last imported order, so
+     * an order that fails to import is searched again next cycle.
      */
-    private void pollOrdersForTenant(java.util.UUID tenantId) {
-        log.debug("Polling orders for tenant: {}", tenantId);
+    void pollOrdersForConnection(UUID tenantId, MarketplaceConnection connection) {
+        LocalDateTime from = connection.getOrdersPolledUntil() != null
+            ? connection.getOrdersPolledUntil().minus(CURSOR_OVERLAP)
+            : LocalDateTime.now(ZoneOffset.UTC).minus(initialLookback);
 
-        // TODO: Implement actual polling logic
-        // This would call:
-        // 1. mlApiClient.get("/orders/search?seller={seller_id}&order.date_created.from={lastPollTime}", ...)
-        // 2. For each order ID: orderImportService.importOrder(tenantId, orderId)
+        LocalDateTime polledUntil = connection.getOrdersPolledUntil();
+        int imported = 0;
+        int offset = 0;
 
-        // For now, just log that polling would happen
-        log.debug("Order polling for tenant {} - not yet fully implemented", tenantId);
+        try {
+            for (int page = 0; page < maxPagesPerCycle; page++) {
+                MLOrderSearchResponse response = mlApiClient.get(
+                    "/orders/search?seller=" + connection.getUserIdMarketplace()
+                        + "&order.date_created.from=" + ML_DATE_FORMAT.format(from)
+                        + "&sort=date_asc&limit=" + PAGE_SIZE + "&offset=" + offset,
+                    MLOrderSearchResponse.class,
+                    tenantId
+                );
+                List<MLOrderResponse> orders = response != null && response.getResults() != null
+                    ? response.getResults()
+                    : List.of();
+                if (orders.isEmpty()) {
+                    break;
+                }
+
+                Set<String> existing = new HashSet<>(orderRepository.findExistingOrderIds(
+                    tenantId,
+                    Marketplace.MERCADO_LIVRE.name(),
+                    orders.stream().map(order -> String.valueOf(order.getId())).toList()
+                ));
+
+                for (MLOrderResponse order : orders) {
+                    String orderId = String.valueOf(order.getId());
+                    if (!existing.contains(orderId)) {
+                        orderImportService.importOrder(tenantId, order);
+                        imported++;
+                    }
+
+                    LocalDateTime createdAt = parseDate(order.getDateCreated());
+                    if (createdAt != null && (polledUntil == null || createdAt.isAfter(polledUntil))) {
+                        polledUntil = createdAt;
+                    }
+                }
+
+                offset += orders.size();
+                if (orders.size() < PAGE_SIZE) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error polling orders for tenant {} (seller {}): {}",
+                tenantId, connection.getUserIdMarketplace(), e.getMessage(), e);
+        } finally {
+            saveCursor(connection, polledUntil);
+        }
+
+        if (imported > 0) {
+            log.info("Imported {} orders missed by webhooks for tenant {}", imported, tenantId);
+        }
+    }
+
+    private void saveCursor(MarketplaceConnection connection, LocalDateTime polledUntil) {
+        boolean moved = polledUntil != null && !polledUntil.equals(connection.getOrdersPolledUntil());
+        if (!moved) {
+            return;
+        }
+
+        try {
+            connectionRepository.updateOrderPollingCursor(connection.getId(), polledUntil);
+        } catch (Exception e) {
+            log.error("Error saving order polling cursor for connection {}", connection.getId(), e);
+        }
+    }
+
+    /**
+     * ML date (e.g. 2021-03-25T10:00:00.000-04:00) as UTC
+     */
+    private static LocalDateTime parseDate(String dateCreated) {
+        if (dateCreated == null) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(dateCreated).withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime();
+        } catch (Exception e) {
+            log.warn("Unparseable order date_created: {}", dateCreated);
+            return null;
+        }
     }
 }
@@ -1,19 +1,35 @@
 package com.estoquecentral.marketplace.application;
 
-import com.estoquecentral.auth.adapter.out.TenantRepository;
-import com.estoquecentral.auth.domain.Tenant;
+import com.estoquecentral.marketplace.adapter.out.MarketplaceSyncDispatchRepository;
 import com.estoquecentral.shared.tenant.TenantContext;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Scheduled worker for processing marketplace stock sync queue
  * Story 5.4: Stock Synchronization to Mercado Livre - AC2
- * Runs every 1 minute to ensure < 5min latency (NFR4)
+ * Ensures < 5min latency (NFR4)
+ *
+ * <p>Every <code>marketplace.sync.dispatch-interval-ms</code> the dispatcher finds the tenants
+ * with due items in one query ({@link MarketplaceSyncDispatchRepository}) and hands each one
+ * without a running drain to a bounded pool (<code>marketplace.sync.worker-threads</code>).
+ * A drain processes the tenant's queue in batches of <code>marketplace.sync.batch-size</code>,
+ * up to <code>marketplace.sync.max-items-per-round</code> items; a larger backlog continues in
+ * the next round, so one busy tenant cannot hold a thread while others wait. API calls are
+ * throttled per connection, across nodes, by {@link MarketplaceRateLimiter}.
  */
 @Component
 public class StockSyncScheduledWorker {
@@ -21,55 +37,82 @@ public class StockSyncScheduledWorker {
     private static final Logger log = LoggerFactory.getLogger(StockSyncScheduledWorker.class);
 
     private final MarketplaceStockSyncService syncService;
-    private final TenantRepository tenantRepository;
+    private final MarketplaceSyncDispatchRepository dispatchRepository;
+    private final int batchSize;
+    private final int maxItemsPerRound;
+    private final ExecutorService executor;
+
+    /** Tenants with a drain queued or running (at most one per tenant). */
+    private final Set<UUID> drainingTenants = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
 
     public StockSyncScheduledWorker(
         MarketplaceStockSyncService syncService,
-        TenantRepository tenantRepository
+        MarketplaceSyncDispatchRepository dispatchRepository,
+        @Value("${marketplace.sync.worker-threads:8}") int workerThreads,
+        @Value("${marketplace.sync.batch-size:50}") int batchSize,
+        @Value("${marketplace.sync.max-items-per-round:200}") int maxItemsPerRound
     ) {
         this.syncService = syncService;
-        this.tenantRepository = tenantRepository;
+        this.dispatchRepository = dispatchRepository;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxItemsPerRound = Math.max(this.batchSize, maxItemsPerRound);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, workerThreads),
+            new CustomizableThreadFactory("marketplace-sync-"));
     }
 
     /**
-     * AC2: Worker roda a cada 1 minuto
-     * Ensures latência < 5min in 95% of cases (NFR4)
+     * AC2: Dispatches a queue drain for every tenant with due items not already draining
      */
-    @Scheduled(fixedDelay = 60000) // 1 minute
+    @Scheduled(fixedDelayString = "${marketplace.sync.dispatch-interval-ms:1000}")
     public void processStockSyncQueue() {
         try {
-            log.debug("Starting stock sync queue processing");
-
-            // Get all active tenants
-            List<Tenant> activeTenants = tenantRepository.findAllActive();
+            List<UUID> dueTenants = dispatchRepository.findTenantsWithDueItems();
 
-            if (activeTenants.isEmpty()) {
-                log.debug("No active tenants found");
-                return;
+            for (UUID tenantId : dueTenants) {
+                if (!drainingTenants.add(tenantId)) {
+                    continue;
+                }
+                try {
+                    executor.execute(() -> drainTenant(tenantId));
+                } catch (RejectedExecutionException e) {
+                    drainingTenants.remove(tenantId);
+                }
             }
+        } catch (Exception e) {
+            log.error("Error processing stock sync queue", e);
+        }
+    }
 
-            log.debug("Processing sync queue for {} active tenants", activeTenants.size());
-
-            // Process queue for each tenant
-            for (Tenant tenant : activeTenants) {
-                try {
-                    // Set tenant context
-                    TenantContext.setTenantId(tenant.getId().toString());
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        executor.shutdown();
+    }
 
-                    // Process sync queue for this tenant
-                    syncService.processSyncQueueForTenant(tenant.getId());
+    /**
+     * Processes the tenant's sync queue until it is empty or the round's item cap is reached
+     */
+    void drainTenant(UUID tenantId) {
+        try {
+            // Set tenant context
+            TenantContext.setTenantId(tenantId.toString());
 
-                } catch (Exception e) {
-                    log.error("Error processing sync queue for tenant: {}", tenant.getId(), e);
-                } finally {
-                    // Always clear tenant context
-                    TenantContext.clear();
-                }
-            }
+            int total = 0;
+            int limit;
+            int processed;
+            do {
+                limit = Math.min(batchSize, maxItemsPerRound - total);
+                processed = syncService.processSyncQueueForTenant(tenantId, limit);
+                total += processed;
+            } while (running && processed == limit && total < maxItemsPerRound);
 
-            log.debug("Finished stock sync queue processing");
         } catch (Exception e) {
-            log.error("Error processing stock sync queue", e);
+            log.error("Error processing sync queue for tenant: {}", tenantId, e);
+        } finally {
+            // Always clear tenant context
+            TenantContext.clear();
+            drainingTenants.remove(tenantId);
         }
     }
 }
@@ -6,48 +6,77 @@ import com.estoquecentral.marketplace.adapter.out.MarketplaceConnectionRepositor
 import com.estoquecentral.marketplace.domain.ConnectionStatus;
 import com.estoquecentral.marketplace.domain.MarketplaceConnection;
 import com.estoquecentral.shared.tenant.TenantContext;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Scheduled job to automatically refresh expiring OAuth2 tokens
  * Story 5.1: Mercado Livre OAuth2 Authentication - AC4
  *
- * Runs every hour to check for tokens expiring within 30 minutes
- * and refreshes them proactively.
+ * Checks every <code>marketplace.token-refresh.check-interval-ms</code> (default 5 minutes)
+ * for tokens expiring within <code>marketplace.token-refresh.window-minutes</code> (default 30)
+ * and schedules their refresh proactively.
+ *
+ * <p>Each refresh runs at a random moment between now and {@link #SAFETY_MARGIN} before
+ * expiry, so connections that expire together are not all refreshed in the same second, and
+ * on a small pool (<code>marketplace.token-refresh.parallelism</code>) instead of the
+ * scanning thread. Refreshes go through {@link MercadoLivreTokenRefresher}, so one racing
+ * with a 401-driven refresh is skipped.
  */
 @Component
 public class TokenRefreshScheduledJob {
 
     private static final Logger log = LoggerFactory.getLogger(TokenRefreshScheduledJob.class);
-    private static final int REFRESH_THRESHOLD_MINUTES = 30;
+
+    /** Tokens are always refreshed at least this long before they expire. */
+    static final Duration SAFETY_MARGIN = Duration.ofMinutes(5);
 
     private final MarketplaceConnectionRepository connectionRepository;
-    private final MercadoLivreOAuthService oauthService;
+    private final MercadoLivreTokenRefresher tokenRefresher;
     private final TenantRepository tenantRepository;
+    private final Duration refreshWindow;
+    private final ScheduledExecutorService scheduler;
+
+    /** Connections with a refresh already scheduled. */
+    private final Set<UUID> scheduledConnections = ConcurrentHashMap.newKeySet();
 
     public TokenRefreshScheduledJob(
         MarketplaceConnectionRepository connectionRepository,
-        MercadoLivreOAuthService oauthService,
-        TenantRepository tenantRepository
+        MercadoLivreTokenRefresher tokenRefresher,
+        TenantRepository tenantRepository,
+        @Value("${marketplace.token-refresh.window-minutes:30}") long refreshWindowMinutes,
+        @Value("${marketplace.token-refresh.parallelism:2}") int parallelism
     ) {
         this.connectionRepository = connectionRepository;
-        this.oauthService = oauthService;
+        this.tokenRefresher = tokenRefresher;
         this.tenantRepository = tenantRepository;
+        this.refreshWindow = Duration.ofMinutes(refreshWindowMinutes);
+        this.scheduler = Executors.newScheduledThreadPool(Math.max(1, parallelism),
+            new CustomizableThreadFactory("ml-token-refresh-"));
     }
 
     /**
-     * Refresh tokens for connections expiring soon
-     * Runs every hour (3600000 ms = 1 hour)
+     * Schedule refreshes for connections expiring soon
      */
-    @Scheduled(fixedDelay = 3600000) // 1 hour
+    @Scheduled(fixedDelayString = "${marketplace.token-refresh.check-interval-ms:300000}")
     public void refreshExpiringTokens() {
-        log.info("Starting token refresh job");
+        log.debug("Starting token refresh job");
 
         try {
             // Get all active tenants
@@ -60,9 +89,9 @@ public class TokenRefreshScheduledJob {
 
             log.debug("Checking token expiration for {} active tenants", activeTenants.size());
 
-            LocalDateTime expirationThreshold = LocalDateTime.now().plusMinutes(REFRESH_THRESHOLD_MINUTES);
-            int totalSuccessCount = 0;
-            int totalFailureCount = 0;
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime expirationThreshold = now.plus(refreshWindow);
+            int scheduledCount = 0;
 
             // Process each tenant
             for (Tenant tenant : activeTenants) {
@@ -70,42 +99,16 @@ public class TokenRefreshScheduledJob {
                     // Set tenant context
                     TenantContext.setTenantId(tenant.getId().toString());
 
-                    // Find connections with tokens expiring within 30 minutes for this tenant
+                    // Find connections with tokens expiring within the window for this tenant
                     List<MarketplaceConnection> expiringConnections = connectionRepository.findExpiringConnectionsByTenant(
                         tenant.getId(),
                         ConnectionStatus.CONNECTED.name(),
                         expirationThreshold
                     );
 
-                    if (expiringConnections.isEmpty()) {
-                        continue;
-                    }
-
-                    log.info("Found {} connections with tokens expiring soon for tenant {}",
-                        expiringConnections.size(), tenant.getId());
-
                     for (MarketplaceConnection connection : expiringConnections) {
-                        try {
-                            log.debug("Refreshing token for connection: {} (tenant: {}, marketplace: {})",
-                                connection.getId(),
-                                connection.getTenantId(),
-                                connection.getMarketplace());
-
-                            // Refresh token
-                            oauthService.refreshToken(connection.getId());
-
-                            totalSuccessCount++;
-                            log.debug("Token refreshed successfully for connection: {}", connection.getId());
-
-                        } catch (Exception e) {
-                            totalFailureCount++;
-                            log.error("Failed to refresh token for connection: {} (tenant: {})",
-                                connection.getId(),
-                                connection.getTenantId(),
-                                e);
-
-                            // Error status is already updated by oauthService.refreshToken()
-                            // TODO: Send notification to user about failed refresh
+                        if (scheduleRefresh(tenant.getId(), connection, now)) {
+                            scheduledCount++;
                         }
                     }
 
@@ -117,7 +120,9 @@ public class TokenRefreshScheduledJob {
                 }
             }
 
-            log.info("Token refresh job completed. Success: {}, Failures: {}", totalSuccessCount, totalFailureCount);
+            if (scheduledCount > 0) {
+                log.info("Token refresh job scheduled {} refreshes", scheduledCount);
+            }
 
         } catch (Exception e) {
             log.error("Error in token refresh job", e);
@@ -132,4 +137,48 @@ public class TokenRefreshScheduledJob {
         log.info("Manual token refresh triggered");
         refreshExpiringTokens();
     }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private boolean scheduleRefresh(UUID tenantId, MarketplaceConnection connection, LocalDateTime now) {
+        if (!scheduledConnections.add(connection.getId())) {
+            return false;
+        }
+
+        long delayMillis = jitteredDelayMillis(now, connection.getTokenExpiresAt());
+        String staleAccessToken = connection.getAccessToken();
+        log.debug("Refreshing token for connection {} (tenant {}) in {}s",
+            connection.getId(), tenantId, delayMillis / 1000);
+
+        scheduler.schedule(() -> {
+            try {
+                TenantContext.setTenantId(tenantId.toString());
+                tokenRefresher.refresh(connection.getId(), staleAccessToken,
+                    MercadoLivreTokenRefresher.Trigger.PROACTIVE);
+            } catch (Exception e) {
+                // Error status is already updated by oauthService.refreshToken()
+                // TODO: Send notification to user about failed refresh
+                log.error("Failed to refresh token for connection: {} (tenant: {})",
+                    connection.getId(), tenantId, e);
+            } finally {
+                TenantContext.clear();
+                scheduledConnections.remove(connection.getId());
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /**
+     * Random delay between now and {@link #SAFETY_MARGIN} before expiry (0 if already inside it)
+     */
+    static long jitteredDelayMillis(LocalDateTime now, LocalDateTime expiresAt) {
+        if (expiresAt == null) {
+            return 0;
+        }
+        long latestMillis = Duration.between(now, expiresAt.minus(SAFETY_MARGIN)).toMillis();
+        return latestMillis > 0 ? ThreadLocalRandom.current().nextLong(latestMillis + 1) : 0;
+    }
 }
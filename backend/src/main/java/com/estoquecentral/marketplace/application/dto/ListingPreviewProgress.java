@@ -0,0 +1,22 @@
+package com.estoquecentral.marketplace.application.dto;
+
+import java.util.List;
+
+/**
+ * Progress of a listing preview being built
+ * Story 5.2: Import Products from Mercado Livre - AC2
+ *
+ * @param phase     SCANNING (collecting listing IDs), FETCHING (item details), DONE, or
+ *                  PARTIAL (done, but some item details could not be loaded)
+ * @param total     listings reported by Mercado Livre
+ * @param scanned   listing IDs collected so far
+ * @param fetched   listings whose details were loaded so far
+ * @param failedIds listing IDs left out of the preview because loading their details failed
+ */
+public record ListingPreviewProgress(String phase, int total, int scanned, int fetched, List<String> failedIds) {
+
+    public static final String SCANNING = "SCANNING";
+    public static final String FETCHING = "FETCHING";
+    public static final String DONE = "DONE";
+    public static final String PARTIAL = "PARTIAL";
+}
@@ -16,6 +16,9 @@ public class MLItemSearchResponse {
     @JsonProperty("paging")
     private Paging paging;
 
+    @JsonProperty("scroll_id")
+    private String scrollId; // search_type=scan: pass back to get the next page
+
     public List<String> getResults() {
         return results;
     }
@@ -32,6 +35,14 @@ public class MLItemSearchResponse {
         this.paging = paging;
     }
 
+    public String getScrollId() {
+        return scrollId;
+    }
+
+    public void setScrollId(String scrollId) {
+        this.scrollId = scrollId;
+    }
+
     public static class Paging {
         @JsonProperty("total")
         private Integer total;
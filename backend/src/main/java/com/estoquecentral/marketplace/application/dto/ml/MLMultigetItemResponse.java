@@ -0,0 +1,38 @@
+package com.estoquecentral.marketplace.application.dto.ml;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO for one entry of the Mercado Livre /items?ids=... (multiget) response
+ * Story 5.2: Import Products from Mercado Livre - AC2
+ *
+ * Each requested ID gets its own HTTP status code; body is the item when code is 200.
+ */
+public class MLMultigetItemResponse {
+
+    @JsonProperty("code")
+    private Integer code;
+
+    @JsonProperty("body")
+    private MLItemResponse body;
+
+    public boolean isOk() {
+        return code != null && code == 200 && body != null;
+    }
+
+    public Integer getCode() {
+        return code;
+    }
+
+    public void setCode(Integer code) {
+        this.code = code;
+    }
+
+    public MLItemResponse getBody() {
+        return body;
+    }
+
+    public void setBody(MLItemResponse body) {
+        this.body = body;
+    }
+}
@@ -0,0 +1,39 @@
+package com.estoquecentral.marketplace.application.dto.ml;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * DTO for Mercado Livre order search response
+ * GET /orders/search?seller={seller_id}&order.date_created.from=...&sort=date_asc
+ * Story 5.5: Import and Process Orders from Mercado Livre - AC3
+ *
+ * Results are full order objects, so new orders can be imported without another request.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class MLOrderSearchResponse {
+
+    @JsonProperty("results")
+    private List<MLOrderResponse> results;
+
+    @JsonProperty("paging")
+    private MLItemSearchResponse.Paging paging;
+
+    public List<MLOrderResponse> getResults() {
+        return results;
+    }
+
+    public void setResults(List<MLOrderResponse> results) {
+        this.results = results;
+    }
+
+    public MLItemSearchResponse.Paging getPaging() {
+        return paging;
+    }
+
+    public void setPaging(MLItemSearchResponse.Paging paging) {
+        this.paging = paging;
+    }
+}
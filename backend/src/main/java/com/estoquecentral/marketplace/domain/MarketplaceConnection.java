@@ -59,6 +59,9 @@ public class MarketplaceConnection {
     @Column("data_atualizacao")
     private LocalDateTime dataAtualizacao;
 
+    @Column("orders_polled_until")
+    private LocalDateTime ordersPolledUntil;  // UTC date_created of the last polled order
+
     // Constructors
 
     public MarketplaceConnection() {
@@ -166,6 +169,14 @@ public class MarketplaceConnection {
         this.dataAtualizacao = dataAtualizacao;
     }
 
+    public LocalDateTime getOrdersPolledUntil() {
+        return ordersPolledUntil;
+    }
+
+    public void setOrdersPolledUntil(LocalDateTime ordersPolledUntil) {
+        this.ordersPolledUntil = ordersPolledUntil;
+    }
+
     /**
      * Check if token is expired or will expire within the next N minutes
      */
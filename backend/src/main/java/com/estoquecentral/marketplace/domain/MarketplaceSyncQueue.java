@@ -14,6 +14,8 @@ import java.util.UUID;
 @Table("marketplace_sync_queue")
 public class MarketplaceSyncQueue {
 
+    private static final long RETRY_BASE_DELAY_SECONDS = 30;
+
     @Id
     private UUID id;
 
@@ -56,6 +58,12 @@ public class MarketplaceSyncQueue {
     @Column("processed_at")
     private LocalDateTime processedAt;
 
+    @Column("next_attempt_at")
+    private LocalDateTime nextAttemptAt; // backoff after a failure
+
+    @Column("locked_until")
+    private LocalDateTime lockedUntil; // lease of the worker that claimed the item
+
     // Constructors
 
     public MarketplaceSyncQueue() {
@@ -93,6 +101,7 @@ public class MarketplaceSyncQueue {
         this.retryCount++;
         this.lastError = error;
         this.updatedAt = LocalDateTime.now();
+        this.nextAttemptAt = this.updatedAt.plusSeconds(RETRY_BASE_DELAY_SECONDS << Math.min(this.retryCount - 1, 10));
 
         if (this.retryCount >= this.maxRetries) {
             this.status = SyncStatus.FAILED;
@@ -218,4 +227,20 @@ public class MarketplaceSyncQueue {
     public void setProcessedAt(LocalDateTime processedAt) {
         this.processedAt = processedAt;
     }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public LocalDateTime getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(LocalDateTime lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
 }
@@ -0,0 +1,24 @@
+package com.estoquecentral.marketplace.domain;
+
+import java.util.UUID;
+
+/**
+ * MarketplaceWebhookTask - Claimed marketplace webhook inbox row
+ *
+ * @param id                inbox row ID
+ * @param marketplace       marketplace that sent the notification
+ * @param topic             notification topic (e.g. orders_v2)
+ * @param resource          notified resource (e.g. /orders/123456789)
+ * @param userIdMarketplace seller account the notification belongs to
+ * @param notifications     notifications collapsed into the row when it was claimed
+ * @param attempts          times the row has been claimed (including this claim)
+ */
+public record MarketplaceWebhookTask(
+        UUID id,
+        Marketplace marketplace,
+        String topic,
+        String resource,
+        String userIdMarketplace,
+        int notifications,
+        int attempts) {
+}
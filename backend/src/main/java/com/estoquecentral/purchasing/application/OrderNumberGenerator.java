@@ -1,11 +1,9 @@
 package com.estoquecentral.purchasing.application;
 
 import com.estoquecentral.purchasing.adapter.out.PurchaseOrderRepository;
+import com.estoquecentral.shared.numbering.DocumentNumberService;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 
 /**
@@ -16,14 +14,21 @@ import java.util.UUID;
  * Example: PO-202511-0001, PO-202511-0002, ...
  *
  * Sequence resets each month
+ *
+ * @see DocumentNumberService
  */
 @Service
 public class OrderNumberGenerator {
 
+    private static final String PREFIX = "PO";
+
     private final PurchaseOrderRepository purchaseOrderRepository;
+    private final DocumentNumberService documentNumberService;
 
-    public OrderNumberGenerator(PurchaseOrderRepository purchaseOrderRepository) {
+    public OrderNumberGenerator(PurchaseOrderRepository purchaseOrderRepository,
+            DocumentNumberService documentNumberService) {
         this.purchaseOrderRepository = purchaseOrderRepository;
+        this.documentNumberService = documentNumberService;
     }
 
     /**
@@ -32,26 +37,9 @@ public class OrderNumberGenerator {
      * @param tenantId tenant UUID
      * @return PO number in format PO-YYYYMM-9999
      */
-    @Transactional
-    public synchronized String generateOrderNumber(UUID tenantId) {
-        LocalDate now = LocalDate.now();
-        String yearMonth = now.format(DateTimeFormatter.ofPattern("yyyyMM"));
-        String prefix = "PO-" + yearMonth + "-";
-
-        // Find maximum PO number for current month
-        String maxOrderNumber = purchaseOrderRepository
-            .findMaxPoNumberByTenantAndYearMonth(tenantId, yearMonth)
-            .orElse(null);
-
-        int nextSequence = 1;
-        if (maxOrderNumber != null && maxOrderNumber.startsWith(prefix)) {
-            // Extract sequence number from PO-YYYYMM-9999
-            String sequencePart = maxOrderNumber.substring(prefix.length());
-            nextSequence = Integer.parseInt(sequencePart) + 1;
-        }
-
-        // Format with 4-digit zero padding
-        return String.format("%s%04d", prefix, nextSequence);
+    public String generateOrderNumber(UUID tenantId) {
+        return documentNumberService.nextNumber(tenantId, PREFIX, yearMonth ->
+                purchaseOrderRepository.findMaxPoNumberByTenantAndYearMonth(tenantId, yearMonth));
     }
 
     /**
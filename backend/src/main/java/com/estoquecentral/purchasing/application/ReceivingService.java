@@ -3,11 +3,14 @@ package com.estoquecentral.purchasing.application;
 import com.estoquecentral.inventory.adapter.out.InventoryRepository;
 import com.estoquecentral.inventory.domain.Inventory;
 import com.estoquecentral.inventory.domain.MovementType;
+import com.estoquecentral.inventory.domain.StockChangedEvent;
+import com.estoquecentral.inventory.domain.StockBalance;
 import com.estoquecentral.inventory.domain.StockMovement;
 import com.estoquecentral.inventory.adapter.out.StockMovementRepository;
 import com.estoquecentral.purchasing.adapter.in.dto.ProcessReceivingRequest;
 import com.estoquecentral.purchasing.adapter.out.*;
 import com.estoquecentral.purchasing.domain.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -33,7 +36,7 @@ public class ReceivingService {
     private final InventoryRepository inventoryRepository;
     private final StockMovementRepository stockMovementRepository;
     private final ReceivingNumberGenerator numberGenerator;
-    private final WeightedAverageCostCalculator costCalculator;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ReceivingService(
             ReceivingRepository receivingRepository,
@@ -43,7 +46,7 @@ public class ReceivingService {
             InventoryRepository inventoryRepository,
             StockMovementRepository stockMovementRepository,
             ReceivingNumberGenerator numberGenerator,
-            WeightedAverageCostCalculator costCalculator) {
+            ApplicationEventPublisher eventPublisher) {
         this.receivingRepository = receivingRepository;
         this.receivingItemRepository = receivingItemRepository;
         this.purchaseOrderRepository = purchaseOrderRepository;
@@ -51,7 +54,7 @@ public class ReceivingService {
         this.inventoryRepository = inventoryRepository;
         this.stockMovementRepository = stockMovementRepository;
         this.numberGenerator = numberGenerator;
-        this.costCalculator = costCalculator;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -116,40 +119,15 @@ public class ReceivingService {
                                 itemRequest.getQuantityReceived(), quantityPending, poItem.getProductSku()));
             }
 
-            // Find or create inventory record (AC3)
-            Optional<Inventory> inventoryOpt = inventoryRepository
-                    .findByTenantIdAndProductIdAndLocationId(tenantId, poItem.getProductId(), po.getLocationId());
-
-            Inventory inventory;
-            BigDecimal currentQty;
-            BigDecimal currentCost;
-
-            if (inventoryOpt.isPresent()) {
-                inventory = inventoryOpt.get();
-                currentQty = inventory.getQuantityAvailable();
-                currentCost = inventory.getCost() != null ? inventory.getCost() : BigDecimal.ZERO;
-            } else {
-                // Create new inventory record
-                inventory = new Inventory(tenantId, poItem.getProductId(), po.getLocationId(), BigDecimal.ZERO);
-                inventory.setCost(BigDecimal.ZERO);
-                currentQty = BigDecimal.ZERO;
-                currentCost = BigDecimal.ZERO;
-            }
+            validateReceivedItem(itemRequest.getQuantityReceived(), poItem.getUnitCost());
 
-            // Calculate new weighted average cost (AC4)
-            BigDecimal newCost = costCalculator.calculateNewCost(
-                    currentQty,
-                    currentCost,
-                    itemRequest.getQuantityReceived(),
-                    poItem.getUnitCost()
+            // Add stock and recalculate weighted average cost in one upsert (AC3, AC4)
+            Inventory inventory = inventoryRepository.receiveQuantity(
+                    tenantId, poItem.getProductId(), po.getLocationId(),
+                    itemRequest.getQuantityReceived(), poItem.getUnitCost()
             );
-
-            // Update inventory (AC3)
-            BigDecimal balanceBefore = inventory.getQuantityAvailable();
-            inventory.addQuantity(itemRequest.getQuantityReceived());
-            inventory.setCost(newCost);
-            inventory.setUpdatedAt(LocalDateTime.now());
-            inventoryRepository.save(inventory);
+            StockBalance balance = StockBalance.of(inventory, itemRequest.getQuantityReceived(), BigDecimal.ZERO);
+            BigDecimal newCost = inventory.getCost();
 
             // Create receiving item
             ReceivingItem receivingItem = new ReceivingItem();
@@ -171,14 +149,15 @@ public class ReceivingService {
             movement.setStockLocationId(po.getLocationId());
             movement.setType(MovementType.PURCHASE);
             movement.setQuantity(itemRequest.getQuantityReceived());
-            movement.setBalanceBefore(balanceBefore);
-            movement.setBalanceAfter(inventory.getQuantityAvailable());
+            movement.setBalanceBefore(balance.quantityBefore());
+            movement.setBalanceAfter(balance.quantityAfter());
             movement.setDocumentId(savedReceiving.getId());
             movement.setUserId(userId);
             movement.setReason("Recebimento OC " + po.getPoNumber());
             movement.setReason(itemRequest.getNotes());
             movement.setCreatedAt(LocalDateTime.now());
             stockMovementRepository.save(movement);
+            eventPublisher.publishEvent(new StockChangedEvent(tenantId, poItem.getProductId(), null));
 
             // Update PO item quantity received (AC6)
             poItem.setQuantityReceived(quantityReceived.add(itemRequest.getQuantityReceived()));
@@ -257,6 +236,18 @@ public class ReceivingService {
         return Optional.of(new ReceivingWithItems(receiving, items));
     }
 
+    /**
+     * Validates a received line before it reaches the stock (AC2)
+     */
+    private static void validateReceivedItem(BigDecimal quantityReceived, BigDecimal unitCost) {
+        if (quantityReceived == null || quantityReceived.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Received quantity must be positive");
+        }
+        if (unitCost == null || unitCost.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Received cost cannot be negative");
+        }
+    }
+
     /**
      * Data class for receiving with items
      */
@@ -0,0 +1,20 @@
+package com.estoquecentral.reporting.adapter.in.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * ABC Curve Run DTO - Last computation of one ABC window (period, thresholds and totals)
+ */
+public record AbcCurveRunDTO(
+        Integer windowDays,
+        LocalDate windowStart,
+        LocalDate windowEnd,
+        BigDecimal classAShare,
+        BigDecimal classBShare,
+        BigDecimal totalRevenue,
+        Integer classifiedProducts,
+        LocalDateTime computedAt
+) {
+}
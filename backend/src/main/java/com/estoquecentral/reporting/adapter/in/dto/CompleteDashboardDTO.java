@@ -5,19 +5,24 @@ import java.util.List;
 /**
  * Complete Dashboard DTO
  * Contains all dashboard data in a single response
+ *
+ * <p>Sections that could not be loaded in time are empty (summary null) and listed in
+ * <code>unavailableSections</code>.
  */
 public record CompleteDashboardDTO(
         DashboardSummaryDTO summary,
         List<DailySalesByChannelDTO> salesByChannel,
         List<CriticalStockProductDTO> criticalStock,
         List<PendingOrdersSummaryDTO> pendingOrders,
-        List<InventoryValueSummaryDTO> inventoryByLocation
+        List<InventoryValueSummaryDTO> inventoryByLocation,
+        List<String> unavailableSections
 ) {
     public CompleteDashboardDTO {
         salesByChannel = salesByChannel != null ? salesByChannel : List.of();
         criticalStock = criticalStock != null ? criticalStock : List.of();
         pendingOrders = pendingOrders != null ? pendingOrders : List.of();
         inventoryByLocation = inventoryByLocation != null ? inventoryByLocation : List.of();
+        unavailableSections = unavailableSections != null ? List.copyOf(unavailableSections) : List.of();
     }
 
     /**
@@ -0,0 +1,27 @@
+package com.estoquecentral.reporting.adapter.in.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Product ABC Classification DTO - Product class on the ABC curve for a window of days
+ */
+public record ProductAbcClassificationDTO(
+        UUID productId,
+        String sku,
+        String productName,
+        Integer windowDays,
+        String abcClass,
+        Integer rankPosition,
+        BigDecimal revenue,
+        BigDecimal revenueShare,
+        BigDecimal cumulativeShare,
+        LocalDateTime computedAt
+) {
+    public ProductAbcClassificationDTO {
+        revenue = revenue != null ? revenue : BigDecimal.ZERO;
+        revenueShare = revenueShare != null ? revenueShare : BigDecimal.ZERO;
+        cumulativeShare = cumulativeShare != null ? cumulativeShare : BigDecimal.ZERO;
+    }
+}
@@ -40,9 +40,12 @@ public record SalesByDateChannelDTO(
     }
 
     /**
-     * Returns channel display name
+     * Returns channel display name ("Todos os canais" while orders record no channel)
      */
     public String getChannelDisplayName() {
+        if (salesChannel == null) {
+            return "Todos os canais";
+        }
         return switch (salesChannel) {
             case "STORE" -> "Loja Física";
             case "ONLINE" -> "Loja Online";
@@ -10,7 +10,7 @@ public record SalesFilterDTO(
         LocalDate startDate,
         LocalDate endDate,
         String salesChannel,
-        String groupBy // 'day', 'week', 'month'
+        String groupBy // 'day', 'week', 'month', 'year'
 ) {
     public SalesFilterDTO {
         // Set default group by if not provided
@@ -19,8 +19,13 @@ public record SalesFilterDTO(
         }
 
         // Validate group by
-        if (!groupBy.equals("day") && !groupBy.equals("week") && !groupBy.equals("month")) {
-            throw new IllegalArgumentException("groupBy must be 'day', 'week', or 'month'");
+        if (!groupBy.equals("day") && !groupBy.equals("week") && !groupBy.equals("month") && !groupBy.equals("year")) {
+            throw new IllegalArgumentException("groupBy must be 'day', 'week', 'month', or 'year'");
+        }
+
+        // Orders do not record a sales channel yet (see V087), so there is nothing to filter on
+        if (salesChannel != null && !salesChannel.isBlank()) {
+            throw new IllegalArgumentException("salesChannel filter is not available: orders do not record a sales channel");
         }
 
         // Validate date range
@@ -59,6 +64,7 @@ public record SalesFilterDTO(
             case "day" -> "Diário";
             case "week" -> "Semanal";
             case "month" -> "Mensal";
+            case "year" -> "Anual";
             default -> "Diário";
         };
     }
@@ -22,6 +22,11 @@ public record TopProductsFilterDTO(
             throw new IllegalArgumentException("orderBy must be 'revenue' or 'quantity'");
         }
 
+        // Orders do not record a sales channel yet (see V087), so there is nothing to filter on
+        if (salesChannel != null && !salesChannel.isBlank()) {
+            throw new IllegalArgumentException("salesChannel filter is not available: orders do not record a sales channel");
+        }
+
         if (limit < 1 || limit > 500) {
             throw new IllegalArgumentException("limit must be between 1 and 500");
         }
@@ -0,0 +1,92 @@
+package com.estoquecentral.reporting.adapter.in.web;
+
+import com.estoquecentral.reporting.adapter.in.dto.AbcCurveRunDTO;
+import com.estoquecentral.reporting.adapter.in.dto.ProductAbcClassificationDTO;
+import com.estoquecentral.reporting.application.ProductAbcClassificationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * ABC Curve REST Controller
+ * Endpoints for the precomputed ABC (Pareto) classification of products by revenue
+ */
+@RestController
+@RequestMapping("/api/reports/abc-curve")
+public class AbcCurveController {
+
+    private final ProductAbcClassificationService service;
+
+    public AbcCurveController(ProductAbcClassificationService service) {
+        this.service = service;
+    }
+
+    /**
+     * GET /api/reports/abc-curve
+     * Get products of a window in ranking order
+     *
+     * Query params:
+     * - windowDays: one of the computed windows (default: reporting.abc.default-window-days)
+     * - abcClass: A, B or C
+     *
+     * Response:
+     * [
+     *   {
+     *     "productId": "...",
+     *     "sku": "CAM-001",
+     *     "productName": "Camiseta Básica",
+     *     "windowDays": 90,
+     *     "abcClass": "A",
+     *     "rankPosition": 1,
+     *     "revenue": 18500.00,
+     *     "revenueShare": 0.125000,
+     *     "cumulativeShare": 0.125000,
+     *     "computedAt": "2025-11-07T10:15:00"
+     *   }
+     * ]
+     */
+    @GetMapping
+    public ResponseEntity<List<ProductAbcClassificationDTO>> getClassification(
+            @RequestParam(required = false) Integer windowDays,
+            @RequestParam(required = false) String abcClass
+    ) {
+        List<ProductAbcClassificationDTO> classification = service.getClassification(windowDays, abcClass);
+        return ResponseEntity.ok(classification);
+    }
+
+    /**
+     * GET /api/reports/abc-curve/product/{productId}
+     * Get a product's class in every window
+     */
+    @GetMapping("/product/{productId}")
+    public ResponseEntity<List<ProductAbcClassificationDTO>> getProductClassification(@PathVariable UUID productId) {
+        List<ProductAbcClassificationDTO> classification = service.getProductClassification(productId);
+        return ResponseEntity.ok(classification);
+    }
+
+    /**
+     * GET /api/reports/abc-curve/runs
+     * Get when each window was last computed, with its period and thresholds
+     *
+     * Response:
+     * [
+     *   {
+     *     "windowDays": 90,
+     *     "windowStart": "2025-08-10",
+     *     "windowEnd": "2025-11-07",
+     *     "classAShare": 0.8000,
+     *     "classBShare": 0.9500,
+     *     "totalRevenue": 148000.00,
+     *     "classifiedProducts": 320,
+     *     "computedAt": "2025-11-07T10:15:00"
+     *   }
+     * ]
+     */
+    @GetMapping("/runs")
+    public ResponseEntity<List<AbcCurveRunDTO>> getRuns() {
+        List<AbcCurveRunDTO> runs = service.getRuns();
+        return ResponseEntity.ok(runs);
+    }
+}
@@ -14,6 +14,7 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Sales Report REST Controller
@@ -36,14 +37,14 @@ public class SalesReportController {
      * Query params:
      * - startDate: Start date (YYYY-MM-DD)
      * - endDate: End date (YYYY-MM-DD)
-     * - salesChannel: STORE, ONLINE, MARKETPLACE, PHONE, WHATSAPP
-     * - groupBy: day, week, month (default: day)
+     * - salesChannel: not available yet, orders do not record a channel (400 if given)
+     * - groupBy: day, week, month, year (default: day)
      *
      * Response:
      * [
      *   {
      *     "saleDate": "2025-11-07",
-     *     "salesChannel": "STORE",
+     *     "salesChannel": null,
      *     "orderCount": 25,
      *     "uniqueCustomers": 18,
      *     "totalSales": 8500.00,
@@ -143,6 +144,44 @@ public class SalesReportController {
         return ResponseEntity.ok(report);
     }
 
+    /**
+     * GET /api/reports/sales/top-products
+     * Get best-selling products in a period
+     *
+     * Query params:
+     * - startDate, endDate, salesChannel: as in by-date-channel
+     * - categoryId: restrict to one category
+     * - orderBy: revenue or quantity (default: revenue)
+     * - limit: 1 to 500 (default: 50)
+     *
+     * Response:
+     * [
+     *   {
+     *     "productId": "...",
+     *     "sku": "CAM-001",
+     *     "productName": "Camiseta Básica",
+     *     "categoryName": "Vestuário",
+     *     "orderCount": 120,
+     *     "totalQuantitySold": 180.000,
+     *     "totalRevenue": 8970.00,
+     *     "rankPosition": 1
+     *   }
+     * ]
+     */
+    @GetMapping("/top-products")
+    public ResponseEntity<List<TopProductDTO>> getTopProducts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) String salesChannel,
+            @RequestParam(defaultValue = "revenue") String orderBy,
+            @RequestParam(defaultValue = "50") Integer limit
+    ) {
+        TopProductsFilterDTO filter = new TopProductsFilterDTO(startDate, endDate, categoryId, salesChannel, orderBy, limit);
+        List<TopProductDTO> products = service.getTopProducts(filter);
+        return ResponseEntity.ok(products);
+    }
+
     /**
      * GET /api/reports/sales/trend
      * Get sales trend (last 30 days) with moving average
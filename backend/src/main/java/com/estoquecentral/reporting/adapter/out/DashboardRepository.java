@@ -3,6 +3,7 @@ package com.estoquecentral.reporting.adapter.out;
 import com.estoquecentral.reporting.adapter.in.dto.*;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.sql.ResultSet;
@@ -16,10 +17,51 @@ import java.util.UUID;
 /**
  * Dashboard Repository
  * Accesses dashboard views and functions
+ * Read-only: served by the read replica when one is configured
+ *
+ * <p>Sales, pending orders, top products and inventory by location are read from the
+ * dashboard rollup tables (migration V085). Triggers on orders, order_items and inventory
+ * append each change to delta tables (V088) and {@link #mergeRollupDeltas()} folds them
+ * into the rollups a few seconds later, so writers never wait on a shared rollup row.
+ * They reproduce the <code>v_*</code> views, which remain as the reference;
+ * {@link #rebuildRollups()} recomputes them from the source tables.
  */
 @Repository
+@Transactional(readOnly = true)
 public class DashboardRepository {
 
+    /**
+     * Pending orders by status, as v_pending_orders_summary (orders have no sales channel).
+     * Overdue counts depend on the clock, so they are counted from the order facts.
+     */
+    private static final String PENDING_ORDERS_SQL = """
+            SELECT
+                r.status AS sales_channel,
+                r.status,
+                r.order_count,
+                r.total_items,
+                r.total_value,
+                ROUND(r.total_value / r.value_rows, 2) AS average_order_value,
+                r.oldest_order_date,
+                r.newest_order_date,
+                (
+                    SELECT COALESCE(SUM(GREATEST(f.item_count, 1)), 0)
+                    FROM dashboard_order_facts f
+                    WHERE f.status = r.status
+                      AND f.created_at < CURRENT_TIMESTAMP - INTERVAL '2 days'
+                ) AS overdue_count
+            FROM dashboard_pending_orders_rollup r
+            WHERE r.order_count > 0
+            %s
+            ORDER BY
+                CASE r.status
+                    WHEN 'PENDING' THEN 1
+                    WHEN 'PROCESSING' THEN 2
+                    WHEN 'CONFIRMED' THEN 3
+                    WHEN 'READY_TO_SHIP' THEN 4
+                END
+            """;
+
     private final NamedParameterJdbcTemplate jdbcTemplate;
 
     public DashboardRepository(NamedParameterJdbcTemplate jdbcTemplate) {
@@ -30,7 +72,54 @@ public class DashboardRepository {
      * Get dashboard summary with all key metrics
      */
     public DashboardSummaryDTO getDashboardSummary() {
-        String sql = "SELECT * FROM v_dashboard_summary";
+        String sql = """
+                SELECT
+                    sales.total_sales AS daily_total_sales,
+                    sales.order_count AS daily_order_count,
+                    sales.item_count AS daily_item_count,
+                    0::numeric AS total_inventory_value,
+                    stock.total_quantity AS total_inventory_quantity,
+                    stock.unique_products AS total_unique_products,
+                    alerts.out_of_stock_count,
+                    alerts.critical_stock_count,
+                    alerts.low_stock_count,
+                    alerts.total_replenishment_cost,
+                    pending.order_count AS pending_orders_count,
+                    pending.total_value AS pending_orders_value,
+                    (
+                        SELECT COALESCE(SUM(GREATEST(f.item_count, 1)), 0)
+                        FROM dashboard_order_facts f
+                        WHERE f.status IN ('PENDING', 'PROCESSING', 'CONFIRMED', 'READY_TO_SHIP')
+                          AND f.created_at < CURRENT_TIMESTAMP - INTERVAL '2 days'
+                    ) AS overdue_orders_count,
+                    NOW() AS snapshot_time
+                FROM (
+                    SELECT COALESCE(SUM(total_sales), 0) AS total_sales,
+                           COALESCE(SUM(order_count), 0) AS order_count,
+                           COALESCE(SUM(item_count), 0) AS item_count
+                    FROM dashboard_daily_sales_rollup
+                    WHERE sale_date = CURRENT_DATE AND order_count > 0
+                ) sales,
+                (
+                    SELECT COALESCE(SUM(r.total_quantity), 0) AS total_quantity,
+                           COALESCE(SUM(r.unique_products), 0) AS unique_products
+                    FROM dashboard_inventory_rollup r
+                    INNER JOIN locations l ON l.id = r.location_id
+                    WHERE l.ativo = true AND r.total_quantity > 0
+                ) stock,
+                (
+                    SELECT COUNT(*) FILTER (WHERE alert_level = 'OUT_OF_STOCK') AS out_of_stock_count,
+                           COUNT(*) FILTER (WHERE alert_level = 'CRITICAL') AS critical_stock_count,
+                           COUNT(*) FILTER (WHERE alert_level = 'LOW') AS low_stock_count,
+                           COALESCE(SUM(replenishment_cost), 0) AS total_replenishment_cost
+                    FROM v_critical_stock_products
+                ) alerts,
+                (
+                    SELECT COALESCE(SUM(order_count), 0) AS order_count,
+                           COALESCE(SUM(total_value), 0) AS total_value
+                    FROM dashboard_pending_orders_rollup
+                ) pending
+                """;
 
         return jdbcTemplate.queryForObject(sql, new HashMap<>(), (rs, rowNum) ->
                 new DashboardSummaryDTO(
@@ -56,7 +145,22 @@ public class DashboardRepository {
      * Get daily sales breakdown by channel
      */
     public List<DailySalesByChannelDTO> getDailySalesByChannel() {
-        String sql = "SELECT * FROM v_daily_sales_by_channel";
+        // Orders have no sales channel: grouped by status, as v_daily_sales_by_channel
+        String sql = """
+                SELECT
+                    status AS sales_channel,
+                    order_count,
+                    item_count,
+                    total_quantity,
+                    total_sales,
+                    ROUND(order_total_sum / item_count, 2) AS average_ticket,
+                    first_order_time,
+                    last_order_time
+                FROM dashboard_daily_sales_rollup
+                WHERE sale_date = CURRENT_DATE
+                  AND order_count > 0
+                ORDER BY total_sales DESC
+                """;
 
         return jdbcTemplate.query(sql, new HashMap<>(), (rs, rowNum) ->
                 new DailySalesByChannelDTO(
@@ -118,7 +222,7 @@ public class DashboardRepository {
      * Get pending orders summary
      */
     public List<PendingOrdersSummaryDTO> getPendingOrdersSummary() {
-        String sql = "SELECT * FROM v_pending_orders_summary";
+        String sql = PENDING_ORDERS_SQL.formatted("");
 
         return jdbcTemplate.query(sql, new HashMap<>(), (rs, rowNum) ->
                 new PendingOrdersSummaryDTO(
@@ -139,7 +243,23 @@ public class DashboardRepository {
      * Get inventory value summary by location
      */
     public List<InventoryValueSummaryDTO> getInventoryValueSummary() {
-        String sql = "SELECT * FROM v_inventory_value_summary";
+        // Cost columns zeroed, as v_inventory_value_summary (product_costs removed in V071)
+        String sql = """
+                SELECT
+                    r.location_id,
+                    l.code AS location_code,
+                    l.name AS location_name,
+                    l.type AS location_type,
+                    r.unique_products,
+                    r.total_quantity,
+                    0::numeric AS total_value_at_cost,
+                    0::numeric AS average_product_cost
+                FROM dashboard_inventory_rollup r
+                INNER JOIN locations l ON l.id = r.location_id
+                WHERE l.ativo = true
+                  AND r.total_quantity > 0
+                ORDER BY r.total_quantity DESC
+                """;
 
         return jdbcTemplate.query(sql, new HashMap<>(), (rs, rowNum) ->
                 new InventoryValueSummaryDTO(
@@ -155,25 +275,6 @@ public class DashboardRepository {
         );
     }
 
-    /**
-     * Get complete dashboard data
-     */
-    public CompleteDashboardDTO getCompleteDashboard() {
-        DashboardSummaryDTO summary = getDashboardSummary();
-        List<DailySalesByChannelDTO> salesByChannel = getDailySalesByChannel();
-        List<CriticalStockProductDTO> criticalStock = getCriticalStockProducts(20);
-        List<PendingOrdersSummaryDTO> pendingOrders = getPendingOrdersSummary();
-        List<InventoryValueSummaryDTO> inventoryByLocation = getInventoryValueSummary();
-
-        return new CompleteDashboardDTO(
-                summary,
-                salesByChannel,
-                criticalStock,
-                pendingOrders,
-                inventoryByLocation
-        );
-    }
-
     /**
      * Get critical stock products by alert level
      */
@@ -215,10 +316,7 @@ public class DashboardRepository {
      * Get pending orders by status
      */
     public List<PendingOrdersSummaryDTO> getPendingOrdersByStatus(String status) {
-        String sql = """
-                SELECT * FROM v_pending_orders_summary
-                WHERE status = :status
-                """;
+        String sql = PENDING_ORDERS_SQL.formatted("AND r.status = :status");
 
         Map<String, Object> params = new HashMap<>();
         params.put("status", status);
@@ -239,11 +337,31 @@ public class DashboardRepository {
     }
 
     /**
-     * Get top selling products for today from v_top_products_today view
+     * Get top selling products for today (same figures as v_top_products_today)
      */
     public List<TopProductDTO> getTopProducts(Integer limit) {
         String sql = """
-                SELECT * FROM v_top_products_today
+                SELECT
+                    p.id AS product_id,
+                    p.sku,
+                    p.name AS product_name,
+                    c.name AS category_name,
+                    r.order_count,
+                    r.total_quantity AS total_quantity_sold,
+                    r.total_revenue,
+                    ROUND(r.unit_price_sum / r.item_count, 2) AS average_price,
+                    (
+                        SELECT SUM(available_quantity)
+                        FROM inventory
+                        WHERE product_id = p.id
+                    ) AS current_stock
+                FROM dashboard_daily_product_rollup r
+                INNER JOIN products p ON p.id = r.product_id
+                INNER JOIN categories c ON c.id = p.category_id
+                WHERE r.sale_date = CURRENT_DATE
+                  AND r.order_count > 0
+                  AND p.ativo = true
+                ORDER BY r.total_quantity DESC
                 LIMIT :limit
                 """;
 
@@ -358,6 +476,36 @@ public class DashboardRepository {
         );
     }
 
+    /**
+     * Recompute the current tenant's dashboard rollups from orders, order_items and inventory
+     * (writes to those tables wait until it commits)
+     */
+    @Transactional
+    public void rebuildRollups() {
+        jdbcTemplate.getJdbcTemplate().execute("SELECT rebuild_dashboard_rollups()");
+    }
+
+    /**
+     * Fold the current tenant's pending rollup deltas into the rollups
+     *
+     * @return rollup rows updated; 0 when nothing was pending or another merge is running
+     */
+    @Transactional
+    public int mergeRollupDeltas() {
+        Integer merged = jdbcTemplate.queryForObject("SELECT merge_dashboard_rollup_deltas()",
+                new HashMap<>(), Integer.class);
+        return merged != null ? merged : 0;
+    }
+
+    /**
+     * Active tenants with rollup deltas waiting to be merged
+     * (one call to <code>public.dashboard_rollup_pending_tenants()</code>, V061)
+     */
+    public List<UUID> findTenantsWithRollupDeltas() {
+        return jdbcTemplate.queryForList("SELECT tenant_id FROM public.dashboard_rollup_pending_tenants()",
+                new HashMap<>(), UUID.class);
+    }
+
     // Helper methods
 
     private UUID getUUID(ResultSet rs, String columnName) throws SQLException {
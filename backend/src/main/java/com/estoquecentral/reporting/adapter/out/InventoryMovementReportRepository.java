@@ -4,6 +4,7 @@ import com.estoquecentral.reporting.adapter.in.dto.*;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.sql.ResultSet;
@@ -16,8 +17,10 @@ import java.util.UUID;
 /**
  * Inventory Movement Report Repository
  * Accesses movement report views and functions
+ * Read-only: served by the read replica when one is configured
  */
 @Repository
+@Transactional(readOnly = true)
 public class InventoryMovementReportRepository {
 
     private final NamedParameterJdbcTemplate jdbcTemplate;
@@ -0,0 +1,170 @@
+package com.estoquecentral.reporting.adapter.out;
+
+import com.estoquecentral.reporting.adapter.in.dto.AbcCurveRunDTO;
+import com.estoquecentral.reporting.adapter.in.dto.ProductAbcClassificationDTO;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Product ABC Classification Repository
+ * Accesses the precomputed ABC curve (migration V086)
+ * Reads are served by the read replica when one is configured
+ *
+ * <p>{@link #classify(int, BigDecimal, BigDecimal)} ranks the products of one window from
+ * dashboard_daily_product_rollup; {@link #consumeChangedDays()} drains the days whose revenue
+ * changed since the last run, queued by triggers on that rollup.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class ProductAbcClassificationRepository {
+
+    private static final String CLASSIFICATION_SQL = """
+            SELECT c.window_days, c.product_id, p.sku, p.name AS product_name, c.abc_class,
+                   c.rank_position, c.revenue, c.revenue_share, c.cumulative_share, c.computed_at
+            FROM product_abc_classification c
+            JOIN products p ON p.id = c.product_id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ProductAbcClassificationRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Get the products of a window, optionally only one class, in ranking order
+     */
+    public List<ProductAbcClassificationDTO> findByWindow(int windowDays, String abcClass) {
+        String sql = CLASSIFICATION_SQL +
+                " WHERE c.window_days = :windowDays " +
+                (abcClass != null ? " AND c.abc_class = :abcClass " : "") +
+                " ORDER BY c.rank_position";
+
+        MapSqlParameterSource params = new MapSqlParameterSource("windowDays", windowDays);
+        if (abcClass != null) params.addValue("abcClass", abcClass);
+
+        return jdbcTemplate.query(sql, params, this::mapClassification);
+    }
+
+    /**
+     * Get a product's class in every window
+     */
+    public List<ProductAbcClassificationDTO> findByProduct(UUID productId) {
+        String sql = CLASSIFICATION_SQL + " WHERE c.product_id = :productId ORDER BY c.window_days";
+
+        return jdbcTemplate.query(sql, new MapSqlParameterSource("productId", productId), this::mapClassification);
+    }
+
+    /**
+     * Get the last computation of each window
+     */
+    public List<AbcCurveRunDTO> findRuns() {
+        String sql = "SELECT * FROM product_abc_runs ORDER BY window_days";
+
+        return jdbcTemplate.query(sql, new HashMap<>(), (rs, rowNum) ->
+                new AbcCurveRunDTO(
+                        rs.getInt("window_days"),
+                        getLocalDate(rs, "window_start"),
+                        getLocalDate(rs, "window_end"),
+                        rs.getBigDecimal("class_a_share"),
+                        rs.getBigDecimal("class_b_share"),
+                        rs.getBigDecimal("total_revenue"),
+                        rs.getInt("classified_products"),
+                        getLocalDateTime(rs, "computed_at")
+                )
+        );
+    }
+
+    /**
+     * Database date the windows end on (windows follow the database clock, not the JVM's)
+     */
+    public LocalDate currentDate() {
+        return jdbcTemplate.queryForObject("SELECT CURRENT_DATE", new HashMap<>(), LocalDate.class);
+    }
+
+    /**
+     * Take the current tenant's refresh lock until the transaction ends
+     *
+     * @return false if another node is refreshing this tenant
+     */
+    @Transactional
+    public boolean tryLockRefresh() {
+        Boolean locked = jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext('product-abc:' || current_schema()))",
+                new HashMap<>(), Boolean.class);
+        return Boolean.TRUE.equals(locked);
+    }
+
+    /**
+     * Remove and return the days whose revenue changed since the last call
+     */
+    @Transactional
+    public List<LocalDate> consumeChangedDays() {
+        return jdbcTemplate.query("DELETE FROM product_abc_changed_days RETURNING sale_date",
+                new HashMap<>(), (rs, rowNum) -> getLocalDate(rs, "sale_date"));
+    }
+
+    /**
+     * Recompute one window's classification
+     *
+     * @return number of products classified
+     */
+    @Transactional
+    public int classify(int windowDays, BigDecimal classAShare, BigDecimal classBShare) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("windowDays", windowDays)
+                .addValue("classAShare", classAShare)
+                .addValue("classBShare", classBShare);
+
+        Integer classified = jdbcTemplate.queryForObject(
+                "SELECT classify_products_abc(:windowDays, :classAShare, :classBShare)", params, Integer.class);
+        return classified != null ? classified : 0;
+    }
+
+    /**
+     * Drop the classifications of windows that are no longer configured
+     */
+    @Transactional
+    public void deleteWindowsOtherThan(Collection<Integer> windowDays) {
+        MapSqlParameterSource params = new MapSqlParameterSource("windowDays", windowDays);
+        jdbcTemplate.update("DELETE FROM product_abc_classification WHERE window_days NOT IN (:windowDays)", params);
+        jdbcTemplate.update("DELETE FROM product_abc_runs WHERE window_days NOT IN (:windowDays)", params);
+    }
+
+    private ProductAbcClassificationDTO mapClassification(ResultSet rs, int rowNum) throws SQLException {
+        return new ProductAbcClassificationDTO(
+                rs.getObject("product_id", UUID.class),
+                rs.getString("sku"),
+                rs.getString("product_name"),
+                rs.getInt("window_days"),
+                rs.getString("abc_class"),
+                rs.getInt("rank_position"),
+                rs.getBigDecimal("revenue"),
+                rs.getBigDecimal("revenue_share"),
+                rs.getBigDecimal("cumulative_share"),
+                getLocalDateTime(rs, "computed_at")
+        );
+    }
+
+    private LocalDate getLocalDate(ResultSet rs, String columnName) throws SQLException {
+        var date = rs.getDate(columnName);
+        return date != null ? date.toLocalDate() : null;
+    }
+
+    private LocalDateTime getLocalDateTime(ResultSet rs, String columnName) throws SQLException {
+        var timestamp = rs.getTimestamp(columnName);
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,187 @@
+package com.estoquecentral.reporting.adapter.out;
+
+import com.estoquecentral.reporting.application.salesfacts.SalesFactSegment;
+import com.estoquecentral.reporting.application.salesfacts.SalesFacts;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Sales Fact Repository
+ * Reads the sales cube (V087) row by row into in-memory fact segments
+ *
+ * <p>Each load runs in its own repeatable-read transaction, so the cube state and the rows
+ * of the three fact tables come from one snapshot: the closed days up to
+ * <code>built_through</code> from the cube tables, the later days aggregated live by the
+ * same functions the SQL reports use.
+ *
+ * @see com.estoquecentral.reporting.application.salesfacts.SalesFactStore
+ */
+@Repository
+@Transactional(readOnly = true)
+public class SalesFactRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public SalesFactRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Get the cube's last consolidated day and refresh time
+     */
+    public SalesCubeState findCubeState() {
+        return jdbcTemplate.queryForObject(
+                "SELECT built_through, refreshed_at FROM sales_cube_state",
+                new HashMap<>(),
+                (rs, rowNum) -> new SalesCubeState(
+                        rs.getObject("built_through", LocalDate.class),
+                        rs.getObject("refreshed_at", LocalDateTime.class)));
+    }
+
+    /**
+     * Count the cube rows a full load would read for the closed days
+     */
+    public SalesFactCounts countClosedFacts() {
+        return jdbcTemplate.queryForObject("""
+                SELECT
+                    (SELECT COUNT(*) FROM sales_cube_daily) AS order_rows,
+                    (SELECT COUNT(*) FROM sales_cube_daily_products) AS product_rows,
+                    (SELECT COUNT(*) FROM sales_cube_daily_customers) AS customer_rows
+                """,
+                new HashMap<>(),
+                (rs, rowNum) -> new SalesFactCounts(
+                        rs.getLong("order_rows"),
+                        rs.getLong("product_rows"),
+                        rs.getLong("customer_rows")));
+    }
+
+    /**
+     * Load a tenant's facts: closed days from the cube, later days live
+     */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW, isolation = Isolation.REPEATABLE_READ)
+    public LoadedSalesFacts loadFacts() {
+        SalesCubeState state = findCubeState();
+
+        SalesFactSegment closed = SalesFactSegment.EMPTY;
+        if (state.builtThrough() != null) {
+            SalesFactSegment.Builder builder = SalesFactSegment.builder(null);
+            loadDays(null, state.builtThrough(), builder);
+            closed = builder.build();
+        }
+
+        SalesFactSegment.Builder live = SalesFactSegment.builder(closed);
+        loadDays(state.firstLiveDay(), null, live);
+        return new LoadedSalesFacts(state, new SalesFacts(closed, live.build()));
+    }
+
+    /**
+     * Reload the days after the cube's last consolidated day on top of {@code closed}
+     *
+     * @return the live segment, or empty if the cube changed since {@code expected}
+     */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW, isolation = Isolation.REPEATABLE_READ)
+    public Optional<SalesFactSegment> loadLiveFacts(SalesCubeState expected, SalesFactSegment closed) {
+        SalesCubeState state = findCubeState();
+        if (!state.equals(expected)) {
+            return Optional.empty();
+        }
+
+        SalesFactSegment.Builder live = SalesFactSegment.builder(closed);
+        loadDays(state.firstLiveDay(), null, live);
+        return Optional.of(live.build());
+    }
+
+    private void loadDays(LocalDate startDate, LocalDate endDate, SalesFactSegment.Builder builder) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("startDate", startDate, Types.DATE)
+                .addValue("endDate", endDate, Types.DATE);
+
+        jdbcTemplate.query("""
+                SELECT * FROM sales_cube_days(:startDate, :endDate)
+                ORDER BY sale_date
+                """, params, rs -> {
+            builder.addOrders(
+                    rs.getDate("sale_date").toLocalDate(),
+                    rs.getLong("order_count"),
+                    rs.getLong("item_count"),
+                    rs.getBigDecimal("total_quantity"),
+                    rs.getBigDecimal("total_subtotal"),
+                    rs.getBigDecimal("total_discount"),
+                    rs.getBigDecimal("total_shipping"),
+                    rs.getBigDecimal("total_sales"),
+                    rs.getBigDecimal("min_ticket"),
+                    rs.getBigDecimal("max_ticket"),
+                    rs.getTimestamp("first_sale_time").toLocalDateTime(),
+                    rs.getTimestamp("last_sale_time").toLocalDateTime(),
+                    rs.getLong("paid_order_count"),
+                    rs.getLong("pending_payment_order_count"),
+                    rs.getBigDecimal("paid_amount"));
+        });
+
+        jdbcTemplate.query("""
+                SELECT sale_date, product_id, category_id, order_count, total_quantity, total_revenue
+                FROM sales_cube_day_products(:startDate, :endDate)
+                ORDER BY sale_date
+                """, params, rs -> {
+            builder.addProduct(
+                    rs.getDate("sale_date").toLocalDate(),
+                    rs.getObject("product_id", UUID.class),
+                    rs.getObject("category_id", UUID.class),
+                    rs.getLong("order_count"),
+                    rs.getBigDecimal("total_quantity"),
+                    rs.getBigDecimal("total_revenue"));
+        });
+
+        jdbcTemplate.query("""
+                SELECT sale_date, customer_id
+                FROM sales_cube_day_customers(:startDate, :endDate)
+                ORDER BY sale_date
+                """, params, rs -> {
+            builder.addCustomer(
+                    rs.getDate("sale_date").toLocalDate(),
+                    rs.getObject("customer_id", UUID.class));
+        });
+    }
+
+    /**
+     * Sales cube state: days up to builtThrough are consolidated (null: none yet)
+     */
+    public record SalesCubeState(
+            LocalDate builtThrough,
+            LocalDateTime refreshedAt
+    ) {
+        public LocalDate firstLiveDay() {
+            return builtThrough != null ? builtThrough.plusDays(1) : null;
+        }
+    }
+
+    /**
+     * Row counts of the cube's three fact tables
+     */
+    public record SalesFactCounts(
+            long orderRows,
+            long productRows,
+            long customerRows
+    ) {
+    }
+
+    /**
+     * Facts loaded in one snapshot, with the cube state they belong to
+     */
+    public record LoadedSalesFacts(
+            SalesCubeState state,
+            SalesFacts facts
+    ) {
+    }
+}
@@ -4,20 +4,33 @@ import com.estoquecentral.reporting.adapter.in.dto.*;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Sales Report Repository
  * Accesses sales report views and functions
+ * Read-only: served by the read replica when one is configured
+ *
+ * <p>Sales by date/channel, by period, grouped by period, totals and top products are
+ * answered from the daily sales cube (migration V087): closed days are pre-aggregated per
+ * day, product and category, only days after the last refresh (normally today) are
+ * aggregated live from orders. Week, month and year rows roll the daily rows up. Orders do
+ * not record a sales channel, so these rows cover all channels and carry a null channel.
  */
 @Repository
+@Transactional(readOnly = true)
 public class SalesReportRepository {
 
     private final NamedParameterJdbcTemplate jdbcTemplate;
@@ -27,24 +40,43 @@ public class SalesReportRepository {
     }
 
     /**
-     * Get sales by date and channel with filters
+     * Get sales by date (first day of the groupBy period) with filters, all channels in one row
      */
     public List<SalesByDateChannelDTO> getSalesByDateAndChannel(SalesFilterDTO filter) {
         String sql = """
-                SELECT * FROM v_sales_by_date_and_channel
-                WHERE 1=1
-                """ +
-                (filter.startDate() != null ? " AND sale_date >= :startDate " : "") +
-                (filter.endDate() != null ? " AND sale_date <= :endDate " : "") +
-                (filter.salesChannel() != null ? " AND sales_channel = :salesChannel " : "") +
-                " ORDER BY sale_date DESC, total_sales DESC LIMIT 1000";
-
-        MapSqlParameterSource params = new MapSqlParameterSource();
-        if (filter.startDate() != null) params.addValue("startDate", filter.startDate());
-        if (filter.endDate() != null) params.addValue("endDate", filter.endDate());
-        if (filter.salesChannel() != null) params.addValue("salesChannel", filter.salesChannel());
+                WITH days AS (
+                    SELECT date_trunc(:groupBy, d.sale_date::timestamp)::date AS period_start,
+                           SUM(d.order_count) AS order_count,
+                           SUM(d.item_count) AS total_items,
+                           SUM(d.total_quantity) AS total_quantity,
+                           SUM(d.total_subtotal) AS total_subtotal,
+                           SUM(d.total_discount) AS total_discount,
+                           SUM(d.total_shipping) AS total_shipping,
+                           SUM(d.total_sales) AS total_sales,
+                           MIN(d.min_ticket) AS min_ticket,
+                           MAX(d.max_ticket) AS max_ticket,
+                           MIN(d.first_sale_time) AS first_sale_time,
+                           MAX(d.last_sale_time) AS last_sale_time
+                    FROM sales_cube_days(:startDate, :endDate) d
+                    GROUP BY 1
+                ),
+                customers AS (
+                    SELECT date_trunc(:groupBy, c.sale_date::timestamp)::date AS period_start,
+                           COUNT(DISTINCT c.customer_id) AS unique_customers
+                    FROM sales_cube_day_customers(:startDate, :endDate) c
+                    GROUP BY 1
+                )
+                SELECT d.period_start AS sale_date,
+                       d.*,
+                       c.unique_customers,
+                       ROUND(d.total_sales / NULLIF(d.order_count, 0), 2) AS average_ticket
+                FROM days d
+                LEFT JOIN customers c ON c.period_start = d.period_start
+                ORDER BY d.period_start DESC
+                LIMIT 1000
+                """;
 
-        return jdbcTemplate.query(sql, params, this::mapSalesByDateChannel);
+        return jdbcTemplate.query(sql, cubeParams(filter), this::mapSalesByDateChannel);
     }
 
     /**
@@ -80,22 +112,43 @@ public class SalesReportRepository {
     }
 
     /**
-     * Get sales by period (day/week/month)
+     * Get sales by period (day/week/month/year)
      */
     public List<SalesByPeriodDTO> getSalesByPeriod(SalesFilterDTO filter) {
         String sql = """
-                SELECT * FROM v_sales_by_period
-                WHERE 1=1
-                """ +
-                (filter.startDate() != null ? " AND sale_date >= :startDate " : "") +
-                (filter.endDate() != null ? " AND sale_date <= :endDate " : "") +
-                " ORDER BY sale_date DESC LIMIT 1000";
-
-        MapSqlParameterSource params = new MapSqlParameterSource();
-        if (filter.startDate() != null) params.addValue("startDate", filter.startDate());
-        if (filter.endDate() != null) params.addValue("endDate", filter.endDate());
+                WITH days AS (
+                    SELECT date_trunc(:groupBy, d.sale_date::timestamp)::date AS period_start,
+                           SUM(d.order_count) AS order_count,
+                           SUM(d.item_count) AS total_items,
+                           SUM(d.total_sales) AS total_sales,
+                           SUM(d.paid_order_count) AS paid_orders,
+                           SUM(d.pending_payment_order_count) AS pending_payment_orders,
+                           SUM(d.paid_amount) AS paid_amount
+                    FROM sales_cube_days(:startDate, :endDate, ) d
+                    GROUP BY 1
+                ),
+                customers AS (
+                    SELECT date_trunc(:groupBy, c.sale_date::timestamp)::date AS period_start,
+                           COUNT(DISTINCT c.customer_id) AS unique_customers
+                    FROM sales_cube_day_customers(:startDate, :endDate, ) c
+                    GROUP BY 1
+                )
+                SELECT d.period_start AS sale_date,
+                       EXTRACT(YEAR FROM d.period_start)::int AS sale_year,
+                       EXTRACT(MONTH FROM d.period_start)::int AS sale_month,
+                       EXTRACT(WEEK FROM d.period_start)::int AS sale_week,
+                       to_char(d.period_start, 'YYYY-MM') AS year_month,
+                       to_char(d.period_start, 'IYYY-"W"IW') AS year_week,
+                       d.*,
+                       c.unique_customers,
+                       ROUND(d.total_sales / NULLIF(d.order_count, 0), 2) AS average_ticket
+                FROM days d
+                LEFT JOIN customers c ON c.period_start = d.period_start
+                ORDER BY d.period_start DESC
+                LIMIT 1000
+                """;
 
-        return jdbcTemplate.query(sql, params, (rs, rowNum) ->
+        return jdbcTemplate.query(sql, cubeParams(filter), (rs, rowNum) ->
                 new SalesByPeriodDTO(
                         rs.getDate("sale_date") != null ? rs.getDate("sale_date").toLocalDate() : null,
                         (Integer) rs.getObject("sale_year"),
@@ -141,21 +194,15 @@ public class SalesReportRepository {
                 SELECT * FROM get_sales_report_by_period(
                     :startDate,
                     :endDate,
-                    :salesChannel,
                     :groupBy
                 )
+                ORDER BY period_key DESC
                 """;
 
-        MapSqlParameterSource params = new MapSqlParameterSource()
-                .addValue("startDate", filter.startDate())
-                .addValue("endDate", filter.endDate())
-                .addValue("salesChannel", filter.salesChannel())
-                .addValue("groupBy", filter.groupBy());
-
-        return jdbcTemplate.query(sql, params, (rs, rowNum) ->
+        return jdbcTemplate.query(sql, cubeParams(filter), (rs, rowNum) ->
                 new SalesReportPeriodDTO(
                         rs.getString("period_key"),
-                        rs.getString("sales_channel"),
+                        null, // salesChannel - orders record none
                         rs.getLong("order_count"),
                         rs.getLong("unique_customers"),
                         rs.getBigDecimal("total_sales"),
@@ -170,41 +217,25 @@ public class SalesReportRepository {
      * Get sales totals with filters
      */
     public SalesTotalsDTO getSalesTotals(SalesFilterDTO filter) {
-        StringBuilder sql = new StringBuilder("""
+        String sql = """
                 SELECT
-                    COUNT(DISTINCT o.id) AS total_orders,
-                    COUNT(DISTINCT o.customer_id) AS unique_customers,
-                    SUM(o.total_items) AS total_items,
-                    SUM(o.subtotal) AS total_subtotal,
-                    SUM(o.discount_amount) AS total_discount,
-                    SUM(o.shipping_cost) AS total_shipping,
-                    SUM(o.total_amount) AS total_sales,
-                    ROUND(AVG(o.total_amount), 2) AS average_ticket,
-                    MIN(o.total_amount) AS min_ticket,
-                    MAX(o.total_amount) AS max_ticket
-                FROM orders o
-                WHERE o.ativo = true
-                  AND o.status NOT IN ('CANCELLED', 'REJECTED')
-                """);
-
-        MapSqlParameterSource params = new MapSqlParameterSource();
-
-        if (filter.startDate() != null) {
-            sql.append(" AND DATE(o.order_date) >= :startDate ");
-            params.addValue("startDate", filter.startDate());
-        }
-
-        if (filter.endDate() != null) {
-            sql.append(" AND DATE(o.order_date) <= :endDate ");
-            params.addValue("endDate", filter.endDate());
-        }
-
-        if (filter.salesChannel() != null) {
-            sql.append(" AND o.sales_channel = :salesChannel ");
-            params.addValue("salesChannel", filter.salesChannel());
-        }
+                    SUM(d.order_count) AS total_orders,
+                    (
+                        SELECT COUNT(DISTINCT c.customer_id)
+                        FROM sales_cube_day_customers(:startDate, :endDate, ) c
+                    ) AS unique_customers,
+                    SUM(d.item_count) AS total_items,
+                    SUM(d.total_subtotal) AS total_subtotal,
+                    SUM(d.total_discount) AS total_discount,
+                    SUM(d.total_shipping) AS total_shipping,
+                    SUM(d.total_sales) AS total_sales,
+                    ROUND(SUM(d.total_sales) / NULLIF(SUM(d.order_count), 0), 2) AS average_ticket,
+                    MIN(d.min_ticket) AS min_ticket,
+                    MAX(d.max_ticket) AS max_ticket
+                FROM sales_cube_days(:startDate, :endDate, ) d
+                """;
 
-        return jdbcTemplate.queryForObject(sql.toString(), params, (rs, rowNum) ->
+        return jdbcTemplate.queryForObject(sql, cubeParams(filter), (rs, rowNum) ->
                 new SalesTotalsDTO(
                         rs.getLong("total_orders"),
                         rs.getLong("unique_customers"),
@@ -220,12 +251,140 @@ public class SalesReportRepository {
         );
     }
 
+    /**
+     * Get top products by revenue or quantity, optionally within a category
+     */
+    public List<TopProductDTO> getTopProducts(TopProductsFilterDTO filter) {
+        String sql = """
+                SELECT
+                    p.id AS product_id,
+                    p.sku,
+                    p.name AS product_name,
+                    c.name AS category_name,
+                    t.order_count,
+                    t.total_quantity AS total_quantity_sold,
+                    t.total_revenue,
+                    ROUND(t.total_revenue / NULLIF(t.total_quantity, 0), 2) AS revenue_per_unit,
+                    ROUND(t.total_quantity / NULLIF(t.order_count, 0), 2) AS avg_quantity_per_order,
+                    (
+                        SELECT SUM(available_quantity)
+                        FROM inventory
+                        WHERE product_id = p.id
+                    ) AS current_stock
+                FROM (
+                    SELECT d.product_id,
+                           SUM(d.order_count) AS order_count,
+                           SUM(d.total_quantity) AS total_quantity,
+                           SUM(d.total_revenue) AS total_revenue
+                    FROM sales_cube_day_products(:startDate, :endDate, ) d
+                """ +
+                (filter.categoryId() != null ? " WHERE d.category_id = :categoryId " : "") +
+                """
+                    GROUP BY d.product_id
+                ) t
+                INNER JOIN products p ON p.id = t.product_id
+                LEFT JOIN categories c ON c.id = p.category_id
+                """ +
+                (filter.orderBy().equals("quantity")
+                        ? " ORDER BY t.total_quantity DESC, t.total_revenue DESC, p.id "
+                        : " ORDER BY t.total_revenue DESC, t.total_quantity DESC, p.id ") +
+                " LIMIT :limit";
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("startDate", filter.startDate(), Types.DATE)
+                .addValue("endDate", filter.endDate(), Types.DATE)
+                .addValue("limit", filter.limit());
+        if (filter.categoryId() != null) params.addValue("categoryId", filter.categoryId());
+
+        return jdbcTemplate.query(sql, params, (rs, rowNum) ->
+                new TopProductDTO(
+                        rs.getObject("product_id", UUID.class),
+                        rs.getString("sku"),
+                        rs.getString("product_name"),
+                        rs.getString("category_name"),
+                        rs.getLong("order_count"),
+                        null, // uniqueCustomers - not in the cube
+                        rs.getBigDecimal("total_quantity_sold"),
+                        rs.getBigDecimal("total_revenue"),
+                        rs.getBigDecimal("revenue_per_unit"),
+                        null, // minPrice
+                        null, // maxPrice
+                        rs.getBigDecimal("revenue_per_unit"),
+                        rs.getBigDecimal("avg_quantity_per_order"),
+                        rs.getBigDecimal("current_stock"),
+                        null, // firstSaleDate
+                        null, // lastSaleDate
+                        (long) rowNum + 1
+                )
+        );
+    }
+
+    /**
+     * Get SKU, name, category and current stock of products ranked outside SQL
+     * (same columns as {@link #getTopProducts}), keyed by product id
+     */
+    public Map<UUID, ProductSummaryDTO> findProductSummaries(Collection<UUID> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+
+        String sql = """
+                SELECT
+                    p.id AS product_id,
+                    p.sku,
+                    p.name AS product_name,
+                    c.name AS category_name,
+                    (
+                        SELECT SUM(available_quantity)
+                        FROM inventory
+                        WHERE product_id = p.id
+                    ) AS current_stock
+                FROM products p
+                LEFT JOIN categories c ON c.id = p.category_id
+                WHERE p.id IN (:productIds)
+                """;
+
+        Map<UUID, ProductSummaryDTO> summaries = new HashMap<>();
+        jdbcTemplate.query(sql, new MapSqlParameterSource("productIds", productIds), rs -> {
+            UUID productId = rs.getObject("product_id", UUID.class);
+            summaries.put(productId, new ProductSummaryDTO(
+                    productId,
+                    rs.getString("sku"),
+                    rs.getString("product_name"),
+                    rs.getString("category_name"),
+                    rs.getBigDecimal("current_stock")));
+        });
+        return summaries;
+    }
+
+    /**
+     * Consolidate new closed days, the last closed day and days changed since the last run
+     * into the sales cube (current tenant)
+     *
+     * @return days (re)built, or -1 if another node is refreshing this tenant
+     */
+    @Transactional
+    public int refreshCube() {
+        Integer days = jdbcTemplate.queryForObject("SELECT refresh_sales_cube()", new HashMap<>(), Integer.class);
+        return days != null ? days : 0;
+    }
+
     // Helper methods
 
+    /**
+     * Cube function arguments (typed, as the nulls of an open range must still resolve)
+     */
+    private MapSqlParameterSource cubeParams(SalesFilterDTO filter) {
+        return new MapSqlParameterSource()
+                .addValue("startDate", filter.startDate(), Types.DATE)
+                .addValue("endDate", filter.endDate(), Types.DATE)
+                .addValue("groupBy", filter.groupBy());
+    }
+
     private SalesByDateChannelDTO mapSalesByDateChannel(ResultSet rs, int rowNum) throws SQLException {
         return new SalesByDateChannelDTO(
                 rs.getDate("sale_date").toLocalDate(),
-                rs.getString("sales_channel"),
+                null, // salesChannel - orders record none
                 rs.getLong("order_count"),
                 rs.getLong("unique_customers"),
                 rs.getLong("total_items"),
@@ -278,4 +437,16 @@ public class SalesReportRepository {
             BigDecimal maxTicket
     ) {
     }
+
+    /**
+     * Product Summary DTO (product columns of the top products report)
+     */
+    public record ProductSummaryDTO(
+            UUID productId,
+            String sku,
+            String productName,
+            String categoryName,
+            BigDecimal currentStock
+    ) {
+    }
 }
@@ -0,0 +1,159 @@
+package com.estoquecentral.reporting.application;
+
+import com.estoquecentral.inventory.domain.StockChangedEvent;
+import com.estoquecentral.shared.cache.TenantCacheGenerations;
+import com.estoquecentral.shared.cache.TwoLevelTenantCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Dashboard Cache
+ * Tenant-scoped two-level cache for dashboard metrics
+ *
+ * <p>L1 is an in-process LRU (<code>dashboard.cache.local-max-entries</code>,
+ * <code>dashboard.cache.local-ttl-ms</code>); L2 is the Redisson "dashboard" cache when
+ * <code>redis.enabled=true</code>. Concurrent misses for the same tenant + key run one query.
+ *
+ * <p><strong>Freshness:</strong> Stock write paths (sales, reservations, receiving, movements,
+ * manual inventory operations) publish {@link StockChangedEvent}s; the tenant's entries are
+ * invalidated after the transaction commits (once per transaction) by bumping the tenant's
+ * "dashboard" generation in {@link TenantCacheGenerations}. With Redis enabled the invalidation
+ * is broadcast so every node drops its L1 entries too. Orders written outside the application
+ * show up once the L1/L2 entries expire; the rollup rebuild invalidates explicitly.
+ *
+ * @see TwoLevelTenantCache
+ * @see DashboardService
+ */
+@Component
+public class DashboardCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardCache.class);
+
+    private static final String CACHE_NAME = "dashboard";
+    private static final String INVALIDATION_TOPIC = "tenant-cache-invalidation:" + CACHE_NAME;
+
+    private final TwoLevelTenantCache cache;
+    private final RTopic invalidationTopic;
+
+    /** Tenants already scheduled for invalidation in the current transaction. */
+    private final ThreadLocal<Set<String>> pendingInvalidations = new ThreadLocal<>();
+
+    public DashboardCache(ObjectProvider<CacheManager> cacheManager,
+                          ObjectProvider<RedissonClient> redissonClient,
+                          TenantCacheGenerations generations,
+                          @Value("${dashboard.cache.local-max-entries:2000}") int localMaxEntries,
+                          @Value("${dashboard.cache.local-ttl-ms:30000}") long localTtlMs) {
+        CacheManager sharedCacheManager = cacheManager.getIfAvailable();
+        this.cache = new TwoLevelTenantCache(CACHE_NAME, localMaxEntries, localTtlMs,
+                sharedCacheManager != null ? sharedCacheManager.getCache(CACHE_NAME) : null, generations);
+
+        RedissonClient redisson = redissonClient.getIfAvailable();
+        if (redisson != null) {
+            this.invalidationTopic = redisson.getTopic(INVALIDATION_TOPIC);
+            this.invalidationTopic.addListener(String.class, (channel, tenantKey) -> cache.invalidateLocal(tenantKey));
+        } else {
+            this.invalidationTopic = null;
+        }
+    }
+
+    /**
+     * Returns the cached value for the current tenant, loading it once on a miss.
+     */
+    public <T> T get(String key, Supplier<T> loader) {
+        return cache.get(key, loader);
+    }
+
+    /**
+     * Invalidates the current tenant's dashboard entries on all nodes.
+     */
+    public void invalidateCurrentTenant() {
+        invalidateTenant(TwoLevelTenantCache.currentTenantKey());
+    }
+
+    /**
+     * Invalidates the tenant whose stock changed once the transaction commits.
+     */
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        invalidateAfterCommit(event.tenantId() != null
+                ? event.tenantId().toString()
+                : TwoLevelTenantCache.currentTenantKey());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("dashboard.cache.requests", cache, TwoLevelTenantCache::getLocalHits)
+                .description("Dashboard cache lookups served from the in-process cache")
+                .tag("level", "l1")
+                .register(registry);
+        FunctionCounter.builder("dashboard.cache.requests", cache, TwoLevelTenantCache::getSharedHits)
+                .description("Dashboard cache lookups served from the shared (Redis) cache")
+                .tag("level", "l2")
+                .register(registry);
+        FunctionCounter.builder("dashboard.cache.requests", cache, TwoLevelTenantCache::getLoads)
+                .description("Dashboard cache lookups loaded from the database")
+                .tag("level", "database")
+                .register(registry);
+        Gauge.builder("dashboard.cache.size", cache, TwoLevelTenantCache::getLocalSize)
+                .description("Entries in the in-process dashboard cache")
+                .register(registry);
+    }
+
+    private void invalidateAfterCommit(String tenantKey) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateTenant(tenantKey);
+            return;
+        }
+
+        // One invalidation per tenant per transaction, after commit
+        Set<String> scheduled = pendingInvalidations.get();
+        if (scheduled == null) {
+            scheduled = new HashSet<>();
+            pendingInvalidations.set(scheduled);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    pendingInvalidations.remove();
+                }
+            });
+        }
+        if (scheduled.add(tenantKey)) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateTenant(tenantKey);
+                }
+            });
+        }
+    }
+
+    private void invalidateTenant(String tenantKey) {
+        cache.invalidateTenant(tenantKey);
+
+        if (invalidationTopic != null) {
+            try {
+                invalidationTopic.publish(tenantKey);
+            } catch (RuntimeException e) {
+                logger.warn("Could not broadcast dashboard invalidation for {}: {}", tenantKey, e.getMessage());
+            }
+        }
+        logger.debug("Invalidated dashboard cache for {}", tenantKey);
+    }
+}
@@ -0,0 +1,73 @@
+package com.estoquecentral.reporting.application;
+
+import com.estoquecentral.reporting.adapter.out.DashboardRepository;
+import com.estoquecentral.shared.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Scheduled job that folds the dashboard rollup deltas into the rollups
+ *
+ * <p>Orders, order items and stock changes only append deltas in the writing transaction
+ * (migration V088), so concurrent sales never queue on the same rollup row. This job
+ * merges them for the tenants that have any: one upsert per rollup row however many
+ * changes it received. The dashboard lags writes by up to one interval plus the
+ * {@link DashboardCache} TTL.
+ *
+ * <p><strong>Schedule:</strong> <code>dashboard.rollup.merge-interval-ms</code> after the
+ * previous round (default 2s)
+ *
+ * @see DashboardRepository#mergeRollupDeltas()
+ */
+@Component
+public class DashboardRollupMergeJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardRollupMergeJob.class);
+
+    private final DashboardRepository dashboardRepository;
+
+    public DashboardRollupMergeJob(DashboardRepository dashboardRepository) {
+        this.dashboardRepository = dashboardRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.rollup.merge-interval-ms:2000}")
+    public void mergeAll() {
+        List<UUID> tenants;
+        try {
+            tenants = dashboardRepository.findTenantsWithRollupDeltas();
+        } catch (Exception e) {
+            logger.error("Error finding tenants with dashboard rollup deltas", e);
+            return;
+        }
+
+        for (UUID tenantId : tenants) {
+            mergeTenant(tenantId);
+        }
+    }
+
+    /**
+     * Merges one tenant's pending deltas
+     *
+     * @return rollup rows updated, 0 on failure
+     */
+    public int mergeTenant(UUID tenantId) {
+        try {
+            TenantContext.setTenantId(tenantId.toString());
+            int merged = dashboardRepository.mergeRollupDeltas();
+
+            logger.debug("Merged dashboard rollup deltas into {} rows for tenant {}", merged, tenantId);
+            return merged;
+
+        } catch (Exception e) {
+            logger.error("Error merging dashboard rollup deltas for tenant {}: {}", tenantId, e.getMessage(), e);
+            return 0;
+        } finally {
+            TenantContext.clear();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.estoquecentral.reporting.application;
+
+import com.estoquecentral.auth.adapter.out.TenantRepository;
+import com.estoquecentral.auth.domain.Tenant;
+import com.estoquecentral.reporting.adapter.out.DashboardRepository;
+import com.estoquecentral.shared.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Scheduled job that rebuilds the dashboard rollups from the source tables
+ *
+ * <p>The rollups are maintained incrementally (triggers append deltas that
+ * {@link DashboardRollupMergeJob} merges); this job repairs any drift (e.g. rows changed
+ * with the triggers disabled) by recomputing each active tenant's rollups and discarding
+ * its pending deltas, then drops the tenant's cached dashboard.
+ *
+ * <p><strong>Schedule:</strong> <code>dashboard.rollup.rebuild-cron</code> (default daily at 03:30)
+ *
+ * @see DashboardRepository#rebuildRollups()
+ */
+@Component
+public class DashboardRollupRebuildJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardRollupRebuildJob.class);
+
+    private final TenantRepository tenantRepository;
+    private final DashboardRepository dashboardRepository;
+    private final DashboardCache dashboardCache;
+
+    public DashboardRollupRebuildJob(TenantRepository tenantRepository,
+                                     DashboardRepository dashboardRepository,
+                                     DashboardCache dashboardCache) {
+        this.tenantRepository = tenantRepository;
+        this.dashboardRepository = dashboardRepository;
+        this.dashboardCache = dashboardCache;
+    }
+
+    @Scheduled(cron = "${dashboard.rollup.rebuild-cron:0 30 3 * * *}")
+    public void rebuildAll() {
+        logger.info("Starting dashboard rollup rebuild");
+
+        try {
+            List<Tenant> tenants = tenantRepository.findAllActive();
+            int rebuilt = 0;
+
+            for (Tenant tenant : tenants) {
+                if (rebuildTenant(tenant.getId())) {
+                    rebuilt++;
+                }
+            }
+
+            logger.info("Dashboard rollup rebuild completed for {}/{} tenants", rebuilt, tenants.size());
+
+        } catch (Exception e) {
+            logger.error("Error in dashboard rollup rebuild job", e);
+        }
+    }
+
+    /**
+     * Rebuilds one tenant's rollups
+     *
+     * @return true if the rebuild committed
+     */
+    public boolean rebuildTenant(UUID tenantId) {
+        try {
+            TenantContext.setTenantId(tenantId.toString());
+            long start = System.currentTimeMillis();
+
+            dashboardRepository.rebuildRollups();
+            dashboardCache.invalidateCurrentTenant();
+
+            logger.debug("Rebuilt dashboard rollups for tenant {} in {}ms",
+                tenantId, System.currentTimeMillis() - start);
+            return true;
+
+        } catch (Exception e) {
+            logger.error("Error rebuilding dashboard rollups for tenant {}: {}", tenantId, e.getMessage(), e);
+            return false;
+        } finally {
+            TenantContext.clear();
+        }
+    }
+}
@@ -2,52 +2,103 @@ package com.estoquecentral.reporting.application;
 
 import com.estoquecentral.reporting.adapter.in.dto.*;
 import com.estoquecentral.reporting.adapter.out.DashboardRepository;
-import org.springframework.cache.annotation.Cacheable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Dashboard Service
  * Business logic for dashboard operations
+ *
+ * <p>View queries go through {@link DashboardCache} (tenant-scoped L1 + Redis L2,
+ * single-flight loading, invalidated when sales/inventory writes commit).
+ *
+ * <p>The complete dashboard loads its sections concurrently on the <code>dashboardExecutor</code>
+ * pool, each in its own read-only transaction. Sections not loaded within
+ * <code>dashboard.fan-out.timeout-ms</code> are left out of the response (listed in
+ * <code>unavailableSections</code>); they keep loading and fill the cache for the next request.
+ * Sections the saturated pool rejects are unavailable right away.
  */
 @Service
 @Transactional(readOnly = true)
 public class DashboardService {
 
-    private final DashboardRepository dashboardRepository;
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    private static final int COMPLETE_DASHBOARD_CRITICAL_STOCK_LIMIT = 20;
 
-    public DashboardService(DashboardRepository dashboardRepository) {
+    private final DashboardRepository dashboardRepository;
+    private final DashboardCache dashboardCache;
+    private final Executor dashboardExecutor;
+    private final Duration fanOutTimeout;
+
+    public DashboardService(DashboardRepository dashboardRepository,
+                            DashboardCache dashboardCache,
+                            @Qualifier("dashboardExecutor") Executor dashboardExecutor,
+                            @Value("${dashboard.fan-out.timeout-ms:2000}") long fanOutTimeoutMs) {
         this.dashboardRepository = dashboardRepository;
+        this.dashboardCache = dashboardCache;
+        this.dashboardExecutor = dashboardExecutor;
+        this.fanOutTimeout = Duration.ofMillis(fanOutTimeoutMs);
     }
 
     /**
      * Get complete dashboard data
-     * Cached for 60 seconds to avoid excessive queries
+     * Sections load in parallel (each cached per tenant); a section that misses the
+     * deadline degrades to a partial response
      */
-    @Cacheable(value = "dashboard", key = "'complete'")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CompleteDashboardDTO getCompleteDashboard() {
-        return dashboardRepository.getCompleteDashboard();
+        long deadline = System.nanoTime() + fanOutTimeout.toNanos();
+
+        CompletableFuture<DashboardSummaryDTO> summary = loadAsync(this::getDashboardSummary);
+        CompletableFuture<List<DailySalesByChannelDTO>> salesByChannel = loadAsync(this::getDailySalesByChannel);
+        CompletableFuture<List<CriticalStockProductDTO>> criticalStock =
+                loadAsync(() -> getCriticalStockProducts(COMPLETE_DASHBOARD_CRITICAL_STOCK_LIMIT));
+        CompletableFuture<List<PendingOrdersSummaryDTO>> pendingOrders = loadAsync(this::getPendingOrdersSummary);
+        CompletableFuture<List<InventoryValueSummaryDTO>> inventoryByLocation = loadAsync(this::getInventoryValueSummary);
+
+        List<String> unavailable = new ArrayList<>();
+        return new CompleteDashboardDTO(
+                await("summary", summary, deadline, unavailable),
+                await("salesByChannel", salesByChannel, deadline, unavailable),
+                await("criticalStock", criticalStock, deadline, unavailable),
+                await("pendingOrders", pendingOrders, deadline, unavailable),
+                await("inventoryByLocation", inventoryByLocation, deadline, unavailable),
+                unavailable
+        );
     }
 
     /**
      * Get dashboard summary only
      */
-    @Cacheable(value = "dashboard", key = "'summary'")
     public DashboardSummaryDTO getDashboardSummary() {
-        return dashboardRepository.getDashboardSummary();
+        return dashboardCache.get("summary", dashboardRepository::getDashboardSummary);
     }
 
     /**
      * Get daily sales by channel
      */
-    @Cacheable(value = "dashboard", key = "'sales-by-channel'")
     public List<DailySalesByChannelDTO> getDailySalesByChannel() {
-        return dashboardRepository.getDailySalesByChannel();
+        return dashboardCache.get("sales-by-channel", dashboardRepository::getDailySalesByChannel);
     }
 
     /**
@@ -75,9 +126,8 @@ public class DashboardService {
     /**
      * Get critical stock products
      */
-    @Cacheable(value = "dashboard", key = "'critical-stock-' + #limit")
     public List<CriticalStockProductDTO> getCriticalStockProducts(Integer limit) {
-        return dashboardRepository.getCriticalStockProducts(limit);
+        return dashboardCache.get("critical-stock-" + limit, () -> dashboardRepository.getCriticalStockProducts(limit));
     }
 
     /**
@@ -100,9 +150,8 @@ public class DashboardService {
     /**
      * Get pending orders summary
      */
-    @Cacheable(value = "dashboard", key = "'pending-orders'")
     public List<PendingOrdersSummaryDTO> getPendingOrdersSummary() {
-        return dashboardRepository.getPendingOrdersSummary();
+        return dashboardCache.get("pending-orders", dashboardRepository::getPendingOrdersSummary);
     }
 
     /**
@@ -125,9 +174,8 @@ public class DashboardService {
     /**
      * Get inventory value summary
      */
-    @Cacheable(value = "dashboard", key = "'inventory-value'")
     public List<InventoryValueSummaryDTO> getInventoryValueSummary() {
-        return dashboardRepository.getInventoryValueSummary();
+        return dashboardCache.get("inventory-value", dashboardRepository::getInventoryValueSummary);
     }
 
     /**
@@ -177,41 +225,36 @@ public class DashboardService {
     /**
      * Get top selling products for today
      */
-    @Cacheable(value = "dashboard", key = "'top-products-' + #limit")
     public List<TopProductDTO> getTopProducts(Integer limit) {
-        return dashboardRepository.getTopProducts(limit);
+        return dashboardCache.get("top-products-" + limit, () -> dashboardRepository.getTopProducts(limit));
     }
 
     /**
      * Get monthly sales aggregation
      */
-    @Cacheable(value = "dashboard", key = "'monthly-sales'")
     public MonthlySalesDTO getMonthlySales() {
-        return dashboardRepository.getMonthlySales();
+        return dashboardCache.get("monthly-sales", dashboardRepository::getMonthlySales);
     }
 
     /**
      * Get active customers count
      */
-    @Cacheable(value = "dashboard", key = "'active-customers-count'")
     public Integer getActiveCustomersCount() {
-        return dashboardRepository.getActiveCustomersCount();
+        return dashboardCache.get("active-customers-count", dashboardRepository::getActiveCustomersCount);
     }
 
     /**
      * Get recent activities
      */
-    @Cacheable(value = "dashboard", key = "'recent-activities-' + #limit")
     public List<RecentActivityDTO> getRecentActivities(Integer limit) {
-        return dashboardRepository.getRecentActivities(limit);
+        return dashboardCache.get("recent-activities-" + limit, () -> dashboardRepository.getRecentActivities(limit));
     }
 
     /**
      * Get total count of active products
      */
-    @Cacheable(value = "dashboard", key = "'total-active-products'")
     public Integer getTotalActiveProducts() {
-        return dashboardRepository.getTotalActiveProducts();
+        return dashboardCache.get("total-active-products", dashboardRepository::getTotalActiveProducts);
     }
 
     /**
@@ -244,4 +287,36 @@ public class DashboardService {
                 )
         );
     }
+
+    private <T> CompletableFuture<T> loadAsync(Supplier<T> loader) {
+        try {
+            return CompletableFuture.supplyAsync(loader, dashboardExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Waits for a section until the request deadline; null (and recorded as unavailable) if
+     * it fails, is late or was rejected by the pool. A late section is not cancelled: it still
+     * fills its cache entry.
+     */
+    private <T> T await(String section, CompletableFuture<T> future, long deadline, List<String> unavailable) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Dashboard section {} not ready within {}ms, returning partial dashboard",
+                    section, fanOutTimeout.toMillis());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                logger.warn("Dashboard pool saturated, section {} not loaded", section);
+            } else {
+                logger.error("Error loading dashboard section {}", section, e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        unavailable.add(section);
+        return null;
+    }
 }
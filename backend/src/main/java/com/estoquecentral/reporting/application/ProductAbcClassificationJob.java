@@ -0,0 +1,77 @@
+package com.estoquecentral.reporting.application;
+
+import com.estoquecentral.auth.adapter.out.TenantRepository;
+import com.estoquecentral.auth.domain.Tenant;
+import com.estoquecentral.shared.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Scheduled job that keeps each active tenant's ABC classification up to date
+ *
+ * <p>Runs often: a tenant without new sales costs a queue read and a lookup of its last
+ * runs, and only windows touched by new revenue (or a new day) are recomputed.
+ *
+ * <p><strong>Schedule:</strong> <code>reporting.abc.refresh-delay-ms</code> after the previous
+ * run ends (default 15 minutes)
+ *
+ * @see ProductAbcClassificationService#refreshCurrentTenant()
+ */
+@Component
+public class ProductAbcClassificationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductAbcClassificationJob.class);
+
+    private final TenantRepository tenantRepository;
+    private final ProductAbcClassificationService classificationService;
+
+    public ProductAbcClassificationJob(TenantRepository tenantRepository,
+                                       ProductAbcClassificationService classificationService) {
+        this.tenantRepository = tenantRepository;
+        this.classificationService = classificationService;
+    }
+
+    @Scheduled(fixedDelayString = "${reporting.abc.refresh-delay-ms:900000}",
+               initialDelayString = "${reporting.abc.initial-delay-ms:60000}")
+    public void refreshAll() {
+        try {
+            List<Tenant> tenants = tenantRepository.findAllActive();
+            int recomputed = 0;
+
+            for (Tenant tenant : tenants) {
+                recomputed += Math.max(0, refreshTenant(tenant.getId()));
+            }
+
+            if (recomputed > 0) {
+                logger.info("ABC classification refreshed: {} windows recomputed across {} tenants",
+                    recomputed, tenants.size());
+            }
+
+        } catch (Exception e) {
+            logger.error("Error in ABC classification job", e);
+        }
+    }
+
+    /**
+     * Refreshes one tenant's windows
+     *
+     * @return windows recomputed, -1 if skipped (locked by another node) or failed
+     */
+    public int refreshTenant(UUID tenantId) {
+        try {
+            TenantContext.setTenantId(tenantId.toString());
+            return classificationService.refreshCurrentTenant();
+
+        } catch (Exception e) {
+            logger.error("Error refreshing ABC classification for tenant {}: {}", tenantId, e.getMessage(), e);
+            return -1;
+        } finally {
+            TenantContext.clear();
+        }
+    }
+}
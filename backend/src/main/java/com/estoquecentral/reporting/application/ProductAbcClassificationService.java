@@ -0,0 +1,165 @@
+package com.estoquecentral.reporting.application;
+
+import com.estoquecentral.reporting.adapter.in.dto.AbcCurveRunDTO;
+import com.estoquecentral.reporting.adapter.in.dto.ProductAbcClassificationDTO;
+import com.estoquecentral.reporting.adapter.out.ProductAbcClassificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Product ABC Classification Service
+ * Precomputed ABC curve (Pareto) by revenue share over rolling windows of days
+ *
+ * <p>Each configured window (<code>reporting.abc.windows</code>) is stored with the time it
+ * was computed. {@link #refreshCurrentTenant()} recomputes a window only when it is new,
+ * its thresholds changed, its end date moved to a new day, or revenue changed on one of its
+ * days; revenue comes from the trigger-maintained daily product rollup, so a refresh ranks
+ * the window's products without re-reading order history.
+ *
+ * @see ProductAbcClassificationJob
+ */
+@Service
+@Transactional(readOnly = true)
+public class ProductAbcClassificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductAbcClassificationService.class);
+
+    private static final List<String> CLASSES = List.of("A", "B", "C");
+
+    private final ProductAbcClassificationRepository repository;
+    private final List<Integer> windows;
+    private final int defaultWindowDays;
+    private final BigDecimal classAShare;
+    private final BigDecimal classBShare;
+
+    public ProductAbcClassificationService(ProductAbcClassificationRepository repository,
+                                           @Value("${reporting.abc.windows:30,90,365}") List<Integer> windows,
+                                           @Value("${reporting.abc.default-window-days:90}") int defaultWindowDays,
+                                           @Value("${reporting.abc.class-a-share:0.80}") BigDecimal classAShare,
+                                           @Value("${reporting.abc.class-b-share:0.95}") BigDecimal classBShare) {
+        if (windows.isEmpty() || windows.stream().anyMatch(days -> days <= 0)) {
+            throw new IllegalStateException("reporting.abc.windows must list positive day counts: " + windows);
+        }
+        if (!windows.contains(defaultWindowDays)) {
+            throw new IllegalStateException("reporting.abc.default-window-days must be one of " + windows);
+        }
+        if (classAShare.signum() <= 0 || classAShare.compareTo(classBShare) >= 0
+                || classBShare.compareTo(BigDecimal.ONE) > 0) {
+            throw new IllegalStateException(
+                    "ABC shares must satisfy 0 < class-a-share < class-b-share <= 1: " + classAShare + ", " + classBShare);
+        }
+        this.repository = repository;
+        this.windows = windows.stream().distinct().sorted().toList();
+        this.defaultWindowDays = defaultWindowDays;
+        this.classAShare = classAShare;
+        this.classBShare = classBShare;
+    }
+
+    /**
+     * Get the classification of a window (default window when null), optionally one class only
+     */
+    public List<ProductAbcClassificationDTO> getClassification(Integer windowDays, String abcClass) {
+        return repository.findByWindow(resolveWindow(windowDays), normalizeClass(abcClass));
+    }
+
+    /**
+     * Get a product's class in every configured window
+     */
+    public List<ProductAbcClassificationDTO> getProductClassification(UUID productId) {
+        return repository.findByProduct(productId);
+    }
+
+    /**
+     * Get when each window was last computed
+     */
+    public List<AbcCurveRunDTO> getRuns() {
+        return repository.findRuns();
+    }
+
+    /**
+     * Bring the current tenant's windows up to date
+     *
+     * @return number of windows recomputed, or -1 if another node holds the tenant's refresh lock
+     */
+    @Transactional
+    public int refreshCurrentTenant() {
+        if (!repository.tryLockRefresh()) {
+            return -1;
+        }
+
+        List<LocalDate> changedDays = repository.consumeChangedDays();
+        LocalDate today = repository.currentDate();
+        Map<Integer, AbcCurveRunDTO> runs = repository.findRuns().stream()
+                .collect(Collectors.toMap(AbcCurveRunDTO::windowDays, Function.identity()));
+
+        int recomputed = 0;
+        for (int windowDays : windows) {
+            if (isStale(runs.get(windowDays), windowDays, today, changedDays)) {
+                int classified = repository.classify(windowDays, classAShare, classBShare);
+                logger.debug("Classified {} products for ABC window of {} days", classified, windowDays);
+                recomputed++;
+            }
+        }
+
+        if (runs.keySet().stream().anyMatch(windowDays -> !windows.contains(windowDays))) {
+            repository.deleteWindowsOtherThan(windows);
+        }
+        return recomputed;
+    }
+
+    /**
+     * Validates an ABC window filter (also used by the stock listing)
+     *
+     * @return the window, or the default window when null
+     * @throws IllegalArgumentException if the window is not one of the computed windows
+     */
+    public int resolveWindow(Integer windowDays) {
+        if (windowDays == null) {
+            return defaultWindowDays;
+        }
+        if (!windows.contains(windowDays)) {
+            throw new IllegalArgumentException("ABC window not computed: " + windowDays + " days (available: " + windows + ")");
+        }
+        return windowDays;
+    }
+
+    /**
+     * Validates an ABC class filter (also used by the stock listing)
+     *
+     * @return A, B or C, or null when no class is given
+     * @throws IllegalArgumentException if the class is not A, B or C
+     */
+    public String normalizeClass(String abcClass) {
+        if (abcClass == null || abcClass.isBlank()) {
+            return null;
+        }
+        String normalized = abcClass.trim().toUpperCase(Locale.ROOT);
+        if (!CLASSES.contains(normalized)) {
+            throw new IllegalArgumentException("Invalid ABC class: " + abcClass);
+        }
+        return normalized;
+    }
+
+    private boolean isStale(AbcCurveRunDTO run, int windowDays, LocalDate today, List<LocalDate> changedDays) {
+        if (run == null
+                || !today.equals(run.windowEnd())
+                || run.classAShare().compareTo(classAShare) != 0
+                || run.classBShare().compareTo(classBShare) != 0) {
+            return true;
+        }
+        LocalDate windowStart = today.minusDays(windowDays - 1L);
+        return changedDays.stream().anyMatch(day -> !day.isBefore(windowStart) && !day.isAfter(today));
+    }
+}
@@ -0,0 +1,87 @@
+package com.estoquecentral.reporting.application;
+
+import com.estoquecentral.auth.adapter.out.TenantRepository;
+import com.estoquecentral.auth.domain.Tenant;
+import com.estoquecentral.reporting.adapter.out.SalesReportRepository;
+import com.estoquecentral.reporting.application.salesfacts.SalesFactStore;
+import com.estoquecentral.shared.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Scheduled job that consolidates closed days into each active tenant's sales cube
+ *
+ * <p>A run builds the days closed since the previous run, re-aggregates the last closed day
+ * and rebuilds closed days changed after they were built (late status or payment updates).
+ * Reports stay correct between runs: days the cube does not cover yet are read live. After a
+ * refresh the tenant's {@link SalesFactStore} facts are marked stale.
+ *
+ * <p><strong>Schedule:</strong> <code>reporting.sales-cube.refresh-delay-ms</code> after the
+ * previous run ends (default 10 minutes)
+ *
+ * @see SalesReportRepository#refreshCube()
+ */
+@Component
+public class SalesCubeRefreshJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesCubeRefreshJob.class);
+
+    private final TenantRepository tenantRepository;
+    private final SalesReportRepository salesReportRepository;
+    private final SalesFactStore salesFactStore;
+
+    public SalesCubeRefreshJob(TenantRepository tenantRepository,
+                               SalesReportRepository salesReportRepository,
+                               SalesFactStore salesFactStore) {
+        this.tenantRepository = tenantRepository;
+        this.salesReportRepository = salesReportRepository;
+        this.salesFactStore = salesFactStore;
+    }
+
+    @Scheduled(fixedDelayString = "${reporting.sales-cube.refresh-delay-ms:600000}",
+               initialDelayString = "${reporting.sales-cube.initial-delay-ms:60000}")
+    public void refreshAll() {
+        try {
+            List<Tenant> tenants = tenantRepository.findAllActive();
+            int built = 0;
+
+            for (Tenant tenant : tenants) {
+                built += Math.max(0, refreshTenant(tenant.getId()));
+            }
+
+            if (built > 0) {
+                logger.info("Sales cube refreshed: {} days built across {} tenants", built, tenants.size());
+            }
+
+        } catch (Exception e) {
+            logger.error("Error in sales cube refresh job", e);
+        }
+    }
+
+    /**
+     * Refreshes one tenant's cube
+     *
+     * @return days built, -1 if skipped (locked by another node) or failed
+     */
+    public int refreshTenant(UUID tenantId) {
+        try {
+            TenantContext.setTenantId(tenantId.toString());
+            int built = salesReportRepository.refreshCube();
+            if (built >= 0) {
+                salesFactStore.invalidateCurrentTenant();
+            }
+            return built;
+
+        } catch (Exception e) {
+            logger.error("Error refreshing sales cube for tenant {}: {}", tenantId, e.getMessage(), e);
+            return -1;
+        } finally {
+            TenantContext.clear();
+        }
+    }
+}
@@ -2,8 +2,12 @@ package com.estoquecentral.reporting.application;
 
 import com.estoquecentral.reporting.adapter.in.dto.*;
 import com.estoquecentral.reporting.adapter.out.SalesReportRepository;
+import com.estoquecentral.reporting.adapter.out.SalesReportRepository.ProductSummaryDTO;
 import com.estoquecentral.reporting.adapter.out.SalesReportRepository.SalesReportPeriodDTO;
 import com.estoquecentral.reporting.adapter.out.SalesReportRepository.SalesTotalsDTO;
+import com.estoquecentral.reporting.application.salesfacts.SalesFactStore;
+import com.estoquecentral.reporting.application.salesfacts.SalesFacts;
+import com.estoquecentral.reporting.application.salesfacts.SalesFacts.RankedProduct;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -11,29 +15,40 @@ import java.io.ByteArrayOutputStream;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * Sales Report Service
  * Business logic for sales reporting
+ *
+ * <p>Reports over the sales cube are answered from the in-memory {@link SalesFactStore} when it
+ * holds the tenant's facts, otherwise from SQL; both return the same rows.
  */
 @Service
 @Transactional(readOnly = true)
 public class SalesReportService {
 
     private final SalesReportRepository repository;
+    private final SalesFactStore salesFactStore;
 
-    public SalesReportService(SalesReportRepository repository) {
+    public SalesReportService(SalesReportRepository repository, SalesFactStore salesFactStore) {
         this.repository = repository;
+        this.salesFactStore = salesFactStore;
     }
 
     /**
      * Get sales by date and channel
      */
     public List<SalesByDateChannelDTO> getSalesByDateAndChannel(SalesFilterDTO filter) {
-        return repository.getSalesByDateAndChannel(filter);
+        return salesFactStore.current()
+                .map(facts -> facts.salesByDateAndChannel(filter))
+                .orElseGet(() -> repository.getSalesByDateAndChannel(filter));
     }
 
     /**
@@ -47,7 +62,9 @@ public class SalesReportService {
      * Get sales by period
      */
     public List<SalesByPeriodDTO> getSalesByPeriod(SalesFilterDTO filter) {
-        return repository.getSalesByPeriod(filter);
+        return salesFactStore.current()
+                .map(facts -> facts.salesByPeriod(filter))
+                .orElseGet(() -> repository.getSalesByPeriod(filter));
     }
 
     /**
@@ -61,23 +78,77 @@ public class SalesReportService {
      * Get sales report grouped by period (uses function)
      */
     public List<SalesReportPeriodDTO> getSalesReportByPeriod(SalesFilterDTO filter) {
-        return repository.getSalesReportByPeriod(filter);
+        return salesFactStore.current()
+                .map(facts -> facts.salesReportByPeriod(filter))
+                .orElseGet(() -> repository.getSalesReportByPeriod(filter));
     }
 
     /**
      * Get sales totals
      */
     public SalesTotalsDTO getSalesTotals(SalesFilterDTO filter) {
-        return repository.getSalesTotals(filter);
+        return salesFactStore.current()
+                .map(facts -> facts.totals(filter))
+                .orElseGet(() -> repository.getSalesTotals(filter));
+    }
+
+    /**
+     * Get top products by revenue or quantity
+     */
+    public List<TopProductDTO> getTopProducts(TopProductsFilterDTO filter) {
+        Optional<SalesFacts> facts = salesFactStore.current();
+        if (facts.isEmpty()) {
+            return repository.getTopProducts(filter);
+        }
+
+        // Products deleted since they were sold drop out (as in the SQL join): rank more until filled
+        for (int candidates = filter.limit(); ; candidates *= 2) {
+            List<RankedProduct> ranked = facts.get().topProducts(filter, candidates);
+            Map<UUID, ProductSummaryDTO> products = repository.findProductSummaries(
+                    ranked.stream().map(RankedProduct::productId).toList());
+
+            List<TopProductDTO> top = new ArrayList<>();
+            for (RankedProduct product : ranked) {
+                ProductSummaryDTO summary = products.get(product.productId());
+                if (summary == null) {
+                    continue;
+                }
+                top.add(new TopProductDTO(
+                        product.productId(),
+                        summary.sku(),
+                        summary.productName(),
+                        summary.categoryName(),
+                        product.orderCount(),
+                        null, // uniqueCustomers - not in the cube
+                        product.totalQuantity(),
+                        product.totalRevenue(),
+                        product.revenuePerUnit(),
+                        null, // minPrice
+                        null, // maxPrice
+                        product.revenuePerUnit(),
+                        product.averageQuantityPerOrder(),
+                        summary.currentStock(),
+                        null, // firstSaleDate
+                        null, // lastSaleDate
+                        (long) top.size() + 1
+                ));
+                if (top.size() == filter.limit()) {
+                    return top;
+                }
+            }
+            if (ranked.size() < candidates) {
+                return top;
+            }
+        }
     }
 
     /**
      * Get complete sales report with all data
      */
     public Map<String, Object> getCompleteSalesReport(SalesFilterDTO filter) {
-        List<SalesByDateChannelDTO> salesByDate = repository.getSalesByDateAndChannel(filter);
+        List<SalesByDateChannelDTO> salesByDate = getSalesByDateAndChannel(filter);
         List<SalesByChannelSummaryDTO> channelSummary = repository.getSalesByChannelSummary();
-        SalesTotalsDTO totals = repository.getSalesTotals(filter);
+        SalesTotalsDTO totals = getSalesTotals(filter);
 
         return Map.of(
                 "salesByDate", salesByDate,
@@ -88,12 +159,12 @@ public class SalesReportService {
     }
 
     /**
-     * Get sales grouped by channel
+     * Get sales grouped by channel (a single "ALL" group while orders record no channel)
      */
     public Map<String, List<SalesByDateChannelDTO>> getSalesGroupedByChannel(SalesFilterDTO filter) {
-        List<SalesByDateChannelDTO> sales = repository.getSalesByDateAndChannel(filter);
+        List<SalesByDateChannelDTO> sales = getSalesByDateAndChannel(filter);
         return sales.stream()
-                .collect(Collectors.groupingBy(SalesByDateChannelDTO::salesChannel));
+                .collect(Collectors.groupingBy(sale -> Objects.requireNonNullElse(sale.salesChannel(), "ALL")));
     }
 
     /**
@@ -168,7 +239,7 @@ public class SalesReportService {
      * Export sales by date and channel to CSV
      */
     public byte[] exportSalesByDateChannelToCSV(SalesFilterDTO filter) {
-        List<SalesByDateChannelDTO> sales = repository.getSalesByDateAndChannel(filter);
+        List<SalesByDateChannelDTO> sales = getSalesByDateAndChannel(filter);
 
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         PrintWriter writer = new PrintWriter(outputStream, true, StandardCharsets.UTF_8);
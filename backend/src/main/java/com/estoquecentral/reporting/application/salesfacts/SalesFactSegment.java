@@ -0,0 +1,270 @@
+package com.estoquecentral.reporting.application.salesfacts;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Sales Fact Segment
+ * Columnar, immutable copy of a range of days of the sales cube (V087)
+ *
+ * <p>Holds the cube's three fact tables as primitive columns, each sorted by day:
+ * <ul>
+ *   <li>orders: one row per day (order-level sums, tickets, payment)</li>
+ *   <li>products: one row per day, product and category (quantity, revenue)</li>
+ *   <li>customers: one row per day and customer (distinct counts)</li>
+ * </ul>
+ * Days are epoch days, money is long cents, quantities are long thousandths, timestamps are
+ * epoch microseconds (UTC wall clock); products, categories and customers are
+ * dictionary-encoded. Values that do not fit (more decimals than the columns allow) fail the
+ * build rather than being rounded.
+ *
+ * @see SalesFacts
+ */
+public final class SalesFactSegment {
+
+    public static final SalesFactSegment EMPTY = new Builder(null).build();
+
+    final UuidDictionary products;
+    final UuidDictionary categories;
+    final UuidDictionary customers;
+
+    final int orderRows;
+    final int[] orderDay;
+    final long[] orderCount;
+    final long[] itemCount;
+    final long[] quantity;
+    final long[] subtotal;
+    final long[] discount;
+    final long[] shipping;
+    final long[] sales;
+    final long[] minTicket;
+    final long[] maxTicket;
+    final long[] firstSale;
+    final long[] lastSale;
+    final long[] paidOrders;
+    final long[] pendingPaymentOrders;
+    final long[] paidAmount;
+
+    final int productRows;
+    final int[] productDay;
+    final int[] product;
+    final int[] category;
+    final long[] productOrders;
+    final long[] productQuantity;
+    final long[] productRevenue;
+
+    final int customerRows;
+    final int[] customerDay;
+    final int[] customer;
+
+    private SalesFactSegment(Builder builder) {
+        this.products = builder.products;
+        this.categories = builder.categories;
+        this.customers = builder.customers;
+
+        this.orderRows = builder.orderDay.size;
+        this.orderDay = builder.orderDay.toArray();
+        this.orderCount = builder.orderCount.toArray();
+        this.itemCount = builder.itemCount.toArray();
+        this.quantity = builder.quantity.toArray();
+        this.subtotal = builder.subtotal.toArray();
+        this.discount = builder.discount.toArray();
+        this.shipping = builder.shipping.toArray();
+        this.sales = builder.sales.toArray();
+        this.minTicket = builder.minTicket.toArray();
+        this.maxTicket = builder.maxTicket.toArray();
+        this.firstSale = builder.firstSale.toArray();
+        this.lastSale = builder.lastSale.toArray();
+        this.paidOrders = builder.paidOrders.toArray();
+        this.pendingPaymentOrders = builder.pendingPaymentOrders.toArray();
+        this.paidAmount = builder.paidAmount.toArray();
+
+        this.productRows = builder.productDay.size;
+        this.productDay = builder.productDay.toArray();
+        this.product = builder.product.toArray();
+        this.category = builder.category.toArray();
+        this.productOrders = builder.productOrders.toArray();
+        this.productQuantity = builder.productQuantity.toArray();
+        this.productRevenue = builder.productRevenue.toArray();
+
+        this.customerRows = builder.customerDay.size;
+        this.customerDay = builder.customerDay.toArray();
+        this.customer = builder.customer.toArray();
+    }
+
+    /**
+     * Starts a segment; with a base segment, its dictionaries are extended (shared ids)
+     */
+    public static Builder builder(SalesFactSegment base) {
+        return new Builder(base);
+    }
+
+    long estimatedBytes() {
+        return estimatedBytes(orderRows, productRows, customerRows)
+                + products.estimatedBytes() + categories.estimatedBytes() + customers.estimatedBytes();
+    }
+
+    /**
+     * Heap taken by the fact columns of a segment with these row counts (dictionaries excluded)
+     */
+    static long estimatedBytes(long orderRows, long productRows, long customerRows) {
+        return orderRows * (4L + 15 * 8)
+                + productRows * (4L + 4 + 4 + 3 * 8)
+                + customerRows * (4L + 4);
+    }
+
+    static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    static long thousandths(BigDecimal quantity) {
+        return quantity.movePointRight(3).longValueExact();
+    }
+
+    static long micros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    static BigDecimal amount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    static BigDecimal quantity(long thousandths) {
+        return BigDecimal.valueOf(thousandths, 3);
+    }
+
+    static LocalDateTime time(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Collects rows in day order (as the cube functions return them when sorted by sale_date)
+     */
+    public static final class Builder {
+
+        private final UuidDictionary products;
+        private final UuidDictionary categories;
+        private final UuidDictionary customers;
+
+        private final IntColumn orderDay = new IntColumn();
+        private final LongColumn orderCount = new LongColumn();
+        private final LongColumn itemCount = new LongColumn();
+        private final LongColumn quantity = new LongColumn();
+        private final LongColumn subtotal = new LongColumn();
+        private final LongColumn discount = new LongColumn();
+        private final LongColumn shipping = new LongColumn();
+        private final LongColumn sales = new LongColumn();
+        private final LongColumn minTicket = new LongColumn();
+        private final LongColumn maxTicket = new LongColumn();
+        private final LongColumn firstSale = new LongColumn();
+        private final LongColumn lastSale = new LongColumn();
+        private final LongColumn paidOrders = new LongColumn();
+        private final LongColumn pendingPaymentOrders = new LongColumn();
+        private final LongColumn paidAmount = new LongColumn();
+
+        private final IntColumn productDay = new IntColumn();
+        private final IntColumn product = new IntColumn();
+        private final IntColumn category = new IntColumn();
+        private final LongColumn productOrders = new LongColumn();
+        private final LongColumn productQuantity = new LongColumn();
+        private final LongColumn productRevenue = new LongColumn();
+
+        private final IntColumn customerDay = new IntColumn();
+        private final IntColumn customer = new IntColumn();
+
+        private Builder(SalesFactSegment base) {
+            this.products = new UuidDictionary(base != null ? base.products : null);
+            this.categories = new UuidDictionary(base != null ? base.categories : null);
+            this.customers = new UuidDictionary(base != null ? base.customers : null);
+        }
+
+        public Builder addOrders(LocalDate day, long orders, long items, BigDecimal totalQuantity,
+                                 BigDecimal totalSubtotal, BigDecimal totalDiscount, BigDecimal totalShipping,
+                                 BigDecimal totalSales, BigDecimal minTicketAmount, BigDecimal maxTicketAmount,
+                                 LocalDateTime firstSaleTime, LocalDateTime lastSaleTime, long paid,
+                                 long pendingPayment, BigDecimal totalPaidAmount) {
+            orderDay.add(nextDay(orderDay, day));
+            orderCount.add(orders);
+            itemCount.add(items);
+            quantity.add(thousandths(totalQuantity));
+            subtotal.add(cents(totalSubtotal));
+            discount.add(cents(totalDiscount));
+            shipping.add(cents(totalShipping));
+            sales.add(cents(totalSales));
+            minTicket.add(cents(minTicketAmount));
+            maxTicket.add(cents(maxTicketAmount));
+            firstSale.add(micros(firstSaleTime));
+            lastSale.add(micros(lastSaleTime));
+            paidOrders.add(paid);
+            pendingPaymentOrders.add(pendingPayment);
+            paidAmount.add(cents(totalPaidAmount));
+            return this;
+        }
+
+        public Builder addProduct(LocalDate day, UUID productId, UUID categoryId,
+                                  long orders, BigDecimal totalQuantity, BigDecimal totalRevenue) {
+            productDay.add(nextDay(productDay, day));
+            product.add(products.encode(productId));
+            category.add(categories.encode(categoryId));
+            productOrders.add(orders);
+            productQuantity.add(thousandths(totalQuantity));
+            productRevenue.add(cents(totalRevenue));
+            return this;
+        }
+
+        public Builder addCustomer(LocalDate day, UUID customerId) {
+            customerDay.add(nextDay(customerDay, day));
+            customer.add(customers.encode(customerId));
+            return this;
+        }
+
+        public SalesFactSegment build() {
+            return new SalesFactSegment(this);
+        }
+
+        private static int nextDay(IntColumn days, LocalDate day) {
+            int epochDay = Math.toIntExact(day.toEpochDay());
+            if (days.size > 0 && epochDay < days.values[days.size - 1]) {
+                throw new IllegalStateException("Sales facts must be added in day order: " + day);
+            }
+            return epochDay;
+        }
+    }
+
+    private static final class IntColumn {
+        private int[] values = new int[64];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class LongColumn {
+        private long[] values = new long[64];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
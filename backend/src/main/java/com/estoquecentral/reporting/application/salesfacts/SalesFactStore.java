@@ -0,0 +1,312 @@
+package com.estoquecentral.reporting.application.salesfacts;
+
+import com.estoquecentral.reporting.adapter.out.SalesFactRepository;
+import com.estoquecentral.reporting.adapter.out.SalesFactRepository.LoadedSalesFacts;
+import com.estoquecentral.reporting.adapter.out.SalesFactRepository.SalesFactCounts;
+import com.estoquecentral.reporting.adapter.out.SalesFactRepository.SalesCubeState;
+import com.estoquecentral.reporting.application.SalesCubeRefreshJob;
+import com.estoquecentral.shared.tenant.TenantContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sales Fact Store
+ * Optional per-tenant, in-process columnar copy of the sales cube for the sales reports
+ *
+ * <p>Enabled with <code>reporting.sales-store.enabled=true</code>. A tenant's facts are loaded
+ * on its first sales report (closed days from the cube, later days aggregated live) and kept
+ * while all tenants fit in <code>reporting.sales-store.max-memory-mb</code>; the least recently
+ * used tenants are evicted first. A tenant whose closed days alone do not fit (counted before
+ * they are read) is served by SQL and retried an hour later; a tenant whose load failed is
+ * served by SQL for <code>reporting.sales-store.failure-retry-ms</code>.
+ *
+ * <p><strong>Freshness:</strong> Orders are written outside the application, so live days
+ * older than <code>reporting.sales-store.live-ttl-ms</code> are reloaded on the tenant's next
+ * report. {@link SalesCubeRefreshJob} marks the tenant stale after each cube refresh (broadcast
+ * to every node when <code>redis.enabled=true</code>); a reload that finds the cube refreshed
+ * since the load reloads everything.
+ *
+ * @see SalesFacts
+ * @see SalesFactRepository
+ * @see SalesCubeRefreshJob
+ */
+@Component
+public class SalesFactStore implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesFactStore.class);
+
+    private static final String CHANGES_TOPIC = "sales-fact-store:changes";
+    private static final long OVERSIZED_RETRY_MS = 60 * 60 * 1000L;
+
+    private final SalesFactRepository repository;
+    private final boolean enabled;
+    private final long maxMemoryBytes;
+    private final long liveTtlMs;
+    private final long failureRetryMs;
+    private final RTopic changesTopic;
+
+    /** Tenants in access order (least recently used first); guarded by itself. */
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong fullLoads = new AtomicLong();
+    private final AtomicLong liveLoads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public SalesFactStore(SalesFactRepository repository,
+                          ObjectProvider<RedissonClient> redissonClient,
+                          @Value("${reporting.sales-store.enabled:false}") boolean enabled,
+                          @Value("${reporting.sales-store.max-memory-mb:256}") long maxMemoryMb,
+                          @Value("${reporting.sales-store.live-ttl-ms:10000}") long liveTtlMs,
+                          @Value("${reporting.sales-store.failure-retry-ms:60000}") long failureRetryMs) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.maxMemoryBytes = maxMemoryMb * 1024 * 1024;
+        this.liveTtlMs = liveTtlMs;
+        this.failureRetryMs = failureRetryMs;
+
+        RedissonClient redisson = enabled ? redissonClient.getIfAvailable() : null;
+        if (redisson != null) {
+            this.changesTopic = redisson.getTopic(CHANGES_TOPIC);
+            this.changesTopic.addListener(String.class, (channel, tenantId) -> markChanged(tenantId));
+        } else {
+            this.changesTopic = null;
+        }
+    }
+
+    /**
+     * Returns the current tenant's facts, loading or refreshing them if needed
+     *
+     * @return empty when the store is disabled, the tenant does not fit in memory or its
+     *         last load failed: the caller answers from SQL
+     */
+    public Optional<SalesFacts> current() {
+        String tenantId = TenantContext.getTenantId();
+        if (!enabled || tenantId == null) {
+            return Optional.empty();
+        }
+
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.computeIfAbsent(tenantId, Entry::new);
+        }
+
+        try {
+            return Optional.ofNullable(facts(entry));
+        } catch (RuntimeException e) {
+            logger.warn("Could not load sales facts for tenant {}, answering from SQL: {}", tenantId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Marks the current tenant's facts as stale on all nodes
+     */
+    public void invalidateCurrentTenant() {
+        String tenantId = TenantContext.getTenantId();
+        if (tenantId != null) {
+            salesChanged(tenantId);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("sales.fact-store.loads", fullLoads, AtomicLong::get)
+                .description("Tenant sales facts loaded from the database")
+                .tag("type", "full")
+                .register(registry);
+        FunctionCounter.builder("sales.fact-store.loads", liveLoads, AtomicLong::get)
+                .description("Tenant sales facts loaded from the database")
+                .tag("type", "live")
+                .register(registry);
+        FunctionCounter.builder("sales.fact-store.evictions", evictions, AtomicLong::get)
+                .description("Tenants evicted from the sales fact store to stay within its memory budget")
+                .register(registry);
+        Gauge.builder("sales.fact-store.memory", this, SalesFactStore::getEstimatedBytes)
+                .description("Estimated heap used by the sales fact store")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("sales.fact-store.tenants", this, SalesFactStore::getTenantCount)
+                .description("Tenants held in the sales fact store")
+                .register(registry);
+    }
+
+    long getEstimatedBytes() {
+        synchronized (entries) {
+            return entries.values().stream().mapToLong(entry -> entry.bytes).sum();
+        }
+    }
+
+    int getTenantCount() {
+        synchronized (entries) {
+            return (int) entries.values().stream().filter(entry -> entry.facts != null).count();
+        }
+    }
+
+    private SalesFacts facts(Entry entry) {
+        if (isFresh(entry)) {
+            return entry.facts;
+        }
+
+        synchronized (entry) {
+            if (isFresh(entry)) {
+                return entry.facts;
+            }
+            long now = System.currentTimeMillis();
+            if (now < entry.retryAt) {
+                return null;
+            }
+
+            try {
+                if (!load(entry, now)) {
+                    return null;
+                }
+            } catch (RuntimeException e) {
+                entry.retryAt = now + failureRetryMs;
+                throw e;
+            }
+        }
+
+        evictOverBudget(entry);
+        return entry.facts;
+    }
+
+    /**
+     * Reloads the live days, or everything when there is nothing to build on or the cube was
+     * refreshed since the load
+     *
+     * @return false if the tenant's closed days do not fit in the budget
+     */
+    private boolean load(Entry entry, long now) {
+        // Changes committed after this point make the new snapshot stale again
+        long changes = entry.changes.get();
+        SalesFacts facts = null;
+        SalesCubeState state = entry.state;
+        if (entry.facts != null) {
+            SalesFactSegment closed = entry.facts.closed();
+            facts = repository.loadLiveFacts(state, closed)
+                    .map(live -> new SalesFacts(closed, live))
+                    .orElse(null);
+            if (facts != null) {
+                liveLoads.incrementAndGet();
+            }
+        }
+        if (facts == null) {
+            SalesFactCounts counts = repository.countClosedFacts();
+            long closedBytes = SalesFactSegment.estimatedBytes(
+                    counts.orderRows(), counts.productRows(), counts.customerRows());
+            if (closedBytes > maxMemoryBytes) {
+                dropOversized(entry, closedBytes);
+                return false;
+            }
+
+            LoadedSalesFacts loaded = repository.loadFacts();
+            facts = loaded.facts();
+            state = loaded.state();
+            fullLoads.incrementAndGet();
+        }
+
+        entry.facts = facts;
+        entry.state = state;
+        entry.bytes = facts.estimatedBytes();
+        entry.loadedChanges = changes;
+        entry.loadedAt = now;
+        entry.retryAt = 0;
+        return true;
+    }
+
+    private boolean isFresh(Entry entry) {
+        return entry.facts != null
+                && entry.loadedChanges == entry.changes.get()
+                && System.currentTimeMillis() - entry.loadedAt < liveTtlMs;
+    }
+
+    /**
+     * Evicts least recently used tenants until the store fits its budget; a tenant that does
+     * not fit on its own is dropped instead
+     */
+    private void evictOverBudget(Entry loaded) {
+        synchronized (entries) {
+            if (loaded.bytes > maxMemoryBytes) {
+                dropOversized(loaded, loaded.bytes);
+                return;
+            }
+
+            long total = entries.values().stream().mapToLong(entry -> entry.bytes).sum();
+            Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+            while (total > maxMemoryBytes && leastRecentlyUsed.hasNext()) {
+                Entry entry = leastRecentlyUsed.next();
+                if (entry == loaded || entry.bytes == 0) {
+                    continue;
+                }
+                total -= entry.bytes;
+                leastRecentlyUsed.remove();
+                evictions.incrementAndGet();
+                logger.debug("Evicted sales facts of tenant {}", entry.tenantId);
+            }
+        }
+    }
+
+    private void dropOversized(Entry entry, long bytes) {
+        logger.warn("Sales facts of tenant {} need ~{} MB, over the store's {} MB: answering from SQL",
+                entry.tenantId, bytes >> 20, maxMemoryBytes >> 20);
+        entry.facts = null;
+        entry.bytes = 0;
+        entry.retryAt = System.currentTimeMillis() + OVERSIZED_RETRY_MS;
+    }
+
+    private void salesChanged(String tenantId) {
+        markChanged(tenantId);
+
+        if (changesTopic != null) {
+            try {
+                changesTopic.publish(tenantId);
+            } catch (RuntimeException e) {
+                logger.warn("Could not broadcast sales changes for tenant {}: {}", tenantId, e.getMessage());
+            }
+        }
+    }
+
+    private void markChanged(String tenantId) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(tenantId);
+        }
+        if (entry != null) {
+            entry.changes.incrementAndGet();
+        }
+    }
+
+    /**
+     * A tenant's facts; loads are serialized on the entry
+     */
+    private static final class Entry {
+        final String tenantId;
+        final AtomicLong changes = new AtomicLong();
+        volatile SalesFacts facts;
+        volatile SalesCubeState state;
+        volatile long bytes;
+        volatile long loadedChanges;
+        volatile long loadedAt;
+        /** No load before this time (oversized or failed tenant) */
+        volatile long retryAt;
+
+        Entry(String tenantId) {
+            this.tenantId = tenantId;
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package com.estoquecentral.reporting.application.salesfacts;
+
+import com.estoquecentral.reporting.adapter.in.dto.SalesByDateChannelDTO;
+import com.estoquecentral.reporting.adapter.in.dto.SalesByPeriodDTO;
+import com.estoquecentral.reporting.adapter.in.dto.SalesFilterDTO;
+import com.estoquecentral.reporting.adapter.in.dto.TopProductsFilterDTO;
+import com.estoquecentral.reporting.adapter.out.SalesReportRepository.SalesReportPeriodDTO;
+import com.estoquecentral.reporting.adapter.out.SalesReportRepository.SalesTotalsDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sales Facts
+ * One tenant's sales facts in memory: the closed days of the sales cube and the live days
+ *
+ * <p>Answers the cube-backed sales reports with the rows {@code SalesReportRepository} returns
+ * for the same data. A filter is a binary search on the day column (rows are sorted by day)
+ * into a bitmap of the rows in range, narrowed by a scan of the category column for top
+ * products; sums run
+ * in long cents over the set bits, and distinct customers are counted with a bitmap over the
+ * customer ids. Every closed day precedes every live day, so the two segments are scanned one
+ * after the other in day order.
+ *
+ * <p>Immutable: a reload builds a new instance.
+ *
+ * @see SalesFactStore
+ */
+public final class SalesFacts {
+
+    /** LIMIT of the SQL reports by date and by period. */
+    private static final int ROW_LIMIT = 1000;
+
+    private static final int NO_FILTER = Integer.MIN_VALUE;
+
+    /** Period of the ungrouped totals. */
+    private static final int ALL_PERIODS = 0;
+
+    private final SalesFactSegment closed;
+    private final SalesFactSegment live;
+    private final SalesFactSegment[] segments;
+
+    /**
+     * @param live segment built on {@code closed} (shared dictionaries), holding later days only
+     */
+    public SalesFacts(SalesFactSegment closed, SalesFactSegment live) {
+        this.closed = closed;
+        this.live = live;
+        this.segments = new SalesFactSegment[]{closed, live};
+    }
+
+    /**
+     * Get sales totals (as {@code SalesReportRepository#getSalesTotals})
+     */
+    public SalesTotalsDTO totals(SalesFilterDTO filter) {
+        Group total = aggregate(filter, null).get(ALL_PERIODS);
+        if (total == null) {
+            return new SalesTotalsDTO(0L, 0L, 0L, null, null, null, null, null, null, null);
+        }
+        return new SalesTotalsDTO(
+                total.orders,
+                total.customers,
+                total.items,
+                SalesFactSegment.amount(total.subtotal),
+                SalesFactSegment.amount(total.discount),
+                SalesFactSegment.amount(total.shipping),
+                SalesFactSegment.amount(total.sales),
+                average(total.sales, total.orders),
+                SalesFactSegment.amount(total.minTicket),
+                SalesFactSegment.amount(total.maxTicket)
+        );
+    }
+
+    /**
+     * Get sales by period, all channels (as {@code SalesReportRepository#getSalesByDateAndChannel})
+     */
+    public List<SalesByDateChannelDTO> salesByDateAndChannel(SalesFilterDTO filter) {
+        return sorted(aggregate(filter, filter.groupBy())).stream()
+                .limit(ROW_LIMIT)
+                .map(group -> new SalesByDateChannelDTO(
+                        LocalDate.ofEpochDay(group.period),
+                        null,
+                        group.orders,
+                        group.customers,
+                        group.items,
+                        SalesFactSegment.quantity(group.quantity),
+                        SalesFactSegment.amount(group.subtotal),
+                        SalesFactSegment.amount(group.discount),
+                        SalesFactSegment.amount(group.shipping),
+                        SalesFactSegment.amount(group.sales),
+                        average(group.sales, group.orders),
+                        SalesFactSegment.amount(group.minTicket),
+                        SalesFactSegment.amount(group.maxTicket),
+                        SalesFactSegment.time(group.firstSale),
+                        SalesFactSegment.time(group.lastSale)))
+                .toList();
+    }
+
+    /**
+     * Get sales by period (as {@code SalesReportRepository#getSalesByPeriod})
+     */
+    public List<SalesByPeriodDTO> salesByPeriod(SalesFilterDTO filter) {
+        return sorted(aggregate(filter, filter.groupBy())).stream()
+                .limit(ROW_LIMIT)
+                .map(group -> {
+                    LocalDate periodStart = LocalDate.ofEpochDay(group.period);
+                    return new SalesByPeriodDTO(
+                            periodStart,
+                            periodStart.getYear(),
+                            periodStart.getMonthValue(),
+                            periodStart.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR),
+                            String.format(Locale.ROOT, "%04d-%02d", periodStart.getYear(), periodStart.getMonthValue()),
+                            isoWeek(periodStart),
+                            group.orders,
+                            group.customers,
+                            group.items,
+                            SalesFactSegment.amount(group.sales),
+                            average(group.sales, group.orders),
+                            group.paidOrders,
+                            group.pendingPaymentOrders,
+                            SalesFactSegment.amount(group.paidAmount));
+                })
+                .toList();
+    }
+
+    /**
+     * Get sales by period key (as {@code SalesReportRepository#getSalesReportByPeriod})
+     */
+    public List<SalesReportPeriodDTO> salesReportByPeriod(SalesFilterDTO filter) {
+        return sorted(aggregate(filter, filter.groupBy())).stream()
+                .map(group -> new SalesReportPeriodDTO(
+                        periodKey(LocalDate.ofEpochDay(group.period), filter.groupBy()),
+                        null,
+                        group.orders,
+                        group.customers,
+                        SalesFactSegment.amount(group.sales),
+                        average(group.sales, group.orders),
+                        group.items,
+                        SalesFactSegment.quantity(group.quantity)))
+                .toList();
+    }
+
+    /**
+     * Rank products by revenue or quantity (as {@code SalesReportRepository#getTopProducts},
+     * before products are joined for names and stock)
+     */
+    public List<RankedProduct> topProducts(TopProductsFilterDTO filter, int limit) {
+        int fromDay = fromDay(filter.startDate());
+        int toDay = toDay(filter.endDate());
+        int category = filter.categoryId() != null ? live.categories.idOf(filter.categoryId()) : NO_FILTER;
+
+        int productCount = live.products.size();
+        long[] orders = new long[productCount];
+        long[] quantities = new long[productCount];
+        long[] revenues = new long[productCount];
+        boolean[] sold = new boolean[productCount];
+        int[] candidates = new int[Math.min(productCount, 1024)];
+        int candidateCount = 0;
+
+        for (SalesFactSegment segment : segments) {
+            Rows rows = select(segment.productDay, segment.productRows, fromDay, toDay);
+            if (category != NO_FILTER) {
+                rows.retain(segment.category, category);
+            }
+            long[] words = rows.words;
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    int row = rows.lo + (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    int product = segment.product[row];
+                    orders[product] += segment.productOrders[row];
+                    quantities[product] += segment.productQuantity[row];
+                    revenues[product] += segment.productRevenue[row];
+                    if (!sold[product]) {
+                        sold[product] = true;
+                        if (candidateCount == candidates.length) {
+                            candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                        }
+                        candidates[candidateCount++] = product;
+                    }
+                }
+            }
+        }
+
+        boolean byQuantity = "quantity".equals(filter.orderBy());
+        long[] primary = byQuantity ? quantities : revenues;
+        long[] secondary = byQuantity ? revenues : quantities;
+        Comparator<Integer> ranking = (a, b) -> {
+            int order = Long.compare(primary[b], primary[a]);
+            if (order == 0) {
+                order = Long.compare(secondary[b], secondary[a]);
+            }
+            return order != 0 ? order : UuidDictionary.compare(live.products.decode(a), live.products.decode(b));
+        };
+
+        List<RankedProduct> ranked = new ArrayList<>();
+        for (int product : top(candidates, candidateCount, limit, ranking)) {
+            ranked.add(new RankedProduct(
+                    live.products.decode(product),
+                    orders[product],
+                    SalesFactSegment.quantity(quantities[product]),
+                    SalesFactSegment.amount(revenues[product])));
+        }
+        return ranked;
+    }
+
+    long estimatedBytes() {
+        return closed.estimatedBytes() + live.estimatedBytes();
+    }
+
+    SalesFactSegment closed() {
+        return closed;
+    }
+
+    /**
+     * A product's sums in the filtered period
+     */
+    public record RankedProduct(
+            UUID productId,
+            long orderCount,
+            BigDecimal totalQuantity,
+            BigDecimal totalRevenue
+    ) {
+        public BigDecimal revenuePerUnit() {
+            return totalQuantity.signum() != 0 ? totalRevenue.divide(totalQuantity, 2, RoundingMode.HALF_UP) : null;
+        }
+
+        public BigDecimal averageQuantityPerOrder() {
+            return orderCount != 0 ? totalQuantity.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP) : null;
+        }
+    }
+
+    // Aggregation
+
+    private Map<Integer, Group> aggregate(SalesFilterDTO filter, String groupBy) {
+        int fromDay = fromDay(filter.startDate());
+        int toDay = toDay(filter.endDate());
+
+        Map<Integer, Group> groups = new HashMap<>();
+        Periods periods = new Periods(groupBy);
+        Group group = null;
+
+        for (SalesFactSegment segment : segments) {
+            Rows rows = select(segment.orderDay, segment.orderRows, fromDay, toDay);
+            long[] words = rows.words;
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    int row = rows.lo + (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+
+                    int period = periods.of(segment.orderDay[row]);
+                    if (group == null || group.period != period) {
+                        group = groups.computeIfAbsent(period, Group::new);
+                    }
+
+                    group.orders += segment.orderCount[row];
+                    group.items += segment.itemCount[row];
+                    group.quantity += segment.quantity[row];
+                    group.subtotal += segment.subtotal[row];
+                    group.discount += segment.discount[row];
+                    group.shipping += segment.shipping[row];
+                    group.sales += segment.sales[row];
+                    group.minTicket = Math.min(group.minTicket, segment.minTicket[row]);
+                    group.maxTicket = Math.max(group.maxTicket, segment.maxTicket[row]);
+                    group.firstSale = Math.min(group.firstSale, segment.firstSale[row]);
+                    group.lastSale = Math.max(group.lastSale, segment.lastSale[row]);
+                    group.paidOrders += segment.paidOrders[row];
+                    group.pendingPaymentOrders += segment.pendingPaymentOrders[row];
+                    group.paidAmount += segment.paidAmount[row];
+                }
+            }
+        }
+
+        countCustomers(fromDay, toDay, new Periods(groupBy), groups);
+        return groups;
+    }
+
+    /**
+     * Distinct customers per group: a bitmap of the customers seen in the current period,
+     * cleared word by word when the period changes (rows arrive in day order)
+     */
+    private void countCustomers(int fromDay, int toDay, Periods periods, Map<Integer, Group> groups) {
+        long[] seen = new long[(live.customers.size() + 63) >>> 6];
+        int[] touched = new int[64];
+        int touchedCount = 0;
+        int currentPeriod = 0;
+        boolean started = false;
+
+        for (SalesFactSegment segment : segments) {
+            Rows rows = select(segment.customerDay, segment.customerRows, fromDay, toDay);
+            long[] words = rows.words;
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    int row = rows.lo + (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+
+                    int period = periods.of(segment.customerDay[row]);
+                    if (!started || period != currentPeriod) {
+                        for (int i = 0; i < touchedCount; i++) {
+                            seen[touched[i]] = 0;
+                        }
+                        touchedCount = 0;
+                        currentPeriod = period;
+                        started = true;
+                    }
+
+                    int bit = segment.customer[row];
+                    int index = bit >>> 6;
+                    long mask = 1L << bit;
+                    if ((seen[index] & mask) == 0) {
+                        seen[index] |= mask;
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = index;
+
+                        Group group = groups.get(period);
+                        if (group != null) {
+                            group.customers++;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Newest period first
+     */
+    private static List<Group> sorted(Map<Integer, Group> groups) {
+        List<Group> sorted = new ArrayList<>(groups.values());
+        sorted.sort(Comparator.<Group>comparingInt(group -> group.period).reversed());
+        return sorted;
+    }
+
+    /**
+     * The {@code limit} best candidates in ranking order (bounded heap, worst kept on top)
+     */
+    private static List<Integer> top(int[] candidates, int count, int limit, Comparator<Integer> ranking) {
+        Integer[] heap = new Integer[Math.min(count, limit)];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int candidate = candidates[i];
+            if (size < heap.length) {
+                int child = size++;
+                heap[child] = candidate;
+                while (child > 0 && ranking.compare(heap[(child - 1) / 2], heap[child]) < 0) {
+                    swap(heap, child, (child - 1) / 2);
+                    child = (child - 1) / 2;
+                }
+            } else if (size > 0 && ranking.compare(candidate, heap[0]) < 0) {
+                heap[0] = candidate;
+                int parent = 0;
+                while (true) {
+                    int worst = parent;
+                    int left = 2 * parent + 1;
+                    int right = left + 1;
+                    if (left < size && ranking.compare(heap[left], heap[worst]) > 0) {
+                        worst = left;
+                    }
+                    if (right < size && ranking.compare(heap[right], heap[worst]) > 0) {
+                        worst = right;
+                    }
+                    if (worst == parent) {
+                        break;
+                    }
+                    swap(heap, parent, worst);
+                    parent = worst;
+                }
+            }
+        }
+        List<Integer> top = new ArrayList<>(Arrays.asList(heap).subList(0, size));
+        top.sort(ranking);
+        return top;
+    }
+
+    private static void swap(Integer[] heap, int a, int b) {
+        Integer value = heap[a];
+        heap[a] = heap[b];
+        heap[b] = value;
+    }
+
+    // Filters
+
+    /**
+     * Rows of one fact table within a day range, as a bitmap over [lo, lo + count)
+     */
+    private static Rows select(int[] days, int rowCount, int fromDay, int toDay) {
+        int lo = lowerBound(days, rowCount, fromDay);
+        int hi = toDay == Integer.MAX_VALUE ? rowCount : lowerBound(days, rowCount, toDay + 1);
+        int count = Math.max(0, hi - lo);
+        long[] words = new long[(count + 63) >>> 6];
+
+        Arrays.fill(words, -1L);
+        if ((count & 63) != 0) {
+            words[words.length - 1] = (1L << count) - 1;
+        }
+        return new Rows(lo, count, words);
+    }
+
+    private static int lowerBound(int[] days, int rowCount, int day) {
+        int low = 0;
+        int high = rowCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (days[middle] < day) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int fromDay(LocalDate startDate) {
+        return startDate != null ? Math.toIntExact(startDate.toEpochDay()) : Integer.MIN_VALUE;
+    }
+
+    private static int toDay(LocalDate endDate) {
+        return endDate != null ? Math.toIntExact(endDate.toEpochDay()) : Integer.MAX_VALUE;
+    }
+
+    private static BigDecimal average(long cents, long count) {
+        return count != 0 ? SalesFactSegment.amount(cents).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : null;
+    }
+
+    private static String isoWeek(LocalDate date) {
+        return String.format(Locale.ROOT, "%04d-W%02d",
+                date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+
+    /**
+     * Same keys as get_sales_report_by_period (V087)
+     */
+    private static String periodKey(LocalDate periodStart, String groupBy) {
+        return switch (groupBy) {
+            case "year" -> String.format(Locale.ROOT, "%04d", periodStart.getYear());
+            case "month" -> String.format(Locale.ROOT, "%04d-%02d", periodStart.getYear(), periodStart.getMonthValue());
+            case "week" -> isoWeek(periodStart);
+            default -> periodStart.toString();
+        };
+    }
+
+    private static final class Rows {
+        final int lo;
+        final int count;
+        final long[] words;
+
+        Rows(int lo, int count, long[] words) {
+            this.lo = lo;
+            this.count = count;
+            this.words = words;
+        }
+
+        /**
+         * Clears rows whose value in {@code column} is not {@code value}
+         */
+        void retain(int[] column, int value) {
+            for (int i = 0; i < count; i++) {
+                words[i >>> 6] &= ~((column[lo + i] == value ? 0L : 1L) << i);
+            }
+        }
+    }
+
+    /**
+     * date_trunc of an epoch day; month and year starts are cached for the last day seen
+     */
+    private static final class Periods {
+        private final String groupBy;
+        private int lastDay = Integer.MIN_VALUE;
+        private int lastPeriod;
+
+        Periods(String groupBy) {
+            this.groupBy = groupBy;
+        }
+
+        int of(int day) {
+            if (groupBy == null) {
+                return ALL_PERIODS;
+            }
+            switch (groupBy) {
+                case "day":
+                    return day;
+                case "week":
+                    return day - Math.floorMod(day + 3, 7); // 1970-01-01 was a Thursday
+                case "month":
+                case "year":
+                    if (day != lastDay) {
+                        LocalDate date = LocalDate.ofEpochDay(day);
+                        date = groupBy.equals("month") ? date.withDayOfMonth(1) : date.withDayOfYear(1);
+                        lastDay = day;
+                        lastPeriod = (int) date.toEpochDay();
+                    }
+                    return lastPeriod;
+                default:
+                    throw new IllegalArgumentException("Unsupported groupBy: " + groupBy);
+            }
+        }
+    }
+
+    private static final class Group {
+        final int period;
+        long orders;
+        long items;
+        long quantity;
+        long subtotal;
+        long discount;
+        long shipping;
+        long sales;
+        long minTicket = Long.MAX_VALUE;
+        long maxTicket = Long.MIN_VALUE;
+        long firstSale = Long.MAX_VALUE;
+        long lastSale = Long.MIN_VALUE;
+        long paidOrders;
+        long pendingPaymentOrders;
+        long paidAmount;
+        long customers;
+
+        Group(int period) {
+            this.period = period;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.estoquecentral.reporting.application.salesfacts;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Dense int ids for UUIDs (products, categories, customers) of a fact segment
+ *
+ * <p>A dictionary may extend a parent: it keeps the parent's ids and numbers its own entries
+ * after them, so the live segment shares the ids of the closed segment it was built on. A
+ * parent must not be extended once a child exists.
+ */
+final class UuidDictionary {
+
+    /** Rough heap cost of one entry: UUID object, boxed id and hash map node. */
+    private static final int ENTRY_BYTES = 32 + 16 + 48 + 8;
+
+    private final UuidDictionary parent;
+    private final int base;
+    private final Map<UUID, Integer> ids = new HashMap<>();
+    private UUID[] values = new UUID[16];
+    private int size;
+
+    UuidDictionary(UuidDictionary parent) {
+        this.parent = parent;
+        this.base = parent != null ? parent.size() : 0;
+    }
+
+    int encode(UUID value) {
+        int id = idOf(value);
+        if (id >= 0) {
+            return id;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = value;
+        ids.put(value, base + size);
+        return base + size++;
+    }
+
+    /**
+     * @return the value's id, or -1 if it is not in the dictionary
+     */
+    int idOf(UUID value) {
+        if (parent != null) {
+            int id = parent.idOf(value);
+            if (id >= 0) {
+                return id;
+            }
+        }
+        Integer id = ids.get(value);
+        return id != null ? id : -1;
+    }
+
+    UUID decode(int id) {
+        return id < base ? parent.decode(id) : values[id - base];
+    }
+
+    int size() {
+        return base + size;
+    }
+
+    long estimatedBytes() {
+        return (long) values.length * 8 + (long) size * ENTRY_BYTES;
+    }
+
+    /**
+     * Orders UUIDs as PostgreSQL does (unsigned byte by byte), unlike {@link UUID#compareTo}
+     */
+    static int compare(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
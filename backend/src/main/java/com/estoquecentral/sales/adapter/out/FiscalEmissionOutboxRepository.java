@@ -0,0 +1,152 @@
+package com.estoquecentral.sales.adapter.out;
+
+import com.estoquecentral.sales.domain.FiscalEmissionTask;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * FiscalEmissionOutboxRepository - Data access for public.fiscal_emission_outbox
+ *
+ * <p>Rows are inserted inside the sale transaction and claimed by workers with
+ * <code>FOR UPDATE SKIP LOCKED</code>, so several nodes can drain the outbox without
+ * claiming the same sale. A claim sets a lease (<code>locked_until</code>) instead of
+ * holding the row lock, so no transaction stays open during the provider call.
+ *
+ * <p>Only PENDING rows below the attempt limit are claimed. Rows that used up their attempts
+ * (each claim counts, including claims lost to a crash or an error) are moved to FAILED once
+ * their lease expires and stay there as a dead letter until a manual retry requeues them.
+ *
+ * @see com.estoquecentral.sales.application.FiscalEmissionWorker
+ */
+@Repository
+public class FiscalEmissionOutboxRepository {
+
+    private static final RowMapper<FiscalEmissionTask> TASK_ROW_MAPPER = (rs, rowNum) -> new FiscalEmissionTask(
+            rs.getObject("id", UUID.class),
+            rs.getObject("tenant_id", UUID.class),
+            rs.getObject("sale_id", UUID.class),
+            rs.getInt("attempts"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public FiscalEmissionOutboxRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds a sale to the outbox (call inside the sale transaction)
+     *
+     * @param tenantId tenant ID
+     * @param saleId sale ID
+     */
+    public void enqueue(UUID tenantId, UUID saleId) {
+        jdbcTemplate.update("""
+                INSERT INTO public.fiscal_emission_outbox (tenant_id, sale_id)
+                VALUES (:tenantId, :saleId)
+                ON CONFLICT (tenant_id, sale_id) DO NOTHING
+                """, new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("saleId", saleId));
+    }
+
+    /**
+     * Puts a sale back in the outbox for a manual retry, resetting a dead-lettered row
+     *
+     * <p>A row still leased by a worker keeps its lease, so the retry does not run twice.
+     *
+     * @param tenantId tenant ID
+     * @param saleId sale ID
+     */
+    public void requeue(UUID tenantId, UUID saleId) {
+        jdbcTemplate.update("""
+                INSERT INTO public.fiscal_emission_outbox (tenant_id, sale_id)
+                VALUES (:tenantId, :saleId)
+                ON CONFLICT (tenant_id, sale_id) DO UPDATE
+                   SET status = 'PENDING',
+                       attempts = 0,
+                       last_error = NULL
+                """, new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("saleId", saleId));
+    }
+
+    /**
+     * Claims up to <code>limit</code> PENDING rows that are not leased by another worker and
+     * have attempts left, oldest first
+     *
+     * @param limit maximum rows to claim
+     * @param leaseSeconds how long the rows stay claimed
+     * @param maxAttempts claims allowed per row
+     * @return claimed rows
+     */
+    public List<FiscalEmissionTask> claim(int limit, int leaseSeconds, int maxAttempts) {
+        return jdbcTemplate.query("""
+                UPDATE public.fiscal_emission_outbox o
+                   SET locked_until = NOW() + :leaseSeconds * INTERVAL '1 second',
+                       attempts = o.attempts + 1
+                 WHERE o.id IN (
+                       SELECT id FROM public.fiscal_emission_outbox
+                        WHERE status = 'PENDING'
+                          AND attempts < :maxAttempts
+                          AND (locked_until IS NULL OR locked_until < NOW())
+                        ORDER BY created_at
+                        LIMIT :limit
+                        FOR UPDATE SKIP LOCKED)
+                RETURNING o.id, o.tenant_id, o.sale_id, o.attempts
+                """, new MapSqlParameterSource()
+                .addValue("limit", limit)
+                .addValue("leaseSeconds", leaseSeconds)
+                .addValue("maxAttempts", maxAttempts),
+                TASK_ROW_MAPPER);
+    }
+
+    /**
+     * Moves PENDING rows that used up their attempts and whose last lease expired to FAILED
+     *
+     * @param maxAttempts claims allowed per row
+     * @return rows moved to the dead letter (the caller marks their sales as failed)
+     */
+    public List<FiscalEmissionTask> deadLetterExhausted(int maxAttempts) {
+        return jdbcTemplate.query("""
+                UPDATE public.fiscal_emission_outbox o
+                   SET status = 'FAILED',
+                       locked_until = NULL
+                 WHERE o.id IN (
+                       SELECT id FROM public.fiscal_emission_outbox
+                        WHERE status = 'PENDING'
+                          AND attempts >= :maxAttempts
+                          AND (locked_until IS NULL OR locked_until < NOW())
+                        FOR UPDATE SKIP LOCKED)
+                RETURNING o.id, o.tenant_id, o.sale_id, o.attempts
+                """, new MapSqlParameterSource("maxAttempts", maxAttempts),
+                TASK_ROW_MAPPER);
+    }
+
+    /**
+     * Records why a claim failed; the row is claimed again once its lease expires
+     *
+     * @param id outbox row ID
+     * @param error error message
+     */
+    public void recordError(UUID id, String error) {
+        jdbcTemplate.update("UPDATE public.fiscal_emission_outbox SET last_error = :error WHERE id = :id",
+                new MapSqlParameterSource()
+                        .addValue("id", id)
+                        .addValue("error", error));
+    }
+
+    /**
+     * Removes a processed row
+     *
+     * @param id outbox row ID
+     */
+    public void complete(UUID id) {
+        jdbcTemplate.update("DELETE FROM public.fiscal_emission_outbox WHERE id = :id",
+                new MapSqlParameterSource("id", id));
+    }
+}
@@ -0,0 +1,253 @@
+package com.estoquecentral.sales.application;
+
+import com.estoquecentral.sales.adapter.out.FiscalEmissionOutboxRepository;
+import com.estoquecentral.sales.adapter.out.FiscalEventRepository;
+import com.estoquecentral.sales.adapter.out.SaleItemRepository;
+import com.estoquecentral.sales.adapter.out.SaleRepository;
+import com.estoquecentral.sales.domain.*;
+import com.estoquecentral.shared.tenant.TenantContext;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * FiscalEmissionWorker - Emits NFC-e for sales queued in the fiscal emission outbox
+ *
+ * <p>{@link SaleService#processSale} only writes an outbox row in the sale transaction, so
+ * POS latency does not depend on the fiscal provider. This worker:
+ * <ol>
+ *   <li>Claims outbox rows (FOR UPDATE SKIP LOCKED, with a lease) for its free threads</li>
+ *   <li>Loads the sale in the tenant schema in a short transaction</li>
+ *   <li>Calls the provider outside any transaction - no pooled connection is held</li>
+ *   <li>Records the result (sale status + fiscal event) and removes the row in a short transaction</li>
+ * </ol>
+ * Failed emissions keep the sale PENDING and go to the retry queue when Redis is enabled
+ * (Story 4.4). Rows of a node that dies mid-emission are claimed again once the lease
+ * (<code>nfce.outbox.lease-seconds</code>) expires; the provider request carries the sale ID
+ * as its reference. After <code>nfce.outbox.max-attempts</code> claims a row is dead-lettered
+ * and its sale marked FAILED, so it leaves the poll and shows up for manual retry.
+ *
+ * @see FiscalEmissionOutboxRepository
+ */
+@Component
+@EnableScheduling
+public class FiscalEmissionWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(FiscalEmissionWorker.class);
+
+    private final FiscalEmissionOutboxRepository outboxRepository;
+    private final SaleRepository saleRepository;
+    private final SaleItemRepository saleItemRepository;
+    private final FiscalEventRepository fiscalEventRepository;
+    private final NfceService nfceService;
+    @Nullable
+    private final RetryQueueService retryQueueService;
+    private final TransactionTemplate transactionTemplate;
+    private final int leaseSeconds;
+    private final int maxAttempts;
+
+    private final ExecutorService executor;
+    private final Semaphore freeWorkers;
+
+    public FiscalEmissionWorker(
+            FiscalEmissionOutboxRepository outboxRepository,
+            SaleRepository saleRepository,
+            SaleItemRepository saleItemRepository,
+            FiscalEventRepository fiscalEventRepository,
+            NfceService nfceService,
+            @Nullable RetryQueueService retryQueueService,
+            PlatformTransactionManager transactionManager,
+            @Value("${nfce.outbox.worker-threads:4}") int workerThreads,
+            @Value("${nfce.outbox.lease-seconds:60}") int leaseSeconds,
+            @Value("${nfce.outbox.max-attempts:5}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.saleRepository = saleRepository;
+        this.saleItemRepository = saleItemRepository;
+        this.fiscalEventRepository = fiscalEventRepository;
+        this.nfceService = nfceService;
+        this.retryQueueService = retryQueueService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaseSeconds = leaseSeconds;
+        this.maxAttempts = Math.max(1, maxAttempts);
+
+        int threads = Math.max(1, workerThreads);
+        this.executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("nfce-emission-"));
+        this.freeWorkers = new Semaphore(threads);
+    }
+
+    /**
+     * Dead-letters exhausted rows, then claims as many outbox rows as there are free emission
+     * threads and hands them over
+     */
+    @Scheduled(fixedDelayString = "${nfce.outbox.poll-interval-ms:500}")
+    public void pollOutbox() {
+        try {
+            outboxRepository.deadLetterExhausted(maxAttempts).forEach(this::abandon);
+        } catch (Exception e) {
+            logger.error("Error dead-lettering fiscal emission outbox rows: {}", e.getMessage(), e);
+        }
+
+        int free = freeWorkers.availablePermits();
+        if (free == 0) {
+            return;
+        }
+
+        List<FiscalEmissionTask> tasks;
+        try {
+            tasks = outboxRepository.claim(free, leaseSeconds, maxAttempts);
+        } catch (Exception e) {
+            logger.error("Error claiming fiscal emission outbox rows: {}", e.getMessage(), e);
+            return;
+        }
+
+        for (FiscalEmissionTask task : tasks) {
+            freeWorkers.acquireUninterruptibly();
+            try {
+                executor.execute(() -> {
+                    try {
+                        process(task);
+                    } finally {
+                        freeWorkers.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Shutting down: the lease expires and another node picks the row up
+                freeWorkers.release();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Emits the NFC-e of one claimed sale
+     */
+    void process(FiscalEmissionTask task) {
+        TenantContext.setTenantId(task.tenantId().toString());
+        try {
+            EmissionInput input = transactionTemplate.execute(status -> loadPendingSale(task));
+            if (input == null) {
+                // Sale gone or already handled (e.g., manual retry)
+                outboxRepository.complete(task.id());
+                return;
+            }
+
+            // Provider call outside any transaction
+            NfceService.NfceResponse response = null;
+            NfceService.NfceException failure = null;
+            try {
+                response = nfceService.emitNfce(input.sale(), input.items());
+            } catch (NfceService.NfceException e) {
+                failure = e;
+            }
+
+            NfceService.NfceResponse emitted = response;
+            NfceService.NfceException failed = failure;
+            transactionTemplate.executeWithoutResult(status -> {
+                if (failed == null) {
+                    recordEmitted(input.sale(), emitted);
+                } else {
+                    recordFailed(input.sale(), failed);
+                }
+                outboxRepository.complete(task.id());
+            });
+
+            if (failed != null && retryQueueService != null) {
+                retryQueueService.enqueue(new NfceRetryMessage(task.tenantId(), task.saleId(), 0));
+            }
+        } catch (Exception e) {
+            // Row stays claimed until the lease expires, then it is retried (or dead-lettered)
+            logger.error("Error emitting NFCe for sale {} (tenant {}, claim {}/{}): {}",
+                    task.saleId(), task.tenantId(), task.attempts(), maxAttempts, e.getMessage(), e);
+            try {
+                outboxRepository.recordError(task.id(), e.getMessage());
+            } catch (Exception recordFailure) {
+                logger.warn("Could not record the error of claim {}: {}", task.id(), recordFailure.getMessage());
+            }
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    /**
+     * Marks the sale of a dead-lettered row as FAILED, so it can be retried manually
+     */
+    void abandon(FiscalEmissionTask task) {
+        TenantContext.setTenantId(task.tenantId().toString());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Sale sale = saleRepository.findByTenantIdAndId(task.tenantId(), task.saleId()).orElse(null);
+                if (sale == null || !sale.isNfcePending()) {
+                    return;
+                }
+                String error = "NFCe emission abandoned after " + task.attempts() + " attempts";
+                sale.markNfceAsFailed(error);
+                saleRepository.save(sale);
+                createFiscalEvent(sale, FiscalEventType.NFCE_FAILED, null, null, error);
+            });
+            logger.warn("Fiscal emission of sale {} (tenant {}) moved to the dead letter after {} attempts",
+                    task.saleId(), task.tenantId(), task.attempts());
+        } catch (Exception e) {
+            logger.error("Error marking sale {} (tenant {}) as failed: {}",
+                    task.saleId(), task.tenantId(), e.getMessage(), e);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private EmissionInput loadPendingSale(FiscalEmissionTask task) {
+        Sale sale = saleRepository.findByTenantIdAndId(task.tenantId(), task.saleId()).orElse(null);
+        if (sale == null || !sale.isNfcePending()) {
+            return null;
+        }
+        return new EmissionInput(sale, saleItemRepository.findBySaleId(sale.getId()));
+    }
+
+    private void recordEmitted(Sale sale, NfceService.NfceResponse response) {
+        sale.markNfceAsEmitted(response.nfceKey(), response.xml());
+        saleRepository.save(sale);
+
+        createFiscalEvent(sale, FiscalEventType.NFCE_EMITTED, response.nfceKey(), response.xml(), null);
+        logger.info("NFCe emitted for sale {}", sale.getId());
+    }
+
+    private void recordFailed(Sale sale, NfceService.NfceException error) {
+        // Sale stays PENDING (not FAILED) - NFCe can be retried later
+        createFiscalEvent(sale, FiscalEventType.NFCE_FAILED, null, null, error.getMessage());
+        logger.warn("NFCe emission failed for sale {}: {}", sale.getId(), error.getMessage());
+    }
+
+    private void createFiscalEvent(Sale sale, FiscalEventType eventType, String nfceKey,
+                                   String xmlSnapshot, String errorMessage) {
+        FiscalEvent event = new FiscalEvent();
+        event.setTenantId(sale.getTenantId());
+        event.setSaleId(sale.getId());
+        event.setEventType(eventType);
+        event.setNfceKey(nfceKey);
+        event.setXmlSnapshot(xmlSnapshot);
+        event.setErrorMessage(errorMessage);
+        event.setUserId(sale.getCreatedByUserId());
+
+        fiscalEventRepository.save(event);
+    }
+
+    private record EmissionInput(Sale sale, List<SaleItem> items) {
+    }
+}
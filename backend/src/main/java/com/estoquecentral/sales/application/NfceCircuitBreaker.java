@@ -0,0 +1,112 @@
+package com.estoquecentral.sales.application;
+
+import java.util.function.LongSupplier;
+
+/**
+ * NfceCircuitBreaker - Pauses NFC-e retries while the provider keeps failing
+ *
+ * <p>States:
+ * <ul>
+ *   <li><strong>CLOSED:</strong> retries flow normally</li>
+ *   <li><strong>OPEN:</strong> after <code>failureThreshold</code> consecutive provider
+ *       failures; nothing is sent for <code>openMillis</code></li>
+ *   <li><strong>HALF_OPEN:</strong> a single probe is let through; success closes the
+ *       circuit, failure opens it again</li>
+ * </ul>
+ *
+ * @see NfceRetryWorker
+ */
+public class NfceCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public NfceCircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::currentTimeMillis);
+    }
+
+    NfceCircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns how many provider calls the caller may make now.
+     *
+     * @param requested calls the caller would like to make
+     * @return <code>requested</code> when closed, 1 for the half-open probe, otherwise 0
+     */
+    public synchronized int permittedCalls(int requested) {
+        switch (state) {
+            case CLOSED:
+                return requested;
+            case OPEN:
+                if (clock.getAsLong() - openedAt < openMillis) {
+                    return 0;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = false;
+                // fall through: the first caller after the pause sends the probe
+            case HALF_OPEN:
+            default:
+                if (probeInFlight || requested == 0) {
+                    return 0;
+                }
+                probeInFlight = true;
+                return 1;
+        }
+    }
+
+    /**
+     * @return true if further calls in a batch may proceed
+     */
+    public synchronized boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+            probeInFlight = false;
+        }
+    }
+
+    /**
+     * Ends a half-open probe that did not reach the provider (e.g., sale already emitted),
+     * so the next message can probe instead.
+     */
+    public synchronized void releaseProbe() {
+        probeInFlight = false;
+    }
+
+    /**
+     * @return milliseconds until an open circuit lets a probe through (0 if not open)
+     */
+    public synchronized long remainingOpenMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, openMillis - (clock.getAsLong() - openedAt));
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -1,37 +1,63 @@
 package com.estoquecentral.sales.application;
 
+import com.estoquecentral.auth.adapter.out.TenantRepository;
+import com.estoquecentral.auth.domain.Tenant;
 import com.estoquecentral.sales.adapter.out.FiscalEventRepository;
 import com.estoquecentral.sales.adapter.out.SaleItemRepository;
 import com.estoquecentral.sales.adapter.out.SaleRepository;
 import com.estoquecentral.sales.domain.*;
+import com.estoquecentral.shared.tenant.TenantContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * NfceRetryWorker - Background worker for processing NFCe retries
  * Story 4.4: NFCe Retry Queue and Failure Management
  *
- * <p>Scheduled task that:
+ * <p>A pool of <code>nfce.retry.consumers</code> threads drains the retry queue continuously:
  * <ol>
- *   <li>Polls retry queue every 60 seconds</li>
- *   <li>Loads sale and attempts NFCe emission</li>
+ *   <li>Takes one due retry at a time, so a consumer never holds messages it is not working on</li>
+ *   <li>Restores the tenant from the message and loads the sale in a short transaction</li>
+ *   <li>Attempts NFCe emission outside any transaction</li>
  *   <li>On success: marks as EMITTED, creates fiscal event</li>
- *   <li>On failure: reenqueues if attempts < 10, else marks as FAILED and notifies</li>
+ *   <li>On failure: reenqueues with the next attempt if attempts < 10, else marks as FAILED and notifies</li>
  * </ol>
+ *
+ * <p>The attempt count travels in the {@link NfceRetryMessage}, so consumers share no
+ * per-sale state. While the provider keeps failing, {@link NfceCircuitBreaker} pauses
+ * draining before messages are taken. On startup, entries left in the pre-tenant queue are
+ * moved into the current one (see {@link RetryQueueService#drainLegacyQueue}).
+ *
+ * <p><strong>Metrics:</strong> <code>nfce.retry.queue.depth</code> (due / scheduled),
+ * <code>nfce.retry.processed</code> by result (its rate is the drain rate) and
+ * <code>nfce.retry.circuit.open</code>.
  */
 @Component
-@EnableScheduling
 @ConditionalOnProperty(name = "redis.enabled", havingValue = "true")
-public class NfceRetryWorker {
+public class NfceRetryWorker implements MeterBinder {
 
     private static final Logger logger = LoggerFactory.getLogger(NfceRetryWorker.class);
 
@@ -41,8 +67,19 @@ public class NfceRetryWorker {
     private final NfceService nfceService;
     private final FiscalEventRepository fiscalEventRepository;
     private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final NfceCircuitBreaker circuitBreaker;
+    private final TenantRepository tenantRepository;
+
+    private final int consumers;
+    private final long pollTimeoutMs;
+    private final ExecutorService executor;
+    private volatile boolean running;
 
-    private int retryAttempts = 0; // Track retry attempts for a sale
+    private final AtomicLong emitted = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
 
     public NfceRetryWorker(
             RetryQueueService retryQueueService,
@@ -50,97 +87,212 @@ public class NfceRetryWorker {
             SaleItemRepository saleItemRepository,
             NfceService nfceService,
             FiscalEventRepository fiscalEventRepository,
-            NotificationService notificationService) {
+            NotificationService notificationService,
+            PlatformTransactionManager transactionManager,
+            TenantRepository tenantRepository,
+            @Value("${nfce.retry.consumers:4}") int consumers,
+            @Value("${nfce.retry.poll-timeout-ms:5000}") long pollTimeoutMs,
+            @Value("${nfce.retry.circuit.failure-threshold:5}") int failureThreshold,
+            @Value("${nfce.retry.circuit.open-ms:30000}") long openMs) {
         this.retryQueueService = retryQueueService;
         this.saleRepository = saleRepository;
         this.saleItemRepository = saleItemRepository;
         this.nfceService = nfceService;
         this.fiscalEventRepository = fiscalEventRepository;
         this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.circuitBreaker = new NfceCircuitBreaker(failureThreshold, openMs);
+        this.tenantRepository = tenantRepository;
+        this.consumers = Math.max(1, consumers);
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.executor = Executors.newFixedThreadPool(this.consumers, new CustomizableThreadFactory("nfce-retry-"));
     }
 
     /**
-     * Process retries from queue every 60 seconds
-     * Polls queue and processes one sale at a time
+     * Moves legacy retries over and starts the consumers once the application is ready
      */
-    @Scheduled(fixedDelay = 60000) // 60 seconds
-    @Transactional
-    public void processRetries() {
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
         try {
-            // Poll next sale from queue
-            UUID saleId = retryQueueService.dequeue();
+            retryQueueService.drainLegacyQueue(this::findTenantsOfSales);
+        } catch (Exception e) {
+            logger.error("Error moving legacy NFCe retries: {}", e.getMessage(), e);
+        }
+
+        running = true;
+        for (int i = 0; i < consumers; i++) {
+            executor.execute(this::drain);
+        }
+        logger.info("NFCe retry worker started with {} consumers", consumers);
+    }
+
+    /**
+     * Stops taking new messages and waits for the current ones to finish
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(pollTimeoutMs + 30_000, TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+    }
 
-            if (saleId == null) {
-                // Queue is empty, nothing to process
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("nfce.retry.queue.depth", retryQueueService, RetryQueueService::getQueueSize)
+                .description("NFCe retries waiting in the retry queue")
+                .tag("state", "due")
+                .register(registry);
+        Gauge.builder("nfce.retry.queue.depth", retryQueueService, RetryQueueService::getScheduledSize)
+                .description("NFCe retries waiting in the retry queue")
+                .tag("state", "scheduled")
+                .register(registry);
+        Gauge.builder("nfce.retry.circuit.open", circuitBreaker, breaker -> breaker.isClosed() ? 0 : 1)
+                .description("1 while NFCe retries are paused by the circuit breaker")
+                .register(registry);
+        registerProcessed(registry, "emitted", emitted);
+        registerProcessed(registry, "retried", retried);
+        registerProcessed(registry, "failed", failed);
+        registerProcessed(registry, "skipped", skipped);
+    }
+
+    private void registerProcessed(MeterRegistry registry, String result, AtomicLong counter) {
+        FunctionCounter.builder("nfce.retry.processed", counter, AtomicLong::get)
+                .description("NFCe retry messages processed")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Consumer loop: takes and processes one message at a time until the worker stops
+     */
+    void drain() {
+        while (running) {
+            try {
+                if (circuitBreaker.permittedCalls(1) == 0) {
+                    // Circuit open (or probe in flight): pause draining
+                    Thread.sleep(Math.max(100, Math.min(circuitBreaker.remainingOpenMillis(), pollTimeoutMs)));
+                    continue;
+                }
+                poll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 return;
+            } catch (Exception e) {
+                logger.error("Error processing retry queue: {}", e.getMessage(), e);
             }
+        }
+    }
 
-            logger.info("Processing retry for sale: {}", saleId);
-            processSaleRetry(saleId);
+    /**
+     * Takes the next due message and processes it (the circuit breaker already let one call through)
+     */
+    void poll() {
+        NfceRetryMessage message = retryQueueService.dequeue(pollTimeoutMs);
+        if (message == null) {
+            // Nothing due: give back a half-open probe we did not use
+            circuitBreaker.releaseProbe();
+            return;
+        }
+        processMessage(message);
+    }
 
-        } catch (Exception e) {
-            logger.error("Error processing retry queue: {}", e.getMessage(), e);
+    /**
+     * Finds the tenant of each sale (legacy retries carry only the sale ID)
+     */
+    private Map<UUID, UUID> findTenantsOfSales(Collection<UUID> saleIds) {
+        Map<UUID, UUID> tenants = new HashMap<>();
+        for (Tenant tenant : tenantRepository.findAllActive()) {
+            TenantContext.setTenantId(tenant.getId().toString());
+            try {
+                saleRepository.findAllById(saleIds).forEach(sale -> tenants.put(sale.getId(), sale.getTenantId()));
+            } catch (Exception e) {
+                logger.warn("Could not look up legacy NFCe retries in tenant {}: {}", tenant.getId(), e.getMessage());
+            } finally {
+                TenantContext.clear();
+            }
+            if (tenants.size() == saleIds.size()) {
+                break;
+            }
         }
+        return tenants;
     }
 
     /**
      * Process retry for a single sale
      * Attempts NFCe emission and handles success/failure
      *
-     * @param saleId sale ID to retry
+     * @param message sale to retry, with its tenant and attempt count
      */
-    private void processSaleRetry(UUID saleId) {
-        // Load sale entity
-        Sale sale = saleRepository.findById(saleId)
-                .orElseThrow(() -> new IllegalStateException("Sale not found: " + saleId));
-
-        // Only retry if status is PENDING
-        if (!sale.isNfcePending()) {
-            logger.warn("Sale {} is not in PENDING status (status: {}). Skipping retry.",
-                    saleId, sale.getNfceStatus());
-            return;
-        }
-
-        // Count previous retry attempts by looking at fiscal events
-        retryAttempts = countRetryAttempts(saleId);
-
-        // Check if max attempts reached
-        if (retryAttempts >= RetryQueueService.MAX_ATTEMPTS) {
-            handlePermanentFailure(sale);
-            return;
-        }
+    void processMessage(NfceRetryMessage message) {
+        UUID saleId = message.saleId();
+        TenantContext.setTenantId(message.tenantId().toString());
+        boolean providerCalled = false;
+        try {
+            RetryInput input = transactionTemplate.execute(status -> loadPendingSale(message));
+            if (input == null) {
+                skipped.incrementAndGet();
+                return;
+            }
+            Sale sale = input.sale();
 
-        // Load sale items for NFCe emission
-        List<SaleItem> saleItems = saleItemRepository.findBySaleId(saleId);
+            // Check if max attempts reached
+            if (message.attempt() >= RetryQueueService.MAX_ATTEMPTS) {
+                transactionTemplate.executeWithoutResult(status -> handlePermanentFailure(sale));
+                failed.incrementAndGet();
+                return;
+            }
 
-        try {
-            // Attempt NFCe emission
             logger.info("Attempting NFCe emission for sale {} (attempt {}/{})",
-                    saleId, retryAttempts + 1, RetryQueueService.MAX_ATTEMPTS);
-
-            NfceService.NfceResponse nfceResponse = nfceService.emitNfce(sale, saleItems);
+                    saleId, message.attempt() + 1, RetryQueueService.MAX_ATTEMPTS);
+
+            NfceService.NfceResponse nfceResponse;
+            try {
+                providerCalled = true;
+                nfceResponse = nfceService.emitNfce(sale, input.items());
+            } catch (NfceService.NfceException e) {
+                circuitBreaker.recordFailure();
+                handleRetryFailure(sale, message, e);
+                return;
+            }
+            circuitBreaker.recordSuccess();
 
             // Success: update status and create fiscal event
-            sale.markNfceAsEmitted(nfceResponse.nfceKey(), nfceResponse.xml());
-            saleRepository.save(sale);
-
-            createFiscalEvent(
-                    sale.getTenantId(),
-                    saleId,
-                    FiscalEventType.NFCE_EMITTED,
-                    nfceResponse.nfceKey(),
-                    nfceResponse.xml(),
-                    null,
-                    sale.getCreatedByUserId()
-            );
+            transactionTemplate.executeWithoutResult(status -> {
+                sale.markNfceAsEmitted(nfceResponse.nfceKey(), nfceResponse.xml());
+                saleRepository.save(sale);
+
+                createFiscalEvent(sale, FiscalEventType.NFCE_EMITTED, nfceResponse.nfceKey(),
+                        nfceResponse.xml(), null, null);
+            });
+            emitted.incrementAndGet();
 
             logger.info("NFCe successfully emitted for sale {} after {} attempts",
-                    saleId, retryAttempts + 1);
+                    saleId, message.attempt() + 1);
+
+        } catch (Exception e) {
+            // Not a provider failure (e.g., database): try again later with the same attempt
+            logger.error("Error retrying NFCe for sale {} (tenant {}): {}",
+                    saleId, message.tenantId(), e.getMessage(), e);
+            retryQueueService.enqueue(message);
+        } finally {
+            if (!providerCalled) {
+                circuitBreaker.releaseProbe();
+            }
+            TenantContext.clear();
+        }
+    }
+
+    private RetryInput loadPendingSale(NfceRetryMessage message) {
+        Sale sale = saleRepository.findByTenantIdAndId(message.tenantId(), message.saleId()).orElse(null);
 
-        } catch (NfceService.NfceException e) {
-            // Failure: increment attempt and reenqueue or mark as failed
-            handleRetryFailure(sale, e);
+        // Only retry if status is PENDING
+        if (sale == null || !sale.isNfcePending()) {
+            logger.warn("Sale {} not found or not in PENDING status. Skipping retry.", message.saleId());
+            return null;
         }
+        return new RetryInput(sale, saleItemRepository.findBySaleId(sale.getId()));
     }
 
     /**
@@ -148,32 +300,31 @@ public class NfceRetryWorker {
      * Reenqueues if attempts < MAX_ATTEMPTS, else marks as permanent failure
      *
      * @param sale sale entity
+     * @param message retry message that failed
      * @param error NFCe exception
      */
-    private void handleRetryFailure(Sale sale, NfceService.NfceException error) {
-        retryAttempts++;
+    private void handleRetryFailure(Sale sale, NfceRetryMessage message, NfceService.NfceException error) {
+        NfceRetryMessage next = message.nextAttempt();
 
         logger.warn("NFCe emission failed for sale {} (attempt {}/{}): {}",
-                sale.getId(), retryAttempts, RetryQueueService.MAX_ATTEMPTS, error.getMessage());
-
-        // Create retry fiscal event
-        FiscalEvent retryEvent = new FiscalEvent();
-        retryEvent.setTenantId(sale.getTenantId());
-        retryEvent.setSaleId(sale.getId());
-        retryEvent.setEventType(FiscalEventType.NFCE_RETRY);
-        retryEvent.setRetryCount(retryAttempts);
-        retryEvent.setErrorMessage(error.getMessage());
-        retryEvent.setUserId(sale.getCreatedByUserId());
-        fiscalEventRepository.save(retryEvent);
-
-        // Check if max attempts reached
-        if (retryAttempts >= RetryQueueService.MAX_ATTEMPTS) {
-            handlePermanentFailure(sale);
+                sale.getId(), next.attempt(), RetryQueueService.MAX_ATTEMPTS, error.getMessage());
+
+        boolean permanent = next.attempt() >= RetryQueueService.MAX_ATTEMPTS;
+        transactionTemplate.executeWithoutResult(status -> {
+            // Create retry fiscal event
+            createFiscalEvent(sale, FiscalEventType.NFCE_RETRY, null, null, error.getMessage(), next.attempt());
+
+            if (permanent) {
+                handlePermanentFailure(sale);
+            }
+        });
+
+        if (permanent) {
+            failed.incrementAndGet();
         } else {
             // Reenqueue with exponential backoff
-            retryQueueService.enqueue(sale.getId(), retryAttempts);
-            logger.info("Sale {} reenqueued for retry (attempt {}/{})",
-                    sale.getId(), retryAttempts, RetryQueueService.MAX_ATTEMPTS);
+            retryQueueService.enqueue(next);
+            retried.incrementAndGet();
         }
     }
 
@@ -199,50 +350,37 @@ public class NfceRetryWorker {
         logger.info("Sale {} marked as FAILED and notification sent", sale.getId());
     }
 
-    /**
-     * Count retry attempts by looking at NFCE_RETRY fiscal events
-     *
-     * @param saleId sale ID
-     * @return number of retry attempts
-     */
-    private int countRetryAttempts(UUID saleId) {
-        List<FiscalEvent> events = fiscalEventRepository.findBySaleIdOrderByTimestampDesc(saleId);
-
-        return (int) events.stream()
-                .filter(e -> e.getEventType() == FiscalEventType.NFCE_RETRY)
-                .count();
-    }
-
     /**
      * Create fiscal event for audit trail
      *
-     * @param tenantId tenant ID
-     * @param saleId sale ID
+     * @param sale sale entity
      * @param eventType event type
      * @param nfceKey NFCe key
      * @param xmlSnapshot XML snapshot
      * @param errorMessage error message
-     * @param userId user ID
+     * @param retryCount retry attempt (NFCE_RETRY only)
      */
     private void createFiscalEvent(
-            UUID tenantId,
-            UUID saleId,
+            Sale sale,
             FiscalEventType eventType,
             String nfceKey,
             String xmlSnapshot,
             String errorMessage,
-            UUID userId) {
+            Integer retryCount) {
 
         FiscalEvent event = new FiscalEvent();
-        event.setTenantId(tenantId);
-        event.setSaleId(saleId);
+        event.setTenantId(sale.getTenantId());
+        event.setSaleId(sale.getId());
         event.setEventType(eventType);
         event.setNfceKey(nfceKey);
         event.setXmlSnapshot(xmlSnapshot);
         event.setErrorMessage(errorMessage);
-        event.setUserId(userId);
-        event.setTimestamp(LocalDateTime.now());
+        event.setRetryCount(retryCount);
+        event.setUserId(sale.getCreatedByUserId());
 
         fiscalEventRepository.save(event);
     }
+
+    private record RetryInput(Sale sale, List<SaleItem> items) {
+    }
 }
@@ -1,15 +1,23 @@
 package com.estoquecentral.sales.application;
 
+import com.estoquecentral.sales.domain.NfceRetryMessage;
 import org.redisson.api.RBlockingQueue;
 import org.redisson.api.RDelayedQueue;
+import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * RetryQueueService - Manages NFCe retry queue with exponential backoff
@@ -24,6 +32,9 @@ import java.util.concurrent.TimeUnit;
  *   <li>Max delay: 8 hours</li>
  *   <li>Max attempts: 10</li>
  * </ul>
+ *
+ * <p>Entries are {@link NfceRetryMessage}s, so consumers get the tenant and the attempt
+ * count from the message itself.
  */
 @Service
 @ConditionalOnProperty(name = "redis.enabled", havingValue = "true")
@@ -36,15 +47,19 @@ public class RetryQueueService {
     public static final long MAX_DELAY_SECONDS = 8 * 60 * 60; // 8 hours in seconds
     private static final long BASE_DELAY_SECONDS = 60; // 1 minute base delay
 
+    private static final String QUEUE = "nfce-retry-messages";
+    // Queue of sale IDs used before messages carried the tenant
+    private static final String LEGACY_QUEUE = "nfce-retry-queue";
+
     private final RedissonClient redissonClient;
-    private final RDelayedQueue<UUID> delayedQueue;
-    private final RBlockingQueue<UUID> blockingQueue;
+    private final RDelayedQueue<String> delayedQueue;
+    private final RBlockingQueue<String> blockingQueue;
 
     public RetryQueueService(RedissonClient redissonClient) {
         this.redissonClient = redissonClient;
 
         // Initialize blocking queue and delayed queue
-        this.blockingQueue = redissonClient.getBlockingQueue("nfce-retry-queue");
+        this.blockingQueue = redissonClient.getBlockingQueue(QUEUE, StringCodec.INSTANCE);
         this.delayedQueue = redissonClient.getDelayedQueue(blockingQueue);
 
         logger.info("RetryQueueService initialized with MAX_ATTEMPTS={}, MAX_DELAY={}s",
@@ -55,34 +70,92 @@ public class RetryQueueService {
      * Enqueue sale for retry with exponential backoff delay
      * Formula: min(2^attempt * 60 seconds, 8 hours)
      *
-     * @param saleId sale ID to retry
-     * @param attemptCount current attempt count (0-based)
+     * @param message sale to retry, with its tenant and current attempt count (0-based)
      */
-    public void enqueue(UUID saleId, int attemptCount) {
-        long delaySeconds = calculateDelay(attemptCount);
+    public void enqueue(NfceRetryMessage message) {
+        long delaySeconds = calculateDelay(message.attempt());
 
         // Add to delayed queue with calculated delay
-        delayedQueue.offer(saleId, delaySeconds, TimeUnit.SECONDS);
+        delayedQueue.offer(message.encode(), delaySeconds, TimeUnit.SECONDS);
 
         logger.info("Sale {} enqueued for retry. Attempt: {}, Delay: {}s",
-                saleId, attemptCount + 1, delaySeconds);
+                message.saleId(), message.attempt() + 1, delaySeconds);
     }
 
     /**
-     * Dequeue next sale ID from retry queue (blocking with timeout)
-     * Returns null if no items available within timeout
+     * Takes the next due retry, waiting up to <code>timeoutMillis</code> when none is due
+     *
+     * <p>Messages are taken one at a time, right before they are processed: a consumer that
+     * dies holds at most the message it is working on, not a whole batch.
      *
-     * @return next sale ID to retry, or null if queue is empty
+     * @param timeoutMillis how long to wait when the queue is empty
+     * @return the due message, or null if none arrived within the timeout
      */
-    public UUID dequeue() {
+    public NfceRetryMessage dequeue(long timeoutMillis) {
+        String payload;
         try {
-            // Poll with 5 second timeout to avoid blocking indefinitely
-            return blockingQueue.poll(5, TimeUnit.SECONDS);
+            payload = blockingQueue.poll(timeoutMillis, TimeUnit.MILLISECONDS);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             logger.warn("Dequeue interrupted: {}", e.getMessage());
             return null;
         }
+        if (payload == null) {
+            return null;
+        }
+
+        try {
+            return NfceRetryMessage.decode(payload);
+        } catch (IllegalArgumentException e) {
+            logger.error("Dropping malformed NFCe retry message: {}", payload);
+            return null;
+        }
+    }
+
+    /**
+     * Moves the entries of the pre-tenant retry queue (<code>nfce-retry-queue</code>, sale IDs
+     * only) into this queue, once: the first node to get the lock drains it and deletes it
+     *
+     * <p>Legacy entries carry neither the tenant nor the attempt count, so they are requeued as
+     * first retries of the tenant that owns the sale. Sales no tenant owns are dropped.
+     *
+     * @param tenantsBySale resolves sale ID -> tenant ID (sales it cannot resolve are left out)
+     * @return entries moved
+     */
+    public int drainLegacyQueue(Function<Collection<UUID>, Map<UUID, UUID>> tenantsBySale) {
+        RLock lock = redissonClient.getLock(LEGACY_QUEUE + ":drain");
+        if (!lock.tryLock()) {
+            return 0;
+        }
+        try {
+            RBlockingQueue<UUID> legacyQueue = redissonClient.getBlockingQueue(LEGACY_QUEUE);
+            RDelayedQueue<UUID> legacyDelayed = redissonClient.getDelayedQueue(legacyQueue);
+
+            Set<UUID> saleIds = new LinkedHashSet<>(legacyQueue.readAll());
+            saleIds.addAll(legacyDelayed.readAll());
+            if (saleIds.isEmpty()) {
+                legacyDelayed.destroy();
+                return 0;
+            }
+
+            Map<UUID, UUID> tenants = tenantsBySale.apply(saleIds);
+            for (UUID saleId : saleIds) {
+                UUID tenantId = tenants.get(saleId);
+                if (tenantId == null) {
+                    logger.warn("Dropping legacy NFCe retry for sale {}: no tenant owns it", saleId);
+                    continue;
+                }
+                enqueue(new NfceRetryMessage(tenantId, saleId, 0));
+            }
+
+            legacyDelayed.delete();
+            legacyDelayed.destroy();
+            legacyQueue.delete();
+            logger.info("Moved {} of {} legacy NFCe retries to {}", tenants.size(), saleIds.size(), QUEUE);
+            return tenants.size();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -105,12 +178,21 @@ public class RetryQueueService {
     /**
      * Get current queue size (for monitoring)
      *
-     * @return number of items in queue
+     * @return number of retries that are due
      */
     public int getQueueSize() {
         return blockingQueue.size();
     }
 
+    /**
+     * Get number of retries still waiting for their backoff delay (for monitoring)
+     *
+     * @return number of scheduled retries
+     */
+    public int getScheduledSize() {
+        return delayedQueue.size();
+    }
+
     /**
      * Remove sale from queue (if manual resolution occurs)
      *
@@ -118,7 +200,17 @@ public class RetryQueueService {
      * @return true if removed, false if not found
      */
     public boolean remove(UUID saleId) {
-        boolean removed = blockingQueue.remove(saleId);
+        boolean removed = false;
+        for (String payload : blockingQueue.readAll()) {
+            if (payload.contains("|" + saleId + "|")) {
+                removed |= blockingQueue.remove(payload);
+            }
+        }
+        for (String payload : delayedQueue.readAll()) {
+            if (payload.contains("|" + saleId + "|")) {
+                removed |= delayedQueue.remove(payload);
+            }
+        }
         if (removed) {
             logger.info("Sale {} removed from retry queue", saleId);
         }
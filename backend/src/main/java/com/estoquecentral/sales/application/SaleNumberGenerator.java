@@ -1,25 +1,29 @@
 package com.estoquecentral.sales.application;
 
 import com.estoquecentral.sales.adapter.out.SaleRepository;
+import com.estoquecentral.shared.numbering.DocumentNumberService;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.Optional;
 import java.util.UUID;
 
 /**
  * SaleNumberGenerator - Generates unique sale numbers per tenant
  * Story 4.3: NFCe Emission and Stock Decrease
  * Format: SALE-YYYYMM-0001 (monthly sequence)
+ *
+ * @see DocumentNumberService
  */
 @Service
 public class SaleNumberGenerator {
 
+    private static final String PREFIX = "SALE";
+
     private final SaleRepository saleRepository;
+    private final DocumentNumberService documentNumberService;
 
-    public SaleNumberGenerator(SaleRepository saleRepository) {
+    public SaleNumberGenerator(SaleRepository saleRepository, DocumentNumberService documentNumberService) {
         this.saleRepository = saleRepository;
+        this.documentNumberService = documentNumberService;
     }
 
     /**
@@ -27,21 +31,8 @@ public class SaleNumberGenerator {
      * Format: SALE-YYYYMM-0001
      * Sequence resets monthly
      */
-    public synchronized String generateSaleNumber(UUID tenantId) {
-        String yearMonth = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMM"));
-        String prefix = "SALE-" + yearMonth + "-";
-
-        Optional<String> maxNumberOpt = saleRepository.findMaxSaleNumberByTenantAndYearMonth(
-                tenantId, "SALE-" + yearMonth
-        );
-
-        int nextSequence = 1;
-        if (maxNumberOpt.isPresent()) {
-            String maxNumber = maxNumberOpt.get();
-            String sequencePart = maxNumber.substring(prefix.length());
-            nextSequence = Integer.parseInt(sequencePart) + 1;
-        }
-
-        return String.format("%s%04d", prefix, nextSequence);
+    public String generateSaleNumber(UUID tenantId) {
+        return documentNumberService.nextNumber(tenantId, PREFIX, yearMonth ->
+                saleRepository.findMaxSaleNumberByTenantAndYearMonth(tenantId, PREFIX + "-" + yearMonth));
     }
 }
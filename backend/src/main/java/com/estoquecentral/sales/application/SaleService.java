@@ -1,25 +1,36 @@
 package com.estoquecentral.sales.application;
 
+import com.estoquecentral.inventory.adapter.out.InventoryBatchRepository;
 import com.estoquecentral.inventory.adapter.out.InventoryRepository;
 import com.estoquecentral.inventory.adapter.out.StockMovementRepository;
 import com.estoquecentral.inventory.domain.Inventory;
 import com.estoquecentral.inventory.domain.MovementType;
+import com.estoquecentral.inventory.domain.StockBalance;
+import com.estoquecentral.inventory.domain.StockChangedEvent;
+import com.estoquecentral.inventory.domain.StockLine;
 import com.estoquecentral.inventory.domain.StockMovement;
-import com.estoquecentral.marketplace.application.MarketplaceStockSyncService;
-import com.estoquecentral.marketplace.adapter.out.MarketplaceListingRepository;
-import com.estoquecentral.marketplace.domain.Marketplace;
+import com.estoquecentral.sales.adapter.out.FiscalEmissionOutboxRepository;
 import com.estoquecentral.sales.adapter.out.FiscalEventRepository;
 import com.estoquecentral.sales.adapter.out.SaleItemRepository;
 import com.estoquecentral.sales.adapter.out.SaleRepository;
 import com.estoquecentral.sales.domain.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -31,10 +42,20 @@ import java.util.UUID;
  *   <li>Validate stock availability for all items</li>
  *   <li>Create Sale entity with generated sale number</li>
  *   <li>Create SaleItems and decrease stock for each</li>
- *   <li>Try to emit NFCe (success: EMITTED, fail: PENDING)</li>
- *   <li>Create fiscal events for audit trail (NFR16)</li>
+ *   <li>Queue NFCe emission in the fiscal emission outbox (sale stays PENDING)</li>
  * </ol>
  *
+ * <p><strong>NFCe emission:</strong> The outbox row is written in the sale transaction, so
+ * the sale is committed without waiting for the fiscal provider and no emission is lost.
+ * {@link FiscalEmissionWorker} emits the NFCe after commit and creates the fiscal events
+ * for the audit trail (NFR16).
+ *
+ * <p><strong>Round trips:</strong> The basket is processed set-based, so a sale costs a
+ * constant number of queries regardless of its size: one inventory lookup, one stock
+ * decrease for all lines, one batch insert each for sale items and stock movements, and
+ * the outbox row. Marketplace stock sync is triggered by {@link StockChangedEvent}s, handled
+ * after commit.
+ *
  * @see Sale
  * @see SaleItem
  * @see FiscalEvent
@@ -43,42 +64,44 @@ import java.util.UUID;
 @Transactional
 public class SaleService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SaleService.class);
+
     private final SaleRepository saleRepository;
     private final SaleItemRepository saleItemRepository;
     private final InventoryRepository inventoryRepository;
+    private final InventoryBatchRepository inventoryBatchRepository;
     private final StockMovementRepository stockMovementRepository;
     private final FiscalEventRepository fiscalEventRepository;
     private final SaleNumberGenerator saleNumberGenerator;
-    private final NfceService nfceService;
     @Nullable
     private final RetryQueueService retryQueueService;
     private final NotificationService notificationService;
-    private final MarketplaceStockSyncService marketplaceStockSyncService;
-    private final MarketplaceListingRepository marketplaceListingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FiscalEmissionOutboxRepository fiscalEmissionOutboxRepository;
 
     public SaleService(
             SaleRepository saleRepository,
             SaleItemRepository saleItemRepository,
             InventoryRepository inventoryRepository,
+            InventoryBatchRepository inventoryBatchRepository,
             StockMovementRepository stockMovementRepository,
             FiscalEventRepository fiscalEventRepository,
             SaleNumberGenerator saleNumberGenerator,
-            NfceService nfceService,
             @Nullable RetryQueueService retryQueueService,
             NotificationService notificationService,
-            MarketplaceStockSyncService marketplaceStockSyncService,
-            MarketplaceListingRepository marketplaceListingRepository) {
+            ApplicationEventPublisher eventPublisher,
+            FiscalEmissionOutboxRepository fiscalEmissionOutboxRepository) {
         this.saleRepository = saleRepository;
         this.saleItemRepository = saleItemRepository;
         this.inventoryRepository = inventoryRepository;
+        this.inventoryBatchRepository = inventoryBatchRepository;
         this.stockMovementRepository = stockMovementRepository;
         this.fiscalEventRepository = fiscalEventRepository;
         this.saleNumberGenerator = saleNumberGenerator;
-        this.nfceService = nfceService;
         this.retryQueueService = retryQueueService;
         this.notificationService = notificationService;
-        this.marketplaceStockSyncService = marketplaceStockSyncService;
-        this.marketplaceListingRepository = marketplaceListingRepository;
+        this.eventPublisher = eventPublisher;
+        this.fiscalEmissionOutboxRepository = fiscalEmissionOutboxRepository;
     }
 
     /**
@@ -86,125 +109,101 @@ public class SaleService {
      * Story 4.3 - AC1, AC2, AC3, AC4
      *
      * @param request sale request with items
-     * @return created sale with NFCe status
+     * @return created sale (NFCe PENDING until the emission worker handles it)
      * @throws InsufficientStockException if stock is insufficient for any item
      */
     @Transactional
     public Sale processSale(SaleRequest request) {
+        // One stock line per product/variant (repeated basket lines are merged)
+        Map<UUID, StockLine> stockLines = mergeStockLines(request.items());
+
         // AC1: Validate stock availability for all items
-        validateStockAvailability(request.tenantId(), request.stockLocationId(), request.items());
+        validateStockAvailability(request.tenantId(), request.stockLocationId(), stockLines.values());
 
         // AC2: Create Sale entity with generated sale number
         Sale sale = createSale(request);
         sale = saleRepository.save(sale);
 
-        // AC2: Create SaleItems and decrease stock for each
-        List<SaleItem> saleItems = new ArrayList<>();
-        for (ItemRequest itemRequest : request.items()) {
-            SaleItem saleItem = createSaleItem(sale.getId(), itemRequest);
-            saleItem = saleItemRepository.save(saleItem);
-            saleItems.add(saleItem);
-
-            // Decrease stock and create stock movement
-            decreaseStock(
-                    request.tenantId(),
-                    request.stockLocationId(),
-                    itemRequest.productId(),
-                    itemRequest.variantId(),
-                    itemRequest.quantity(),
-                    sale.getId(),
-                    request.userId()
-            );
+        // AC2: Decrease stock for all items at once
+        Map<UUID, BigDecimal> quantityAfter = decreaseStock(
+                request.tenantId(),
+                request.stockLocationId(),
+                stockLines.values()
+        );
 
-            // Story 5.4: Enqueue stock sync to marketplaces after sale
-            enqueueMarketplaceStockSync(
-                    request.tenantId(),
-                    itemRequest.productId(),
-                    itemRequest.variantId()
-            );
+        // AC2: Create SaleItems (batch insert)
+        List<SaleItem> newSaleItems = new ArrayList<>();
+        for (ItemRequest itemRequest : request.items()) {
+            newSaleItems.add(createSaleItem(sale.getId(), itemRequest));
         }
+        saleItemRepository.saveAll(newSaleItems);
 
-        // AC3: Try to emit NFCe
-        try {
-            NfceService.NfceResponse nfceResponse = nfceService.emitNfce(sale, saleItems);
-            sale.markNfceAsEmitted(nfceResponse.nfceKey(), nfceResponse.xml());
-            sale = saleRepository.save(sale);
-
-            // AC4: Create fiscal event for successful emission
-            createFiscalEvent(
-                    request.tenantId(),
-                    sale.getId(),
-                    FiscalEventType.NFCE_EMITTED,
-                    nfceResponse.nfceKey(),
-                    nfceResponse.xml(),
-                    null,
-                    null,
-                    request.userId()
-            );
-
-        } catch (NfceService.NfceException e) {
-            // AC3: NFCe emission failed - mark as PENDING (not FAILED)
-            // Sale is still valid, NFCe can be retried later
-            sale.markNfceAsPending();
-            sale = saleRepository.save(sale);
+        // AC5: Create stock movements (batch insert)
+        createStockMovements(request, sale.getId(), stockLines, quantityAfter);
 
-            // AC4: Create fiscal event for failed emission
-            createFiscalEvent(
-                    request.tenantId(),
-                    sale.getId(),
-                    FiscalEventType.NFCE_FAILED,
-                    null,
-                    null,
-                    e.getMessage(),
-                    null,
-                    request.userId()
-            );
+        // Story 5.4: Stock sync to marketplaces (queued after commit)
+        for (StockLine line : stockLines.values()) {
+            eventPublisher.publishEvent(StockChangedEvent.of(request.tenantId(), line));
         }
 
+        // AC3: Queue NFCe emission - FiscalEmissionWorker emits it after commit (sale stays PENDING)
+        fiscalEmissionOutboxRepository.enqueue(request.tenantId(), sale.getId());
+
         return sale;
     }
 
     // ==================== Helper Methods ====================
 
+    /**
+     * Merges basket lines of the same product/variant, keeping basket order
+     */
+    private Map<UUID, StockLine> mergeStockLines(List<ItemRequest> items) {
+        Map<UUID, StockLine> stockLines = new LinkedHashMap<>();
+        for (ItemRequest item : items) {
+            StockLine line = new StockLine(item.productId(), item.variantId(), item.quantity());
+            stockLines.merge(line.itemId(), line, StockLine::plus);
+        }
+        return stockLines;
+    }
+
     /**
      * Validates that sufficient stock is available for all items
-     * AC1: Stock validation before processing sale
+     * AC1: Stock validation before processing sale (one query for the whole basket)
      *
      * @throws InsufficientStockException if stock is insufficient for any item
      */
-    private void validateStockAvailability(UUID tenantId, UUID locationId, List<ItemRequest> items) {
-        for (ItemRequest item : items) {
-            Inventory inventory;
-
-            if (item.variantId() != null) {
-                // Variant product
-                inventory = inventoryRepository.findByTenantIdAndVariantIdAndLocationId(
-                        tenantId, item.variantId(), locationId
-                ).orElseThrow(() -> new InsufficientStockException(
-                        "No inventory found for variant: " + item.variantId()
-                ));
-            } else {
-                // Simple/composite product
-                inventory = inventoryRepository.findByTenantIdAndProductIdAndLocationId(
-                        tenantId, item.productId(), locationId
-                ).orElseThrow(() -> new InsufficientStockException(
-                        "No inventory found for product: " + item.productId()
-                ));
+    private void validateStockAvailability(UUID tenantId, UUID locationId, Collection<StockLine> lines) {
+        List<UUID> itemIds = lines.stream().map(StockLine::itemId).toList();
+
+        Map<UUID, Inventory> inventories = new HashMap<>();
+        for (Inventory inventory : inventoryRepository.findAllByTenantIdAndItemIdsAndLocationId(
+                tenantId, itemIds, locationId)) {
+            inventories.put(inventory.getVariantId() != null ? inventory.getVariantId() : inventory.getProductId(),
+                    inventory);
+        }
+
+        for (StockLine line : lines) {
+            Inventory inventory = inventories.get(line.itemId());
+            if (inventory == null) {
+                throw new InsufficientStockException(line.isVariant()
+                        ? "No inventory found for variant: " + line.variantId()
+                        : "No inventory found for product: " + line.productId());
             }
 
             BigDecimal availableForSale = inventory.getComputedQuantityForSale();
-            if (availableForSale.compareTo(item.quantity()) < 0) {
-                String itemIdentifier = item.variantId() != null
-                        ? "variant " + item.variantId()
-                        : "product " + item.productId();
+            if (availableForSale.compareTo(line.quantity()) < 0) {
                 throw new InsufficientStockException(
                         String.format("Insufficient stock for %s. Available: %s, Requested: %s",
-                                itemIdentifier, availableForSale, item.quantity())
+                                itemIdentifier(line), availableForSale, line.quantity())
                 );
             }
         }
     }
 
+    private static String itemIdentifier(StockLine line) {
+        return line.isVariant() ? "variant " + line.variantId() : "product " + line.productId();
+    }
+
     /**
      * Creates Sale entity with generated sale number and calculated totals
      * AC2: Create sale record
@@ -245,58 +244,63 @@ public class SaleService {
     }
 
     /**
-     * Decreases stock and creates stock movement record
-     * AC2: Decrease stock for each item
+     * Decreases stock for all basket lines in one conditional statement
+     * AC2: Decrease stock for each item (no lost updates, no oversell)
+     *
+     * @return quantity after the sale by item ID
+     * @throws InsufficientStockException if stock changed since validation; the sale
+     *         transaction is rolled back, undoing the lines already decreased
+     */
+    private Map<UUID, BigDecimal> decreaseStock(UUID tenantId, UUID locationId, Collection<StockLine> lines) {
+        Map<UUID, BigDecimal> quantityAfter = inventoryBatchRepository.decrementAvailable(tenantId, locationId, lines);
+
+        for (StockLine line : lines) {
+            if (!quantityAfter.containsKey(line.itemId())) {
+                throw new InsufficientStockException(
+                        String.format("Insufficient stock for %s. Requested: %s",
+                                itemIdentifier(line), line.quantity())
+                );
+            }
+        }
+        return quantityAfter;
+    }
+
+    /**
+     * Creates the stock movement records for all basket lines (batch insert)
      * AC5: Create stock movement audit trail
+     *
+     * <p>Repeated lines of the same item are chained: each movement starts from the
+     * balance the previous one left.
      */
-    private void decreaseStock(
-            UUID tenantId,
-            UUID locationId,
-            UUID productId,
-            UUID variantId,
-            BigDecimal quantity,
+    private void createStockMovements(
+            SaleRequest request,
             UUID saleId,
-            UUID userId) {
+            Map<UUID, StockLine> stockLines,
+            Map<UUID, BigDecimal> quantityAfter) {
 
-        Inventory inventory;
+        Map<UUID, BigDecimal> balances = new HashMap<>();
+        List<StockMovement> movements = new ArrayList<>();
+        for (ItemRequest itemRequest : request.items()) {
+            UUID itemId = itemRequest.variantId() != null ? itemRequest.variantId() : itemRequest.productId();
+            BigDecimal balanceBefore = balances.computeIfAbsent(itemId,
+                    id -> quantityAfter.get(id).add(stockLines.get(id).quantity()));
+            balances.put(itemId, balanceBefore.subtract(itemRequest.quantity()));
 
-        if (variantId != null) {
-            // Variant product
-            inventory = inventoryRepository.findByTenantIdAndVariantIdAndLocationId(
-                    tenantId, variantId, locationId
-            ).orElseThrow(() -> new IllegalStateException(
-                    "Inventory not found for variant: " + variantId
-            ));
-        } else {
-            // Simple/composite product
-            inventory = inventoryRepository.findByTenantIdAndProductIdAndLocationId(
-                    tenantId, productId, locationId
-            ).orElseThrow(() -> new IllegalStateException(
-                    "Inventory not found for product: " + productId
+            movements.add(new StockMovement(
+                    request.tenantId(),
+                    itemRequest.productId(),
+                    itemRequest.variantId(),
+                    request.stockLocationId(),
+                    MovementType.SALE,
+                    itemRequest.quantity().negate(), // Negative quantity for exit
+                    balanceBefore,
+                    request.userId(),
+                    "SALE",
+                    saleId,
+                    "Stock decreased by sale"
             ));
         }
-
-        BigDecimal balanceBefore = inventory.getQuantityAvailable();
-        inventory.removeQuantity(quantity);
-        BigDecimal balanceAfter = inventory.getQuantityAvailable();
-
-        inventoryRepository.save(inventory);
-
-        // Create stock movement record (audit trail)
-        StockMovement movement = new StockMovement(
-                tenantId,
-                productId,
-                variantId,
-                locationId,
-                MovementType.SALE,
-                quantity.negate(), // Negative quantity for exit
-                balanceBefore,
-                userId,
-                "SALE",
-                saleId,
-                "Stock decreased by sale"
-        );
-        stockMovementRepository.save(movement);
+        stockMovementRepository.saveAll(movements);
     }
 
     /**
@@ -355,11 +359,17 @@ public class SaleService {
      * Manually retry NFCe emission for a PENDING or FAILED sale
      * Story 4.4: Manual retry functionality
      *
+     * <p>The retry goes through the fiscal emission outbox like the first emission: the sale is
+     * put back to PENDING and its outbox row requeued with a fresh attempt count, and
+     * {@link FiscalEmissionWorker} emits it outside this transaction. Once that commits, the
+     * sale's pending Redis retry (if any) is dropped so {@link NfceRetryWorker} does not emit
+     * it a second time.
+     *
      * @param tenantId tenant ID
      * @param saleId sale ID to retry
      * @param userId user ID triggering retry
-     * @return updated sale
-     * @throws IllegalStateException if sale is already EMITTED or not found
+     * @return updated sale (NFCe PENDING until the emission worker handles it)
+     * @throws IllegalStateException if sale is already EMITTED, cancelled or not found
      */
     @Transactional
     public Sale retrySale(UUID tenantId, UUID saleId, UUID userId) {
@@ -371,47 +381,49 @@ public class SaleService {
         if (sale.isNfceEmitted()) {
             throw new IllegalStateException("NFCe already emitted for sale: " + saleId);
         }
+        if (sale.isCancelled() || sale.getNfceStatus() == NfceStatus.CANCELLED) {
+            throw new IllegalStateException("Sale is cancelled: " + saleId);
+        }
 
-        // Load sale items
-        List<SaleItem> saleItems = saleItemRepository.findBySaleId(saleId);
-
-        try {
-            // Attempt NFCe emission
-            NfceService.NfceResponse nfceResponse = nfceService.emitNfce(sale, saleItems);
-
-            // Success: update status and create fiscal event
-            sale.markNfceAsEmitted(nfceResponse.nfceKey(), nfceResponse.xml());
+        if (!sale.isNfcePending()) {
+            sale.markNfceAsPending();
             sale = saleRepository.save(sale);
+        }
 
-            // Create fiscal event
-            createFiscalEvent(
-                    tenantId,
-                    saleId,
-                    FiscalEventType.NFCE_EMITTED,
-                    nfceResponse.nfceKey(),
-                    nfceResponse.xml(),
-                    null,
-                    null,
-                    userId
-            );
+        createFiscalEvent(tenantId, saleId, FiscalEventType.NFCE_RETRY, null, null, null, null, userId);
+        fiscalEmissionOutboxRepository.requeue(tenantId, saleId);
+        removeFromRetryQueueAfterCommit(saleId);
 
-        } catch (NfceService.NfceException e) {
-            // Failure: create fiscal event and keep as PENDING/FAILED
-            createFiscalEvent(
-                    tenantId,
-                    saleId,
-                    FiscalEventType.NFCE_FAILED,
-                    null,
-                    null,
-                    e.getMessage(),
-                    null,
-                    userId
-            );
+        return sale;
+    }
 
-            throw new IllegalStateException("NFCe emission failed: " + e.getMessage(), e);
+    /**
+     * Drops the sale's Redis retry message once the outbox requeue commits (right away without
+     * a transaction): the outbox then owns the sale's emission
+     */
+    private void removeFromRetryQueueAfterCommit(UUID saleId) {
+        if (retryQueueService == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            removeFromRetryQueue(saleId);
+            return;
         }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                removeFromRetryQueue(saleId);
+            }
+        });
+    }
 
-        return sale;
+    private void removeFromRetryQueue(UUID saleId) {
+        try {
+            retryQueueService.remove(saleId);
+        } catch (RuntimeException e) {
+            // The retry worker skips sales that are no longer PENDING once the outbox emits them
+            logger.warn("Could not remove sale {} from the NFCe retry queue: {}", saleId, e.getMessage());
+        }
     }
 
     /**
@@ -489,29 +501,16 @@ public class SaleService {
             UUID userId,
             String justification) {
 
-        Inventory inventory;
+        // Variant product rows have no product_id; simple/composite rows have no variant_id
+        UUID inventoryProductId = variantId != null ? null : productId;
 
-        if (variantId != null) {
-            // Variant product
-            inventory = inventoryRepository.findByTenantIdAndVariantIdAndLocationId(
-                    tenantId, variantId, locationId
-            ).orElseThrow(() -> new IllegalStateException(
-                    "Inventory not found for variant: " + variantId
-            ));
-        } else {
-            // Simple/composite product
-            inventory = inventoryRepository.findByTenantIdAndProductIdAndLocationId(
-                    tenantId, productId, locationId
-            ).orElseThrow(() -> new IllegalStateException(
-                    "Inventory not found for product: " + productId
-            ));
-        }
-
-        BigDecimal balanceBefore = inventory.getQuantityAvailable();
-        inventory.addQuantity(quantity);
-        BigDecimal balanceAfter = inventory.getQuantityAvailable();
+        Inventory inventory = inventoryRepository.incrementQuantity(
+                tenantId, inventoryProductId, variantId, locationId, quantity
+        ).orElseThrow(() -> new IllegalStateException(variantId != null
+                ? "Inventory not found for variant: " + variantId
+                : "Inventory not found for product: " + productId));
 
-        inventoryRepository.save(inventory);
+        BigDecimal balanceBefore = StockBalance.of(inventory, quantity, BigDecimal.ZERO).quantityBefore();
 
         // Create stock movement record (reversal)
         StockMovement movement = new StockMovement(
@@ -530,33 +529,6 @@ public class SaleService {
         stockMovementRepository.save(movement);
     }
 
-    /**
-     * Enqueue stock sync to marketplaces after sale
-     * Story 5.4: Integration with marketplace stock sync
-     */
-    private void enqueueMarketplaceStockSync(UUID tenantId, UUID productId, UUID variantId) {
-        try {
-            // Check if product has marketplace listings
-            var listings = marketplaceListingRepository.findByProductId(productId);
-
-            if (!listings.isEmpty()) {
-                // Enqueue sync for each marketplace
-                for (var listing : listings) {
-                    marketplaceStockSyncService.enqueueStockSync(
-                            tenantId,
-                            productId,
-                            variantId,
-                            listing.getMarketplace()
-                    );
-                }
-            }
-        } catch (Exception e) {
-            // Log error but don't fail sale if sync enqueue fails
-            // Sync can be triggered manually later if needed
-            System.err.println("Error enqueuing marketplace stock sync: " + e.getMessage());
-        }
-    }
-
     // ==================== Inner Classes ====================
 
     /**
@@ -1,11 +1,9 @@
 package com.estoquecentral.sales.application;
 
 import com.estoquecentral.sales.adapter.out.SalesOrderRepository;
+import com.estoquecentral.shared.numbering.DocumentNumberService;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 
 /**
@@ -16,14 +14,21 @@ import java.util.UUID;
  * Example: SO-202511-0001, SO-202511-0002, ...
  *
  * Sequence resets each month
+ *
+ * @see DocumentNumberService
  */
 @Service
 public class SalesOrderNumberGenerator {
 
+    private static final String PREFIX = "SO";
+
     private final SalesOrderRepository salesOrderRepository;
+    private final DocumentNumberService documentNumberService;
 
-    public SalesOrderNumberGenerator(SalesOrderRepository salesOrderRepository) {
+    public SalesOrderNumberGenerator(SalesOrderRepository salesOrderRepository,
+            DocumentNumberService documentNumberService) {
         this.salesOrderRepository = salesOrderRepository;
+        this.documentNumberService = documentNumberService;
     }
 
     /**
@@ -32,26 +37,9 @@ public class SalesOrderNumberGenerator {
      * @param tenantId tenant UUID
      * @return SO number in format SO-YYYYMM-9999
      */
-    @Transactional
-    public synchronized String generateOrderNumber(UUID tenantId) {
-        LocalDate now = LocalDate.now();
-        String yearMonth = now.format(DateTimeFormatter.ofPattern("yyyyMM"));
-        String prefix = "SO-" + yearMonth + "-";
-
-        // Find maximum SO number for current month
-        String maxOrderNumber = salesOrderRepository
-            .findMaxOrderNumberByTenantAndYearMonth(tenantId, yearMonth)
-            .orElse(null);
-
-        int nextSequence = 1;
-        if (maxOrderNumber != null && maxOrderNumber.startsWith(prefix)) {
-            // Extract sequence number from SO-YYYYMM-9999
-            String sequencePart = maxOrderNumber.substring(prefix.length());
-            nextSequence = Integer.parseInt(sequencePart) + 1;
-        }
-
-        // Format with 4-digit zero padding
-        return String.format("%s%04d", prefix, nextSequence);
+    public String generateOrderNumber(UUID tenantId) {
+        return documentNumberService.nextNumber(tenantId, PREFIX, yearMonth ->
+                salesOrderRepository.findMaxOrderNumberByTenantAndYearMonth(tenantId, yearMonth));
     }
 
     /**
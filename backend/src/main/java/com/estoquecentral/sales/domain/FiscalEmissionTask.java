@@ -0,0 +1,14 @@
+package com.estoquecentral.sales.domain;
+
+import java.util.UUID;
+
+/**
+ * FiscalEmissionTask - Claimed fiscal emission outbox row
+ *
+ * @param id       outbox row ID
+ * @param tenantId tenant of the sale
+ * @param saleId   sale to emit the NFC-e for
+ * @param attempts times the row has been claimed (including this claim)
+ */
+public record FiscalEmissionTask(UUID id, UUID tenantId, UUID saleId, int attempts) {
+}
@@ -0,0 +1,47 @@
+package com.estoquecentral.sales.domain;
+
+import java.util.UUID;
+
+/**
+ * NfceRetryMessage - NFC-e retry queue entry
+ * Story 4.4: NFCe Retry Queue and Failure Management
+ *
+ * <p>Carries everything a consumer needs to retry a sale without shared state: the tenant
+ * (to restore {@link com.estoquecentral.shared.tenant.TenantContext}), the sale and the
+ * number of retries already made. Stored in Redis as <code>tenantId|saleId|attempt</code>.
+ *
+ * @param tenantId tenant of the sale
+ * @param saleId   sale to emit the NFC-e for
+ * @param attempt  retries already made (0 = first retry)
+ */
+public record NfceRetryMessage(UUID tenantId, UUID saleId, int attempt) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * @return message for the next retry of the same sale
+     */
+    public NfceRetryMessage nextAttempt() {
+        return new NfceRetryMessage(tenantId, saleId, attempt + 1);
+    }
+
+    /**
+     * @return queue payload
+     */
+    public String encode() {
+        return tenantId + SEPARATOR + saleId + SEPARATOR + attempt;
+    }
+
+    /**
+     * @param payload queue payload written by {@link #encode()}
+     * @return decoded message
+     * @throws IllegalArgumentException if the payload is malformed
+     */
+    public static NfceRetryMessage decode(String payload) {
+        String[] parts = payload.split("\\" + SEPARATOR);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid NFCe retry message: " + payload);
+        }
+        return new NfceRetryMessage(UUID.fromString(parts[0]), UUID.fromString(parts[1]), Integer.parseInt(parts[2]));
+    }
+}
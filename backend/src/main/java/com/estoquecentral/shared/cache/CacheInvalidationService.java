@@ -1,15 +1,13 @@
 package com.estoquecentral.shared.cache;
 
 import com.estoquecentral.shared.tenant.TenantCacheKeyGenerator;
-import org.redisson.api.RedissonClient;
+import org.redisson.api.RMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.CacheManager;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
-import java.util.Objects;
-
 /**
  * CacheInvalidationService - Handles cache eviction and invalidation
  * Story 7.5: Redis Cache with Tenant Isolation
@@ -18,10 +16,15 @@ import java.util.Objects;
  * <ul>
  *   <li>Single cache entry by key</li>
  *   <li>All entries in a specific cache</li>
- *   <li>All cache entries for current tenant (pattern-based)</li>
+ *   <li>All cache entries for current tenant</li>
  *   <li>All cache entries across all tenants (admin operation)</li>
  * </ul>
  *
+ * <p><strong>Namespace generations:</strong> Cache-wide and tenant-wide eviction increment a
+ * generation counter ({@link TenantCacheGenerations}) embedded in every tenant key, so they are
+ * O(1) and never run KEYS/SCAN on the shared Redis. Entries of old generations are no longer
+ * addressed and expire by their TTL.
+ *
  * <p><strong>Tenant Isolation:</strong>
  * All invalidation operations respect tenant context via {@link TenantCacheKeyGenerator}.
  * Invalidating "products" cache will only clear products for the current tenant.
@@ -39,6 +42,7 @@ import java.util.Objects;
  * }</pre>
  *
  * @see TenantCacheKeyGenerator
+ * @see TenantCacheGenerations
  * @see com.estoquecentral.config.CacheConfig
  */
 @Service
@@ -48,11 +52,15 @@ public class CacheInvalidationService {
     private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationService.class);
 
     private final CacheManager cacheManager;
-    private final RedissonClient redissonClient;
+    private final TenantCacheKeyGenerator keyGenerator;
+    private final TenantCacheGenerations generations;
 
-    public CacheInvalidationService(CacheManager cacheManager, RedissonClient redissonClient) {
+    public CacheInvalidationService(CacheManager cacheManager,
+                                    TenantCacheKeyGenerator keyGenerator,
+                                    TenantCacheGenerations generations) {
         this.cacheManager = cacheManager;
-        this.redissonClient = redissonClient;
+        this.keyGenerator = keyGenerator;
+        this.generations = generations;
     }
 
     /**
@@ -66,8 +74,8 @@ public class CacheInvalidationService {
     public void evictCacheEntry(String cacheName, Object key) {
         var cache = cacheManager.getCache(cacheName);
         if (cache != null) {
-            // Generate tenant-aware key
-            String tenantKey = TenantCacheKeyGenerator.generateKey(cacheName, key);
+            // Generate tenant-aware key in the current namespace
+            String tenantKey = keyGenerator.generateVersionedKey(cacheName, key);
             cache.evict(tenantKey);
             logger.debug("Evicted cache entry: {} -> {}", cacheName, tenantKey);
         } else {
@@ -78,17 +86,16 @@ public class CacheInvalidationService {
     /**
      * Evicts all entries in a specific cache for the current tenant.
      *
-     * <p>Uses pattern-based eviction: tenant:{tenantId}:{cacheName}:*
+     * <p>Increments the tenant + cache generation: a single Redis INCR.
      *
      * @param cacheName the cache name to clear
      */
     public void evictCache(String cacheName) {
         var cache = cacheManager.getCache(cacheName);
         if (cache != null) {
-            // Clear cache for current tenant only
-            String pattern = TenantCacheKeyGenerator.generatePattern(cacheName);
-            long deletedKeys = deleteKeysByPattern(pattern);
-            logger.info("Evicted cache '{}' for current tenant (deleted {} keys)", cacheName, deletedKeys);
+            // Move the current tenant's entries of this cache to a new namespace
+            generations.invalidateCache(TenantCacheKeyGenerator.currentTenantPrefix(), cacheName);
+            logger.info("Evicted cache '{}' for current tenant", cacheName);
         } else {
             logger.warn("Cache '{}' not found, cannot evict", cacheName);
         }
@@ -97,14 +104,13 @@ public class CacheInvalidationService {
     /**
      * Evicts all cache entries for the current tenant across all caches.
      *
-     * <p>Uses pattern: tenant:{tenantId}:*
+     * <p>Increments the tenant-wide generation: a single Redis INCR.
      *
      * <p><strong>Use with caution:</strong> This clears ALL cached data for the tenant.
      */
     public void evictAllTenantCaches() {
-        String pattern = TenantCacheKeyGenerator.generatePattern("*");
-        long deletedKeys = deleteKeysByPattern(pattern);
-        logger.info("Evicted ALL caches for current tenant (deleted {} keys)", deletedKeys);
+        generations.invalidateTenant(TenantCacheKeyGenerator.currentTenantPrefix());
+        logger.info("Evicted ALL caches for current tenant");
     }
 
     /**
@@ -123,29 +129,6 @@ public class CacheInvalidationService {
         logger.warn("Evicted ALL caches across ALL tenants (ADMIN OPERATION)");
     }
 
-    /**
-     * Deletes all Redis keys matching a pattern.
-     *
-     * <p>Uses Redisson's keys API to find and delete matching keys.
-     *
-     * @param pattern the Redis key pattern (supports wildcards)
-     * @return the number of deleted keys
-     */
-    private long deleteKeysByPattern(String pattern) {
-        try {
-            Iterable<String> keys = redissonClient.getKeys().getKeysByPattern(pattern);
-            long count = 0;
-            for (String key : keys) {
-                redissonClient.getBucket(key).delete();
-                count++;
-            }
-            return count;
-        } catch (Exception e) {
-            logger.error("Failed to delete keys by pattern: {}", pattern, e);
-            return 0;
-        }
-    }
-
     /**
      * Checks if a cache entry exists for a given key.
      *
@@ -156,7 +139,7 @@ public class CacheInvalidationService {
     public boolean isCached(String cacheName, Object key) {
         var cache = cacheManager.getCache(cacheName);
         if (cache != null) {
-            String tenantKey = TenantCacheKeyGenerator.generateKey(cacheName, key);
+            String tenantKey = keyGenerator.generateVersionedKey(cacheName, key);
             return cache.get(tenantKey) != null;
         }
         return false;
@@ -165,20 +148,23 @@ public class CacheInvalidationService {
     /**
      * Gets cache statistics for monitoring.
      *
-     * <p>Counts the number of cached entries for the current tenant.
+     * <p>Returns the size of the cache's Redis hash (HLEN, O(1)). This covers all tenants and
+     * includes entries of old generations until they expire; per-tenant counts would need a
+     * keyspace scan, which this service deliberately avoids.
      *
      * @param cacheName the cache name
-     * @return the number of cached entries for current tenant
+     * @return the number of entries in the cache, or -1 if unavailable
      */
     public long getCacheEntryCount(String cacheName) {
-        String pattern = TenantCacheKeyGenerator.generatePattern(cacheName);
+        var cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return -1;
+        }
         try {
-            Iterable<String> keys = redissonClient.getKeys().getKeysByPattern(pattern);
-            long count = 0;
-            for (String ignored : keys) {
-                count++;
+            if (cache.getNativeCache() instanceof RMap<?, ?> map) {
+                return map.size();
             }
-            return count;
+            return -1;
         } catch (Exception e) {
             logger.error("Failed to count cache entries for: {}", cacheName, e);
             return -1;
@@ -0,0 +1,156 @@
+package com.estoquecentral.shared.cache;
+
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.LongCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * TenantCacheGenerations - Versioned cache namespaces per tenant and per tenant + cache
+ *
+ * <p>Every tenant-scoped cache key embeds a namespace segment <code>g{tenantGeneration}.{cacheGeneration}</code>.
+ * Invalidating a tenant (or one of its caches) just increments a counter: new lookups build
+ * keys in the new namespace and old entries are never read again, expiring by their TTL.
+ * This replaces KEYS/SCAN-based pattern eviction, which walks the whole Redis keyspace.
+ *
+ * <p><strong>Storage:</strong>
+ * <ul>
+ *   <li>With Redis (<code>redis.enabled=true</code>): counters are Redis atomic longs
+ *       (<code>cache-generation:{tenantPrefix}</code> and <code>cache-generation:{tenantPrefix}:{cacheName}</code>),
+ *       read with a single MGET and memoized locally for <code>cache.generations.local-ttl-ms</code></li>
+ *   <li>Without Redis: in-memory counters</li>
+ * </ul>
+ * Increments made on this node are visible immediately; increments on other nodes are picked
+ * up once the local memo expires.
+ *
+ * @see com.estoquecentral.shared.tenant.TenantCacheKeyGenerator
+ * @see CacheInvalidationService
+ */
+@Component
+public class TenantCacheGenerations {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantCacheGenerations.class);
+
+    private static final String KEY_PREFIX = "cache-generation:";
+
+    private final RedissonClient redissonClient;
+    private final long localTtlMs;
+    private final LongSupplier clock;
+
+    /** In-memory counters (no Redis). */
+    private final Map<String, AtomicLong> localCounters = new ConcurrentHashMap<>();
+
+    /** Memoized namespaces read from Redis, keyed by tenant + cache. */
+    private final Map<String, Namespace> namespaces = new ConcurrentHashMap<>();
+
+    /**
+     * In-memory generations (tests, single node without Redis).
+     */
+    public TenantCacheGenerations() {
+        this(null, 0, System::currentTimeMillis);
+    }
+
+    @Autowired
+    public TenantCacheGenerations(ObjectProvider<RedissonClient> redissonClient,
+                                  @Value("${cache.generations.local-ttl-ms:1000}") long localTtlMs) {
+        this(redissonClient.getIfAvailable(), localTtlMs, System::currentTimeMillis);
+    }
+
+    TenantCacheGenerations(RedissonClient redissonClient, long localTtlMs, LongSupplier clock) {
+        this.redissonClient = redissonClient;
+        this.localTtlMs = localTtlMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the current namespace segment for a tenant's cache.
+     *
+     * @param tenantPrefix "tenant:{tenantId}" or "public"
+     * @param cacheName    the cache name, or null for tenant-wide keys
+     * @return namespace segment, e.g. "g3.1"
+     */
+    public String namespace(String tenantPrefix, String cacheName) {
+        String tenantKey = KEY_PREFIX + tenantPrefix;
+        String cacheKey = cacheName != null ? tenantKey + ":" + cacheName : null;
+
+        if (redissonClient == null) {
+            return format(localCounter(tenantKey).get(), cacheKey != null ? localCounter(cacheKey).get() : 0);
+        }
+
+        String memoKey = cacheKey != null ? cacheKey : tenantKey;
+        long now = clock.getAsLong();
+        Namespace namespace = namespaces.get(memoKey);
+        if (namespace != null && namespace.expiresAt > now) {
+            return namespace.segment;
+        }
+
+        String segment;
+        try {
+            Map<String, Long> counters = cacheKey != null
+                    ? redissonClient.getBuckets(LongCodec.INSTANCE).get(tenantKey, cacheKey)
+                    : redissonClient.getBuckets(LongCodec.INSTANCE).get(tenantKey);
+            segment = format(valueOf(counters.get(tenantKey)), cacheKey != null ? valueOf(counters.get(cacheKey)) : 0);
+        } catch (RuntimeException e) {
+            // Keep serving the last known namespace while Redis is unreachable
+            logger.warn("Could not read cache generations for {}: {}", memoKey, e.getMessage());
+            return namespace != null ? namespace.segment : format(0, 0);
+        }
+
+        namespaces.put(memoKey, new Namespace(segment, now + localTtlMs));
+        return segment;
+    }
+
+    /**
+     * Moves every cache of the tenant to a new namespace.
+     *
+     * @param tenantPrefix "tenant:{tenantId}" or "public"
+     */
+    public void invalidateTenant(String tenantPrefix) {
+        increment(KEY_PREFIX + tenantPrefix);
+    }
+
+    /**
+     * Moves one cache of the tenant to a new namespace.
+     *
+     * @param tenantPrefix "tenant:{tenantId}" or "public"
+     * @param cacheName    the cache name
+     */
+    public void invalidateCache(String tenantPrefix, String cacheName) {
+        increment(KEY_PREFIX + tenantPrefix + ":" + cacheName);
+    }
+
+    private void increment(String counterKey) {
+        if (redissonClient == null) {
+            localCounter(counterKey).incrementAndGet();
+            return;
+        }
+
+        redissonClient.getAtomicLong(counterKey).incrementAndGet();
+        // Drop memoized namespaces derived from this counter so this node sees the change at once
+        namespaces.keySet().removeIf(memoKey -> memoKey.equals(counterKey) || memoKey.startsWith(counterKey + ":"));
+    }
+
+    private AtomicLong localCounter(String counterKey) {
+        return localCounters.computeIfAbsent(counterKey, key -> new AtomicLong());
+    }
+
+    private static long valueOf(Long counter) {
+        return counter != null ? counter : 0;
+    }
+
+    private static String format(long tenantGeneration, long cacheGeneration) {
+        return "g" + tenantGeneration + "." + cacheGeneration;
+    }
+
+    private record Namespace(String segment, long expiresAt) {
+    }
+}
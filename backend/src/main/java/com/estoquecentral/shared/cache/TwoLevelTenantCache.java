@@ -0,0 +1,274 @@
+package com.estoquecentral.shared.cache;
+
+import com.estoquecentral.shared.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * TwoLevelTenantCache - Tenant-keyed in-process cache (L1) in front of an optional shared cache (L2)
+ *
+ * <p><strong>Lookup order:</strong>
+ * <ol>
+ *   <li>L1: bounded LRU map with a short TTL, keyed by tenant + key</li>
+ *   <li>L2: Spring {@link Cache} (Redisson when <code>redis.enabled=true</code>), if configured</li>
+ *   <li>Loader (database), at most once per tenant + key at a time (single-flight)</li>
+ * </ol>
+ *
+ * <p><strong>Invalidation:</strong> {@link #invalidateTenant(String)} drops the tenant's L1 entries
+ * and in-flight loads, and bumps the tenant + cache generation in {@link TenantCacheGenerations}.
+ * L2 keys embed that namespace (<code>tenant:{tenantId}:{cacheName}:{namespace}:{key}</code>), so
+ * stale L2 entries are never read again and simply expire by TTL - no key scans. Tenant-wide
+ * evictions ({@link CacheInvalidationService#evictAllTenantCaches()}) reach L2 the same way.
+ *
+ * <p>A load that started before an invalidation still answers its waiting callers, but
+ * its result is not stored, so the next request reloads fresh data.
+ *
+ * @see com.estoquecentral.reporting.application.DashboardCache
+ */
+public class TwoLevelTenantCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelTenantCache.class);
+
+    private static final String PUBLIC_TENANT_KEY = "public";
+    private static final String KEY_SEPARATOR = ":";
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlMs;
+    private final Cache sharedCache;
+    private final TenantCacheGenerations generations;
+    private final LongSupplier clock;
+
+    /** Access-ordered L1 entries (LRU). Guarded by its own monitor. */
+    private final LinkedHashMap<String, Entry> localEntries;
+
+    private final Map<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> localGenerations = new ConcurrentHashMap<>();
+
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong sharedHits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    /**
+     * @param name        cache name (used in L2 keys and metrics)
+     * @param maxEntries  maximum L1 entries across all tenants
+     * @param ttlMs       L1 time to live in milliseconds
+     * @param sharedCache L2 cache, or null for L1 only
+     * @param generations namespace generations for L2 keys
+     */
+    public TwoLevelTenantCache(String name, int maxEntries, long ttlMs, Cache sharedCache,
+                               TenantCacheGenerations generations) {
+        this(name, maxEntries, ttlMs, sharedCache, generations, System::currentTimeMillis);
+    }
+
+    TwoLevelTenantCache(String name, int maxEntries, long ttlMs, Cache sharedCache,
+                        TenantCacheGenerations generations, LongSupplier clock) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.sharedCache = sharedCache;
+        this.generations = generations;
+        this.clock = clock;
+        this.localEntries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > TwoLevelTenantCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value for the current tenant, loading it on a miss.
+     *
+     * <p>Concurrent misses for the same tenant + key wait for a single load.
+     * Null results are returned but not cached.
+     *
+     * @param key    cache key within the tenant (e.g., "summary", "top-products-10")
+     * @param loader loads the value from the database
+     * @return the cached or freshly loaded value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        String tenantKey = currentTenantKey();
+        String localKey = tenantKey + KEY_SEPARATOR + key;
+
+        Object cached = getLocal(localKey);
+        if (cached != null) {
+            localHits.incrementAndGet();
+            return (T) cached;
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = inFlightLoads.putIfAbsent(localKey, load);
+        if (inFlight != null) {
+            return (T) await(inFlight);
+        }
+
+        try {
+            long generation = localGeneration(tenantKey).get();
+            Object value = loadShared(tenantKey, key, loader);
+            if (value != null && localGeneration(tenantKey).get() == generation) {
+                putLocal(localKey, value);
+            }
+            load.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(localKey, load);
+        }
+    }
+
+    /**
+     * Invalidates every entry of the given tenant on this node and in the shared cache.
+     *
+     * @param tenantKey tenant ID (or "public")
+     */
+    public void invalidateTenant(String tenantKey) {
+        invalidateLocal(tenantKey);
+
+        if (sharedCache != null) {
+            try {
+                generations.invalidateCache(tenantPrefix(tenantKey), name);
+            } catch (RuntimeException e) {
+                logger.warn("Could not bump shared cache generation for {} in '{}': {}",
+                        tenantKey, name, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Invalidates the tenant's entries on this node only (e.g., on a broadcast from another node).
+     *
+     * @param tenantKey tenant ID (or "public")
+     */
+    public void invalidateLocal(String tenantKey) {
+        localGeneration(tenantKey).incrementAndGet();
+
+        String prefix = tenantKey + KEY_SEPARATOR;
+        synchronized (localEntries) {
+            localEntries.keySet().removeIf(localKey -> localKey.startsWith(prefix));
+        }
+        // New requests must not join loads that started before the invalidation
+        inFlightLoads.keySet().removeIf(localKey -> localKey.startsWith(prefix));
+    }
+
+    /**
+     * @return the tenant key for the current {@link TenantContext}
+     */
+    public static String currentTenantKey() {
+        String tenantId = TenantContext.getTenantId();
+        return tenantId == null || tenantId.isBlank() ? PUBLIC_TENANT_KEY : tenantId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLocalSize() {
+        synchronized (localEntries) {
+            return localEntries.size();
+        }
+    }
+
+    public long getLocalHits() {
+        return localHits.get();
+    }
+
+    public long getSharedHits() {
+        return sharedHits.get();
+    }
+
+    public long getLoads() {
+        return loads.get();
+    }
+
+    private Object loadShared(String tenantKey, String key, Supplier<?> loader) {
+        String sharedKey = null;
+        if (sharedCache != null) {
+            try {
+                sharedKey = sharedKey(tenantKey, key);
+                Cache.ValueWrapper wrapper = sharedCache.get(sharedKey);
+                if (wrapper != null && wrapper.get() != null) {
+                    sharedHits.incrementAndGet();
+                    return wrapper.get();
+                }
+            } catch (RuntimeException e) {
+                // Shared cache outages must not break reads
+                logger.warn("Shared cache '{}' unavailable, loading from database: {}", name, e.getMessage());
+                sharedKey = null;
+            }
+        }
+
+        loads.incrementAndGet();
+        Object value = loader.get();
+
+        if (sharedKey != null && value != null) {
+            try {
+                sharedCache.put(sharedKey, value);
+            } catch (RuntimeException e) {
+                logger.warn("Could not store '{}' in shared cache '{}': {}", key, name, e.getMessage());
+            }
+        }
+        return value;
+    }
+
+    private String sharedKey(String tenantKey, String key) {
+        String tenantPrefix = tenantPrefix(tenantKey);
+        return tenantPrefix + KEY_SEPARATOR + name + KEY_SEPARATOR + generations.namespace(tenantPrefix, name)
+                + KEY_SEPARATOR + key;
+    }
+
+    private static String tenantPrefix(String tenantKey) {
+        return PUBLIC_TENANT_KEY.equals(tenantKey) ? PUBLIC_TENANT_KEY : "tenant:" + tenantKey;
+    }
+
+    private Object getLocal(String localKey) {
+        synchronized (localEntries) {
+            Entry entry = localEntries.get(localKey);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= clock.getAsLong()) {
+                localEntries.remove(localKey);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    private void putLocal(String localKey, Object value) {
+        synchronized (localEntries) {
+            localEntries.put(localKey, new Entry(value, clock.getAsLong() + ttlMs));
+        }
+    }
+
+    private AtomicLong localGeneration(String tenantKey) {
+        return localGenerations.computeIfAbsent(tenantKey, key -> new AtomicLong());
+    }
+
+    private static Object await(CompletableFuture<Object> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Entry(Object value, long expiresAt) {
+    }
+}
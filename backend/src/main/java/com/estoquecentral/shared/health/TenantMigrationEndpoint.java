@@ -0,0 +1,48 @@
+package com.estoquecentral.shared.health;
+
+import com.estoquecentral.shared.tenant.config.TenantSchemaMigrator;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tenant Migration Endpoint
+ *
+ * <p>Reports Flyway progress of tenant schemas from public.tenant_schema_migrations:
+ * counts per status, schemas not yet migrated (with last error) and the number of
+ * schemas still waiting for lazy migration on this node.
+ *
+ * <p>Endpoint: GET /actuator/tenantmigrations
+ *
+ * @see TenantSchemaMigrator
+ */
+@Component
+@Endpoint(id = "tenantmigrations")
+public class TenantMigrationEndpoint {
+
+    private final TenantSchemaMigrator tenantSchemaMigrator;
+
+    public TenantMigrationEndpoint(TenantSchemaMigrator tenantSchemaMigrator) {
+        this.tenantSchemaMigrator = tenantSchemaMigrator;
+    }
+
+    @ReadOperation
+    public Map<String, Object> migrationProgress() {
+        Map<String, Long> statusCounts = tenantSchemaMigrator.getStatusCounts();
+        List<Map<String, Object>> incomplete = tenantSchemaMigrator.getIncompleteSchemas();
+
+        long total = statusCounts.values().stream().mapToLong(Long::longValue).sum();
+
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("total", total);
+        progress.put("migrated", statusCounts.getOrDefault("MIGRATED", 0L));
+        progress.put("statusCounts", statusCounts);
+        progress.put("pendingOnThisNode", tenantSchemaMigrator.getPendingCount());
+        progress.put("incomplete", incomplete);
+        return progress;
+    }
+}
@@ -0,0 +1,139 @@
+package com.estoquecentral.shared.numbering;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * DocumentNumberService - Cluster-safe monthly document numbers
+ *
+ * <p>Numbers have the format <code>{PREFIX}-YYYYMM-0001</code> and restart every month,
+ * per tenant. They come from the <code>document_sequences</code> counters
+ * (see {@link DocumentSequenceRepository}), never from <code>MAX(number)</code>, so they are
+ * unique across threads and application instances.
+ *
+ * <p><strong>Modes:</strong>
+ * <ul>
+ *   <li><strong>Gap-tolerant (default):</strong> each node reserves a block of
+ *       <code>document-numbering.block-size</code> numbers in a short separate transaction
+ *       and hands them out from memory (hi/lo). Numbers are unique and increase per node, but
+ *       nodes interleave, and numbers reserved but not used (rollback, restart) are skipped.</li>
+ *   <li><strong>Gapless</strong> (<code>document-numbering.gapless-prefixes</code>): each
+ *       number is taken from the counter inside the caller's transaction, so a rollback
+ *       returns it. The counter row stays locked until the caller commits, which serializes
+ *       documents of that tenant and prefix.</li>
+ * </ul>
+ *
+ * <p>The first number of a month continues from the last number already issued (looked up
+ * once per counter), so existing documents are never duplicated.
+ */
+@Service
+public class DocumentNumberService {
+
+    private static final DateTimeFormatter PERIOD_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final DocumentSequenceRepository sequenceRepository;
+    private final TransactionOperations requiresNewTransaction;
+    private final int blockSize;
+    private final Set<String> gaplessPrefixes;
+    private final Clock clock;
+
+    /** Blocks reserved by this node, keyed by tenant + prefix + period. */
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DocumentNumberService(DocumentSequenceRepository sequenceRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${document-numbering.block-size:20}") int blockSize,
+                                 @Value("${document-numbering.gapless-prefixes:}") Set<String> gaplessPrefixes) {
+        this(sequenceRepository, requiresNew(transactionManager), blockSize, gaplessPrefixes, Clock.systemDefaultZone());
+    }
+
+    DocumentNumberService(DocumentSequenceRepository sequenceRepository,
+                          TransactionOperations requiresNewTransaction,
+                          int blockSize,
+                          Set<String> gaplessPrefixes,
+                          Clock clock) {
+        this.sequenceRepository = sequenceRepository;
+        this.requiresNewTransaction = requiresNewTransaction;
+        this.blockSize = Math.max(1, blockSize);
+        this.gaplessPrefixes = Set.copyOf(gaplessPrefixes);
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the next document number of the current month
+     *
+     * @param tenantId tenant ID
+     * @param prefix document prefix (e.g., "SALE")
+     * @param lastIssued finds the highest number already issued in a period (YYYYMM);
+     *                   used only when the month's counter does not exist yet
+     * @return document number, e.g. "SALE-202511-0001"
+     */
+    public String nextNumber(UUID tenantId, String prefix, Function<String, Optional<String>> lastIssued) {
+        String period = LocalDate.now(clock).format(PERIOD_FORMATTER);
+        long value = nextValue(tenantId, prefix, period, lastIssued);
+        return String.format("%s-%s-%04d", prefix, period, value);
+    }
+
+    private long nextValue(UUID tenantId, String prefix, String period,
+                           Function<String, Optional<String>> lastIssued) {
+        if (gaplessPrefixes.contains(prefix)) {
+            return allocate(tenantId, prefix, period, 1, lastIssued);
+        }
+
+        String key = tenantId + "|" + prefix + "|" + period;
+        Block block = blocks.get(key);
+        if (block == null) {
+            // New month: drop the blocks of previous periods
+            blocks.keySet().removeIf(existing -> !existing.endsWith("|" + period));
+            block = blocks.computeIfAbsent(key, k -> new Block());
+        }
+
+        synchronized (block) {
+            if (block.next >= block.end) {
+                Long start = requiresNewTransaction.execute(status ->
+                        allocate(tenantId, prefix, period, blockSize, lastIssued));
+                block.next = start;
+                block.end = start + blockSize;
+            }
+            return block.next++;
+        }
+    }
+
+    private long allocate(UUID tenantId, String prefix, String period, int count,
+                          Function<String, Optional<String>> lastIssued) {
+        return sequenceRepository.allocate(tenantId, prefix, period, count,
+                () -> lastIssued.apply(period).map(DocumentNumberService::sequenceOf).orElse(0L) + 1);
+    }
+
+    private static long sequenceOf(String documentNumber) {
+        return Long.parseLong(documentNumber.substring(documentNumber.lastIndexOf('-') + 1));
+    }
+
+    private static TransactionOperations requiresNew(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    /** Range [next, end) of reserved numbers not handed out yet. */
+    private static final class Block {
+        private long next;
+        private long end;
+    }
+}
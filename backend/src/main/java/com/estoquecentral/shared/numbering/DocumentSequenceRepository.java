@@ -0,0 +1,71 @@
+package com.estoquecentral.shared.numbering;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * DocumentSequenceRepository - Atomic access to the document_sequences counters
+ *
+ * <p>Each allocation is a single UPDATE (or INSERT ... ON CONFLICT for the first one of a
+ * period) that advances the counter and returns the first reserved value, so concurrent
+ * callers on any node always receive disjoint ranges.
+ *
+ * @see DocumentNumberService
+ */
+@Repository
+public class DocumentSequenceRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public DocumentSequenceRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reserves <code>count</code> consecutive values of a counter
+     *
+     * @param tenantId tenant ID
+     * @param prefix document prefix (e.g., "SALE")
+     * @param period period (YYYYMM)
+     * @param count number of values to reserve
+     * @param firstValue first value of a counter that does not exist yet (e.g., last
+     *                   number already issued + 1); only called on the first allocation
+     * @return first reserved value; the range is [result, result + count)
+     */
+    public long allocate(UUID tenantId, String prefix, String period, int count, LongSupplier firstValue) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("prefix", prefix)
+                .addValue("period", period)
+                .addValue("count", (long) count);
+
+        List<Long> updated = jdbcTemplate.queryForList("""
+                UPDATE document_sequences
+                   SET next_value = next_value + :count,
+                       updated_at = NOW()
+                 WHERE tenant_id = :tenantId
+                   AND prefix = :prefix
+                   AND period = :period
+                RETURNING next_value - :count
+                """, params, Long.class);
+        if (!updated.isEmpty()) {
+            return updated.get(0);
+        }
+
+        // First allocation of the period; another node may create the row concurrently
+        params.addValue("firstValue", firstValue.getAsLong());
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO document_sequences (tenant_id, prefix, period, next_value)
+                VALUES (:tenantId, :prefix, :period, :firstValue + :count)
+                ON CONFLICT (tenant_id, prefix, period) DO UPDATE
+                   SET next_value = document_sequences.next_value + :count,
+                       updated_at = NOW()
+                RETURNING next_value - :count
+                """, params, Long.class);
+    }
+}
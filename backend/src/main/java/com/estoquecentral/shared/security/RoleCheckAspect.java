@@ -1,7 +1,9 @@
 package com.estoquecentral.shared.security;
 
+import com.estoquecentral.auth.application.AuthPrincipalCache;
 import com.estoquecentral.auth.application.UserService;
 import com.estoquecentral.auth.domain.Role;
+import com.estoquecentral.shared.tenant.TenantContext;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
@@ -14,7 +16,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
-import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -28,7 +30,7 @@ import java.util.stream.Collectors;
  * <ol>
  *   <li>Intercepts method calls with @RequiresRole annotation</li>
  *   <li>Extracts userId from SecurityContext (set by JwtAuthenticationFilter)</li>
- *   <li>Fetches user's roles via UserService.getUserRoles()</li>
+ *   <li>Fetches user's roles via UserService.getUserRoles() (cached per tenant + user in AuthPrincipalCache)</li>
  *   <li>Compares user roles against required roles (OR or AND logic)</li>
  *   <li>Throws AccessDeniedException if validation fails</li>
  * </ol>
@@ -43,6 +45,7 @@ import java.util.stream.Collectors;
  *
  * @see RequiresRole
  * @see UserService
+ * @see AuthPrincipalCache
  */
 @Aspect
 @Component
@@ -51,10 +54,12 @@ public class RoleCheckAspect {
     private static final Logger logger = LoggerFactory.getLogger(RoleCheckAspect.class);
 
     private final UserService userService;
+    private final AuthPrincipalCache principalCache;
 
     @Autowired
-    public RoleCheckAspect(UserService userService) {
+    public RoleCheckAspect(UserService userService, AuthPrincipalCache principalCache) {
         this.userService = userService;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -89,11 +94,11 @@ public class RoleCheckAspect {
             throw new AccessDeniedException("Invalid user ID in authentication");
         }
 
-        // 3. Fetch user's roles from profile
-        List<Role> userRoles = userService.getUserRoles(userId);
-        List<String> roleNames = userRoles.stream()
-                .map(Role::getNome)
-                .collect(Collectors.toList());
+        // 3. Fetch user's roles from profile (cached per tenant + user)
+        Set<String> roleNames = principalCache.getRoles(TenantContext.getTenantId(), userId,
+                () -> userService.getUserRoles(userId).stream()
+                        .map(Role::getNome)
+                        .collect(Collectors.toUnmodifiableSet()));
 
         logger.debug("User {} has roles: {}", userId, roleNames);
 
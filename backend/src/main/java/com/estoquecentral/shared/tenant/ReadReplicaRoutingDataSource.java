@@ -0,0 +1,213 @@
+package com.estoquecentral.shared.tenant;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * ReadReplicaRoutingDataSource - Sends read-only transactions to a streaming replica
+ *
+ * <p>Built on {@link LazyConnectionDataSourceProxy}: the physical connection is only fetched
+ * on first use, after <code>@Transactional(readOnly = true)</code> has marked it read-only,
+ * so read-only transactions can be served by the replica pool.
+ *
+ * <p><strong>Routing:</strong>
+ * <ul>
+ *   <li>Read-write (or non-transactional) work → primary {@link TenantAwareDataSource}</li>
+ *   <li>Read-only transactions → replica {@link TenantAwareDataSource}, unless the
+ *       {@link ReplicaStalenessGuard} reports the replica lagging or the tenant wrote recently</li>
+ *   <li>Replica connection failures → primary (reads never fail because of the replica)</li>
+ * </ul>
+ * Both pools wrap their connections in {@link TenantAwareDataSource}, so the tenant
+ * search_path is applied exactly the same way on the replica.
+ *
+ * <p><strong>Read-your-writes:</strong> A primary checkout inside a read-write transaction
+ * registers an after-commit callback that marks the tenant as dirty in the guard; rolled-back
+ * transactions and non-transactional work do not pin the tenant to the primary. Read-only work
+ * joining a read-write transaction keeps using that transaction's primary connection.
+ *
+ * @see ReplicaStalenessGuard
+ * @see com.estoquecentral.shared.tenant.config.DataSourceConfig
+ */
+public class ReadReplicaRoutingDataSource extends LazyConnectionDataSourceProxy {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+
+    private static final String PUBLIC_TENANT_KEY = "public";
+
+    private static final String REPLICA_LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0)
+            END::BIGINT
+            """;
+
+    private final TenantAwareDataSource primaryDataSource;
+    private final TenantAwareDataSource replicaDataSource;
+    private final ReplicaStalenessGuard stalenessGuard;
+    private final JdbcTemplate replicaLagTemplate;
+
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryFallbackReads = new AtomicLong();
+    private final AtomicLong replicaFailures = new AtomicLong();
+
+    public ReadReplicaRoutingDataSource(TenantAwareDataSource primaryDataSource,
+                                        TenantAwareDataSource replicaDataSource,
+                                        ReplicaStalenessGuard stalenessGuard) {
+        this.primaryDataSource = primaryDataSource;
+        this.replicaDataSource = replicaDataSource;
+        this.stalenessGuard = stalenessGuard;
+        this.replicaLagTemplate = new JdbcTemplate(replicaDataSource.getTargetDataSource());
+
+        setTargetDataSource(new WriteTrackingDataSource(primaryDataSource));
+        setReadOnlyDataSource(new ReplicaOrPrimaryDataSource(replicaDataSource));
+        // Pool defaults: avoids fetching a connection just to discover them
+        setDefaultAutoCommit(true);
+        setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Propagates the lazy-migration callback to both pools.
+     *
+     * @see TenantAwareDataSource#setSchemaInitializer(Consumer)
+     */
+    public void setSchemaInitializer(Consumer<String> schemaInitializer) {
+        primaryDataSource.setSchemaInitializer(schemaInitializer);
+        replicaDataSource.setSchemaInitializer(schemaInitializer);
+    }
+
+    /**
+     * Samples the replica's replay lag and feeds it to the staleness guard.
+     * An unreachable replica is reported as {@link ReplicaStalenessGuard#UNKNOWN_LAG}.
+     */
+    public void refreshReplicaLag() {
+        try {
+            Long lagMs = replicaLagTemplate.queryForObject(REPLICA_LAG_SQL, Long.class);
+            stalenessGuard.updateReplicaLag(lagMs != null ? lagMs : ReplicaStalenessGuard.UNKNOWN_LAG);
+        } catch (Exception e) {
+            logger.debug("Could not sample read replica lag: {}", e.getMessage());
+            stalenessGuard.updateReplicaLag(ReplicaStalenessGuard.UNKNOWN_LAG);
+        }
+    }
+
+    /**
+     * Registers replica routing metrics with the given registry.
+     *
+     * <p>Publishes <code>tenant.datasource.replica.reads</code> (target=replica|primary),
+     * <code>tenant.datasource.replica.failures</code> and <code>tenant.datasource.replica.lag</code>.
+     *
+     * @param registry the meter registry
+     */
+    public void bindTo(MeterRegistry registry) {
+        primaryDataSource.bindTo(registry);
+        FunctionCounter.builder("tenant.datasource.replica.reads", replicaReads, AtomicLong::doubleValue)
+                .description("Read-only connection checkouts served by the read replica")
+                .tag("target", "replica")
+                .register(registry);
+        FunctionCounter.builder("tenant.datasource.replica.reads", primaryFallbackReads, AtomicLong::doubleValue)
+                .description("Read-only connection checkouts served by the primary (stale replica or recent write)")
+                .tag("target", "primary")
+                .register(registry);
+        FunctionCounter.builder("tenant.datasource.replica.failures", replicaFailures, AtomicLong::doubleValue)
+                .description("Replica connection failures that fell back to the primary")
+                .register(registry);
+        Gauge.builder("tenant.datasource.replica.lag", stalenessGuard, ReplicaStalenessGuard::getReplicaLagMs)
+                .description("Last sampled replica replay lag in milliseconds (-1 = unknown)")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    public ReplicaStalenessGuard getStalenessGuard() {
+        return stalenessGuard;
+    }
+
+    private static String currentTenantKey() {
+        String tenantId = TenantContext.getTenantId();
+        return tenantId == null || tenantId.isBlank() ? PUBLIC_TENANT_KEY : tenantId;
+    }
+
+    /**
+     * Primary path: marks the tenant as recently written once a read-write transaction commits.
+     */
+    private final class WriteTrackingDataSource extends DelegatingDataSource {
+
+        private WriteTrackingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            recordWrite();
+            return super.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            recordWrite();
+            return super.getConnection(username, password);
+        }
+
+        private void recordWrite() {
+            if (!TransactionSynchronizationManager.isActualTransactionActive()
+                    || TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    || !TransactionSynchronizationManager.isSynchronizationActive()) {
+                return;
+            }
+            String tenantKey = currentTenantKey();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stalenessGuard.recordWrite(tenantKey);
+                }
+            });
+        }
+    }
+
+    /**
+     * Read-only path: replica when the guard allows it, primary otherwise.
+     */
+    private final class ReplicaOrPrimaryDataSource extends DelegatingDataSource {
+
+        private ReplicaOrPrimaryDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (stalenessGuard.canReadFromReplica(currentTenantKey())) {
+                try {
+                    Connection connection = super.getConnection();
+                    replicaReads.incrementAndGet();
+                    return connection;
+                } catch (SQLException e) {
+                    replicaFailures.incrementAndGet();
+                    stalenessGuard.updateReplicaLag(ReplicaStalenessGuard.UNKNOWN_LAG);
+                    logger.warn("Read replica unavailable, falling back to primary: {}", e.getMessage());
+                }
+            }
+
+            primaryFallbackReads.incrementAndGet();
+            return primaryDataSource.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.estoquecentral.shared.tenant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * ReplicaStalenessGuard - Decides whether a read may be served by the read replica
+ *
+ * <p>A read goes to the replica only when:
+ * <ol>
+ *   <li>The last sampled replication lag is known and below <code>maxLagMs</code></li>
+ *   <li>The current tenant has not committed a write within <code>readYourWritesWindowMs</code></li>
+ * </ol>
+ * Otherwise the read falls back to the primary, so a POS terminal that just
+ * closed a sale always sees it on the next screen.
+ *
+ * <p>Writes are tracked per tenant (not per user): tenants share the same stock,
+ * so a sale from one terminal must be visible to the others immediately as well.
+ *
+ * @see ReadReplicaRoutingDataSource
+ */
+public class ReplicaStalenessGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaStalenessGuard.class);
+
+    /** Lag value meaning "not sampled yet / replica unreachable". */
+    public static final long UNKNOWN_LAG = -1;
+
+    private final long maxLagMs;
+    private final long readYourWritesWindowMs;
+    private final LongSupplier clock;
+
+    /** Last commit timestamp (clock millis) per tenant key. */
+    private final Map<String, Long> lastWriteByTenant = new ConcurrentHashMap<>();
+
+    private volatile long replicaLagMs = UNKNOWN_LAG;
+
+    public ReplicaStalenessGuard(long maxLagMs, long readYourWritesWindowMs) {
+        this(maxLagMs, readYourWritesWindowMs, System::currentTimeMillis);
+    }
+
+    ReplicaStalenessGuard(long maxLagMs, long readYourWritesWindowMs, LongSupplier clock) {
+        this.maxLagMs = maxLagMs;
+        this.readYourWritesWindowMs = readYourWritesWindowMs;
+        this.clock = clock;
+    }
+
+    /**
+     * @param tenantKey tenant schema (or "public")
+     * @return true if a read-only transaction for the tenant may use the replica
+     */
+    public boolean canReadFromReplica(String tenantKey) {
+        long lag = replicaLagMs;
+        if (lag == UNKNOWN_LAG || lag > maxLagMs) {
+            return false;
+        }
+
+        Long lastWrite = lastWriteByTenant.get(tenantKey);
+        return lastWrite == null || clock.getAsLong() - lastWrite > readYourWritesWindowMs;
+    }
+
+    /**
+     * Records a (committed) write for the tenant, pinning its reads to the primary
+     * for the read-your-writes window.
+     *
+     * @param tenantKey tenant schema (or "public")
+     */
+    public void recordWrite(String tenantKey) {
+        lastWriteByTenant.put(tenantKey, clock.getAsLong());
+    }
+
+    /**
+     * Stores the latest replication lag sample and drops expired write markers.
+     *
+     * @param lagMs replay lag in milliseconds, or {@link #UNKNOWN_LAG} if the replica is unreachable
+     */
+    public void updateReplicaLag(long lagMs) {
+        boolean wasHealthy = isReplicaHealthy();
+        this.replicaLagMs = lagMs;
+
+        if (wasHealthy != isReplicaHealthy()) {
+            if (isReplicaHealthy()) {
+                logger.info("Read replica is healthy (lag {}ms), routing read-only transactions to it", lagMs);
+            } else {
+                logger.warn("Read replica lag {}ms exceeds {}ms or replica unreachable, reading from primary",
+                        lagMs, maxLagMs);
+            }
+        }
+
+        long expiredBefore = clock.getAsLong() - readYourWritesWindowMs;
+        lastWriteByTenant.values().removeIf(lastWrite -> lastWrite < expiredBefore);
+    }
+
+    public boolean isReplicaHealthy() {
+        long lag = replicaLagMs;
+        return lag != UNKNOWN_LAG && lag <= maxLagMs;
+    }
+
+    /**
+     * @return last sampled replication lag in milliseconds, or {@link #UNKNOWN_LAG}
+     */
+    public long getReplicaLagMs() {
+        return replicaLagMs;
+    }
+}
@@ -0,0 +1,141 @@
+package com.estoquecentral.shared.tenant;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * SchemaAffinityDataSource - Wraps the physical connections a pool creates so each one carries
+ * the search_path it is bound to
+ *
+ * <p>Installed underneath the connection pool, so the wrapper lives as long as the physical
+ * connection and the pool's per-checkout proxies delegate to it. {@link TenantAwareDataSource}
+ * unwraps {@link BoundConnection} to skip redundant <code>SET search_path</code> statements.
+ *
+ * <p>The binding is client-side state, so it is dropped whenever the server state may differ:
+ * when any statement on the connection fails, and on rollback (a SET issued inside the
+ * transaction is undone, and pools roll back connections returned after an error).
+ *
+ * @see TenantAwareDataSource
+ */
+public class SchemaAffinityDataSource extends DelegatingDataSource {
+
+    public SchemaAffinityDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    /**
+     * Wraps a physical connection so it can carry its search_path binding.
+     *
+     * @param connection the physical connection
+     * @return a connection that also implements {@link BoundConnection}
+     */
+    public static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                SchemaAffinityDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class, BoundConnection.class},
+                new BoundConnectionHandler(connection));
+    }
+
+    /**
+     * search_path a physical connection is known to be bound to.
+     */
+    public interface BoundConnection {
+
+        /**
+         * @return the bound search_path, or null when unknown
+         */
+        String getBoundSearchPath();
+
+        /**
+         * @param searchPath the search_path now in effect, or null when unknown
+         */
+        void setBoundSearchPath(String searchPath);
+    }
+
+    private static final class BoundConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+        private volatile String boundSearchPath;
+
+        private BoundConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getBoundSearchPath":
+                    return boundSearchPath;
+                case "setBoundSearchPath":
+                    boundSearchPath = (String) args[0];
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "BoundConnection[" + boundSearchPath + "] " + target;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "rollback":
+                    boundSearchPath = null;
+                    break;
+                default:
+                    break;
+            }
+
+            Object result = invokeTarget(target, method, args);
+            if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                return Proxy.newProxyInstance(
+                        SchemaAffinityDataSource.class.getClassLoader(),
+                        new Class<?>[]{method.getReturnType()},
+                        (statementProxy, statementMethod, statementArgs) -> switch (statementMethod.getName()) {
+                            case "equals" -> statementProxy == statementArgs[0];
+                            case "hashCode" -> System.identityHashCode(statementProxy);
+                            default -> invokeTarget(statement, statementMethod, statementArgs);
+                        });
+            }
+            return result;
+        }
+
+        /**
+         * Invokes the method on the target, forgetting the binding if it fails with an SQLException
+         */
+        private Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                if (e.getTargetException() instanceof SQLException) {
+                    boundSearchPath = null;
+                }
+                throw e.getTargetException();
+            }
+        }
+    }
+}
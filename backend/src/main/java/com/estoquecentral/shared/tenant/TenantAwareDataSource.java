@@ -1,13 +1,23 @@
 package com.estoquecentral.shared.tenant;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import com.estoquecentral.shared.tenant.SchemaAffinityDataSource.BoundConnection;
 import org.springframework.jdbc.datasource.DelegatingDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * TenantAwareDataSource - Wraps a DataSource to set PostgreSQL search_path based on TenantContext
@@ -20,10 +30,31 @@ import java.sql.Statement;
  *   <li>Request arrives with X-Tenant-ID header</li>
  *   <li>TenantInterceptor sets tenant ID in TenantContext</li>
  *   <li>When connection is requested, this class gets it from delegate DataSource</li>
- *   <li>Executes: SET search_path TO tenant_{uuid}, public;</li>
+ *   <li>If the physical connection is already bound to the tenant schema, returns it as-is</li>
+ *   <li>Otherwise executes: SET search_path TO tenant_{uuid}, public; and remembers the binding</li>
  *   <li>Returns connection with correct schema</li>
  * </ol>
  *
+ * <p><strong>Schema affinity:</strong> When the pool's physical connections come from a
+ * {@link SchemaAffinityDataSource}, each one carries the search_path it is bound to, so pool
+ * proxies handed out on every checkout still see it. Bindings are only remembered when the
+ * SET runs in auto-commit mode, because a SET issued inside a transaction is reverted on
+ * rollback; the wrapper drops them on rollback and on any failed statement. Connections
+ * without the wrapper get a SET on every checkout.
+ *
+ * <p><strong>Prepared statements:</strong> When schema-scoped statements are enabled, the
+ * returned connection prefixes every prepared SQL with a <code>/* schema *&#47;</code> comment.
+ * The PostgreSQL driver keys its server-side statement cache by SQL text, so each schema gets
+ * its own named statements and a plan prepared for one tenant is never reused for another.
+ *
+ * <p><strong>Lazy migration:</strong> An optional schema initializer runs before a connection
+ * is checked out for a tenant schema, so schemas can be migrated on first use without holding
+ * a pooled connection (see FlywayMultiTenantConfig).
+ *
+ * <p><strong>Metrics:</strong> {@link #bindTo(MeterRegistry)} publishes
+ * <code>tenant.datasource.search_path</code> (outcome=hit|switch) and
+ * <code>tenant.datasource.search_path.hit_ratio</code>.
+ *
  * @see TenantContext
  * @see TenantRoutingDataSource
  */
@@ -31,53 +62,238 @@ public class TenantAwareDataSource extends DelegatingDataSource {
 
     private static final Logger logger = LoggerFactory.getLogger(TenantAwareDataSource.class);
 
+    private static final String PUBLIC_SEARCH_PATH = "public";
+
+    private final AtomicLong searchPathHits = new AtomicLong();
+    private final AtomicLong searchPathSwitches = new AtomicLong();
+
+    private boolean schemaScopedStatements = true;
+
+    private volatile Consumer<String> schemaInitializer;
+
     public TenantAwareDataSource(DataSource targetDataSource) {
         super(targetDataSource);
     }
 
+    /**
+     * Enables or disables schema-scoped prepared statements (enabled by default).
+     *
+     * @param schemaScopedStatements true to tag prepared SQL with the bound schema
+     */
+    public void setSchemaScopedStatements(boolean schemaScopedStatements) {
+        this.schemaScopedStatements = schemaScopedStatements;
+    }
+
+    /**
+     * Sets a callback invoked with the tenant schema name before a connection is bound to it.
+     *
+     * <p>The callback must be cheap when the schema is ready and must not obtain
+     * connections from this DataSource.
+     *
+     * @param schemaInitializer the initializer, or null to disable
+     */
+    public void setSchemaInitializer(Consumer<String> schemaInitializer) {
+        this.schemaInitializer = schemaInitializer;
+    }
+
     @Override
     public Connection getConnection() throws SQLException {
+        String schemaName = resolveSchemaName();
+        initializeSchema(schemaName);
         Connection connection = super.getConnection();
-        setSearchPath(connection);
-        return connection;
+        return bindSearchPath(connection, schemaName);
     }
 
     @Override
     public Connection getConnection(String username, String password) throws SQLException {
+        String schemaName = resolveSchemaName();
+        initializeSchema(schemaName);
         Connection connection = super.getConnection(username, password);
-        setSearchPath(connection);
-        return connection;
+        return bindSearchPath(connection, schemaName);
+    }
+
+    /**
+     * Registers search_path affinity metrics with the given registry.
+     *
+     * <p>Switches per second are derived from the rate of the outcome=switch counter.
+     *
+     * @param registry the meter registry
+     */
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("tenant.datasource.search_path", searchPathHits, AtomicLong::doubleValue)
+                .description("Connection checkouts already bound to the tenant schema")
+                .tag("outcome", "hit")
+                .register(registry);
+        FunctionCounter.builder("tenant.datasource.search_path", searchPathSwitches, AtomicLong::doubleValue)
+                .description("Connection checkouts that required SET search_path")
+                .tag("outcome", "switch")
+                .register(registry);
+        Gauge.builder("tenant.datasource.search_path.hit_ratio", this, TenantAwareDataSource::getSearchPathHitRatio)
+                .description("Share of connection checkouts that skipped SET search_path")
+                .register(registry);
+    }
+
+    /**
+     * @return number of checkouts that reused the connection's current search_path
+     */
+    public long getSearchPathHits() {
+        return searchPathHits.get();
+    }
+
+    /**
+     * @return number of checkouts that executed SET search_path
+     */
+    public long getSearchPathSwitches() {
+        return searchPathSwitches.get();
+    }
+
+    /**
+     * @return hits / (hits + switches), or 0 when no connection was checked out yet
+     */
+    public double getSearchPathHitRatio() {
+        long hits = searchPathHits.get();
+        long total = hits + searchPathSwitches.get();
+        return total == 0 ? 0.0 : (double) hits / total;
     }
 
     /**
-     * Sets the PostgreSQL search_path based on current TenantContext.
+     * Ensures the connection's search_path matches the current TenantContext.
      *
-     * <p>If tenant ID is set in context, sets search_path to "tenant_{uuid}, public"
-     * <p>If no tenant ID is set, sets search_path to "public" only
+     * <p>If tenant ID is set in context, the target is "tenant_{uuid}, public"
+     * <p>If no tenant ID is set, the target is "public" only
+     * <p>The SET statement is skipped when the physical connection is already bound to the target.
      *
      * @param connection the database connection
+     * @param schemaName the tenant schema, or "public"
+     * @return the connection to hand out (schema-scoped proxy when enabled)
      * @throws SQLException if SET search_path fails
      */
-    private void setSearchPath(Connection connection) throws SQLException {
+    private Connection bindSearchPath(Connection connection, String schemaName) throws SQLException {
+        String searchPath = PUBLIC_SEARCH_PATH.equals(schemaName)
+                ? PUBLIC_SEARCH_PATH
+                : schemaName + ", " + PUBLIC_SEARCH_PATH;
+
+        BoundConnection boundConnection = boundConnection(connection);
+
+        if (boundConnection != null && searchPath.equals(boundConnection.getBoundSearchPath())) {
+            searchPathHits.incrementAndGet();
+            logger.trace("Connection already bound to search_path: {}", searchPath);
+        } else {
+            setSearchPath(connection, searchPath);
+            searchPathSwitches.incrementAndGet();
+
+            if (boundConnection != null) {
+                // SET inside an open transaction is undone on rollback - do not trust it later
+                boundConnection.setBoundSearchPath(connection.getAutoCommit() ? searchPath : null);
+            }
+        }
+
+        return schemaScopedStatements ? schemaScoped(connection, schemaName) : connection;
+    }
+
+    /**
+     * Runs the schema initializer before a pooled connection is checked out, so a lazy
+     * migration never holds a connection of this pool while it runs.
+     */
+    private void initializeSchema(String schemaName) throws SQLException {
+        Consumer<String> initializer = schemaInitializer;
+        if (initializer == null || PUBLIC_SEARCH_PATH.equals(schemaName)) {
+            return;
+        }
+
+        try {
+            initializer.accept(schemaName);
+        } catch (RuntimeException e) {
+            throw new SQLException("Failed to initialize tenant schema: " + schemaName, e);
+        }
+    }
+
+    private String resolveSchemaName() {
         String tenantId = TenantContext.getTenantId();
 
-        String searchPath;
         if (tenantId == null || tenantId.isBlank()) {
             // No tenant context - use public schema
-            searchPath = "public";
-            logger.trace("Setting search_path to: public (no tenant context)");
-        } else {
-            // Tenant context exists - set search_path to tenant schema + public fallback
-            String schemaName = "tenant_" + tenantId.replace("-", "");
-            searchPath = schemaName + ", public";
-            logger.trace("Setting search_path to: {} for tenant: {}", searchPath, tenantId);
+            return PUBLIC_SEARCH_PATH;
         }
 
+        // Tenant context exists - tenant schema + public fallback
+        return "tenant_" + tenantId.replace("-", "");
+    }
+
+    private void setSearchPath(Connection connection, String searchPath) throws SQLException {
+        logger.trace("Setting search_path to: {}", searchPath);
+
         try (Statement statement = connection.createStatement()) {
             statement.execute("SET search_path TO " + searchPath);
         } catch (SQLException e) {
+            BoundConnection boundConnection = boundConnection(connection);
+            if (boundConnection != null) {
+                boundConnection.setBoundSearchPath(null);
+            }
             logger.error("Failed to set search_path to: {}", searchPath, e);
             throw e;
         }
     }
+
+    /**
+     * Resolves the physical connection wrapper behind pool proxies, or null when there is none.
+     */
+    private BoundConnection boundConnection(Connection connection) {
+        try {
+            if (connection.isWrapperFor(BoundConnection.class)) {
+                return connection.unwrap(BoundConnection.class);
+            }
+        } catch (SQLException e) {
+            logger.trace("Could not unwrap BoundConnection, schema affinity disabled for this checkout", e);
+        }
+        return null;
+    }
+
+    private Connection schemaScoped(Connection connection, String schemaName) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new SchemaScopedConnectionHandler(connection, "/* " + schemaName + " */ "));
+    }
+
+    /**
+     * Prefixes prepared SQL with the schema comment so driver statement caches never
+     * share a server-side statement between schemas. Everything else is delegated.
+     */
+    private static final class SchemaScopedConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final String sqlPrefix;
+
+        private SchemaScopedConnectionHandler(Connection target, String sqlPrefix) {
+            this.target = target;
+            this.sqlPrefix = sqlPrefix;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "SchemaScopedConnection[" + sqlPrefix.trim() + "] " + target;
+                case "prepareStatement":
+                case "prepareCall":
+                    if (args != null && args.length > 0 && args[0] instanceof String sql) {
+                        args[0] = sqlPrefix + sql;
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
 }
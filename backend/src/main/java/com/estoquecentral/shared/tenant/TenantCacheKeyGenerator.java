@@ -1,9 +1,20 @@
 package com.estoquecentral.shared.tenant;
 
+import com.estoquecentral.shared.cache.TenantCacheGenerations;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * TenantCacheKeyGenerator - Generates cache keys with tenant isolation
@@ -13,20 +24,26 @@ import java.lang.reflect.Method;
  *
  * <p><strong>Key Format:</strong>
  * <pre>
- * tenant:{tenantId}:{cacheName}:{methodName}:{args}
+ * tenant:{tenantId}:g{tenantGeneration}.{cacheGeneration}:{className}:{methodName}:{args}
  * </pre>
  *
  * <p><strong>Examples:</strong>
  * <ul>
- *   <li>tenant:123e4567:products:findById:550e8400</li>
- *   <li>tenant:123e4567:users:findByEmail:admin@company.com</li>
- *   <li>tenant:123e4567:dashboard:getMetrics:2024-01-15</li>
+ *   <li>tenant:123e4567:g0.0:ProductService:findById:550e8400</li>
+ *   <li>tenant:123e4567:g2.5:UserService:findByEmail:admin@company.com</li>
  * </ul>
  *
+ * <p><strong>Namespace generations:</strong> The <code>g{n}.{m}</code> segment comes from
+ * {@link TenantCacheGenerations} (tenant-wide and per tenant + cache counters). Evicting a
+ * tenant or one of its caches increments a counter instead of deleting keys; stale entries
+ * are no longer addressed and expire by TTL. The cache name is taken from the method's
+ * {@link Cacheable}/{@link CachePut}/{@link CacheEvict} annotation (first name) or the
+ * class-level {@link CacheConfig}.
+ *
  * <p><strong>Public Schema Fallback:</strong>
  * If no tenant context is set (e.g., for tenant creation endpoint), uses "public" prefix:
  * <pre>
- * public:{cacheName}:{methodName}:{args}
+ * public:g{tenantGeneration}.{cacheGeneration}:{className}:{methodName}:{args}
  * </pre>
  *
  * <p><strong>Usage:</strong>
@@ -38,16 +55,33 @@ import java.lang.reflect.Method;
  * }</pre>
  *
  * @see TenantContext
- * @see CacheConfig
+ * @see com.estoquecentral.config.CacheConfig
  */
 @Component("tenantCacheKeyGenerator")
 public class TenantCacheKeyGenerator implements KeyGenerator {
 
+    private final TenantCacheGenerations generations;
+
+    /** Cache name per cached method (annotation lookup is reflective, so memoize it). */
+    private final Map<Method, Optional<String>> cacheNames = new ConcurrentHashMap<>();
+
+    /**
+     * Uses in-memory generations (tests, no Redis).
+     */
+    public TenantCacheKeyGenerator() {
+        this(new TenantCacheGenerations());
+    }
+
+    @Autowired
+    public TenantCacheKeyGenerator(TenantCacheGenerations generations) {
+        this.generations = generations;
+    }
+
     /**
      * Generates a cache key with tenant isolation.
      *
      * <p>The generated key follows the pattern:
-     * <pre>tenant:{tenantId}:{cacheName}:{methodName}:{arg1}:{arg2}:...</pre>
+     * <pre>tenant:{tenantId}:g{n}.{m}:{className}:{methodName}:{arg1}:{arg2}:...</pre>
      *
      * <p>If multiple arguments are provided, they are joined with colons.
      * If no arguments are provided, only tenant:cacheName:methodName is used.
@@ -59,17 +93,17 @@ public class TenantCacheKeyGenerator implements KeyGenerator {
      */
     @Override
     public Object generate(Object target, Method method, Object... params) {
-        // Get current tenant ID from context
-        String tenantId = TenantContext.getTenantId();
-
         // Use "public" prefix if no tenant context (e.g., tenant creation endpoints)
-        String tenantPrefix = (tenantId != null && !tenantId.isBlank())
-                ? "tenant:" + tenantId
-                : "public";
+        String tenantPrefix = currentTenantPrefix();
+        String cacheName = cacheNames
+                .computeIfAbsent(method, key -> resolveCacheName(target, method))
+                .orElse(null);
 
-        // Build cache key: tenant:{id}:{className}:{methodName}:{args}
+        // Build cache key: tenant:{id}:g{n}.{m}:{className}:{methodName}:{args}
         StringBuilder keyBuilder = new StringBuilder(tenantPrefix);
         keyBuilder.append(":");
+        keyBuilder.append(generations.namespace(tenantPrefix, cacheName));
+        keyBuilder.append(":");
         keyBuilder.append(target.getClass().getSimpleName());
         keyBuilder.append(":");
         keyBuilder.append(method.getName());
@@ -86,20 +120,29 @@ public class TenantCacheKeyGenerator implements KeyGenerator {
     }
 
     /**
-     * Generates a simple cache key for a specific cache name.
-     * Useful for programmatic cache operations.
+     * Generates a cache key in the current namespace of the tenant's cache.
+     * Use this for programmatic cache reads, writes and single-entry evictions.
+     *
+     * @param cacheName the cache name
+     * @param keys the key components
+     * @return the generated key: tenant:{tenantId}:g{n}.{m}:{cacheName}:{keys}
+     */
+    public String generateVersionedKey(String cacheName, Object... keys) {
+        String tenantPrefix = currentTenantPrefix();
+        String namespacedPrefix = tenantPrefix + ":" + generations.namespace(tenantPrefix, cacheName);
+        return namespacedPrefix + generateKey(cacheName, keys).substring(tenantPrefix.length());
+    }
+
+    /**
+     * Generates a simple (unversioned) cache key for a specific cache name.
      *
      * @param cacheName the cache name
      * @param keys the key components
      * @return the generated cache key with tenant prefix
+     * @see #generateVersionedKey(String, Object...)
      */
     public static String generateKey(String cacheName, Object... keys) {
-        String tenantId = TenantContext.getTenantId();
-        String tenantPrefix = (tenantId != null && !tenantId.isBlank())
-                ? "tenant:" + tenantId
-                : "public";
-
-        StringBuilder keyBuilder = new StringBuilder(tenantPrefix);
+        StringBuilder keyBuilder = new StringBuilder(currentTenantPrefix());
         keyBuilder.append(":");
         keyBuilder.append(cacheName);
 
@@ -114,8 +157,9 @@ public class TenantCacheKeyGenerator implements KeyGenerator {
     }
 
     /**
-     * Generates a pattern for cache eviction (supports wildcards).
-     * Used for invalidating multiple cache entries at once.
+     * Generates a key pattern (supports wildcards) for diagnostics.
+     *
+     * <p>Eviction no longer uses patterns: see {@link TenantCacheGenerations}.
      *
      * <p>Examples:
      * <pre>
@@ -127,11 +171,37 @@ public class TenantCacheKeyGenerator implements KeyGenerator {
      * @return the cache key pattern with tenant prefix
      */
     public static String generatePattern(String cacheName) {
+        return currentTenantPrefix() + ":" + cacheName + ":*";
+    }
+
+    /**
+     * @return "tenant:{tenantId}" for the current TenantContext, or "public" when none is set
+     */
+    public static String currentTenantPrefix() {
         String tenantId = TenantContext.getTenantId();
-        String tenantPrefix = (tenantId != null && !tenantId.isBlank())
+        return (tenantId != null && !tenantId.isBlank())
                 ? "tenant:" + tenantId
                 : "public";
+    }
 
-        return tenantPrefix + ":" + cacheName + ":*";
+    private static Optional<String> resolveCacheName(Object target, Method method) {
+        Cacheable cacheable = AnnotatedElementUtils.findMergedAnnotation(method, Cacheable.class);
+        if (cacheable != null && cacheable.cacheNames().length > 0) {
+            return Optional.of(cacheable.cacheNames()[0]);
+        }
+        CachePut cachePut = AnnotatedElementUtils.findMergedAnnotation(method, CachePut.class);
+        if (cachePut != null && cachePut.cacheNames().length > 0) {
+            return Optional.of(cachePut.cacheNames()[0]);
+        }
+        CacheEvict cacheEvict = AnnotatedElementUtils.findMergedAnnotation(method, CacheEvict.class);
+        if (cacheEvict != null && cacheEvict.cacheNames().length > 0) {
+            return Optional.of(cacheEvict.cacheNames()[0]);
+        }
+        CacheConfig cacheConfig = AnnotatedElementUtils.findMergedAnnotation(
+                AopUtils.getTargetClass(target), CacheConfig.class);
+        if (cacheConfig != null && cacheConfig.cacheNames().length > 0) {
+            return Optional.of(cacheConfig.cacheNames()[0]);
+        }
+        return Optional.empty();
     }
 }
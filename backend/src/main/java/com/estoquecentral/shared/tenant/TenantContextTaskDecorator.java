@@ -0,0 +1,51 @@
+package com.estoquecentral.shared.tenant;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * TenantContextTaskDecorator - Carries the caller's tenant and security context into pool threads
+ *
+ * <p>{@link TenantContext} and the Spring Security context are ThreadLocals, so work handed to
+ * an executor would otherwise run without a tenant (wrong search_path) and unauthenticated.
+ * The decorator captures both when the task is submitted, installs them around the task and
+ * restores the worker's previous state afterwards, so pooled threads never keep a tenant.
+ *
+ * <p><strong>Usage:</strong>
+ * <pre>{@code
+ * ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+ * executor.setTaskDecorator(new TenantContextTaskDecorator());
+ * }</pre>
+ *
+ * @see TenantContext
+ */
+public class TenantContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        String tenantId = TenantContext.getTenantId();
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+
+        return () -> {
+            String previousTenantId = TenantContext.getTenantId();
+            SecurityContext previousSecurityContext = SecurityContextHolder.getContext();
+            try {
+                setTenant(tenantId);
+                SecurityContextHolder.setContext(securityContext);
+                runnable.run();
+            } finally {
+                setTenant(previousTenantId);
+                SecurityContextHolder.setContext(previousSecurityContext);
+            }
+        };
+    }
+
+    private static void setTenant(String tenantId) {
+        if (tenantId != null) {
+            TenantContext.setTenantId(tenantId);
+        } else {
+            TenantContext.clear();
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package com.estoquecentral.shared.tenant.config;
 
+import com.estoquecentral.shared.tenant.ReadReplicaRoutingDataSource;
+import com.estoquecentral.shared.tenant.ReplicaStalenessGuard;
+import com.estoquecentral.shared.tenant.SchemaAffinityDataSource;
 import com.estoquecentral.shared.tenant.TenantRoutingDataSource;
 import com.estoquecentral.shared.tenant.TenantAwareDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
@@ -11,6 +18,7 @@ import org.springframework.context.annotation.Primary;
 // import org.springframework.data.jdbc.repository.config.EnableJdbcRepositories;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import javax.sql.DataSource;
 import java.util.HashMap;
@@ -33,7 +41,12 @@ import java.util.Map;
  *   <li><strong>tenant_{uuid}</strong>: Contains all business tables for that tenant</li>
  * </ul>
  *
+ * <p><strong>Read replica:</strong> When <code>tenant.datasource.replica.url</code> is set,
+ * read-only transactions are routed to a streaming replica through
+ * {@link ReadReplicaRoutingDataSource}, with the same search_path handling as the primary.
+ *
  * @see TenantRoutingDataSource
+ * @see ReadReplicaRoutingDataSource
  * @see com.estoquecentral.shared.tenant.TenantContext
  */
 @Configuration
@@ -42,6 +55,21 @@ public class DataSourceConfig {
 
     private final DataSourceProperties dataSourceProperties;
 
+    @Value("${tenant.datasource.replica.url:}")
+    private String replicaUrl;
+
+    @Value("${tenant.datasource.replica.username:}")
+    private String replicaUsername;
+
+    @Value("${tenant.datasource.replica.password:}")
+    private String replicaPassword;
+
+    @Value("${tenant.datasource.replica.max-lag-ms:1000}")
+    private long replicaMaxLagMs;
+
+    @Value("${tenant.datasource.replica.read-your-writes-window-ms:5000}")
+    private long readYourWritesWindowMs;
+
     @Autowired
     public DataSourceConfig(DataSourceProperties dataSourceProperties) {
         this.dataSourceProperties = dataSourceProperties;
@@ -61,12 +89,34 @@ public class DataSourceConfig {
      */
     @Bean(name = "defaultDataSource")
     public DataSource defaultDataSource() {
-        return DataSourceBuilder.create()
+        return pool(dataSourceProperties.getUrl(), dataSourceProperties.getUsername(), dataSourceProperties.getPassword());
+    }
+
+    /**
+     * Creates a small dedicated pool for tenant Flyway runs.
+     *
+     * <p>Lazy migrations start from a connection checkout on the main pool, so Flyway must not
+     * compete with request threads for the same connections. Sized for
+     * <code>tenant.migration.parallelism</code> concurrent runs of up to two connections each
+     * (see {@link TenantSchemaMigrator}); idle connections are released.
+     *
+     * @param parallelism concurrent Flyway runs
+     * @return the migration DataSource
+     */
+    @Bean(name = "tenantMigrationDataSource")
+    public DataSource tenantMigrationDataSource(@Value("${tenant.migration.parallelism:4}") int parallelism) {
+        HikariDataSource pool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
                 .url(dataSourceProperties.getUrl())
                 .username(dataSourceProperties.getUsername())
                 .password(dataSourceProperties.getPassword())
                 .driverClassName(dataSourceProperties.getDriverClassName())
                 .build();
+        pool.setPoolName("tenant-migration");
+        pool.setMaximumPoolSize(2 * Math.max(1, parallelism));
+        pool.setMinimumIdle(0);
+        pool.setIdleTimeout(60_000);
+        return pool;
     }
 
     /**
@@ -88,20 +138,90 @@ public class DataSourceConfig {
      * <p><strong>Note:</strong> Target datasources are configured with the same
      * physical connection pool. The only difference is the search_path setting.
      *
+     * <p><strong>Schema affinity:</strong> search_path is only re-issued when the pooled
+     * connection was last bound to a different schema, and prepared statements are scoped
+     * per schema unless <code>tenant.datasource.schema-scoped-statements=false</code>.
+     *
+     * <p><strong>Read replica:</strong> With <code>tenant.datasource.replica.url</code> set, the
+     * tenant-aware primary and replica pools are combined in a {@link ReadReplicaRoutingDataSource}
+     * that serves <code>@Transactional(readOnly = true)</code> work from the replica.
+     *
      * @param defaultDataSource the default DataSource
+     * @param schemaScopedStatements whether prepared statements are tagged with the tenant schema
      * @return the configured TenantRoutingDataSource
      */
     @Primary
     @Bean(name = "dataSource")
-    public DataSource dataSource(DataSource defaultDataSource) {
+    public DataSource dataSource(
+            @Qualifier("defaultDataSource") DataSource defaultDataSource,
+            @Value("${tenant.datasource.schema-scoped-statements:true}") boolean schemaScopedStatements) {
         // Wrap the defaultDataSource with TenantAwareDataSource to set search_path
         TenantAwareDataSource tenantAwareDataSource = new TenantAwareDataSource(defaultDataSource);
+        tenantAwareDataSource.setSchemaScopedStatements(schemaScopedStatements);
 
         // The tenant-aware datasource will automatically set the PostgreSQL search_path
         // based on TenantContext whenever a connection is obtained
         // This ensures all queries run against the correct tenant schema
 
-        return tenantAwareDataSource;
+        if (replicaUrl == null || replicaUrl.isBlank()) {
+            return tenantAwareDataSource;
+        }
+
+        TenantAwareDataSource tenantAwareReplica = new TenantAwareDataSource(replicaDataSource());
+        tenantAwareReplica.setSchemaScopedStatements(schemaScopedStatements);
+
+        ReadReplicaRoutingDataSource routingDataSource = new ReadReplicaRoutingDataSource(
+                tenantAwareDataSource, tenantAwareReplica,
+                new ReplicaStalenessGuard(replicaMaxLagMs, readYourWritesWindowMs));
+        routingDataSource.refreshReplicaLag();
+        return routingDataSource;
+    }
+
+    /**
+     * Raw pool for the read replica (credentials default to the primary's).
+     */
+    private DataSource replicaDataSource() {
+        return pool(replicaUrl,
+                replicaUsername.isBlank() ? dataSourceProperties.getUsername() : replicaUsername,
+                replicaPassword.isBlank() ? dataSourceProperties.getPassword() : replicaPassword);
+    }
+
+    /**
+     * Connection pool whose physical connections carry their search_path binding
+     * (see {@link SchemaAffinityDataSource}).
+     */
+    private DataSource pool(String url, String username, String password) {
+        HikariDataSource pool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .driverClassName(dataSourceProperties.getDriverClassName())
+                .build();
+        DriverManagerDataSource driver = new DriverManagerDataSource(url, username, password);
+        if (dataSourceProperties.getDriverClassName() != null) {
+            driver.setDriverClassName(dataSourceProperties.getDriverClassName());
+        }
+        pool.setDataSource(new SchemaAffinityDataSource(driver));
+        return pool;
+    }
+
+    /**
+     * Publishes search_path affinity metrics (schema switches and hit ratio),
+     * plus replica routing and lag metrics when a read replica is configured.
+     *
+     * @param dataSource the tenant-aware DataSource
+     * @return binder registering the TenantAwareDataSource meters
+     */
+    @Bean
+    public MeterBinder tenantSearchPathMetrics(@Qualifier("dataSource") DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof TenantAwareDataSource tenantAwareDataSource) {
+                tenantAwareDataSource.bindTo(registry);
+            } else if (dataSource instanceof ReadReplicaRoutingDataSource replicaRoutingDataSource) {
+                replicaRoutingDataSource.bindTo(registry);
+            }
+        };
     }
 
     /**
@@ -1,16 +1,24 @@
 package com.estoquecentral.shared.tenant.config;
 
 import com.estoquecentral.auth.adapter.out.TenantRepository;
+import com.estoquecentral.shared.tenant.ReadReplicaRoutingDataSource;
+import com.estoquecentral.shared.tenant.TenantAwareDataSource;
 import jakarta.annotation.PostConstruct;
-import org.flywaydb.core.Flyway;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * FlywayMultiTenantConfig - Manages Flyway migrations for multi-tenant schemas
@@ -32,6 +40,17 @@ import java.util.List;
  *     └── V002__create_tenant_schema.sql   (applied to each tenant schema)
  * </pre>
  *
+ * <p><strong>Startup Modes</strong> (<code>tenant.migration.mode</code>):
+ * <ul>
+ *   <li><strong>serial</strong>: migrates one schema after another (original behaviour)</li>
+ *   <li><strong>parallel</strong> (default): migrates schemas on a bounded worker pool
+ *       (<code>tenant.migration.parallelism</code>, each worker holds up to two pooled connections)</li>
+ *   <li><strong>lazy</strong>: the node becomes ready immediately; each schema is migrated
+ *       the first time a connection is requested for it</li>
+ * </ul>
+ * Progress is recorded in public.tenant_schema_migrations and exposed at
+ * <code>/actuator/tenantmigrations</code>.
+ *
  * <p><strong>Important:</strong> This configuration depends on Spring Boot's
  * default Flyway having already run (to create public.tenants table).
  *
@@ -44,13 +63,27 @@ public class FlywayMultiTenantConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(FlywayMultiTenantConfig.class);
 
+    static final String MODE_SERIAL = "serial";
+    static final String MODE_PARALLEL = "parallel";
+    static final String MODE_LAZY = "lazy";
+
     private final DataSource dataSource;
     private final TenantRepository tenantRepository;
+    private final TenantSchemaMigrator tenantSchemaMigrator;
+    private final String mode;
+    private final int parallelism;
 
     @Autowired
-    public FlywayMultiTenantConfig(DataSource dataSource, TenantRepository tenantRepository) {
+    public FlywayMultiTenantConfig(DataSource dataSource,
+                                   TenantRepository tenantRepository,
+                                   TenantSchemaMigrator tenantSchemaMigrator,
+                                   @Value("${tenant.migration.mode:parallel}") String mode,
+                                   @Value("${tenant.migration.parallelism:4}") int parallelism) {
         this.dataSource = dataSource;
         this.tenantRepository = tenantRepository;
+        this.tenantSchemaMigrator = tenantSchemaMigrator;
+        this.mode = mode.trim().toLowerCase();
+        this.parallelism = Math.max(1, parallelism);
     }
 
     /**
@@ -58,18 +91,15 @@ public class FlywayMultiTenantConfig {
      *
      * <p>This method is called automatically by Spring after bean initialization.
      * It discovers all active tenant schemas from public.tenants table and
-     * applies migrations from db/migration/tenant/ to each schema.
+     * applies migrations from db/migration/tenant/ to each schema, according
+     * to the configured mode.
      *
      * <p><strong>Execution Flow:</strong>
      * <ol>
      *   <li>Wait for default Flyway to create public.tenants table</li>
      *   <li>Query all schema names from public.tenants WHERE ativo=true</li>
-     *   <li>For each schema:
-     *     <ul>
-     *       <li>Configure Flyway with locations=classpath:db/migration/tenant</li>
-     *       <li>Run migrate() to apply V002__create_tenant_schema.sql</li>
-     *     </ul>
-     *   </li>
+     *   <li>serial/parallel: migrate every schema before the context finishes starting</li>
+     *   <li>lazy: register schemas as PENDING and hook migration into connection checkout</li>
      * </ol>
      *
      * <p><strong>Note:</strong> If a tenant schema already has migrations applied,
@@ -77,7 +107,7 @@ public class FlywayMultiTenantConfig {
      */
     @PostConstruct
     public void migrateTenantSchemas() {
-        logger.info("Starting multi-tenant Flyway migrations...");
+        logger.info("Starting multi-tenant Flyway migrations (mode: {})...", mode);
 
         try {
             // Retrieve all active tenant schema names
@@ -88,67 +118,112 @@ public class FlywayMultiTenantConfig {
                 return;
             }
 
-            logger.info("Found {} tenant schemas to migrate: {}", schemaNames.size(), schemaNames);
+            logger.info("Found {} tenant schemas to migrate", schemaNames.size());
 
-            // Migrate each tenant schema
-            int successCount = 0;
-            int skipCount = 0;
-            int failCount = 0;
+            switch (mode) {
+                case MODE_LAZY -> registerLazyMigration(schemaNames);
+                case MODE_SERIAL -> migrateSerially(schemaNames);
+                case MODE_PARALLEL -> migrateInParallel(schemaNames);
+                default -> throw new IllegalStateException("Unknown tenant.migration.mode: " + mode);
+            }
 
-            for (String schemaName : schemaNames) {
-                try {
-                    int migrationsApplied = migrateSingleTenantSchema(schemaName);
+        } catch (Exception e) {
+            logger.error("Failed to run multi-tenant Flyway migrations", e);
+            throw new RuntimeException("Multi-tenant migration failed", e);
+        }
+    }
 
-                    if (migrationsApplied > 0) {
-                        successCount++;
-                    } else {
-                        skipCount++;
-                    }
+    private void migrateSerially(List<String> schemaNames) {
+        MigrationTally tally = new MigrationTally();
 
-                } catch (Exception e) {
-                    failCount++;
-                    logger.error("Failed to migrate tenant schema: {}", schemaName, e);
+        for (String schemaName : schemaNames) {
+            try {
+                tally.record(tenantSchemaMigrator.migrate(schemaName));
+            } catch (Exception e) {
+                tally.failed++;
+                logger.error("Failed to migrate tenant schema: {}", schemaName, e);
+                // Continue with other schemas instead of failing completely
+            }
+        }
+
+        tally.log();
+    }
+
+    private void migrateInParallel(List<String> schemaNames) throws InterruptedException {
+        int workers = Math.min(parallelism, schemaNames.size());
+        ExecutorService executor = Executors.newFixedThreadPool(workers,
+                new CustomizableThreadFactory("tenant-migration-"));
+        long startTime = System.currentTimeMillis();
+
+        try {
+            List<Future<Integer>> futures = new ArrayList<>(schemaNames.size());
+            for (String schemaName : schemaNames) {
+                futures.add(executor.submit(() -> tenantSchemaMigrator.migrate(schemaName)));
+            }
+
+            MigrationTally tally = new MigrationTally();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    tally.record(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    tally.failed++;
+                    logger.error("Failed to migrate tenant schema: {}", schemaNames.get(i), e.getCause());
                     // Continue with other schemas instead of failing completely
                 }
             }
 
-            logger.info("Multi-tenant Flyway migrations completed: {} migrated, {} skipped, {} failed",
-                    successCount, skipCount, failCount);
+            logger.info("Parallel tenant migration finished in {}ms using {} workers",
+                    System.currentTimeMillis() - startTime, workers);
+            tally.log();
 
-            if (failCount > 0) {
-                logger.warn("Some tenant schemas failed to migrate. Check logs above for details.");
-            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-        } catch (Exception e) {
-            logger.error("Failed to run multi-tenant Flyway migrations", e);
-            throw new RuntimeException("Multi-tenant migration failed", e);
+    private void registerLazyMigration(List<String> schemaNames) {
+        tenantSchemaMigrator.registerPending(schemaNames);
+
+        if (dataSource instanceof TenantAwareDataSource tenantAwareDataSource) {
+            tenantAwareDataSource.setSchemaInitializer(tenantSchemaMigrator::ensureMigrated);
+            logger.info("Lazy tenant migration enabled: schemas migrate on first use");
+        } else if (dataSource instanceof ReadReplicaRoutingDataSource replicaRoutingDataSource) {
+            replicaRoutingDataSource.setSchemaInitializer(tenantSchemaMigrator::ensureMigrated);
+            logger.info("Lazy tenant migration enabled: schemas migrate on first use (primary and replica)");
+        } else {
+            logger.warn("DataSource is not tenant-aware; falling back to parallel migration");
+            try {
+                migrateInParallel(schemaNames);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while migrating tenant schemas", e);
+            }
         }
     }
 
     /**
-     * Runs Flyway migrations on a single tenant schema.
-     *
-     * @param schemaName the schema name (e.g., "tenant_a1b2c3d4...")
-     * @return number of migrations applied
+     * Counts migrated / skipped / failed schemas for the completion log line.
      */
-    private int migrateSingleTenantSchema(String schemaName) {
-        logger.debug("Migrating tenant schema: {}", schemaName);
-
-        Flyway flyway = Flyway.configure()
-                .dataSource(dataSource)
-                .schemas(schemaName)
-                .locations("classpath:db/migration/tenant")
-                .baselineOnMigrate(true)
-                .load();
+    private static final class MigrationTally {
+        private int successCount;
+        private int skipCount;
+        private int failed;
+
+        void record(int migrationsApplied) {
+            if (migrationsApplied > 0) {
+                successCount++;
+            } else {
+                skipCount++;
+            }
+        }
 
-        int migrationsApplied = flyway.migrate().migrationsExecuted;
+        void log() {
+            logger.info("Multi-tenant Flyway migrations completed: {} migrated, {} skipped, {} failed",
+                    successCount, skipCount, failed);
 
-        if (migrationsApplied > 0) {
-            logger.info("Applied {} migrations to schema: {}", migrationsApplied, schemaName);
-        } else {
-            logger.debug("No new migrations for schema: {} (already up-to-date)", schemaName);
+            if (failed > 0) {
+                logger.warn("Some tenant schemas failed to migrate. Check logs above for details.");
+            }
         }
-
-        return migrationsApplied;
     }
 }
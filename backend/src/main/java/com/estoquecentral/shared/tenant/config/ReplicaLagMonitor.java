@@ -0,0 +1,34 @@
+package com.estoquecentral.shared.tenant.config;
+
+import com.estoquecentral.shared.tenant.ReadReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * ReplicaLagMonitor - Periodically samples the read replica's replay lag
+ *
+ * <p>Feeds the {@link com.estoquecentral.shared.tenant.ReplicaStalenessGuard}; while the lag
+ * exceeds <code>tenant.datasource.replica.max-lag-ms</code> (or the replica is unreachable)
+ * read-only transactions stay on the primary. No-op when no replica is configured.
+ *
+ * @see ReadReplicaRoutingDataSource
+ */
+@Component
+public class ReplicaLagMonitor {
+
+    private final DataSource dataSource;
+
+    public ReplicaLagMonitor(@Qualifier("dataSource") DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Scheduled(fixedDelayString = "${tenant.datasource.replica.lag-check-interval-ms:1000}")
+    public void sampleReplicaLag() {
+        if (dataSource instanceof ReadReplicaRoutingDataSource replicaRoutingDataSource) {
+            replicaRoutingDataSource.refreshReplicaLag();
+        }
+    }
+}
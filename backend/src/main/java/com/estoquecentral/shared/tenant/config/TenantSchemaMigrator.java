@@ -0,0 +1,246 @@
+package com.estoquecentral.shared.tenant.config;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * TenantSchemaMigrator - Runs Flyway on tenant schemas and records progress
+ *
+ * <p>Used by {@link FlywayMultiTenantConfig} for serial, parallel and lazy startup modes.
+ * Every run is recorded in <code>public.tenant_schema_migrations</code>.
+ *
+ * <p><strong>Lazy mode:</strong> Schemas registered with {@link #registerPending(Collection)}
+ * are migrated by {@link #ensureMigrated(String)} the first time a connection is requested
+ * for them, before the request takes a pooled connection. A per-schema lock makes concurrent
+ * first requests wait for a single migration; across nodes Flyway's own schema history lock
+ * serializes the work.
+ *
+ * <p><strong>Important:</strong> Flyway and status writes use the dedicated
+ * <code>tenantMigrationDataSource</code>, never the tenant-aware pool, so migrating during a
+ * connection checkout cannot recurse or wait on connections held by requests. At most
+ * <code>tenant.migration.parallelism</code> Flyway runs (up to two connections each) execute at
+ * once, which that pool is sized for.
+ *
+ * @see FlywayMultiTenantConfig
+ * @see com.estoquecentral.shared.tenant.TenantAwareDataSource
+ */
+@Component
+public class TenantSchemaMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantSchemaMigrator.class);
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final DataSource migrationDataSource;
+    private final JdbcTemplate publicJdbcTemplate;
+    private final Semaphore runningMigrations;
+
+    private final Set<String> pendingSchemas = ConcurrentHashMap.newKeySet();
+    private final Map<String, ReentrantLock> schemaLocks = new ConcurrentHashMap<>();
+
+    public TenantSchemaMigrator(@Qualifier("tenantMigrationDataSource") DataSource migrationDataSource,
+                                @Value("${tenant.migration.parallelism:4}") int parallelism) {
+        this.migrationDataSource = migrationDataSource;
+        this.publicJdbcTemplate = new JdbcTemplate(migrationDataSource);
+        this.runningMigrations = new Semaphore(Math.max(1, parallelism));
+    }
+
+    /**
+     * Runs Flyway migrations on a single tenant schema and records the outcome.
+     *
+     * @param schemaName the schema name (e.g., "tenant_a1b2c3d4...")
+     * @return number of migrations applied
+     */
+    public int migrate(String schemaName) {
+        logger.debug("Migrating tenant schema: {}", schemaName);
+        runningMigrations.acquireUninterruptibly();
+        try {
+            return runMigration(schemaName);
+        } finally {
+            runningMigrations.release();
+        }
+    }
+
+    private int runMigration(String schemaName) {
+        markStarted(schemaName);
+
+        try {
+            Flyway flyway = Flyway.configure()
+                    .dataSource(migrationDataSource)
+                    .schemas(schemaName)
+                    .locations("classpath:db/migration/tenant")
+                    .baselineOnMigrate(true)
+                    .load();
+
+            MigrateResult result = flyway.migrate();
+            int migrationsApplied = result.migrationsExecuted;
+
+            MigrationInfo current = flyway.info().current();
+            markMigrated(schemaName, migrationsApplied,
+                    current != null ? current.getVersion().getVersion() : null);
+            pendingSchemas.remove(schemaName);
+
+            if (migrationsApplied > 0) {
+                logger.info("Applied {} migrations to schema: {}", migrationsApplied, schemaName);
+            } else {
+                logger.debug("No new migrations for schema: {} (already up-to-date)", schemaName);
+            }
+
+            return migrationsApplied;
+
+        } catch (RuntimeException e) {
+            markFailed(schemaName, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Registers schemas to be migrated on first use (lazy mode).
+     *
+     * <p>Only schemas without a status row are recorded as PENDING; existing rows keep their
+     * last outcome until the schema is migrated again.
+     *
+     * @param schemaNames tenant schemas discovered at startup
+     */
+    public void registerPending(Collection<String> schemaNames) {
+        pendingSchemas.addAll(schemaNames);
+
+        List<Object[]> batchArgs = schemaNames.stream()
+                .map(schemaName -> new Object[]{schemaName})
+                .toList();
+        publicJdbcTemplate.batchUpdate("""
+                INSERT INTO public.tenant_schema_migrations (schema_name, status, updated_at)
+                VALUES (?, 'PENDING', CURRENT_TIMESTAMP)
+                ON CONFLICT (schema_name) DO NOTHING
+                """, batchArgs);
+
+        logger.info("Registered {} tenant schemas for lazy migration", schemaNames.size());
+    }
+
+    /**
+     * Migrates the schema if it is still pending. Cheap no-op on the hot path.
+     *
+     * <p>Only schemas registered at startup are migrated, so an arbitrary tenant header
+     * can never make Flyway create a new schema.
+     *
+     * @param schemaName the schema about to be used
+     */
+    public void ensureMigrated(String schemaName) {
+        if (!pendingSchemas.contains(schemaName)) {
+            return;
+        }
+
+        ReentrantLock lock = schemaLocks.computeIfAbsent(schemaName, key -> new ReentrantLock());
+        lock.lock();
+        try {
+            if (pendingSchemas.contains(schemaName)) {
+                long startTime = System.currentTimeMillis();
+                migrate(schemaName);
+                logger.info("Lazily migrated tenant schema {} in {}ms",
+                        schemaName, System.currentTimeMillis() - startTime);
+            }
+        } finally {
+            lock.unlock();
+            if (!pendingSchemas.contains(schemaName)) {
+                schemaLocks.remove(schemaName, lock);
+            }
+        }
+    }
+
+    /**
+     * @return number of schemas still waiting for their first (lazy) migration on this node
+     */
+    public int getPendingCount() {
+        return pendingSchemas.size();
+    }
+
+    /**
+     * Reads migration progress for all tenant schemas.
+     *
+     * @return status counts keyed by status
+     */
+    public Map<String, Long> getStatusCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        publicJdbcTemplate.query(
+                "SELECT status, COUNT(*) AS total FROM public.tenant_schema_migrations GROUP BY status ORDER BY status",
+                rs -> {
+                    counts.put(rs.getString("status"), rs.getLong("total"));
+                });
+        return counts;
+    }
+
+    /**
+     * Reads schemas that are not fully migrated yet.
+     *
+     * @return rows with schema_name, status, current_version, error_message and timestamps
+     */
+    public List<Map<String, Object>> getIncompleteSchemas() {
+        return publicJdbcTemplate.queryForList("""
+                SELECT schema_name, status, current_version, migrations_applied,
+                       error_message, started_at, finished_at
+                FROM public.tenant_schema_migrations
+                WHERE status <> 'MIGRATED'
+                ORDER BY status, schema_name
+                """);
+    }
+
+    private void markStarted(String schemaName) {
+        recordStatus("""
+                INSERT INTO public.tenant_schema_migrations (schema_name, status, started_at, finished_at, updated_at)
+                VALUES (?, 'MIGRATING', CURRENT_TIMESTAMP, NULL, CURRENT_TIMESTAMP)
+                ON CONFLICT (schema_name) DO UPDATE
+                SET status = 'MIGRATING', started_at = CURRENT_TIMESTAMP, finished_at = NULL,
+                    error_message = NULL, updated_at = CURRENT_TIMESTAMP
+                """, schemaName);
+    }
+
+    private void markMigrated(String schemaName, int migrationsApplied, String version) {
+        recordStatus("""
+                UPDATE public.tenant_schema_migrations
+                SET status = 'MIGRATED', migrations_applied = ?, current_version = ?,
+                    finished_at = CURRENT_TIMESTAMP, updated_at = CURRENT_TIMESTAMP
+                WHERE schema_name = ?
+                """, migrationsApplied, version, schemaName);
+    }
+
+    private void markFailed(String schemaName, Exception e) {
+        String message = String.valueOf(e.getMessage());
+        if (message.length() > MAX_ERROR_LENGTH) {
+            message = message.substring(0, MAX_ERROR_LENGTH);
+        }
+        recordStatus("""
+                UPDATE public.tenant_schema_migrations
+                SET status = 'FAILED', error_message = ?,
+                    finished_at = CURRENT_TIMESTAMP, updated_at = CURRENT_TIMESTAMP
+                WHERE schema_name = ?
+                """, message, schemaName);
+    }
+
+    /**
+     * Status bookkeeping must never fail a migration (e.g. before V055 exists).
+     */
+    private void recordStatus(String sql, Object... args) {
+        try {
+            publicJdbcTemplate.update(sql, args);
+        } catch (Exception e) {
+            logger.warn("Could not record tenant migration status: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.estoquecentral.shared.tenant.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * TenantSchemaTemplateService - Provisions tenant schemas from a pre-migrated template
+ *
+ * <p>Replaying every tenant migration for each signup is slow and holds locks for
+ * seconds. This service keeps a "golden" template schema migrated to the latest
+ * version and creates tenant schemas from it in a single DDL pass
+ * (<code>public.clone_tenant_schema</code>, migration V056).
+ *
+ * <p><strong>Provisioning order:</strong>
+ * <ol>
+ *   <li>Claim a pre-cloned schema from the warm pool (FOR UPDATE SKIP LOCKED) and rename it</li>
+ *   <li>Otherwise clone the template schema</li>
+ *   <li>Run Flyway on the result - a no-op unless the template was behind</li>
+ * </ol>
+ * If the template is not ready yet, callers fall back to replaying migrations.
+ *
+ * <p><strong>Template refresh:</strong> The template is migrated by the pool refill job,
+ * holding an exclusive advisory lock that clone_tenant_schema takes in shared mode, so a
+ * node deploying new migrations never hands out a half-migrated copy.
+ *
+ * @see TenantSchemaMigrator
+ * @see com.estoquecentral.tenant.application.TenantProvisioner
+ * @see com.estoquecentral.company.application.CompanyTenantProvisioner
+ */
+@Service
+public class TenantSchemaTemplateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantSchemaTemplateService.class);
+
+    private static final String POOL_SCHEMA_PREFIX = "tenant_pool_";
+    private static final String TEMPLATE_LOCK_PREFIX = "tenant-template-lock:";
+    private static final String POOL_REFILL_LOCK = "tenant-schema-pool-refill";
+
+    private final TenantSchemaMigrator tenantSchemaMigrator;
+    private final JdbcTemplate publicJdbcTemplate;
+    private final TransactionTemplate requiresNewTransaction;
+    private final String templateSchema;
+    private final boolean cloneEnabled;
+    private final int warmPoolSize;
+
+    private volatile boolean templateReady;
+
+    public TenantSchemaTemplateService(
+            TenantSchemaMigrator tenantSchemaMigrator,
+            @Qualifier("defaultDataSource") DataSource defaultDataSource,
+            @Value("${tenant.provisioning.template-schema:tenant_template}") String templateSchema,
+            @Value("${tenant.provisioning.clone-enabled:true}") boolean cloneEnabled,
+            @Value("${tenant.provisioning.warm-pool-size:2}") int warmPoolSize) {
+        this.tenantSchemaMigrator = tenantSchemaMigrator;
+        this.publicJdbcTemplate = new JdbcTemplate(defaultDataSource);
+        this.requiresNewTransaction = new TransactionTemplate(new DataSourceTransactionManager(defaultDataSource));
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.templateSchema = templateSchema;
+        this.cloneEnabled = cloneEnabled;
+        this.warmPoolSize = Math.max(0, warmPoolSize);
+    }
+
+    /**
+     * Creates the tenant schema from the warm pool or the template.
+     *
+     * <p>The pool claim / clone commits in its own transaction so the follow-up
+     * Flyway run (separate connection) sees the new schema.
+     *
+     * @param schemaName target schema (tenant_{uuid_without_hyphens})
+     * @return true if the schema was provisioned, false if the caller must replay migrations
+     */
+    public boolean provisionFromTemplate(String schemaName) {
+        if (!cloneEnabled || !templateReady || schemaExists(schemaName)) {
+            return false;
+        }
+
+        long startTime = System.currentTimeMillis();
+
+        String pooledSchema = claimPooledSchema(schemaName);
+        if (pooledSchema != null) {
+            logger.info("Assigned warm pool schema {} as {}", pooledSchema, schemaName);
+        } else {
+            cloneFromTemplate(schemaName);
+        }
+
+        // Brings the copy up to date if the template lagged behind the deployed migrations
+        tenantSchemaMigrator.migrate(schemaName);
+
+        logger.info("Provisioned schema {} from template in {}ms ({})", schemaName,
+                System.currentTimeMillis() - startTime, pooledSchema != null ? "warm pool" : "clone");
+        return true;
+    }
+
+    /**
+     * Clones the template schema into a new schema in one transaction.
+     *
+     * @param schemaName the schema to create (must not exist)
+     */
+    public void cloneFromTemplate(String schemaName) {
+        requiresNewTransaction.executeWithoutResult(status ->
+                publicJdbcTemplate.queryForObject(
+                        "SELECT public.clone_tenant_schema(?, ?)::text", String.class, templateSchema, schemaName));
+        logger.debug("Cloned template schema {} into {}", templateSchema, schemaName);
+    }
+
+    /**
+     * Migrates the template schema to the latest version, blocking concurrent clones.
+     */
+    public void refreshTemplate() {
+        long startTime = System.currentTimeMillis();
+
+        publicJdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement lock = connection.prepareStatement("SELECT pg_advisory_lock(hashtext(?))")) {
+                lock.setString(1, TEMPLATE_LOCK_PREFIX + templateSchema);
+                lock.execute();
+            }
+            try {
+                tenantSchemaMigrator.migrate(templateSchema);
+            } finally {
+                try (PreparedStatement unlock = connection.prepareStatement("SELECT pg_advisory_unlock(hashtext(?))")) {
+                    unlock.setString(1, TEMPLATE_LOCK_PREFIX + templateSchema);
+                    unlock.execute();
+                }
+            }
+            return null;
+        });
+
+        templateReady = true;
+        logger.info("Tenant template schema {} is up to date ({}ms)", templateSchema,
+                System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Keeps the template current and the warm pool filled.
+     *
+     * <p>The first run refreshes the template; until then provisioning replays migrations.
+     * Only one node refills the pool at a time (advisory try-lock).
+     */
+    @Scheduled(initialDelayString = "${tenant.provisioning.pool-initial-delay-ms:15000}",
+               fixedDelayString = "${tenant.provisioning.pool-refill-interval-ms:60000}")
+    public void maintainWarmPool() {
+        if (!cloneEnabled) {
+            return;
+        }
+
+        try {
+            if (!templateReady) {
+                refreshTemplate();
+            }
+            if (warmPoolSize > 0) {
+                refillPool();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to maintain tenant template / warm pool", e);
+        }
+    }
+
+    /**
+     * @return number of unassigned schemas currently in the warm pool
+     */
+    public int getPoolSize() {
+        Integer count = publicJdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM public.tenant_schema_pool", Integer.class);
+        return count != null ? count : 0;
+    }
+
+    public boolean isTemplateReady() {
+        return templateReady;
+    }
+
+    private void refillPool() {
+        publicJdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean locked;
+            try (PreparedStatement lock = connection.prepareStatement("SELECT pg_try_advisory_lock(hashtext(?))")) {
+                lock.setString(1, POOL_REFILL_LOCK);
+                try (ResultSet rs = lock.executeQuery()) {
+                    locked = rs.next() && rs.getBoolean(1);
+                }
+            }
+            if (!locked) {
+                return null;
+            }
+
+            try {
+                int missing = warmPoolSize - getPoolSize();
+                for (int i = 0; i < missing; i++) {
+                    addPooledSchema();
+                }
+                if (missing > 0) {
+                    logger.info("Added {} schemas to the tenant warm pool", missing);
+                }
+            } finally {
+                try (PreparedStatement unlock = connection.prepareStatement("SELECT pg_advisory_unlock(hashtext(?))")) {
+                    unlock.setString(1, POOL_REFILL_LOCK);
+                    unlock.execute();
+                }
+            }
+            return null;
+        });
+    }
+
+    private void addPooledSchema() {
+        String pooledSchema = POOL_SCHEMA_PREFIX + UUID.randomUUID().toString().replace("-", "");
+
+        requiresNewTransaction.executeWithoutResult(status -> {
+            publicJdbcTemplate.queryForObject(
+                    "SELECT public.clone_tenant_schema(?, ?)::text", String.class, templateSchema, pooledSchema);
+            publicJdbcTemplate.update("""
+                    INSERT INTO public.tenant_schema_pool (schema_name, template_version)
+                    SELECT ?, MAX(current_version) FROM public.tenant_schema_migrations WHERE schema_name = ?
+                    """, pooledSchema, templateSchema);
+        });
+    }
+
+    /**
+     * Claims one pooled schema and renames it to the tenant schema in a single transaction.
+     *
+     * @return the pooled schema name, or null if the pool is empty
+     */
+    private String claimPooledSchema(String schemaName) {
+        if (warmPoolSize == 0) {
+            return null;
+        }
+
+        return requiresNewTransaction.execute(status -> {
+            List<String> claimed = publicJdbcTemplate.queryForList("""
+                    DELETE FROM public.tenant_schema_pool
+                    WHERE schema_name = (
+                        SELECT schema_name FROM public.tenant_schema_pool
+                        ORDER BY created_at
+                        LIMIT 1
+                        FOR UPDATE SKIP LOCKED
+                    )
+                    RETURNING schema_name
+                    """, String.class);
+
+            if (claimed.isEmpty()) {
+                return null;
+            }
+
+            String pooledSchema = claimed.get(0);
+            publicJdbcTemplate.execute("ALTER SCHEMA " + pooledSchema + " RENAME TO " + schemaName);
+            return pooledSchema;
+        });
+    }
+
+    private boolean schemaExists(String schemaName) {
+        Boolean exists = publicJdbcTemplate.queryForObject(
+                "SELECT EXISTS(SELECT 1 FROM pg_namespace WHERE nspname = ?)", Boolean.class, schemaName);
+        return Boolean.TRUE.equals(exists);
+    }
+}
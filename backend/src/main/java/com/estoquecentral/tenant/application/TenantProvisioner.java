@@ -1,5 +1,6 @@
 package com.estoquecentral.tenant.application;
 
+import com.estoquecentral.shared.tenant.config.TenantSchemaTemplateService;
 import org.flywaydb.core.Flyway;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,8 +21,8 @@ import java.util.UUID;
  * <p><strong>Provisioning Process:</strong></p>
  * <ol>
  *   <li>Generate unique schema name: tenant_{uuid_without_hyphens}</li>
- *   <li>Create PostgreSQL schema</li>
- *   <li>Apply Flyway migrations from db/migration/tenant/</li>
+ *   <li>Clone the pre-migrated template schema (or claim one from the warm pool)</li>
+ *   <li>Fallback: create PostgreSQL schema and apply Flyway migrations from db/migration/tenant/</li>
  *   <li>Seed default data (profiles, roles)</li>
  * </ol>
  *
@@ -41,10 +42,13 @@ public class TenantProvisioner {
 
     private final DataSource dataSource;
     private final JdbcTemplate jdbcTemplate;
+    private final TenantSchemaTemplateService tenantSchemaTemplateService;
 
-    public TenantProvisioner(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+    public TenantProvisioner(DataSource dataSource, JdbcTemplate jdbcTemplate,
+                             TenantSchemaTemplateService tenantSchemaTemplateService) {
         this.dataSource = dataSource;
         this.jdbcTemplate = jdbcTemplate;
+        this.tenantSchemaTemplateService = tenantSchemaTemplateService;
     }
 
     /**
@@ -67,13 +71,18 @@ public class TenantProvisioner {
             String schemaName = generateSchemaName(tenantId);
             logger.debug("Generated schema name: {}", schemaName);
 
-            // Step 2: Create PostgreSQL schema
-            createSchema(schemaName);
-            logger.debug("Created PostgreSQL schema: {}", schemaName);
-
-            // Step 3: Apply Flyway migrations
-            int migrationsApplied = applyMigrations(schemaName);
-            logger.debug("Applied {} migrations to schema: {}", migrationsApplied, schemaName);
+            // Step 2: Clone the pre-migrated template (single DDL pass)
+            if (tenantSchemaTemplateService.provisionFromTemplate(schemaName)) {
+                logger.debug("Cloned template into schema: {}", schemaName);
+            } else {
+                // Step 2b: Create PostgreSQL schema
+                createSchema(schemaName);
+                logger.debug("Created PostgreSQL schema: {}", schemaName);
+
+                // Step 3: Apply Flyway migrations
+                int migrationsApplied = applyMigrations(schemaName);
+                logger.debug("Applied {} migrations to schema: {}", migrationsApplied, schemaName);
+            }
 
             // Step 4: Seed default data (profiles will be seeded by migration)
             // Additional seeding can be done here if needed
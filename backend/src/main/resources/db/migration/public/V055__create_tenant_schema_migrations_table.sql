@@ -0,0 +1,47 @@
+-- ============================================================================
+-- Migration V055: Create Tenant Schema Migrations Table (Public Schema)
+-- ============================================================================
+-- Purpose: Tracks Flyway progress of every tenant schema
+--
+-- FlywayMultiTenantConfig migrates tenant schemas in parallel at startup or
+-- lazily on first use. This table records the state of each schema so the
+-- tenantmigrations actuator endpoint can report progress across all nodes.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS public.tenant_schema_migrations (
+    -- Tenant schema name (tenant_{uuid_without_hyphens})
+    schema_name VARCHAR(255) PRIMARY KEY,
+
+    -- PENDING | MIGRATING | MIGRATED | FAILED
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+
+    -- Latest Flyway version applied to the schema
+    current_version VARCHAR(50),
+
+    -- Number of migrations executed by the last run
+    migrations_applied INTEGER NOT NULL DEFAULT 0,
+
+    -- Last error message (FAILED only)
+    error_message TEXT,
+
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+
+    CONSTRAINT chk_tenant_schema_migrations_status
+        CHECK (status IN ('PENDING', 'MIGRATING', 'MIGRATED', 'FAILED'))
+);
+
+-- Index for progress summaries by status
+CREATE INDEX IF NOT EXISTS idx_tenant_schema_migrations_status
+ON public.tenant_schema_migrations(status);
+
+COMMENT ON TABLE public.tenant_schema_migrations IS
+'Flyway migration progress per tenant schema (startup parallel or lazy mode)';
+
+COMMENT ON COLUMN public.tenant_schema_migrations.status IS
+'PENDING, MIGRATING, MIGRATED or FAILED';
+
+-- ============================================================================
+-- END OF MIGRATION
+-- ============================================================================
@@ -0,0 +1,299 @@
+-- ============================================================================
+-- Migration V056: Tenant Schema Cloning (Public Schema)
+-- ============================================================================
+-- Purpose: Provision tenant schemas by cloning a pre-migrated template schema
+--
+-- Replaying every tenant migration (V001-V079) for each signup takes seconds
+-- and holds locks the whole time. TenantSchemaTemplateService keeps a
+-- "golden" template schema migrated to the latest version and creates new
+-- tenant schemas with public.clone_tenant_schema() in a single transaction.
+--
+-- public.tenant_schema_pool holds pre-cloned, unassigned schemas that are
+-- handed out with ALTER SCHEMA ... RENAME.
+-- ============================================================================
+
+-- ============================================================================
+-- Function: clone_tenant_schema(source_schema, target_schema)
+-- ============================================================================
+-- Copies sequences (with their current values), tables (columns, defaults,
+-- CHECK constraints, generated columns), table rows (seed data and
+-- flyway_schema_history), keys and indexes under their original names,
+-- functions, views, foreign keys and triggers. Column defaults drawing from
+-- a template sequence (serial columns) are pointed at the target's copy.
+-- Definitions are read while search_path points at the source schema so
+-- they come out unqualified, then replayed while search_path points at the
+-- target schema.
+-- ============================================================================
+CREATE OR REPLACE FUNCTION public.clone_tenant_schema(source_schema TEXT, target_schema TEXT)
+RETURNS VOID AS $$
+DECLARE
+    rec RECORD;
+    col RECORD;
+    column_list TEXT;
+    ddl TEXT;
+    key_ddl TEXT[] := ARRAY[]::TEXT[];
+    index_ddl TEXT[] := ARRAY[]::TEXT[];
+    function_ddl TEXT[] := ARRAY[]::TEXT[];
+    view_names TEXT[] := ARRAY[]::TEXT[];
+    view_defs TEXT[] := ARRAY[]::TEXT[];
+    view_created BOOLEAN[] := ARRAY[]::BOOLEAN[];
+    foreign_key_ddl TEXT[] := ARRAY[]::TEXT[];
+    trigger_ddl TEXT[] := ARRAY[]::TEXT[];
+    qualifier TEXT := '\m' || source_schema || '\.';
+    progress BOOLEAN;
+    i INTEGER;
+    original_search_path TEXT := current_setting('search_path');
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_namespace WHERE nspname = source_schema) THEN
+        RAISE EXCEPTION 'Template schema % does not exist', source_schema;
+    END IF;
+
+    -- Shared lock: template refresh takes the exclusive lock on the same key
+    PERFORM pg_advisory_xact_lock_shared(hashtext('tenant-template-lock:' || source_schema));
+
+    EXECUTE format('CREATE SCHEMA %I', target_schema);
+
+    -- Template objects read in step 1 come out qualified with the source schema
+    PERFORM set_config('search_path', 'public', true);
+
+    -- 1. Sequences (identity sequences come with their tables), then tables and rows
+    --    (indexes are built after the copy, keeping their original names)
+    FOR rec IN
+        SELECT c.relname, format_type(s.seqtypid, NULL) AS data_type, s.seqincrement, s.seqmin,
+               s.seqmax, s.seqstart, s.seqcache, s.seqcycle
+        FROM pg_sequence s
+        JOIN pg_class c ON c.oid = s.seqrelid
+        JOIN pg_namespace n ON n.oid = c.relnamespace
+        WHERE n.nspname = source_schema
+          AND NOT EXISTS (
+              SELECT 1 FROM pg_depend d
+              WHERE d.classid = 'pg_class'::regclass AND d.objid = c.oid AND d.deptype = 'i'
+          )
+        ORDER BY c.oid
+    LOOP
+        EXECUTE format('CREATE SEQUENCE %I.%I AS %s INCREMENT BY %s MINVALUE %s MAXVALUE %s START WITH %s CACHE %s %s',
+                       target_schema, rec.relname, rec.data_type, rec.seqincrement, rec.seqmin, rec.seqmax,
+                       rec.seqstart, rec.seqcache, CASE WHEN rec.seqcycle THEN 'CYCLE' ELSE 'NO CYCLE' END);
+        EXECUTE format('SELECT setval(%L, last_value, is_called) FROM %I.%I',
+                       format('%I.%I', target_schema, rec.relname), source_schema, rec.relname);
+    END LOOP;
+
+    FOR rec IN
+        SELECT c.oid, c.relname
+        FROM pg_class c
+        JOIN pg_namespace n ON n.oid = c.relnamespace
+        WHERE n.nspname = source_schema AND c.relkind = 'r'
+        ORDER BY c.oid
+    LOOP
+        EXECUTE format('CREATE TABLE %I.%I (LIKE %I.%I INCLUDING ALL EXCLUDING INDEXES)',
+                       target_schema, rec.relname, source_schema, rec.relname);
+
+        -- LIKE copies defaults verbatim: nextval() would still draw from the template
+        FOR col IN
+            SELECT a.attname, pg_get_expr(d.adbin, d.adrelid) AS expression
+            FROM pg_attrdef d
+            JOIN pg_attribute a ON a.attrelid = d.adrelid AND a.attnum = d.adnum
+            WHERE d.adrelid = rec.oid
+              AND a.attgenerated = ''
+              AND pg_get_expr(d.adbin, d.adrelid) ~ qualifier
+        LOOP
+            EXECUTE format('ALTER TABLE %I.%I ALTER COLUMN %I SET DEFAULT %s',
+                           target_schema, rec.relname, col.attname,
+                           regexp_replace(col.expression, qualifier, target_schema || '.', 'g'));
+        END LOOP;
+
+        SELECT string_agg(quote_ident(a.attname), ', ' ORDER BY a.attnum)
+        INTO column_list
+        FROM pg_attribute a
+        WHERE a.attrelid = rec.oid
+          AND a.attnum > 0
+          AND NOT a.attisdropped
+          AND a.attgenerated = '';
+
+        EXECUTE format('INSERT INTO %I.%I (%s) OVERRIDING SYSTEM VALUE SELECT %s FROM %I.%I',
+                       target_schema, rec.relname, column_list, column_list, source_schema, rec.relname);
+
+        -- LIKE gives identity columns new sequences that start over: carry the template's position
+        FOR col IN
+            SELECT a.attname
+            FROM pg_attribute a
+            WHERE a.attrelid = rec.oid
+              AND a.attidentity <> ''
+              AND NOT a.attisdropped
+        LOOP
+            EXECUTE format('SELECT setval(%L, last_value, is_called) FROM %s',
+                           pg_get_serial_sequence(format('%I.%I', target_schema, rec.relname), col.attname),
+                           pg_get_serial_sequence(format('%I.%I', source_schema, rec.relname), col.attname));
+        END LOOP;
+    END LOOP;
+
+    -- Serial sequences stay owned by their column (dropped with it)
+    FOR rec IN
+        SELECT s.relname AS sequence_name, t.relname AS table_name, a.attname
+        FROM pg_depend d
+        JOIN pg_class s ON s.oid = d.objid AND s.relkind = 'S'
+        JOIN pg_namespace n ON n.oid = s.relnamespace
+        JOIN pg_class t ON t.oid = d.refobjid
+        JOIN pg_attribute a ON a.attrelid = t.oid AND a.attnum = d.refobjsubid
+        WHERE n.nspname = source_schema
+          AND d.classid = 'pg_class'::regclass
+          AND d.refclassid = 'pg_class'::regclass
+          AND d.deptype = 'a'
+    LOOP
+        EXECUTE format('ALTER SEQUENCE %I.%I OWNED BY %I.%I.%I',
+                       target_schema, rec.sequence_name, target_schema, rec.table_name, rec.attname);
+    END LOOP;
+
+    -- 2. Collect definitions with the source schema on the search_path (mostly unqualified
+    --    output); any remaining source qualifiers are rewritten to the target schema
+    PERFORM set_config('search_path', quote_ident(source_schema) || ', public', true);
+
+    FOR rec IN
+        SELECT cl.relname, con.conname, pg_get_constraintdef(con.oid) AS definition
+        FROM pg_constraint con
+        JOIN pg_class cl ON cl.oid = con.conrelid
+        JOIN pg_namespace n ON n.oid = cl.relnamespace
+        WHERE n.nspname = source_schema AND con.contype IN ('p', 'u', 'x')
+        ORDER BY con.oid
+    LOOP
+        key_ddl := key_ddl || format('ALTER TABLE %I.%I ADD CONSTRAINT %I %s',
+                                     target_schema, rec.relname, rec.conname,
+                                     regexp_replace(rec.definition, qualifier, target_schema || '.', 'g'));
+    END LOOP;
+
+    FOR rec IN
+        SELECT pg_get_indexdef(i.indexrelid) AS definition
+        FROM pg_index i
+        JOIN pg_class c ON c.oid = i.indexrelid
+        JOIN pg_namespace n ON n.oid = c.relnamespace
+        WHERE n.nspname = source_schema
+          AND NOT EXISTS (
+              SELECT 1 FROM pg_constraint con
+              WHERE con.conindid = i.indexrelid AND con.contype IN ('p', 'u', 'x')
+          )
+        ORDER BY i.indexrelid
+    LOOP
+        index_ddl := index_ddl || regexp_replace(rec.definition, qualifier, target_schema || '.', 'g');
+    END LOOP;
+
+    FOR rec IN
+        SELECT p.oid
+        FROM pg_proc p
+        JOIN pg_namespace n ON n.oid = p.pronamespace
+        WHERE n.nspname = source_schema AND p.prokind IN ('f', 'p')
+        ORDER BY p.oid
+    LOOP
+        function_ddl := function_ddl || regexp_replace(pg_get_functiondef(rec.oid), qualifier, target_schema || '.', 'g');
+    END LOOP;
+
+    FOR rec IN
+        SELECT c.relname, pg_get_viewdef(c.oid) AS definition
+        FROM pg_class c
+        JOIN pg_namespace n ON n.oid = c.relnamespace
+        WHERE n.nspname = source_schema AND c.relkind = 'v'
+        ORDER BY c.oid
+    LOOP
+        view_names := view_names || rec.relname::TEXT;
+        view_defs := view_defs || regexp_replace(
+                regexp_replace(rec.definition, ';\s*$', ''), qualifier, target_schema || '.', 'g');
+        view_created := view_created || false;
+    END LOOP;
+
+    FOR rec IN
+        SELECT cl.relname, con.conname, pg_get_constraintdef(con.oid) AS definition
+        FROM pg_constraint con
+        JOIN pg_class cl ON cl.oid = con.conrelid
+        JOIN pg_namespace n ON n.oid = cl.relnamespace
+        WHERE n.nspname = source_schema AND con.contype = 'f'
+        ORDER BY con.oid
+    LOOP
+        foreign_key_ddl := foreign_key_ddl || format('ALTER TABLE %I.%I ADD CONSTRAINT %I %s',
+                                                     target_schema, rec.relname, rec.conname,
+                                                     regexp_replace(rec.definition, qualifier, target_schema || '.', 'g'));
+    END LOOP;
+
+    FOR rec IN
+        SELECT pg_get_triggerdef(t.oid) AS definition
+        FROM pg_trigger t
+        JOIN pg_class c ON c.oid = t.tgrelid
+        JOIN pg_namespace n ON n.oid = c.relnamespace
+        WHERE n.nspname = source_schema AND NOT t.tgisinternal
+        ORDER BY t.oid
+    LOOP
+        trigger_ddl := trigger_ddl || regexp_replace(rec.definition, qualifier, target_schema || '.', 'g');
+    END LOOP;
+
+    -- 3. Replay definitions with the target schema on the search_path
+    --    (keys before views: GROUP BY on a primary key relies on it)
+    PERFORM set_config('search_path', quote_ident(target_schema) || ', public', true);
+    PERFORM set_config('check_function_bodies', 'off', true);
+
+    FOREACH ddl IN ARRAY key_ddl LOOP
+        EXECUTE ddl;
+    END LOOP;
+
+    FOREACH ddl IN ARRAY index_ddl LOOP
+        EXECUTE ddl;
+    END LOOP;
+
+    FOREACH ddl IN ARRAY function_ddl LOOP
+        EXECUTE ddl;
+    END LOOP;
+
+    -- Views may depend on views created later (CREATE OR REPLACE keeps the old OID):
+    -- retry until every view exists or no further progress is possible
+    LOOP
+        progress := false;
+        FOR i IN 1 .. coalesce(array_length(view_names, 1), 0) LOOP
+            CONTINUE WHEN view_created[i];
+            BEGIN
+                EXECUTE format('CREATE VIEW %I.%I AS %s', target_schema, view_names[i], view_defs[i]);
+                view_created[i] := true;
+                progress := true;
+            EXCEPTION WHEN undefined_table OR undefined_column OR undefined_function THEN
+                NULL;
+            END;
+        END LOOP;
+        EXIT WHEN NOT progress;
+    END LOOP;
+
+    FOR i IN 1 .. coalesce(array_length(view_names, 1), 0) LOOP
+        IF NOT view_created[i] THEN
+            RAISE EXCEPTION 'Could not clone view %.% into %', source_schema, view_names[i], target_schema;
+        END IF;
+    END LOOP;
+
+    FOREACH ddl IN ARRAY foreign_key_ddl LOOP
+        EXECUTE ddl;
+    END LOOP;
+
+    FOREACH ddl IN ARRAY trigger_ddl LOOP
+        EXECUTE ddl;
+    END LOOP;
+
+    PERFORM set_config('search_path', original_search_path, true);
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON FUNCTION public.clone_tenant_schema(TEXT, TEXT) IS
+'Creates target_schema as a copy of a pre-migrated tenant template schema (structure, seed rows, Flyway history)';
+
+-- ============================================================================
+-- Table: tenant_schema_pool
+-- ============================================================================
+CREATE TABLE IF NOT EXISTS public.tenant_schema_pool (
+    -- Unassigned schema name (tenant_pool_{uuid_without_hyphens})
+    schema_name VARCHAR(255) PRIMARY KEY,
+
+    -- Template Flyway version the schema was cloned from
+    template_version VARCHAR(50),
+
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+
+COMMENT ON TABLE public.tenant_schema_pool IS
+'Warm pool of pre-provisioned empty tenant schemas, claimed with FOR UPDATE SKIP LOCKED and renamed';
+
+-- ============================================================================
+-- END OF MIGRATION
+-- ============================================================================
@@ -0,0 +1,30 @@
+-- ============================================================================
+-- Migration V057: Fiscal Emission Outbox (Public Schema)
+-- ============================================================================
+-- Purpose: Decouple NFC-e emission from the sale transaction
+--
+-- The sale transaction inserts one row here (same connection, same commit) and
+-- returns. FiscalEmissionWorker claims rows with FOR UPDATE SKIP LOCKED, calls
+-- the NFC-e provider outside any transaction and records the result in the
+-- tenant schema. A claim is a lease: if a node dies mid-emission the row
+-- becomes claimable again once locked_until passes.
+--
+-- Lives in the public schema so one poll covers every tenant.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS public.fiscal_emission_outbox (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id UUID NOT NULL,
+    sale_id UUID NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,        -- times the row was claimed
+    locked_until TIMESTAMP,                 -- lease of the worker processing it
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT uk_fiscal_emission_outbox_sale UNIQUE (tenant_id, sale_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_fiscal_emission_outbox_created
+    ON public.fiscal_emission_outbox (created_at);
+
+COMMENT ON TABLE public.fiscal_emission_outbox IS 'Sales awaiting their first NFC-e emission attempt (transactional outbox)';
+COMMENT ON COLUMN public.fiscal_emission_outbox.locked_until IS 'Claim lease; NULL or past means claimable';
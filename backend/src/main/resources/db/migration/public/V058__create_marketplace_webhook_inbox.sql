@@ -0,0 +1,49 @@
+-- ============================================================================
+-- Migration V058: Marketplace Webhook Inbox and Seller -> Tenant Map (Public Schema)
+-- ============================================================================
+-- Purpose: Ingest Mercado Livre order notifications without blocking the webhook
+--
+-- marketplace_seller_tenants maps the marketplace seller (ML user_id) to the
+-- tenant that connected it. It is written when OAuth completes; webhooks carry
+-- only the seller, so this is how a notification finds its tenant schema.
+--
+-- marketplace_webhook_inbox receives each notification with one INSERT and the
+-- webhook answers immediately. MercadoLivreWebhookWorker claims rows with
+-- FOR UPDATE SKIP LOCKED (lease in locked_until) and imports the order.
+-- Repeated notifications for the same resource collapse into one row;
+-- "notifications" counts them so a row updated while being processed is
+-- processed again instead of deleted.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS public.marketplace_seller_tenants (
+    marketplace VARCHAR(50) NOT NULL,
+    user_id_marketplace VARCHAR(100) NOT NULL,
+    tenant_id UUID NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (marketplace, user_id_marketplace)
+);
+
+COMMENT ON TABLE public.marketplace_seller_tenants IS 'Marketplace seller account -> tenant (webhook tenant resolution)';
+
+CREATE TABLE IF NOT EXISTS public.marketplace_webhook_inbox (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    marketplace VARCHAR(50) NOT NULL,
+    topic VARCHAR(50) NOT NULL,
+    resource VARCHAR(255) NOT NULL,
+    user_id_marketplace VARCHAR(100),
+    notifications INT NOT NULL DEFAULT 1,   -- notifications collapsed into this row
+    attempts INT NOT NULL DEFAULT 0,        -- times the row was claimed
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,  -- retry backoff
+    locked_until TIMESTAMP,                 -- lease of the worker processing it
+    last_error TEXT,
+    received_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT uk_marketplace_webhook_inbox_resource UNIQUE (marketplace, topic, resource)
+);
+
+CREATE INDEX IF NOT EXISTS idx_marketplace_webhook_inbox_available
+    ON public.marketplace_webhook_inbox (available_at);
+
+COMMENT ON TABLE public.marketplace_webhook_inbox IS 'Marketplace notifications awaiting processing (inbox)';
+COMMENT ON COLUMN public.marketplace_webhook_inbox.locked_until IS 'Claim lease; NULL or past means claimable';
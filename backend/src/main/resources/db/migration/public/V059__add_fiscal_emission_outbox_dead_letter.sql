@@ -0,0 +1,24 @@
+-- ============================================================================
+-- Migration V059: Fiscal Emission Outbox Dead Letter (Public Schema)
+-- ============================================================================
+-- Purpose: Stop re-claiming outbox rows that keep failing
+--
+-- A row whose worker dies or errors mid-emission is claimed again when its
+-- lease expires. After nfce.outbox.max-attempts claims it is moved to FAILED
+-- (dead letter) instead: the worker marks the sale NFC-e FAILED, so it shows
+-- up in the manual retry list, and the row keeps the last error for support.
+-- A manual retry puts the row back to PENDING with a fresh attempt count.
+-- ============================================================================
+
+ALTER TABLE public.fiscal_emission_outbox
+    ADD COLUMN IF NOT EXISTS status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    ADD COLUMN IF NOT EXISTS last_error TEXT;
+
+DROP INDEX IF EXISTS public.idx_fiscal_emission_outbox_created;
+
+CREATE INDEX IF NOT EXISTS idx_fiscal_emission_outbox_pending
+    ON public.fiscal_emission_outbox (created_at)
+    WHERE status = 'PENDING';
+
+COMMENT ON COLUMN public.fiscal_emission_outbox.status IS 'PENDING (claimable) or FAILED (attempts exhausted, dead letter)';
+COMMENT ON COLUMN public.fiscal_emission_outbox.last_error IS 'Error of the last failed claim';
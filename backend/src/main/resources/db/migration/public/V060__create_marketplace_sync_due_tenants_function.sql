@@ -0,0 +1,58 @@
+-- ============================================================================
+-- Migration V060: Tenants With Due Marketplace Sync Items (Public Schema)
+-- ============================================================================
+-- Purpose: Let the stock sync dispatcher find the tenants with work in one query
+--
+-- marketplace_sync_queue lives in each tenant schema. Instead of opening a
+-- drain for every active tenant every second, StockSyncScheduledWorker calls
+-- this function once per round and only dispatches the tenants it returns:
+-- PENDING items whose backoff elapsed. The predicate matches the claim in
+-- MarketplaceSyncQueueRepository.claimPendingItemsByTenant.
+--
+-- Tenant schemas are migrated in parallel or lazily (V055), so some may not
+-- have reached tenant V081 yet: they are skipped, and an error in one schema
+-- is reported as a warning instead of failing the whole dispatch round.
+-- ============================================================================
+
+CREATE OR REPLACE FUNCTION public.marketplace_sync_due_tenants()
+RETURNS TABLE (tenant_id UUID)
+LANGUAGE plpgsql
+STABLE
+AS $$
+DECLARE
+    tenant RECORD;
+    due BOOLEAN;
+BEGIN
+    FOR tenant IN
+        SELECT t.id, t.schema_name FROM public.tenants t WHERE t.ativo = true
+    LOOP
+        -- Schema not migrated up to tenant V081 yet
+        IF NOT EXISTS (
+            SELECT 1 FROM pg_attribute
+            WHERE attrelid = to_regclass(format('%I.marketplace_sync_queue', tenant.schema_name))
+              AND attname = 'next_attempt_at'
+              AND NOT attisdropped
+        ) THEN
+            CONTINUE;
+        END IF;
+
+        BEGIN
+            EXECUTE format(
+                'SELECT EXISTS (SELECT 1 FROM %I.marketplace_sync_queue '
+                'WHERE status = ''PENDING'' AND (next_attempt_at IS NULL OR next_attempt_at <= NOW()))',
+                tenant.schema_name)
+            INTO due;
+        EXCEPTION WHEN OTHERS THEN
+            RAISE WARNING 'Skipping marketplace sync queue of %: %', tenant.schema_name, SQLERRM;
+            CONTINUE;
+        END;
+
+        IF due THEN
+            tenant_id := tenant.id;
+            RETURN NEXT;
+        END IF;
+    END LOOP;
+END;
+$$;
+
+COMMENT ON FUNCTION public.marketplace_sync_due_tenants() IS 'Active tenants with marketplace sync items ready to be claimed';
@@ -0,0 +1,44 @@
+-- ============================================================================
+-- Migration V061: Tenants With Pending Dashboard Rollup Deltas (Public Schema)
+-- ============================================================================
+-- Purpose: Let the dashboard rollup merge job find the tenants with work in one query
+--
+-- The dashboard triggers append changes to delta tables in each tenant schema
+-- (tenant V088). DashboardRollupMergeJob calls this function every few seconds
+-- and only merges the tenants it returns, instead of opening a transaction
+-- in every active tenant.
+-- ============================================================================
+
+CREATE OR REPLACE FUNCTION public.dashboard_rollup_pending_tenants()
+RETURNS TABLE (tenant_id UUID)
+LANGUAGE plpgsql
+STABLE
+AS $$
+DECLARE
+    tenant RECORD;
+    pending BOOLEAN;
+BEGIN
+    FOR tenant IN
+        SELECT t.id, t.schema_name FROM public.tenants t WHERE t.ativo = true
+    LOOP
+        IF to_regclass(format('%I.dashboard_inventory_delta', tenant.schema_name)) IS NULL THEN
+            CONTINUE;
+        END IF;
+
+        EXECUTE format(
+            'SELECT EXISTS (SELECT 1 FROM %1$I.dashboard_daily_sales_delta) '
+            'OR EXISTS (SELECT 1 FROM %1$I.dashboard_pending_orders_delta) '
+            'OR EXISTS (SELECT 1 FROM %1$I.dashboard_daily_product_delta) '
+            'OR EXISTS (SELECT 1 FROM %1$I.dashboard_inventory_delta)',
+            tenant.schema_name)
+        INTO pending;
+
+        IF pending THEN
+            tenant_id := tenant.id;
+            RETURN NEXT;
+        END IF;
+    END LOOP;
+END;
+$$;
+
+COMMENT ON FUNCTION public.dashboard_rollup_pending_tenants() IS 'Active tenants with dashboard rollup deltas waiting to be merged';
@@ -0,0 +1,68 @@
+-- ============================================================================
+-- Migration V062: Due Marketplace Sync Tenants With Expired Leases (Public Schema)
+-- ============================================================================
+-- Purpose: Report tenants whose claimed sync items were abandoned
+--
+-- Workers claim sync items with FOR UPDATE SKIP LOCKED and a lease
+-- (tenant V082). Items left PROCESSING by a crashed worker are claimable
+-- again once the lease is missing or expired, so the dispatcher must drain
+-- those tenants too. The predicate matches the claim in
+-- MarketplaceSyncQueueRepository.claimPendingItemsByTenant.
+--
+-- Schemas not migrated up to tenant V082 yet are only checked for PENDING
+-- items, as in V060.
+-- ============================================================================
+
+CREATE OR REPLACE FUNCTION public.marketplace_sync_due_tenants()
+RETURNS TABLE (tenant_id UUID)
+LANGUAGE plpgsql
+STABLE
+AS $$
+DECLARE
+    tenant RECORD;
+    queue REGCLASS;
+    leased BOOLEAN;
+    due BOOLEAN;
+BEGIN
+    FOR tenant IN
+        SELECT t.id, t.schema_name FROM public.tenants t WHERE t.ativo = true
+    LOOP
+        queue := to_regclass(format('%I.marketplace_sync_queue', tenant.schema_name));
+
+        -- Schema not migrated up to tenant V081 yet
+        IF NOT EXISTS (
+            SELECT 1 FROM pg_attribute
+            WHERE attrelid = queue AND attname = 'next_attempt_at' AND NOT attisdropped
+        ) THEN
+            CONTINUE;
+        END IF;
+
+        leased := EXISTS (
+            SELECT 1 FROM pg_attribute
+            WHERE attrelid = queue AND attname = 'locked_until' AND NOT attisdropped
+        );
+
+        BEGIN
+            EXECUTE format(
+                'SELECT EXISTS (SELECT 1 FROM %I.marketplace_sync_queue '
+                'WHERE (status = ''PENDING'' AND (next_attempt_at IS NULL OR next_attempt_at <= NOW()))%s)',
+                tenant.schema_name,
+                CASE WHEN leased
+                     THEN ' OR (status = ''PROCESSING'' AND (locked_until IS NULL OR locked_until < NOW()))'
+                     ELSE ''
+                END)
+            INTO due;
+        EXCEPTION WHEN OTHERS THEN
+            RAISE WARNING 'Skipping marketplace sync queue of %: %', tenant.schema_name, SQLERRM;
+            CONTINUE;
+        END;
+
+        IF due THEN
+            tenant_id := tenant.id;
+            RETURN NEXT;
+        END IF;
+    END LOOP;
+END;
+$$;
+
+COMMENT ON FUNCTION public.marketplace_sync_due_tenants() IS 'Active tenants with marketplace sync items ready to be claimed';
@@ -0,0 +1,18 @@
+-- V080__create_document_sequences_table.sql
+-- Per-tenant, per-prefix, per-month counters for document numbers
+-- (SALE-YYYYMM-0001, SO-..., PO-..., RCV-..., ADJ-...)
+-- Replaces SELECT MAX(number) + 1 generators, which were only safe within one JVM.
+
+CREATE TABLE IF NOT EXISTS document_sequences (
+    tenant_id UUID NOT NULL,
+    prefix VARCHAR(20) NOT NULL,
+    period CHAR(6) NOT NULL,            -- YYYYMM
+    next_value BIGINT NOT NULL,          -- first number not yet handed out
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (tenant_id, prefix, period),
+    CONSTRAINT check_document_sequences_next_value CHECK (next_value > 0)
+);
+
+COMMENT ON TABLE document_sequences IS 'Document number counters; nodes reserve blocks of numbers (hi/lo)';
+COMMENT ON COLUMN document_sequences.next_value IS 'First number not yet handed out to any node';
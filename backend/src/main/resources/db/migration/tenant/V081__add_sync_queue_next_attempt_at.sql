@@ -0,0 +1,11 @@
+-- V081__add_sync_queue_next_attempt_at.sql
+-- Backoff for failed marketplace sync items: the queue is now drained continuously,
+-- so a failed item must not be picked up again until next_attempt_at.
+
+ALTER TABLE marketplace_sync_queue ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_sync_queue_tenant_pending
+    ON marketplace_sync_queue(tenant_id, priority DESC, created_at ASC)
+    WHERE status = 'PENDING';
+
+COMMENT ON COLUMN marketplace_sync_queue.next_attempt_at IS 'Item não é reprocessado antes deste horário (backoff após falha)';
@@ -0,0 +1,12 @@
+-- V082__add_sync_queue_lease.sql
+-- Lease for claimed marketplace sync items: workers claim rows with
+-- FOR UPDATE SKIP LOCKED and set locked_until. Rows left in PROCESSING by a
+-- crashed worker become claimable again once the lease expires.
+
+ALTER TABLE marketplace_sync_queue ADD COLUMN IF NOT EXISTS locked_until TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_sync_queue_tenant_processing
+    ON marketplace_sync_queue(tenant_id, locked_until)
+    WHERE status = 'PROCESSING';
+
+COMMENT ON COLUMN marketplace_sync_queue.locked_until IS 'Fim do lease do worker que reivindicou o item (status PROCESSING)';
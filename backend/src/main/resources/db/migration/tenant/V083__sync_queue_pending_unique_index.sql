@@ -0,0 +1,27 @@
+-- V083__sync_queue_pending_unique_index.sql
+-- At most one PENDING sync item per product/variant, marketplace and sync type, so
+-- enqueueing is a single INSERT ... ON CONFLICT instead of select-then-insert.
+-- The old constraint included status (so a second SUCCESS row for the same item
+-- failed) and did not deduplicate items without variant (NULL variant_id).
+
+-- Keep the oldest of any duplicate PENDING items
+DELETE FROM marketplace_sync_queue newer
+USING marketplace_sync_queue older
+WHERE newer.status = 'PENDING'
+  AND older.status = 'PENDING'
+  AND newer.tenant_id = older.tenant_id
+  AND newer.product_id = older.product_id
+  AND newer.variant_id IS NOT DISTINCT FROM older.variant_id
+  AND newer.marketplace = older.marketplace
+  AND newer.sync_type = older.sync_type
+  AND (newer.created_at, newer.id) > (older.created_at, older.id);
+
+ALTER TABLE marketplace_sync_queue DROP CONSTRAINT IF EXISTS unique_sync_queue_item;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_sync_queue_pending_item
+    ON marketplace_sync_queue (tenant_id, product_id,
+                               COALESCE(variant_id, '00000000-0000-0000-0000-000000000000'::uuid),
+                               marketplace, sync_type)
+    WHERE status = 'PENDING';
+
+COMMENT ON INDEX ux_sync_queue_pending_item IS 'Deduplicação: um item PENDING por produto/variante, marketplace e tipo';
@@ -0,0 +1,7 @@
+-- V084__add_order_polling_cursor.sql
+-- Incremental order polling: each connection remembers the creation date of the newest
+-- order already processed, so /orders/search only asks for orders created after it.
+
+ALTER TABLE marketplace_connections ADD COLUMN IF NOT EXISTS orders_polled_until TIMESTAMP;
+
+COMMENT ON COLUMN marketplace_connections.orders_polled_until IS 'date_created (UTC) do último pedido processado pelo polling';
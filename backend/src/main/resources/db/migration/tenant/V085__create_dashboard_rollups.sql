@@ -0,0 +1,515 @@
+-- V085__create_dashboard_rollups.sql
+-- Dashboard rollups: the dashboard reads a handful of pre-aggregated rows instead of
+-- re-aggregating orders, order_items and inventory on every call.
+--
+-- Triggers keep one fact row per order (and per order + product) in step with orders and
+-- order_items; the fact tables' own triggers subtract the old row and add the new one to
+-- the rollups. Inventory changes update the per-location rollup directly. Everything runs
+-- in the writing transaction, so the rollups change exactly when the write commits.
+--
+-- The rollups reproduce v_daily_sales_by_channel, v_pending_orders_summary,
+-- v_top_products_today and v_inventory_value_summary, which stay as the reference.
+-- rebuild_dashboard_rollups() recomputes them from the source tables (nightly job and
+-- once at the end of this migration).
+
+-- =====================================================
+-- Facts
+-- =====================================================
+CREATE TABLE IF NOT EXISTS dashboard_order_facts (
+    order_id UUID PRIMARY KEY,
+    status VARCHAR(30) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    total NUMERIC(15, 2) NOT NULL,
+    item_count INTEGER NOT NULL DEFAULT 0,
+    item_quantity NUMERIC NOT NULL DEFAULT 0,
+    item_total NUMERIC NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_dashboard_order_facts_status_created
+    ON dashboard_order_facts (status, created_at);
+
+COMMENT ON TABLE dashboard_order_facts IS 'Dashboard: um registro por pedido com os totais dos itens, origem das rollups de vendas e pedidos pendentes';
+
+CREATE TABLE IF NOT EXISTS dashboard_order_product_facts (
+    order_id UUID NOT NULL,
+    product_id UUID NOT NULL,
+    status VARCHAR(30) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    item_count INTEGER NOT NULL DEFAULT 0,
+    quantity NUMERIC NOT NULL DEFAULT 0,
+    revenue NUMERIC NOT NULL DEFAULT 0,
+    unit_price_sum NUMERIC NOT NULL DEFAULT 0,
+    PRIMARY KEY (order_id, product_id)
+);
+
+COMMENT ON TABLE dashboard_order_product_facts IS 'Dashboard: itens de cada pedido agregados por produto, origem da rollup de produtos mais vendidos';
+
+CREATE TABLE IF NOT EXISTS dashboard_inventory_product_facts (
+    location_id UUID NOT NULL,
+    product_id UUID NOT NULL,
+    stocked_rows INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (location_id, product_id)
+);
+
+COMMENT ON TABLE dashboard_inventory_product_facts IS 'Dashboard: linhas de estoque com saldo disponível por local e produto (contagem de produtos distintos)';
+
+-- =====================================================
+-- Rollups
+-- =====================================================
+CREATE TABLE IF NOT EXISTS dashboard_daily_sales_rollup (
+    sale_date DATE NOT NULL,
+    status VARCHAR(30) NOT NULL,
+    order_count INTEGER NOT NULL DEFAULT 0,
+    item_count INTEGER NOT NULL DEFAULT 0,
+    total_quantity NUMERIC NOT NULL DEFAULT 0,
+    total_sales NUMERIC NOT NULL DEFAULT 0,
+    order_total_sum NUMERIC NOT NULL DEFAULT 0,
+    first_order_time TIMESTAMP,
+    last_order_time TIMESTAMP,
+    PRIMARY KEY (sale_date, status)
+);
+
+COMMENT ON TABLE dashboard_daily_sales_rollup IS 'Dashboard: vendas por dia e status (v_daily_sales_by_channel)';
+COMMENT ON COLUMN dashboard_daily_sales_rollup.order_total_sum IS 'Soma de orders.total uma vez por item, base do ticket médio da view';
+
+CREATE TABLE IF NOT EXISTS dashboard_pending_orders_rollup (
+    status VARCHAR(30) PRIMARY KEY,
+    order_count INTEGER NOT NULL DEFAULT 0,
+    total_items INTEGER NOT NULL DEFAULT 0,
+    value_rows INTEGER NOT NULL DEFAULT 0,
+    total_value NUMERIC NOT NULL DEFAULT 0,
+    oldest_order_date TIMESTAMP,
+    newest_order_date TIMESTAMP
+);
+
+COMMENT ON TABLE dashboard_pending_orders_rollup IS 'Dashboard: pedidos pendentes por status (v_pending_orders_summary)';
+COMMENT ON COLUMN dashboard_pending_orders_rollup.value_rows IS 'Linhas pedido x item da view (pedido sem itens conta uma), base do valor médio';
+
+CREATE TABLE IF NOT EXISTS dashboard_daily_product_rollup (
+    sale_date DATE NOT NULL,
+    product_id UUID NOT NULL,
+    order_count INTEGER NOT NULL DEFAULT 0,
+    item_count INTEGER NOT NULL DEFAULT 0,
+    total_quantity NUMERIC NOT NULL DEFAULT 0,
+    total_revenue NUMERIC NOT NULL DEFAULT 0,
+    unit_price_sum NUMERIC NOT NULL DEFAULT 0,
+    PRIMARY KEY (sale_date, product_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_dashboard_daily_product_rollup_quantity
+    ON dashboard_daily_product_rollup (sale_date, total_quantity DESC);
+
+COMMENT ON TABLE dashboard_daily_product_rollup IS 'Dashboard: vendas por dia e produto (v_top_products_today)';
+
+CREATE TABLE IF NOT EXISTS dashboard_inventory_rollup (
+    location_id UUID PRIMARY KEY,
+    unique_products INTEGER NOT NULL DEFAULT 0,
+    total_quantity NUMERIC NOT NULL DEFAULT 0
+);
+
+COMMENT ON TABLE dashboard_inventory_rollup IS 'Dashboard: saldo disponível por local (v_inventory_value_summary)';
+
+-- Stock alert counts still come from v_critical_stock_products; keep that scan on the
+-- rows below minimum only
+CREATE INDEX IF NOT EXISTS idx_inventory_below_minimum
+    ON inventory (location_id)
+    WHERE min_quantity IS NOT NULL AND available_quantity < min_quantity;
+
+-- =====================================================
+-- Applying facts to rollups
+-- =====================================================
+CREATE OR REPLACE FUNCTION dashboard_apply_order_fact(fact dashboard_order_facts, sign INTEGER)
+RETURNS VOID AS $$
+DECLARE
+    order_rows INTEGER := GREATEST(fact.item_count, 1);
+BEGIN
+    -- v_daily_sales_by_channel: orders with items, not cancelled/refunded/failed
+    IF fact.item_count > 0 AND fact.status NOT IN ('CANCELLED', 'REFUNDED', 'FAILED') THEN
+        INSERT INTO dashboard_daily_sales_rollup AS r (
+            sale_date, status, order_count, item_count, total_quantity, total_sales,
+            order_total_sum, first_order_time, last_order_time)
+        VALUES (
+            fact.created_at::date, fact.status, sign, sign * fact.item_count,
+            sign * fact.item_quantity, sign * fact.item_total, sign * fact.total * fact.item_count,
+            CASE WHEN sign > 0 THEN fact.created_at END,
+            CASE WHEN sign > 0 THEN fact.created_at END)
+        ON CONFLICT (sale_date, status) DO UPDATE SET
+            order_count = r.order_count + EXCLUDED.order_count,
+            item_count = r.item_count + EXCLUDED.item_count,
+            total_quantity = r.total_quantity + EXCLUDED.total_quantity,
+            total_sales = r.total_sales + EXCLUDED.total_sales,
+            order_total_sum = r.order_total_sum + EXCLUDED.order_total_sum,
+            first_order_time = LEAST(r.first_order_time, EXCLUDED.first_order_time),
+            last_order_time = GREATEST(r.last_order_time, EXCLUDED.last_order_time);
+
+        -- Removed the first or last order of the bucket: look the bounds up again
+        IF sign < 0 THEN
+            UPDATE dashboard_daily_sales_rollup r
+            SET first_order_time = b.first_time,
+                last_order_time = b.last_time
+            FROM (
+                SELECT MIN(f.created_at) AS first_time, MAX(f.created_at) AS last_time
+                FROM dashboard_order_facts f
+                WHERE f.status = fact.status
+                  AND f.item_count > 0
+                  AND f.created_at >= fact.created_at::date
+                  AND f.created_at < fact.created_at::date + 1
+            ) b
+            WHERE r.sale_date = fact.created_at::date
+              AND r.status = fact.status
+              AND fact.created_at IN (r.first_order_time, r.last_order_time);
+        END IF;
+    END IF;
+
+    -- v_pending_orders_summary: order x item rows, an order without items counts once
+    IF fact.status IN ('PENDING', 'PROCESSING', 'CONFIRMED', 'READY_TO_SHIP') THEN
+        INSERT INTO dashboard_pending_orders_rollup AS r (
+            status, order_count, total_items, value_rows, total_value,
+            oldest_order_date, newest_order_date)
+        VALUES (
+            fact.status, sign, sign * fact.item_count, sign * order_rows,
+            sign * fact.total * order_rows,
+            CASE WHEN sign > 0 THEN fact.created_at END,
+            CASE WHEN sign > 0 THEN fact.created_at END)
+        ON CONFLICT (status) DO UPDATE SET
+            order_count = r.order_count + EXCLUDED.order_count,
+            total_items = r.total_items + EXCLUDED.total_items,
+            value_rows = r.value_rows + EXCLUDED.value_rows,
+            total_value = r.total_value + EXCLUDED.total_value,
+            oldest_order_date = LEAST(r.oldest_order_date, EXCLUDED.oldest_order_date),
+            newest_order_date = GREATEST(r.newest_order_date, EXCLUDED.newest_order_date);
+
+        IF sign < 0 THEN
+            UPDATE dashboard_pending_orders_rollup r
+            SET oldest_order_date = b.oldest,
+                newest_order_date = b.newest
+            FROM (
+                SELECT MIN(f.created_at) AS oldest, MAX(f.created_at) AS newest
+                FROM dashboard_order_facts f
+                WHERE f.status = fact.status
+            ) b
+            WHERE r.status = fact.status
+              AND fact.created_at IN (r.oldest_order_date, r.newest_order_date);
+        END IF;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION dashboard_apply_order_product_fact(fact dashboard_order_product_facts, sign INTEGER)
+RETURNS VOID AS $$
+BEGIN
+    -- v_top_products_today: orders not cancelled (an order counts once per product)
+    IF fact.item_count > 0 AND fact.status NOT IN ('CANCELLED', 'REJECTED') THEN
+        INSERT INTO dashboard_daily_product_rollup AS r (
+            sale_date, product_id, order_count, item_count, total_quantity, total_revenue, unit_price_sum)
+        VALUES (
+            fact.created_at::date, fact.product_id, sign, sign * fact.item_count,
+            sign * fact.quantity, sign * fact.revenue, sign * fact.unit_price_sum)
+        ON CONFLICT (sale_date, product_id) DO UPDATE SET
+            order_count = r.order_count + EXCLUDED.order_count,
+            item_count = r.item_count + EXCLUDED.item_count,
+            total_quantity = r.total_quantity + EXCLUDED.total_quantity,
+            total_revenue = r.total_revenue + EXCLUDED.total_revenue,
+            unit_price_sum = r.unit_price_sum + EXCLUDED.unit_price_sum;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION dashboard_order_facts_changed()
+RETURNS TRIGGER AS $$
+BEGIN
+    -- rebuild_dashboard_rollups() fills the rollups itself
+    IF current_setting('dashboard.rollup_rebuild', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM dashboard_apply_order_fact(OLD, -1);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM dashboard_apply_order_fact(NEW, 1);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_dashboard_order_facts_rollup
+    AFTER INSERT OR UPDATE OR DELETE ON dashboard_order_facts
+    FOR EACH ROW
+    EXECUTE FUNCTION dashboard_order_facts_changed();
+
+CREATE OR REPLACE FUNCTION dashboard_order_product_facts_changed()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF current_setting('dashboard.rollup_rebuild', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM dashboard_apply_order_product_fact(OLD, -1);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM dashboard_apply_order_product_fact(NEW, 1);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_dashboard_order_product_facts_rollup
+    AFTER INSERT OR UPDATE OR DELETE ON dashboard_order_product_facts
+    FOR EACH ROW
+    EXECUTE FUNCTION dashboard_order_product_facts_changed();
+
+-- =====================================================
+-- Tracking orders and order items
+-- =====================================================
+CREATE OR REPLACE FUNCTION dashboard_track_order()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO dashboard_order_facts (order_id, status, created_at, total)
+        VALUES (NEW.id, NEW.status, NEW.created_at, NEW.total)
+        ON CONFLICT (order_id) DO NOTHING;
+
+    ELSIF TG_OP = 'UPDATE' THEN
+        IF (NEW.status, NEW.created_at, NEW.total) IS NOT DISTINCT FROM (OLD.status, OLD.created_at, OLD.total) THEN
+            RETURN NULL;
+        END IF;
+
+        UPDATE dashboard_order_facts
+        SET status = NEW.status, created_at = NEW.created_at, total = NEW.total
+        WHERE order_id = NEW.id;
+
+        UPDATE dashboard_order_product_facts
+        SET status = NEW.status, created_at = NEW.created_at
+        WHERE order_id = NEW.id
+          AND (status, created_at) IS DISTINCT FROM (NEW.status, NEW.created_at);
+
+    ELSE
+        DELETE FROM dashboard_order_product_facts WHERE order_id = OLD.id;
+        DELETE FROM dashboard_order_facts WHERE order_id = OLD.id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_orders_dashboard_rollup
+    AFTER INSERT OR DELETE OR UPDATE OF status, created_at, total ON orders
+    FOR EACH ROW
+    EXECUTE FUNCTION dashboard_track_order();
+
+-- Item changes adjust the order's facts; order status and date come from the facts, so
+-- items removed by the ON DELETE CASCADE of their order are handled in either order
+CREATE OR REPLACE FUNCTION dashboard_track_order_item()
+RETURNS TRIGGER AS $$
+DECLARE
+    fact dashboard_order_facts%ROWTYPE;
+BEGIN
+    IF TG_OP = 'UPDATE'
+       AND (NEW.order_id, NEW.product_id, NEW.quantity, NEW.total, NEW.unit_price)
+           IS NOT DISTINCT FROM (OLD.order_id, OLD.product_id, OLD.quantity, OLD.total, OLD.unit_price) THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE dashboard_order_facts
+        SET item_count = item_count - 1,
+            item_quantity = item_quantity - OLD.quantity,
+            item_total = item_total - OLD.total
+        WHERE order_id = OLD.order_id;
+
+        UPDATE dashboard_order_product_facts
+        SET item_count = item_count - 1,
+            quantity = quantity - OLD.quantity,
+            revenue = revenue - OLD.total,
+            unit_price_sum = unit_price_sum - OLD.unit_price
+        WHERE order_id = OLD.order_id AND product_id = OLD.product_id;
+
+        DELETE FROM dashboard_order_product_facts
+        WHERE order_id = OLD.order_id AND product_id = OLD.product_id AND item_count <= 0;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        UPDATE dashboard_order_facts
+        SET item_count = item_count + 1,
+            item_quantity = item_quantity + NEW.quantity,
+            item_total = item_total + NEW.total
+        WHERE order_id = NEW.order_id
+        RETURNING * INTO fact;
+
+        IF FOUND THEN
+            INSERT INTO dashboard_order_product_facts AS pf (
+                order_id, product_id, status, created_at, item_count, quantity, revenue, unit_price_sum)
+            VALUES (
+                NEW.order_id, NEW.product_id, fact.status, fact.created_at, 1,
+                NEW.quantity, NEW.total, NEW.unit_price)
+            ON CONFLICT (order_id, product_id) DO UPDATE SET
+                item_count = pf.item_count + 1,
+                quantity = pf.quantity + EXCLUDED.quantity,
+                revenue = pf.revenue + EXCLUDED.revenue,
+                unit_price_sum = pf.unit_price_sum + EXCLUDED.unit_price_sum;
+        END IF;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_order_items_dashboard_rollup
+    AFTER INSERT OR UPDATE OR DELETE ON order_items
+    FOR EACH ROW
+    EXECUTE FUNCTION dashboard_track_order_item();
+
+-- =====================================================
+-- Tracking inventory (sales, movements, transfers and adjustments all end here)
+-- =====================================================
+CREATE OR REPLACE FUNCTION dashboard_apply_inventory(p_location_id UUID, p_product_id UUID,
+                                                     p_quantity NUMERIC, sign INTEGER)
+RETURNS VOID AS $$
+DECLARE
+    rows_after INTEGER;
+BEGIN
+    IF p_location_id IS NULL OR p_quantity IS NULL OR p_quantity <= 0 THEN
+        RETURN;
+    END IF;
+
+    -- Locks the location's rollup row first: the distinct-product count below then sees
+    -- every committed change for this location
+    INSERT INTO dashboard_inventory_rollup AS r (location_id, total_quantity)
+    VALUES (p_location_id, sign * p_quantity)
+    ON CONFLICT (location_id) DO UPDATE SET total_quantity = r.total_quantity + EXCLUDED.total_quantity;
+
+    IF p_product_id IS NULL THEN
+        RETURN;
+    END IF;
+
+    INSERT INTO dashboard_inventory_product_facts AS pf (location_id, product_id, stocked_rows)
+    VALUES (p_location_id, p_product_id, sign)
+    ON CONFLICT (location_id, product_id) DO UPDATE SET stocked_rows = pf.stocked_rows + EXCLUDED.stocked_rows
+    RETURNING stocked_rows INTO rows_after;
+
+    -- First stocked row of the product at this location, or the last one gone
+    IF (sign > 0 AND rows_after = 1) OR (sign < 0 AND rows_after = 0) THEN
+        UPDATE dashboard_inventory_rollup
+        SET unique_products = unique_products + sign
+        WHERE location_id = p_location_id;
+    END IF;
+
+    IF rows_after <= 0 THEN
+        DELETE FROM dashboard_inventory_product_facts
+        WHERE location_id = p_location_id AND product_id = p_product_id;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION dashboard_track_inventory()
+RETURNS TRIGGER AS $$
+BEGIN
+    -- Most common case: the balance of a stocked row changes
+    IF TG_OP = 'UPDATE'
+       AND NEW.location_id IS NOT DISTINCT FROM OLD.location_id
+       AND NEW.product_id IS NOT DISTINCT FROM OLD.product_id
+       AND OLD.available_quantity > 0
+       AND NEW.available_quantity > 0 THEN
+        IF NEW.available_quantity <> OLD.available_quantity THEN
+            UPDATE dashboard_inventory_rollup
+            SET total_quantity = total_quantity + (NEW.available_quantity - OLD.available_quantity)
+            WHERE location_id = NEW.location_id;
+        END IF;
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM dashboard_apply_inventory(OLD.location_id, OLD.product_id, OLD.available_quantity, -1);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM dashboard_apply_inventory(NEW.location_id, NEW.product_id, NEW.available_quantity, 1);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_inventory_dashboard_rollup
+    AFTER INSERT OR DELETE OR UPDATE OF quantity, reserved_quantity, product_id, location_id ON inventory
+    FOR EACH ROW
+    EXECUTE FUNCTION dashboard_track_inventory();
+
+-- =====================================================
+-- Rebuild from the source tables
+-- =====================================================
+CREATE OR REPLACE FUNCTION rebuild_dashboard_rollups()
+RETURNS VOID AS $$
+BEGIN
+    -- Writers wait until the rebuild commits, so no change falls between old and new rows
+    LOCK TABLE orders, order_items, inventory IN SHARE MODE;
+    PERFORM set_config('dashboard.rollup_rebuild', 'on', true);
+
+    DELETE FROM dashboard_order_product_facts;
+    DELETE FROM dashboard_order_facts;
+    DELETE FROM dashboard_inventory_product_facts;
+    DELETE FROM dashboard_daily_sales_rollup;
+    DELETE FROM dashboard_pending_orders_rollup;
+    DELETE FROM dashboard_daily_product_rollup;
+    DELETE FROM dashboard_inventory_rollup;
+
+    INSERT INTO dashboard_order_facts (order_id, status, created_at, total, item_count, item_quantity, item_total)
+    SELECT o.id, o.status, o.created_at, o.total,
+           COUNT(oi.id), COALESCE(SUM(oi.quantity), 0), COALESCE(SUM(oi.total), 0)
+    FROM orders o
+    LEFT JOIN order_items oi ON oi.order_id = o.id
+    GROUP BY o.id, o.status, o.created_at, o.total;
+
+    INSERT INTO dashboard_order_product_facts (
+        order_id, product_id, status, created_at, item_count, quantity, revenue, unit_price_sum)
+    SELECT oi.order_id, oi.product_id, o.status, o.created_at,
+           COUNT(*), SUM(oi.quantity), SUM(oi.total), SUM(oi.unit_price)
+    FROM order_items oi
+    INNER JOIN orders o ON o.id = oi.order_id
+    GROUP BY oi.order_id, oi.product_id, o.status, o.created_at;
+
+    INSERT INTO dashboard_daily_sales_rollup (
+        sale_date, status, order_count, item_count, total_quantity, total_sales,
+        order_total_sum, first_order_time, last_order_time)
+    SELECT created_at::date, status, COUNT(*), SUM(item_count), SUM(item_quantity), SUM(item_total),
+           SUM(total * item_count), MIN(created_at), MAX(created_at)
+    FROM dashboard_order_facts
+    WHERE item_count > 0
+      AND status NOT IN ('CANCELLED', 'REFUNDED', 'FAILED')
+    GROUP BY created_at::date, status;
+
+    INSERT INTO dashboard_pending_orders_rollup (
+        status, order_count, total_items, value_rows, total_value, oldest_order_date, newest_order_date)
+    SELECT status, COUNT(*), SUM(item_count), SUM(GREATEST(item_count, 1)),
+           SUM(total * GREATEST(item_count, 1)), MIN(created_at), MAX(created_at)
+    FROM dashboard_order_facts
+    WHERE status IN ('PENDING', 'PROCESSING', 'CONFIRMED', 'READY_TO_SHIP')
+    GROUP BY status;
+
+    INSERT INTO dashboard_daily_product_rollup (
+        sale_date, product_id, order_count, item_count, total_quantity, total_revenue, unit_price_sum)
+    SELECT created_at::date, product_id, COUNT(*), SUM(item_count), SUM(quantity), SUM(revenue), SUM(unit_price_sum)
+    FROM dashboard_order_product_facts
+    WHERE status NOT IN ('CANCELLED', 'REJECTED')
+    GROUP BY created_at::date, product_id;
+
+    INSERT INTO dashboard_inventory_product_facts (location_id, product_id, stocked_rows)
+    SELECT location_id, product_id, COUNT(*)
+    FROM inventory
+    WHERE location_id IS NOT NULL
+      AND product_id IS NOT NULL
+      AND available_quantity > 0
+    GROUP BY location_id, product_id;
+
+    INSERT INTO dashboard_inventory_rollup (location_id, unique_products, total_quantity)
+    SELECT location_id, COUNT(DISTINCT product_id), SUM(available_quantity)
+    FROM inventory
+    WHERE location_id IS NOT NULL
+      AND available_quantity > 0
+    GROUP BY location_id;
+
+    PERFORM set_config('dashboard.rollup_rebuild', 'off', true);
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON FUNCTION rebuild_dashboard_rollups() IS 'Recalcula fatos e rollups do dashboard a partir de orders, order_items e inventory';
+
+SELECT rebuild_dashboard_rollups();
@@ -0,0 +1,165 @@
+-- V086__create_product_abc_classification.sql
+-- Precomputed ABC curve: products ranked by revenue share over rolling windows (e.g. 30, 90
+-- and 365 days), stored with the time they were computed, so stock screens can filter by
+-- class with an index lookup. Replaces the (never enabled) V025 views.
+--
+-- Revenue per product comes from dashboard_daily_product_rollup (V085), already aggregated
+-- per day and product by the order triggers, so a classification only ranks the products
+-- of the window and never re-reads order history. Days whose revenue changed are queued in
+-- product_abc_changed_days; ProductAbcClassificationJob consumes the queue and recomputes
+-- only the windows that contain one of those days (or whose end date moved).
+
+-- =====================================================
+-- Classification
+-- =====================================================
+CREATE TABLE IF NOT EXISTS product_abc_classification (
+    window_days INTEGER NOT NULL,
+    product_id UUID NOT NULL,
+    revenue NUMERIC NOT NULL DEFAULT 0,
+    revenue_share NUMERIC(9, 6) NOT NULL DEFAULT 0,
+    cumulative_share NUMERIC(9, 6) NOT NULL DEFAULT 0,
+    rank_position INTEGER NOT NULL,
+    abc_class CHAR(1) NOT NULL CHECK (abc_class IN ('A', 'B', 'C')),
+    computed_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (window_days, product_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_abc_classification_class
+    ON product_abc_classification (window_days, abc_class, rank_position);
+
+COMMENT ON TABLE product_abc_classification IS 'Curva ABC: classe A/B/C de cada produto por janela de dias, pela participação na receita';
+COMMENT ON COLUMN product_abc_classification.cumulative_share IS 'Participação acumulada até este produto (inclusive), na ordem de receita decrescente';
+
+CREATE TABLE IF NOT EXISTS product_abc_runs (
+    window_days INTEGER PRIMARY KEY,
+    window_start DATE NOT NULL,
+    window_end DATE NOT NULL,
+    class_a_share NUMERIC(5, 4) NOT NULL,
+    class_b_share NUMERIC(5, 4) NOT NULL,
+    total_revenue NUMERIC NOT NULL DEFAULT 0,
+    classified_products INTEGER NOT NULL DEFAULT 0,
+    computed_at TIMESTAMP NOT NULL
+);
+
+COMMENT ON TABLE product_abc_runs IS 'Curva ABC: último cálculo de cada janela (período e limites usados)';
+
+-- =====================================================
+-- Changed days
+-- =====================================================
+CREATE TABLE IF NOT EXISTS product_abc_changed_days (
+    sale_date DATE PRIMARY KEY
+);
+
+COMMENT ON TABLE product_abc_changed_days IS 'Curva ABC: dias com receita alterada desde o último cálculo (consumidos pelo job)';
+
+CREATE OR REPLACE FUNCTION product_abc_track_revenue()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO product_abc_changed_days (sale_date)
+    VALUES (CASE WHEN TG_OP = 'DELETE' THEN OLD.sale_date ELSE NEW.sale_date END)
+    ON CONFLICT (sale_date) DO NOTHING;
+
+    IF TG_OP = 'UPDATE' AND OLD.sale_date <> NEW.sale_date THEN
+        INSERT INTO product_abc_changed_days (sale_date)
+        VALUES (OLD.sale_date)
+        ON CONFLICT (sale_date) DO NOTHING;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_product_abc_revenue_inserted
+    AFTER INSERT OR DELETE ON dashboard_daily_product_rollup
+    FOR EACH ROW
+    EXECUTE FUNCTION product_abc_track_revenue();
+
+-- Quantity-only changes do not move the curve
+CREATE TRIGGER trigger_product_abc_revenue_updated
+    AFTER UPDATE ON dashboard_daily_product_rollup
+    FOR EACH ROW
+    WHEN (OLD.total_revenue IS DISTINCT FROM NEW.total_revenue OR OLD.sale_date <> NEW.sale_date)
+    EXECUTE FUNCTION product_abc_track_revenue();
+
+-- =====================================================
+-- Classification of one window
+-- =====================================================
+-- A product is class A while the revenue of the products ranked above it is below
+-- class_a_share of the total (so the product crossing the threshold is still A), B likewise
+-- for class_b_share, C otherwise. Active products without sales in the window are C.
+CREATE OR REPLACE FUNCTION classify_products_abc(
+    p_window_days INTEGER,
+    p_class_a_share NUMERIC,
+    p_class_b_share NUMERIC)
+RETURNS INTEGER AS $$
+DECLARE
+    v_window_start DATE := CURRENT_DATE - (p_window_days - 1);
+    v_total NUMERIC;
+    v_count INTEGER;
+BEGIN
+    DELETE FROM product_abc_classification WHERE window_days = p_window_days;
+
+    WITH sales AS (
+        SELECT product_id, SUM(total_revenue) AS revenue
+        FROM dashboard_daily_product_rollup
+        WHERE sale_date BETWEEN v_window_start AND CURRENT_DATE
+        GROUP BY product_id
+        HAVING SUM(total_revenue) > 0
+    ),
+    candidates AS (
+        SELECT product_id, revenue FROM sales
+        UNION ALL
+        SELECT p.id, 0
+        FROM products p
+        WHERE p.ativo = true
+          AND NOT EXISTS (SELECT 1 FROM sales s WHERE s.product_id = p.id)
+    ),
+    ranked AS (
+        SELECT product_id,
+               revenue,
+               ROW_NUMBER() OVER (ORDER BY revenue DESC, product_id) AS rank_position,
+               SUM(revenue) OVER (ORDER BY revenue DESC, product_id ROWS UNBOUNDED PRECEDING) AS cumulative,
+               SUM(revenue) OVER () AS total
+        FROM candidates
+    )
+    INSERT INTO product_abc_classification (
+        window_days, product_id, revenue, revenue_share, cumulative_share,
+        rank_position, abc_class, computed_at)
+    SELECT p_window_days,
+           product_id,
+           revenue,
+           CASE WHEN total > 0 THEN ROUND(revenue / total, 6) ELSE 0 END,
+           CASE WHEN total > 0 THEN ROUND(cumulative / total, 6) ELSE 0 END,
+           rank_position,
+           CASE
+               WHEN revenue > 0 AND cumulative - revenue < p_class_a_share * total THEN 'A'
+               WHEN revenue > 0 AND cumulative - revenue < p_class_b_share * total THEN 'B'
+               ELSE 'C'
+           END,
+           NOW()
+    FROM ranked;
+
+    SELECT COUNT(*), COALESCE(SUM(revenue), 0)
+    INTO v_count, v_total
+    FROM product_abc_classification
+    WHERE window_days = p_window_days;
+
+    INSERT INTO product_abc_runs AS r (
+        window_days, window_start, window_end, class_a_share, class_b_share,
+        total_revenue, classified_products, computed_at)
+    VALUES (
+        p_window_days, v_window_start, CURRENT_DATE, p_class_a_share, p_class_b_share,
+        v_total, v_count, NOW())
+    ON CONFLICT (window_days) DO UPDATE SET
+        window_start = EXCLUDED.window_start,
+        window_end = EXCLUDED.window_end,
+        class_a_share = EXCLUDED.class_a_share,
+        class_b_share = EXCLUDED.class_b_share,
+        total_revenue = EXCLUDED.total_revenue,
+        classified_products = EXCLUDED.classified_products,
+        computed_at = EXCLUDED.computed_at;
+
+    RETURN v_count;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON FUNCTION classify_products_abc(INTEGER, NUMERIC, NUMERIC) IS 'Recalcula a curva ABC de uma janela a partir de dashboard_daily_product_rollup';
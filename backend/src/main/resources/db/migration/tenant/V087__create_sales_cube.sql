@@ -0,0 +1,419 @@
+-- V087__create_sales_cube.sql
+-- Sales report cube: daily pre-aggregates of orders / order_items, so period reports sum a
+-- few rows per day instead of scanning every order of the range.
+--
+-- Grain:
+--   sales_cube_daily_products  (day, product, category)  items, quantity, revenue
+--   sales_cube_daily           (day)  order-level sums (tickets, discounts, payment);
+--                              these do not add up across products, so they get their own row
+--   sales_cube_daily_customers (day, customer)  exact distinct customers for any period
+--                              (distinct counts cannot be summed across days)
+--
+-- Closed days (up to sales_cube_state.built_through) are read from the cube; later days (in
+-- practice only today) are aggregated live from orders with the same functions that build
+-- the cube. refresh_sales_cube() (SalesCubeRefreshJob) builds new closed days, re-aggregates
+-- the last closed day on every run (transactions that straddled midnight) and any closed day
+-- queued in sales_cube_dirty_days by late changes to its orders.
+--
+-- Orders do not record a sales channel (the column V022 expects was never added to V013's
+-- orders), so the cube has no channel dimension; a channel goes into the grain once orders
+-- store a real one. Also recreates get_sales_report_by_period on top of the cube.
+
+-- =====================================================
+-- Cube
+-- =====================================================
+CREATE TABLE IF NOT EXISTS sales_cube_daily (
+    sale_date DATE NOT NULL,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    item_count BIGINT NOT NULL DEFAULT 0,
+    total_quantity NUMERIC NOT NULL DEFAULT 0,
+    total_subtotal NUMERIC NOT NULL DEFAULT 0,
+    total_discount NUMERIC NOT NULL DEFAULT 0,
+    total_shipping NUMERIC NOT NULL DEFAULT 0,
+    total_sales NUMERIC NOT NULL DEFAULT 0,
+    min_ticket NUMERIC,
+    max_ticket NUMERIC,
+    first_sale_time TIMESTAMP,
+    last_sale_time TIMESTAMP,
+    paid_order_count BIGINT NOT NULL DEFAULT 0,
+    pending_payment_order_count BIGINT NOT NULL DEFAULT 0,
+    paid_amount NUMERIC NOT NULL DEFAULT 0,
+    PRIMARY KEY (sale_date)
+);
+
+COMMENT ON TABLE sales_cube_daily IS 'Cubo de vendas: totais por dia (pedidos não cancelados/estornados/falhos)';
+
+CREATE TABLE IF NOT EXISTS sales_cube_daily_products (
+    sale_date DATE NOT NULL,
+    product_id UUID NOT NULL,
+    category_id UUID NOT NULL,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    item_count BIGINT NOT NULL DEFAULT 0,
+    total_quantity NUMERIC NOT NULL DEFAULT 0,
+    total_revenue NUMERIC NOT NULL DEFAULT 0,
+    PRIMARY KEY (sale_date, product_id, category_id)
+);
+
+COMMENT ON TABLE sales_cube_daily_products IS 'Cubo de vendas: itens por dia, produto e categoria (categoria do produto quando o dia foi consolidado)';
+
+CREATE TABLE IF NOT EXISTS sales_cube_daily_customers (
+    sale_date DATE NOT NULL,
+    customer_id UUID NOT NULL,
+    PRIMARY KEY (sale_date, customer_id)
+);
+
+COMMENT ON TABLE sales_cube_daily_customers IS 'Cubo de vendas: clientes com pedido por dia (contagem distinta por período)';
+
+CREATE TABLE IF NOT EXISTS sales_cube_state (
+    id BOOLEAN PRIMARY KEY DEFAULT true CHECK (id),
+    built_through DATE,
+    refreshed_at TIMESTAMP
+);
+
+INSERT INTO sales_cube_state (id) VALUES (true) ON CONFLICT (id) DO NOTHING;
+
+COMMENT ON TABLE sales_cube_state IS 'Cubo de vendas: último dia consolidado (dias posteriores são lidos direto de orders)';
+
+CREATE TABLE IF NOT EXISTS sales_cube_dirty_days (
+    sale_date DATE PRIMARY KEY
+);
+
+COMMENT ON TABLE sales_cube_dirty_days IS 'Cubo de vendas: dias fechados com pedidos alterados, reconsolidados pelo job';
+
+-- =====================================================
+-- Late changes to closed days
+-- =====================================================
+-- Only days before today are queued, so writes to today's orders never touch the queue
+CREATE OR REPLACE FUNCTION sales_cube_queue_day(p_day DATE)
+RETURNS VOID AS $$
+BEGIN
+    IF p_day < CURRENT_DATE THEN
+        INSERT INTO sales_cube_dirty_days (sale_date)
+        VALUES (p_day)
+        ON CONFLICT (sale_date) DO NOTHING;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION sales_cube_track_order()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM sales_cube_queue_day(OLD.created_at::date);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM sales_cube_queue_day(NEW.created_at::date);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_orders_sales_cube
+    AFTER INSERT OR DELETE OR UPDATE OF status, created_at, customer_id, subtotal, discount_amount,
+        shipping_amount, total, payment_status ON orders
+    FOR EACH ROW
+    EXECUTE FUNCTION sales_cube_track_order();
+
+CREATE OR REPLACE FUNCTION sales_cube_track_order_item()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM sales_cube_queue_day(o.created_at::date) FROM orders o WHERE o.id = OLD.order_id;
+    END IF;
+    IF TG_OP = 'INSERT' OR (TG_OP = 'UPDATE' AND NEW.order_id <> OLD.order_id) THEN
+        PERFORM sales_cube_queue_day(o.created_at::date) FROM orders o WHERE o.id = NEW.order_id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_order_items_sales_cube
+    AFTER INSERT OR DELETE OR UPDATE OF order_id, product_id, quantity, total ON order_items
+    FOR EACH ROW
+    EXECUTE FUNCTION sales_cube_track_order_item();
+
+-- =====================================================
+-- Aggregation (builds the cube and serves the live days)
+-- =====================================================
+CREATE OR REPLACE FUNCTION sales_cube_aggregate_orders(p_from DATE, p_to DATE)
+RETURNS TABLE (
+    sale_date DATE,
+    order_count BIGINT,
+    item_count BIGINT,
+    total_quantity NUMERIC,
+    total_subtotal NUMERIC,
+    total_discount NUMERIC,
+    total_shipping NUMERIC,
+    total_sales NUMERIC,
+    min_ticket NUMERIC,
+    max_ticket NUMERIC,
+    first_sale_time TIMESTAMP,
+    last_sale_time TIMESTAMP,
+    paid_order_count BIGINT,
+    pending_payment_order_count BIGINT,
+    paid_amount NUMERIC
+) AS $$
+    SELECT o.created_at::date,
+           COUNT(*),
+           COALESCE(SUM(i.item_count), 0)::BIGINT,
+           COALESCE(SUM(i.quantity), 0),
+           SUM(o.subtotal),
+           SUM(o.discount_amount),
+           SUM(o.shipping_amount),
+           SUM(o.total),
+           MIN(o.total),
+           MAX(o.total),
+           MIN(o.created_at),
+           MAX(o.created_at),
+           COUNT(*) FILTER (WHERE o.payment_status = 'CAPTURED'),
+           COUNT(*) FILTER (WHERE o.payment_status IN ('PENDING', 'AUTHORIZED')),
+           COALESCE(SUM(o.total) FILTER (WHERE o.payment_status = 'CAPTURED'), 0)
+    FROM orders o
+    LEFT JOIN LATERAL (
+        SELECT COUNT(*) AS item_count, SUM(oi.quantity) AS quantity
+        FROM order_items oi
+        WHERE oi.order_id = o.id
+    ) i ON true
+    WHERE o.created_at >= p_from
+      AND o.created_at < p_to + 1
+      AND o.status NOT IN ('CANCELLED', 'REFUNDED', 'FAILED')
+    GROUP BY o.created_at::date
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION sales_cube_aggregate_products(p_from DATE, p_to DATE)
+RETURNS TABLE (
+    sale_date DATE,
+    product_id UUID,
+    category_id UUID,
+    order_count BIGINT,
+    item_count BIGINT,
+    total_quantity NUMERIC,
+    total_revenue NUMERIC
+) AS $$
+    SELECT o.created_at::date,
+           oi.product_id,
+           p.category_id,
+           COUNT(DISTINCT o.id),
+           COUNT(*),
+           SUM(oi.quantity),
+           SUM(oi.total)
+    FROM order_items oi
+    INNER JOIN orders o ON o.id = oi.order_id
+    INNER JOIN products p ON p.id = oi.product_id
+    WHERE o.created_at >= p_from
+      AND o.created_at < p_to + 1
+      AND o.status NOT IN ('CANCELLED', 'REFUNDED', 'FAILED')
+    GROUP BY o.created_at::date, oi.product_id, p.category_id
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION sales_cube_aggregate_customers(p_from DATE, p_to DATE)
+RETURNS TABLE (
+    sale_date DATE,
+    customer_id UUID
+) AS $$
+    SELECT DISTINCT o.created_at::date, o.customer_id
+    FROM orders o
+    WHERE o.created_at >= p_from
+      AND o.created_at < p_to + 1
+      AND o.status NOT IN ('CANCELLED', 'REFUNDED', 'FAILED')
+$$ LANGUAGE sql STABLE;
+
+-- =====================================================
+-- Reads: cube up to built_through, live afterwards
+-- =====================================================
+CREATE OR REPLACE FUNCTION sales_cube_built_through()
+RETURNS DATE AS $$
+    SELECT COALESCE((SELECT built_through FROM sales_cube_state), '-infinity'::date)
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION sales_cube_days(p_start DATE, p_end DATE)
+RETURNS TABLE (
+    sale_date DATE,
+    order_count BIGINT,
+    item_count BIGINT,
+    total_quantity NUMERIC,
+    total_subtotal NUMERIC,
+    total_discount NUMERIC,
+    total_shipping NUMERIC,
+    total_sales NUMERIC,
+    min_ticket NUMERIC,
+    max_ticket NUMERIC,
+    first_sale_time TIMESTAMP,
+    last_sale_time TIMESTAMP,
+    paid_order_count BIGINT,
+    pending_payment_order_count BIGINT,
+    paid_amount NUMERIC
+) AS $$
+    SELECT c.sale_date, c.order_count, c.item_count, c.total_quantity,
+           c.total_subtotal, c.total_discount, c.total_shipping, c.total_sales,
+           c.min_ticket, c.max_ticket, c.first_sale_time, c.last_sale_time,
+           c.paid_order_count, c.pending_payment_order_count, c.paid_amount
+    FROM sales_cube_daily c
+    WHERE c.sale_date >= COALESCE(p_start, '-infinity'::date)
+      AND c.sale_date <= LEAST(COALESCE(p_end, 'infinity'::date), sales_cube_built_through())
+    UNION ALL
+    SELECT *
+    FROM sales_cube_aggregate_orders(
+        GREATEST(COALESCE(p_start, '-infinity'::date), sales_cube_built_through() + 1),
+        COALESCE(p_end, 'infinity'::date))
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION sales_cube_day_products(p_start DATE, p_end DATE)
+RETURNS TABLE (
+    sale_date DATE,
+    product_id UUID,
+    category_id UUID,
+    order_count BIGINT,
+    item_count BIGINT,
+    total_quantity NUMERIC,
+    total_revenue NUMERIC
+) AS $$
+    SELECT c.sale_date, c.product_id, c.category_id,
+           c.order_count, c.item_count, c.total_quantity, c.total_revenue
+    FROM sales_cube_daily_products c
+    WHERE c.sale_date >= COALESCE(p_start, '-infinity'::date)
+      AND c.sale_date <= LEAST(COALESCE(p_end, 'infinity'::date), sales_cube_built_through())
+    UNION ALL
+    SELECT *
+    FROM sales_cube_aggregate_products(
+        GREATEST(COALESCE(p_start, '-infinity'::date), sales_cube_built_through() + 1),
+        COALESCE(p_end, 'infinity'::date))
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION sales_cube_day_customers(p_start DATE, p_end DATE)
+RETURNS TABLE (
+    sale_date DATE,
+    customer_id UUID
+) AS $$
+    SELECT c.sale_date, c.customer_id
+    FROM sales_cube_daily_customers c
+    WHERE c.sale_date >= COALESCE(p_start, '-infinity'::date)
+      AND c.sale_date <= LEAST(COALESCE(p_end, 'infinity'::date), sales_cube_built_through())
+    UNION ALL
+    SELECT *
+    FROM sales_cube_aggregate_customers(
+        GREATEST(COALESCE(p_start, '-infinity'::date), sales_cube_built_through() + 1),
+        COALESCE(p_end, 'infinity'::date))
+$$ LANGUAGE sql STABLE;
+
+-- =====================================================
+-- Build
+-- =====================================================
+CREATE OR REPLACE FUNCTION sales_cube_build(p_from DATE, p_to DATE)
+RETURNS VOID AS $$
+BEGIN
+    DELETE FROM sales_cube_daily WHERE sale_date BETWEEN p_from AND p_to;
+    DELETE FROM sales_cube_daily_products WHERE sale_date BETWEEN p_from AND p_to;
+    DELETE FROM sales_cube_daily_customers WHERE sale_date BETWEEN p_from AND p_to;
+
+    INSERT INTO sales_cube_daily
+    SELECT * FROM sales_cube_aggregate_orders(p_from, p_to);
+
+    INSERT INTO sales_cube_daily_products
+    SELECT * FROM sales_cube_aggregate_products(p_from, p_to);
+
+    INSERT INTO sales_cube_daily_customers
+    SELECT * FROM sales_cube_aggregate_customers(p_from, p_to);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Returns the number of days (re)built, or -1 if another session is refreshing this schema
+CREATE OR REPLACE FUNCTION refresh_sales_cube()
+RETURNS INTEGER AS $$
+DECLARE
+    v_through DATE := CURRENT_DATE - 1;
+    v_from DATE;
+    v_dirty DATE[];
+    v_day DATE;
+    v_days INTEGER := 0;
+BEGIN
+    IF NOT pg_try_advisory_xact_lock(hashtext('sales-cube:' || current_schema())) THEN
+        RETURN -1;
+    END IF;
+
+    -- First build starts at the first order; later runs redo the last built day
+    SELECT built_through INTO v_from FROM sales_cube_state;
+    IF v_from IS NULL THEN
+        SELECT MIN(created_at)::date INTO v_from FROM orders;
+    END IF;
+
+    -- Queued days from v_from on are rebuilt below, later ones are still read live
+    WITH consumed AS (DELETE FROM sales_cube_dirty_days RETURNING sale_date)
+    SELECT array_agg(sale_date ORDER BY sale_date) INTO v_dirty
+    FROM consumed
+    WHERE sale_date < COALESCE(v_from, v_through + 1);
+
+    FOREACH v_day IN ARRAY COALESCE(v_dirty, '{}'::date[])
+    LOOP
+        PERFORM sales_cube_build(v_day, v_day);
+        v_days := v_days + 1;
+    END LOOP;
+
+    IF v_from IS NOT NULL AND v_from <= v_through THEN
+        PERFORM sales_cube_build(v_from, v_through);
+        v_days := v_days + (v_through - v_from + 1);
+    END IF;
+
+    INSERT INTO sales_cube_state (id, built_through, refreshed_at)
+    VALUES (true, v_through, NOW())
+    ON CONFLICT (id) DO UPDATE SET
+        built_through = EXCLUDED.built_through,
+        refreshed_at = EXCLUDED.refreshed_at;
+
+    RETURN v_days;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON FUNCTION refresh_sales_cube() IS 'Consolida no cubo de vendas os dias fechados novos, o último dia fechado e os dias alterados';
+
+-- =====================================================
+-- Report function (missing since V022)
+-- =====================================================
+DROP FUNCTION IF EXISTS get_sales_report_by_period(DATE, DATE, VARCHAR, VARCHAR);
+
+CREATE OR REPLACE FUNCTION get_sales_report_by_period(
+    p_start_date DATE,
+    p_end_date DATE,
+    p_group_by VARCHAR)
+RETURNS TABLE (
+    period_key TEXT,
+    order_count BIGINT,
+    unique_customers BIGINT,
+    total_sales NUMERIC,
+    average_ticket NUMERIC,
+    total_items BIGINT,
+    total_quantity NUMERIC
+) AS $$
+    WITH days AS (
+        SELECT date_trunc(p_group_by, d.sale_date::timestamp)::date AS period_start,
+               SUM(d.order_count)::BIGINT AS order_count,
+               SUM(d.total_sales) AS total_sales,
+               SUM(d.item_count)::BIGINT AS total_items,
+               SUM(d.total_quantity) AS total_quantity
+        FROM sales_cube_days(p_start_date, p_end_date) d
+        GROUP BY 1
+    ),
+    customers AS (
+        SELECT date_trunc(p_group_by, c.sale_date::timestamp)::date AS period_start,
+               COUNT(DISTINCT c.customer_id) AS unique_customers
+        FROM sales_cube_day_customers(p_start_date, p_end_date) c
+        GROUP BY 1
+    )
+    SELECT CASE p_group_by
+               WHEN 'year' THEN to_char(d.period_start, 'YYYY')
+               WHEN 'month' THEN to_char(d.period_start, 'YYYY-MM')
+               WHEN 'week' THEN to_char(d.period_start, 'IYYY-"W"IW')
+               ELSE to_char(d.period_start, 'YYYY-MM-DD')
+           END,
+           d.order_count,
+           COALESCE(c.unique_customers, 0),
+           d.total_sales,
+           ROUND(d.total_sales / NULLIF(d.order_count, 0), 2),
+           d.total_items,
+           d.total_quantity
+    FROM days d
+    LEFT JOIN customers c ON c.period_start = d.period_start
+    ORDER BY d.period_start DESC
+$$ LANGUAGE sql STABLE;
+
+COMMENT ON FUNCTION get_sales_report_by_period(DATE, DATE, VARCHAR) IS 'Vendas por período (day, week, month, year) a partir do cubo de vendas';
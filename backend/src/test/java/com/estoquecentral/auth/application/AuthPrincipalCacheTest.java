@@ -0,0 +1,139 @@
+package com.estoquecentral.auth.application;
+
+import com.estoquecentral.shared.tenant.TenantContext;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for AuthPrincipalCache
+ *
+ * <p>Tests caching of parsed tokens, active flags and roles, and their invalidation.
+ */
+@DisplayName("AuthPrincipalCache Unit Tests")
+class AuthPrincipalCacheTest {
+
+    private static final long TTL_MS = 60_000;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private AuthPrincipalCache cache;
+    private UUID userId;
+    private String tenantA;
+    private String tenantB;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AuthPrincipalCache(null, 100, TTL_MS, clock::get);
+        userId = UUID.randomUUID();
+        tenantA = UUID.randomUUID().toString();
+        tenantB = UUID.randomUUID().toString();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should parse a token once and never serve it past its expiration")
+    void shouldCacheClaimsUntilTokenExpires() {
+        // Given
+        AtomicInteger parses = new AtomicInteger();
+        Claims claims = Jwts.claims()
+                .subject(userId.toString())
+                .expiration(new Date(clock.get() + 5_000))
+                .build();
+
+        // When
+        cache.getClaims("token", token -> {
+            parses.incrementAndGet();
+            return claims;
+        });
+        Claims cached = cache.getClaims("token", token -> {
+            parses.incrementAndGet();
+            return claims;
+        });
+
+        // Then
+        assertThat(cached.getSubject()).isEqualTo(userId.toString());
+        assertThat(parses.get()).isEqualTo(1);
+
+        // When - the token expires (before the cache TTL)
+        clock.addAndGet(5_000);
+        cache.getClaims("token", token -> {
+            parses.incrementAndGet();
+            return claims;
+        });
+
+        // Then
+        assertThat(parses.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should reload the active flag after the user is deactivated")
+    void shouldInvalidateActiveFlag() {
+        // Given
+        assertThat(cache.isActive(userId, () -> true)).isTrue();
+        assertThat(cache.isActive(userId, () -> false)).isTrue();
+
+        // When
+        cache.invalidateUser(userId);
+
+        // Then
+        assertThat(cache.isActive(userId, () -> false)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should keep roles per tenant and invalidate only the current tenant")
+    void shouldInvalidateRolesPerTenant() {
+        // Given
+        cache.getRoles(tenantA, userId, () -> Set.of("ADMIN"));
+        cache.getRoles(tenantB, userId, () -> Set.of("VENDEDOR"));
+
+        // When
+        TenantContext.setTenantId(tenantA);
+        cache.invalidateTenantRoles();
+
+        // Then
+        assertThat(cache.getRoles(tenantA, userId, () -> Set.of("GERENTE"))).containsExactly("GERENTE");
+        assertThat(cache.getRoles(tenantB, userId, () -> Set.of("GERENTE"))).containsExactly("VENDEDOR");
+    }
+
+    @Test
+    @DisplayName("Should expire entries after the TTL")
+    void shouldExpireEntriesAfterTtl() {
+        // Given
+        cache.getRoles(tenantA, userId, () -> Set.of("ADMIN"));
+
+        // When
+        clock.addAndGet(TTL_MS);
+
+        // Then
+        assertThat(cache.getRoles(tenantA, userId, () -> Set.of("GERENTE"))).containsExactly("GERENTE");
+    }
+
+    @Test
+    @DisplayName("Should not store a value loaded before an invalidation")
+    void shouldDiscardLoadRacingInvalidation() {
+        // When - the user is deactivated while the flag is being loaded
+        boolean active = cache.isActive(userId, () -> {
+            cache.invalidateUser(userId);
+            return true;
+        });
+
+        // Then
+        assertThat(active).isTrue();
+        assertThat(cache.isActive(userId, () -> false)).isFalse();
+    }
+}
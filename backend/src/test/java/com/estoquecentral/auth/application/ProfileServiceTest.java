@@ -41,6 +41,9 @@ class ProfileServiceTest {
     @Mock
     private RoleRepository roleRepository;
 
+    @Mock
+    private AuthPrincipalCache principalCache;
+
     @InjectMocks
     private ProfileService profileService;
 
@@ -214,6 +217,7 @@ class ProfileServiceTest {
         verify(profileRepository, times(1)).findById(profileId);
         verify(profileRoleRepository, times(1)).deleteByProfileId(profileId);
         verify(profileRoleRepository, times(2)).save(any(ProfileRole.class));
+        verify(principalCache, times(1)).invalidateTenantRoles();
     }
 
     @Test
@@ -39,6 +39,9 @@ class RoleServiceTest {
     @Mock
     private RoleRepository roleRepository;
 
+    @Mock
+    private AuthPrincipalCache principalCache;
+
     @InjectMocks
     private RoleService roleService;
 
@@ -238,6 +241,7 @@ class RoleServiceTest {
         // Then
         verify(roleRepository, times(1)).findById(roleId);
         verify(roleRepository, times(1)).save(argThat(role -> !role.getAtivo()));
+        verify(principalCache, times(1)).invalidateTenantRoles();
     }
 
     @Test
@@ -0,0 +1,311 @@
+package com.estoquecentral.integration;
+
+import com.estoquecentral.reporting.adapter.in.dto.DailySalesByChannelDTO;
+import com.estoquecentral.reporting.adapter.in.dto.DashboardSummaryDTO;
+import com.estoquecentral.reporting.adapter.in.dto.InventoryValueSummaryDTO;
+import com.estoquecentral.reporting.adapter.in.dto.PendingOrdersSummaryDTO;
+import com.estoquecentral.reporting.adapter.in.dto.TopProductDTO;
+import com.estoquecentral.reporting.adapter.out.DashboardRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration test for the dashboard rollups (V085) against PostgreSQL
+ *
+ * <p>Writes orders, items and inventory through plain SQL (so only the triggers feed the
+ * rollup deltas), merges the deltas (V088) and checks that {@link DashboardRepository}
+ * returns the same figures as the <code>v_*</code> dashboard views it replaced.
+ *
+ * <p>Run locally with Docker: <code>mvn test -Dtest=DashboardRollupIntegrationTest</code>
+ */
+@DisplayName("Dashboard Rollup Integration Tests (rollups vs views)")
+class DashboardRollupIntegrationTest {
+
+    private static final String SCHEMA = "tenant_dashboard_rollup";
+
+
+    private static DataSource dataSource;
+    private static JdbcTemplate jdbc;
+    private static DashboardRepository dashboardRepository;
+
+    private final UUID tenantId = UUID.randomUUID();
+    private UUID customerId;
+    private UUID categoryId;
+    private TenantTestData data;
+
+    @BeforeAll
+    static void setUp() {
+        dataSource = TenantTestDatabase.dataSource(SCHEMA);
+        jdbc = new JdbcTemplate(dataSource);
+        dashboardRepository = new DashboardRepository(new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    @BeforeEach
+    void cleanUp() {
+        jdbc.execute("DELETE FROM order_items");
+        jdbc.execute("DELETE FROM orders");
+        jdbc.execute("DELETE FROM inventory");
+
+        data = new TenantTestData(jdbc, tenantId);
+        customerId = data.insertCustomer();
+        categoryId = data.insertCategory("Dashboard");
+    }
+
+    @Test
+    @DisplayName("Should match the views after inserts, status changes and deletes")
+    void shouldMatchViewsAfterIncrementalChanges() {
+        givenOrdersAndStock();
+
+        assertRollupsMatchViews();
+    }
+
+    @Test
+    @DisplayName("Should repair drifted rollups with a rebuild and drop the deltas it covers")
+    void shouldRepairRollupsOnRebuild() {
+        givenOrdersAndStock();
+        dashboardRepository.mergeRollupDeltas();
+        jdbc.execute("UPDATE dashboard_daily_sales_rollup SET total_sales = 0, order_count = order_count + 5");
+        jdbc.execute("DELETE FROM dashboard_inventory_rollup");
+        jdbc.execute("DELETE FROM dashboard_pending_orders_rollup");
+        UUID pendingDelta = data.insertOrder(customerId, "CONFIRMED", "PENDING", LocalDateTime.now().minusMinutes(5), "20.00");
+        data.insertItem(pendingDelta, data.insertProduct("NEW", categoryId), "1", "20.00");
+
+        dashboardRepository.rebuildRollups();
+
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM dashboard_daily_sales_delta", Integer.class)).isZero();
+        assertRollupsMatchViews();
+    }
+
+    @Test
+    @DisplayName("Should not block a writer on the rollup row of an open transaction (same day, status and location)")
+    void shouldNotBlockConcurrentWriters() throws SQLException {
+        UUID keyboard = data.insertProduct("KBD", categoryId);
+        UUID mouse = data.insertProduct("MSE", categoryId);
+        UUID warehouse = data.insertLocation("WH");
+        data.insertInventory(keyboard, warehouse, "10", "0", null);
+        data.insertInventory(mouse, warehouse, "10", "0", null);
+        dashboardRepository.mergeRollupDeltas();
+
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            first.setAutoCommit(false);
+            second.setAutoCommit(false);
+            sellWithin(first, keyboard, warehouse);
+
+            // Under the V085 triggers this waited on the rows locked by the open transaction
+            try (Statement statement = second.createStatement()) {
+                statement.execute("SET LOCAL lock_timeout = '2s'");
+            }
+            sellWithin(second, mouse, warehouse);
+            second.commit();
+            first.commit();
+        }
+
+        assertRollupsMatchViews();
+    }
+
+    /** One confirmed order for today with one unit of the product, taken from the location's stock */
+    private void sellWithin(Connection connection, UUID productId, UUID locationId) throws SQLException {
+        UUID orderId = UUID.randomUUID();
+        try (PreparedStatement order = connection.prepareStatement(
+                "INSERT INTO orders (id, tenant_id, order_number, customer_id, status, subtotal, total) "
+                        + "VALUES (?, ?, ?, ?, 'CONFIRMED', 25.00, 25.00)");
+             PreparedStatement item = connection.prepareStatement(
+                "INSERT INTO order_items (id, tenant_id, order_id, product_id, product_name, product_sku, "
+                        + "quantity, unit_price, subtotal, total) VALUES (?, ?, ?, ?, 'Item', 'SKU', 1, 25.00, 25.00, 25.00)");
+             PreparedStatement stock = connection.prepareStatement(
+                "UPDATE inventory SET quantity = quantity - 1 WHERE product_id = ? AND location_id = ?")) {
+            order.setObject(1, orderId);
+            order.setObject(2, tenantId);
+            order.setString(3, "ORD-" + orderId);
+            order.setObject(4, customerId);
+            order.executeUpdate();
+            item.setObject(1, UUID.randomUUID());
+            item.setObject(2, tenantId);
+            item.setObject(3, orderId);
+            item.setObject(4, productId);
+            item.executeUpdate();
+            stock.setObject(1, productId);
+            stock.setObject(2, locationId);
+            stock.executeUpdate();
+        }
+    }
+
+    private void givenOrdersAndStock() {
+        LocalDateTime now = LocalDateTime.now();
+        UUID keyboard = data.insertProduct("KBD", categoryId);
+        UUID mouse = data.insertProduct("MSE", categoryId);
+        UUID monitor = data.insertProduct("MON", categoryId);
+        UUID warehouse = data.insertLocation("WH");
+        UUID store = data.insertLocation("ST");
+
+        // Today: a confirmed order with two items of the same product, a delivered one
+        UUID confirmed = data.insertOrder(customerId, "CONFIRMED", "PENDING", now.minusHours(3), "250.00");
+        data.insertItem(confirmed, keyboard, "2", "50.00");
+        data.insertItem(confirmed, keyboard, "1", "50.00");
+        data.insertItem(confirmed, mouse, "1", "100.00");
+        UUID delivered = data.insertOrder(customerId, "DELIVERED", "PENDING", now.minusHours(2), "80.00");
+        data.insertItem(delivered, mouse, "4", "20.00");
+
+        // A pending order without items and an overdue pending order
+        data.insertOrder(customerId, "PENDING", "PENDING", now.minusMinutes(30), "10.00");
+        UUID overdue = data.insertOrder(customerId, "PENDING", "PENDING", now.minusDays(3), "300.00");
+        data.insertItem(overdue, monitor, "1", "300.00");
+
+        // Status change, item change and removal, order removal
+        UUID cancelled = data.insertOrder(customerId, "PENDING", "PENDING", now.minusHours(1), "60.00");
+        data.insertItem(cancelled, monitor, "2", "30.00");
+        jdbc.update("UPDATE orders SET status = 'CANCELLED' WHERE id = ?", cancelled);
+        UUID processing = data.insertOrder(customerId, "PENDING", "PENDING", now.minusMinutes(50), "90.00");
+        data.insertItem(processing, keyboard, "3", "30.00");
+        UUID removedItem = data.insertItem(processing, mouse, "1", "15.00");
+        jdbc.update("DELETE FROM order_items WHERE id = ?", removedItem);
+        jdbc.update("UPDATE order_items SET quantity = 5, total = 150.00 WHERE order_id = ?", processing);
+        jdbc.update("UPDATE orders SET status = 'PROCESSING', total = 150.00 WHERE id = ?", processing);
+        UUID deleted = data.insertOrder(customerId, "CONFIRMED", "PENDING", now.minusHours(4), "40.00");
+        data.insertItem(deleted, monitor, "1", "40.00");
+        jdbc.update("DELETE FROM orders WHERE id = ?", deleted);
+
+        // Stock: balances, reservations, a row emptied and a variant row without product
+        data.insertInventory(keyboard, warehouse, "10", "2", "5");
+        data.insertInventory(mouse, warehouse, "3", "0", "20");
+        UUID emptied = data.insertInventory(monitor, warehouse, "4", "0", null);
+        data.insertInventory(monitor, store, "7", "0", "1");
+        jdbc.update("UPDATE inventory SET reserved_quantity = 4 WHERE id = ?", emptied);
+        jdbc.update("UPDATE inventory SET quantity = quantity - 1 WHERE product_id = ? AND location_id = ?",
+                keyboard, warehouse);
+        jdbc.update("INSERT INTO inventory (tenant_id, variant_id, location_id, quantity, reserved_quantity) "
+                + "VALUES (?, ?, ?, 6, 0)", tenantId, UUID.randomUUID(), store);
+    }
+
+    private void assertRollupsMatchViews() {
+        dashboardRepository.mergeRollupDeltas();
+
+        assertThat(dashboardRepository.getDailySalesByChannel())
+                .usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .ignoringCollectionOrder()
+                .isEqualTo(jdbc.query("SELECT * FROM v_daily_sales_by_channel", this::dailySales));
+
+        assertThat(dashboardRepository.getPendingOrdersSummary())
+                .usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(jdbc.query("SELECT * FROM v_pending_orders_summary", this::pendingOrders));
+
+        assertThat(dashboardRepository.getInventoryValueSummary())
+                .usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .ignoringCollectionOrder()
+                .isEqualTo(jdbc.query("SELECT * FROM v_inventory_value_summary", this::inventoryValue));
+
+        assertThat(dashboardRepository.getTopProducts(10))
+                .usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .ignoringFields("rankPosition")
+                .ignoringCollectionOrder()
+                .isEqualTo(jdbc.query("SELECT * FROM v_top_products_today", this::topProduct));
+
+        assertThat(dashboardRepository.getDashboardSummary())
+                .usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .ignoringFields("snapshotTime")
+                .isEqualTo(jdbc.queryForObject("SELECT * FROM v_dashboard_summary", this::summary));
+    }
+
+    private DailySalesByChannelDTO dailySales(ResultSet rs, int rowNum) throws SQLException {
+        return new DailySalesByChannelDTO(
+                rs.getString("status"),
+                rs.getInt("order_count"),
+                rs.getInt("item_count"),
+                rs.getBigDecimal("total_quantity"),
+                rs.getBigDecimal("total_sales"),
+                rs.getBigDecimal("average_ticket"),
+                rs.getTimestamp("first_order_time").toLocalDateTime(),
+                rs.getTimestamp("last_order_time").toLocalDateTime()
+        );
+    }
+
+    private PendingOrdersSummaryDTO pendingOrders(ResultSet rs, int rowNum) throws SQLException {
+        return new PendingOrdersSummaryDTO(
+                rs.getString("status"),
+                rs.getString("status"),
+                rs.getInt("order_count"),
+                rs.getInt("total_items"),
+                rs.getBigDecimal("total_value"),
+                rs.getBigDecimal("average_order_value"),
+                rs.getTimestamp("oldest_order_date").toLocalDateTime(),
+                rs.getTimestamp("newest_order_date").toLocalDateTime(),
+                rs.getInt("overdue_count")
+        );
+    }
+
+    private InventoryValueSummaryDTO inventoryValue(ResultSet rs, int rowNum) throws SQLException {
+        return new InventoryValueSummaryDTO(
+                rs.getObject("location_id", UUID.class),
+                rs.getString("location_code"),
+                rs.getString("location_name"),
+                rs.getString("location_type"),
+                rs.getInt("unique_products"),
+                rs.getBigDecimal("total_quantity"),
+                rs.getBigDecimal("total_value_at_cost"),
+                rs.getBigDecimal("average_product_cost")
+        );
+    }
+
+    private TopProductDTO topProduct(ResultSet rs, int rowNum) throws SQLException {
+        return new TopProductDTO(
+                rs.getObject("product_id", UUID.class),
+                rs.getString("sku"),
+                rs.getString("product_name"),
+                rs.getString("category_name"),
+                rs.getLong("order_count"),
+                null,
+                rs.getBigDecimal("total_quantity_sold"),
+                rs.getBigDecimal("total_revenue"),
+                rs.getBigDecimal("average_price"),
+                null,
+                null,
+                null,
+                null,
+                rs.getBigDecimal("current_stock"),
+                null,
+                null,
+                (long) rowNum + 1
+        );
+    }
+
+    private DashboardSummaryDTO summary(ResultSet rs, int rowNum) throws SQLException {
+        return new DashboardSummaryDTO(
+                rs.getBigDecimal("daily_total_sales"),
+                rs.getInt("daily_order_count"),
+                rs.getInt("daily_item_count"),
+                rs.getBigDecimal("total_inventory_value"),
+                rs.getBigDecimal("total_inventory_quantity"),
+                rs.getInt("total_unique_products"),
+                rs.getInt("out_of_stock_count"),
+                rs.getInt("critical_stock_count"),
+                rs.getInt("low_stock_count"),
+                rs.getBigDecimal("total_replenishment_cost"),
+                rs.getInt("pending_orders_count"),
+                rs.getBigDecimal("pending_orders_value"),
+                rs.getInt("overdue_orders_count"),
+                rs.getTimestamp("snapshot_time").toLocalDateTime()
+        );
+    }
+}
@@ -0,0 +1,135 @@
+package com.estoquecentral.integration;
+
+import com.estoquecentral.shared.numbering.DocumentNumberService;
+import com.estoquecentral.shared.numbering.DocumentSequenceRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration test for document numbering against PostgreSQL
+ *
+ * <p>Two {@link DocumentNumberService} instances with their own connection pools stand in
+ * for two application nodes sharing one database.
+ *
+ * <p>Run locally with Docker: <code>mvn test -Dtest=DocumentNumberingIntegrationTest</code>
+ */
+@Testcontainers
+@DisplayName("Document Numbering Integration Tests (two nodes, one database)")
+class DocumentNumberingIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    private static HikariDataSource nodeADataSource;
+    private static HikariDataSource nodeBDataSource;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        nodeADataSource = dataSource();
+        nodeBDataSource = dataSource();
+        String migration = new ClassPathResource("db/migration/tenant/V080__create_document_sequences_table.sql")
+                .getContentAsString(StandardCharsets.UTF_8);
+        new JdbcTemplate(nodeADataSource).execute(migration);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        nodeADataSource.close();
+        nodeBDataSource.close();
+    }
+
+    @Test
+    @DisplayName("Should hand out unique numbers across threads on two nodes")
+    void shouldGenerateUniqueNumbersAcrossNodes() throws Exception {
+        List<String> numbers = generateConcurrently(Set.of(), 8, 200);
+
+        assertThat(numbers).hasSize(8 * 200);
+        assertThat(numbers).doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Should number gapless prefixes consecutively across two nodes")
+    void shouldGenerateGaplessNumbersAcrossNodes() throws Exception {
+        List<String> numbers = generateConcurrently(Set.of("SALE"), 4, 50);
+
+        assertThat(numbers.stream().map(number -> Integer.parseInt(number.substring(number.lastIndexOf('-') + 1))))
+                .containsExactlyInAnyOrderElementsOf(java.util.stream.IntStream.rangeClosed(1, 200).boxed().toList());
+    }
+
+    private List<String> generateConcurrently(Set<String> gaplessPrefixes, int threads, int numbersPerThread)
+            throws Exception {
+        UUID tenantId = UUID.randomUUID();
+        DocumentNumberService nodeA = node(nodeADataSource, gaplessPrefixes);
+        DocumentNumberService nodeB = node(nodeBDataSource, gaplessPrefixes);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                DocumentNumberService node = i % 2 == 0 ? nodeA : nodeB;
+                results.add(executor.submit(() -> {
+                    start.await(5, TimeUnit.SECONDS);
+                    List<String> generated = new ArrayList<>();
+                    for (int n = 0; n < numbersPerThread; n++) {
+                        generated.add(node.nextNumber(tenantId, "SALE", yearMonth -> Optional.empty()));
+                    }
+                    return generated;
+                }));
+            }
+            start.countDown();
+
+            List<String> numbers = new ArrayList<>();
+            for (Future<List<String>> result : results) {
+                numbers.addAll(result.get(60, TimeUnit.SECONDS));
+            }
+            return numbers;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static DocumentNumberService node(HikariDataSource dataSource, Set<String> gaplessPrefixes) {
+        return new DocumentNumberService(
+                new DocumentSequenceRepository(new NamedParameterJdbcTemplate(dataSource)),
+                new DataSourceTransactionManager(dataSource),
+                20,
+                gaplessPrefixes);
+    }
+
+    private static HikariDataSource dataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl());
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        dataSource.setMaximumPoolSize(8);
+        return dataSource;
+    }
+}
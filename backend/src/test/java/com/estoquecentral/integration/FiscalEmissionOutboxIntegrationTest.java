@@ -0,0 +1,168 @@
+package com.estoquecentral.integration;
+
+import com.estoquecentral.sales.adapter.out.FiscalEmissionOutboxRepository;
+import com.estoquecentral.sales.domain.FiscalEmissionTask;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the fiscal emission outbox claim, lease and retry rules
+ *
+ * <p>Runs {@link FiscalEmissionOutboxRepository} against the real public table: concurrent
+ * claims never overlap, a leased row is only claimed again after the lease expires, a row
+ * that used up its attempts is dead-lettered instead of claimed, and a manual retry requeues
+ * it with a fresh attempt count.
+ *
+ * <p>Run locally with Docker: <code>mvn test -Dtest=FiscalEmissionOutboxIntegrationTest</code>
+ */
+@DisplayName("Fiscal Emission Outbox Integration Tests")
+class FiscalEmissionOutboxIntegrationTest {
+
+    private static final int LEASE_SECONDS = 60;
+    private static final int MAX_ATTEMPTS = 2;
+
+    private static JdbcTemplate jdbc;
+    private static FiscalEmissionOutboxRepository repository;
+
+    private final UUID tenantId = UUID.randomUUID();
+
+    @BeforeAll
+    static void setUp() {
+        DataSource dataSource = TenantTestDatabase.dataSource("tenant_fiscal_outbox");
+        jdbc = new JdbcTemplate(dataSource);
+        repository = new FiscalEmissionOutboxRepository(new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    @BeforeEach
+    void clearOutbox() {
+        jdbc.update("DELETE FROM public.fiscal_emission_outbox");
+    }
+
+    @Test
+    @DisplayName("Should hand each row to exactly one of several concurrent claims")
+    void shouldNotOverlapConcurrentClaims() {
+        // Given
+        for (int i = 0; i < 40; i++) {
+            repository.enqueue(tenantId, UUID.randomUUID());
+        }
+
+        // When - four workers claim at the same time
+        List<CompletableFuture<List<FiscalEmissionTask>>> claims = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            claims.add(CompletableFuture.supplyAsync(() -> repository.claim(15, LEASE_SECONDS, MAX_ATTEMPTS)));
+        }
+
+        // Then
+        Set<UUID> claimed = new HashSet<>();
+        int total = 0;
+        for (CompletableFuture<List<FiscalEmissionTask>> claim : claims) {
+            for (FiscalEmissionTask task : claim.join()) {
+                claimed.add(task.id());
+                total++;
+                assertThat(task.attempts()).isEqualTo(1);
+            }
+        }
+        assertThat(total).isEqualTo(claimed.size()).isEqualTo(40);
+    }
+
+    @Test
+    @DisplayName("Should claim a leased row again only after its lease expires")
+    void shouldReclaimAfterLeaseExpires() {
+        // Given
+        UUID saleId = UUID.randomUUID();
+        repository.enqueue(tenantId, saleId);
+        FiscalEmissionTask first = repository.claim(10, LEASE_SECONDS, MAX_ATTEMPTS).get(0);
+
+        // When / Then - still leased
+        assertThat(repository.claim(10, LEASE_SECONDS, MAX_ATTEMPTS)).isEmpty();
+
+        // When - the worker died and the lease ran out
+        expireLease(first.id());
+        List<FiscalEmissionTask> second = repository.claim(10, LEASE_SECONDS, MAX_ATTEMPTS);
+
+        // Then
+        assertThat(second).singleElement().satisfies(task -> {
+            assertThat(task.saleId()).isEqualTo(saleId);
+            assertThat(task.attempts()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    @DisplayName("Should dead-letter a row that used up its attempts instead of claiming it")
+    void shouldDeadLetterExhaustedRows() {
+        // Given - both attempts claimed and lost
+        UUID saleId = UUID.randomUUID();
+        repository.enqueue(tenantId, saleId);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            FiscalEmissionTask task = repository.claim(10, LEASE_SECONDS, MAX_ATTEMPTS).get(0);
+            repository.recordError(task.id(), "provider timeout");
+            expireLease(task.id());
+        }
+
+        // When
+        List<FiscalEmissionTask> claimed = repository.claim(10, LEASE_SECONDS, MAX_ATTEMPTS);
+        List<FiscalEmissionTask> deadLettered = repository.deadLetterExhausted(MAX_ATTEMPTS);
+
+        // Then
+        assertThat(claimed).isEmpty();
+        assertThat(deadLettered).singleElement().satisfies(task -> assertThat(task.saleId()).isEqualTo(saleId));
+        assertThat(jdbc.queryForObject("SELECT status || ':' || last_error FROM public.fiscal_emission_outbox "
+                + "WHERE sale_id = ?", String.class, saleId)).isEqualTo("FAILED:provider timeout");
+        assertThat(repository.deadLetterExhausted(MAX_ATTEMPTS)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not dead-letter a row whose last attempt is still running")
+    void shouldNotDeadLetterLeasedRows() {
+        // Given
+        repository.enqueue(tenantId, UUID.randomUUID());
+        FiscalEmissionTask first = repository.claim(10, LEASE_SECONDS, MAX_ATTEMPTS).get(0);
+        expireLease(first.id());
+        repository.claim(10, LEASE_SECONDS, MAX_ATTEMPTS);
+
+        // When / Then - the second (last) claim is still leased
+        assertThat(repository.deadLetterExhausted(MAX_ATTEMPTS)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should requeue a dead-lettered row with a fresh attempt count on manual retry")
+    void shouldRequeueOnManualRetry() {
+        // Given
+        UUID saleId = UUID.randomUUID();
+        repository.enqueue(tenantId, saleId);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            expireLease(repository.claim(10, LEASE_SECONDS, MAX_ATTEMPTS).get(0).id());
+        }
+        repository.deadLetterExhausted(MAX_ATTEMPTS);
+
+        // When
+        repository.requeue(tenantId, saleId);
+        repository.requeue(tenantId, UUID.randomUUID());
+
+        // Then - the retried sale and a sale that had no row are both claimable
+        List<FiscalEmissionTask> claimed = repository.claim(10, LEASE_SECONDS, MAX_ATTEMPTS);
+        assertThat(claimed).hasSize(2);
+        assertThat(claimed).filteredOn(task -> task.saleId().equals(saleId))
+                .singleElement()
+                .satisfies(task -> assertThat(task.attempts()).isEqualTo(1));
+    }
+
+    private static void expireLease(UUID id) {
+        jdbc.update("UPDATE public.fiscal_emission_outbox SET locked_until = NOW() - INTERVAL '1 second' "
+                + "WHERE id = ?", id);
+    }
+}
@@ -0,0 +1,168 @@
+package com.estoquecentral.integration;
+
+import com.estoquecentral.inventory.adapter.out.InventoryBatchRepository;
+import com.estoquecentral.inventory.domain.StockLine;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the set-based basket stock decrement
+ *
+ * <p>Runs {@link InventoryBatchRepository#decrementAvailable} against the real inventory table:
+ * full baskets, partial shortfall (only satisfiable lines applied, the others untouched) and
+ * concurrent baskets over the same items in opposite order, which must serialize instead of
+ * deadlocking.
+ *
+ * <p>Run locally with Docker: <code>mvn test -Dtest=InventoryBatchRepositoryIntegrationTest</code>
+ */
+@DisplayName("Inventory Batch Repository Integration Tests")
+class InventoryBatchRepositoryIntegrationTest {
+
+    private static final String SCHEMA = "tenant_inventory_batch";
+
+    private static JdbcTemplate jdbc;
+    private static InventoryBatchRepository repository;
+    private static TransactionTemplate transactionTemplate;
+
+    private final UUID tenantId = UUID.randomUUID();
+    private UUID locationId;
+    private UUID category;
+    private TenantTestData data;
+
+    @BeforeAll
+    static void setUp() {
+        DataSource dataSource = TenantTestDatabase.dataSource(SCHEMA);
+        jdbc = new JdbcTemplate(dataSource);
+        repository = new InventoryBatchRepository(new NamedParameterJdbcTemplate(dataSource));
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @BeforeEach
+    void givenLocation() {
+        data = new TenantTestData(jdbc, tenantId);
+        locationId = data.insertLocation("LOC");
+        category = data.insertCategory("Cesta");
+    }
+
+    @Test
+    @DisplayName("Should decrement every line of a basket in one statement")
+    void shouldDecrementWholeBasket() {
+        // Given
+        UUID first = givenStock("10", "0");
+        UUID second = givenStock("5", "1");
+
+        // When
+        Map<UUID, BigDecimal> result = repository.decrementAvailable(tenantId, locationId, List.of(
+                new StockLine(first, null, new BigDecimal("3")),
+                new StockLine(second, null, new BigDecimal("4"))));
+
+        // Then
+        assertThat(result).containsOnlyKeys(first, second);
+        assertThat(result.get(first)).isEqualByComparingTo("7");
+        assertThat(result.get(second)).isEqualByComparingTo("1");
+        assertThat(quantity(first)).isEqualByComparingTo("7");
+        assertThat(quantity(second)).isEqualByComparingTo("1");
+    }
+
+    @Test
+    @DisplayName("Should apply only the satisfiable lines on a partial shortfall")
+    void shouldSkipShortLines() {
+        // Given - 5 on hand with 2 reserved leaves 3 for sale; the missing product has no row
+        UUID available = givenStock("10", "0");
+        UUID shortItem = givenStock("5", "2");
+        UUID missing = data.insertProduct("SKU", category);
+
+        // When
+        Map<UUID, BigDecimal> result = repository.decrementAvailable(tenantId, locationId, List.of(
+                new StockLine(available, null, new BigDecimal("2")),
+                new StockLine(shortItem, null, new BigDecimal("4")),
+                new StockLine(missing, null, BigDecimal.ONE)));
+
+        // Then - the caller sees which lines are missing and rolls back
+        assertThat(result).containsOnlyKeys(available);
+        assertThat(quantity(available)).isEqualByComparingTo("8");
+        assertThat(quantity(shortItem)).isEqualByComparingTo("5");
+    }
+
+    @Test
+    @DisplayName("Should serialize concurrent baskets over the same items in opposite order without deadlocking")
+    void shouldNotDeadlockOnOppositeOrder() throws Exception {
+        // Given
+        List<UUID> items = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            items.add(givenStock("100", "0"));
+        }
+        List<UUID> reversed = new ArrayList<>(items);
+        Collections.reverse(reversed);
+        int rounds = 10;
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // When - each round both baskets start together and hold their locks for a moment
+        try {
+            CompletableFuture<Void> forward = CompletableFuture.runAsync(() -> buy(items, rounds, barrier), executor);
+            CompletableFuture<Void> backward = CompletableFuture.runAsync(() -> buy(reversed, rounds, barrier), executor);
+            CompletableFuture.allOf(forward, backward).get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then - no deadlock error, and every round of both baskets was applied
+        for (UUID item : items) {
+            assertThat(quantity(item)).isEqualByComparingTo(String.valueOf(100 - 2 * rounds));
+        }
+    }
+
+    private void buy(List<UUID> items, int rounds, CyclicBarrier barrier) {
+        List<StockLine> lines = items.stream()
+                .map(item -> new StockLine(item, null, BigDecimal.ONE))
+                .toList();
+        for (int round = 0; round < rounds; round++) {
+            await(barrier);
+            transactionTemplate.executeWithoutResult(status -> {
+                assertThat(repository.decrementAvailable(tenantId, locationId, lines)).hasSize(lines.size());
+                jdbc.execute("SELECT pg_sleep(0.05)");
+            });
+        }
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private UUID givenStock(String quantity, String reserved) {
+        UUID productId = data.insertProduct("SKU", category);
+        data.insertInventory(productId, locationId, quantity, reserved, null);
+        return productId;
+    }
+
+    private BigDecimal quantity(UUID productId) {
+        return jdbc.queryForObject("SELECT quantity FROM inventory WHERE product_id = ? AND location_id = ?",
+                BigDecimal.class, productId, locationId);
+    }
+}
@@ -0,0 +1,170 @@
+package com.estoquecentral.integration;
+
+import com.estoquecentral.marketplace.adapter.out.MarketplaceSyncDispatchRepository;
+import com.estoquecentral.marketplace.adapter.out.MarketplaceSyncQueueRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the marketplace sync queue claim
+ *
+ * <p>Runs the claim statement of {@link MarketplaceSyncQueueRepository#claimPendingItemsByTenant}
+ * (read from its <code>@Query</code>) against the real table: concurrent workers claiming small
+ * batches never get the same item, leased items are only claimed again once the lease expires
+ * or when it is missing, and items in backoff wait. Also checks that the dispatch function
+ * reports the tenant exactly while it has due items, skipping schemas not migrated far enough.
+ *
+ * <p>Run locally with Docker: <code>mvn test -Dtest=MarketplaceSyncQueueClaimIntegrationTest</code>
+ */
+@DisplayName("Marketplace Sync Queue Claim Integration Tests")
+class MarketplaceSyncQueueClaimIntegrationTest {
+
+    private static final String SCHEMA = "tenant_sync_queue_claim";
+    private static final int LEASE_SECONDS = 120;
+
+    private static JdbcTemplate jdbc;
+    private static NamedParameterJdbcTemplate namedJdbc;
+    private static String claimSql;
+    private static MarketplaceSyncDispatchRepository dispatchRepository;
+
+    private final UUID tenantId = UUID.randomUUID();
+    private UUID category;
+    private TenantTestData data;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        DataSource dataSource = TenantTestDatabase.dataSource(SCHEMA);
+        jdbc = new JdbcTemplate(dataSource);
+        namedJdbc = new NamedParameterJdbcTemplate(dataSource);
+        claimSql = MarketplaceSyncQueueRepository.class
+                .getMethod("claimPendingItemsByTenant", UUID.class, int.class, int.class)
+                .getAnnotation(Query.class)
+                .value();
+        dispatchRepository = new MarketplaceSyncDispatchRepository(namedJdbc);
+    }
+
+    @BeforeEach
+    void givenTenant() {
+        jdbc.update("DELETE FROM public.tenants WHERE schema_name = ?", SCHEMA);
+        jdbc.update("INSERT INTO public.tenants (id, nome, schema_name, email) VALUES (?, 'Loja', ?, 'loja@teste.com')",
+                tenantId, SCHEMA);
+        data = new TenantTestData(jdbc, tenantId);
+        category = data.insertCategory("Sync");
+    }
+
+    @Test
+    @DisplayName("Should hand each item to exactly one of several workers claiming small batches")
+    void shouldNotOverlapConcurrentClaims() {
+        // Given
+        for (int i = 0; i < 30; i++) {
+            givenItem("PENDING", null);
+        }
+
+        // When - three workers claim 5 at a time until nothing is left
+        List<CompletableFuture<List<UUID>>> workers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            workers.add(CompletableFuture.supplyAsync(() -> {
+                List<UUID> claimed = new ArrayList<>();
+                List<UUID> batch;
+                do {
+                    batch = claim(5);
+                    claimed.addAll(batch);
+                } while (!batch.isEmpty());
+                return claimed;
+            }));
+        }
+
+        // Then
+        List<UUID> all = new ArrayList<>();
+        workers.forEach(worker -> all.addAll(worker.join()));
+        assertThat(all).hasSize(30).doesNotHaveDuplicates();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM marketplace_sync_queue WHERE tenant_id = ? "
+                + "AND status = 'PROCESSING' AND locked_until > NOW()", Integer.class, tenantId)).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("Should claim a PROCESSING item again only after its lease expires or when it has none")
+    void shouldReclaimExpiredOrMissingLeases() {
+        // Given
+        UUID leased = givenItem("PENDING", null);
+        assertThat(claim(10)).containsExactly(leased);
+
+        // When / Then - lease still running
+        assertThat(claim(10)).isEmpty();
+        assertThat(dispatchRepository.findTenantsWithDueItems()).doesNotContain(tenantId);
+
+        // When - the worker died: lease expired; and a row left PROCESSING without a lease
+        jdbc.update("UPDATE marketplace_sync_queue SET locked_until = NOW() - INTERVAL '1 second' WHERE id = ?", leased);
+        UUID orphan = givenItem("PROCESSING", null);
+
+        // Then
+        assertThat(dispatchRepository.findTenantsWithDueItems()).contains(tenantId);
+        assertThat(claim(10)).containsExactlyInAnyOrder(leased, orphan);
+    }
+
+    @Test
+    @DisplayName("Should leave items in backoff until their next attempt is due")
+    void shouldWaitForBackoff() {
+        // Given
+        givenItem("PENDING", "NOW() + INTERVAL '1 hour'");
+        UUID due = givenItem("PENDING", "NOW() - INTERVAL '1 second'");
+
+        // When / Then
+        assertThat(claim(10)).containsExactly(due);
+        assertThat(claim(10)).isEmpty();
+        assertThat(dispatchRepository.findTenantsWithDueItems()).doesNotContain(tenantId);
+    }
+
+    @Test
+    @DisplayName("Should skip tenant schemas that are not migrated far enough and still report the others")
+    void shouldSkipSchemasBehind() {
+        // Given - a tenant whose queue predates the backoff column (tenant V081)
+        jdbc.execute("DROP SCHEMA IF EXISTS tenant_sync_queue_behind CASCADE");
+        jdbc.execute("CREATE SCHEMA tenant_sync_queue_behind");
+        jdbc.execute("CREATE TABLE tenant_sync_queue_behind.marketplace_sync_queue (id UUID, status VARCHAR(20))");
+        jdbc.execute("INSERT INTO tenant_sync_queue_behind.marketplace_sync_queue VALUES (gen_random_uuid(), 'PENDING')");
+        UUID behind = UUID.randomUUID();
+        jdbc.update("DELETE FROM public.tenants WHERE schema_name = 'tenant_sync_queue_behind'");
+        jdbc.update("INSERT INTO public.tenants (id, nome, schema_name, email) "
+                + "VALUES (?, 'Atrasada', 'tenant_sync_queue_behind', 'atrasada@teste.com')", behind);
+        givenItem("PENDING", null);
+
+        // When
+        List<UUID> due = dispatchRepository.findTenantsWithDueItems();
+
+        // Then
+        assertThat(due).contains(tenantId).doesNotContain(behind);
+    }
+
+    private List<UUID> claim(int limit) {
+        return namedJdbc.query(claimSql, new MapSqlParameterSource()
+                        .addValue("tenantId", tenantId)
+                        .addValue("limit", limit)
+                        .addValue("leaseSeconds", LEASE_SECONDS),
+                (rs, rowNum) -> rs.getObject("id", UUID.class));
+    }
+
+    private UUID givenItem(String status, String nextAttemptAt) {
+        UUID productId = data.insertProduct("SKU", category);
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO marketplace_sync_queue (id, tenant_id, product_id, marketplace, sync_type, status, "
+                        + "next_attempt_at) VALUES (?, ?, ?, 'MERCADO_LIVRE', 'STOCK', ?, "
+                        + (nextAttemptAt != null ? nextAttemptAt : "NULL") + ")",
+                id, tenantId, productId, status);
+        return id;
+    }
+}
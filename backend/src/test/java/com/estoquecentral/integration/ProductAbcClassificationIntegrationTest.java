@@ -0,0 +1,144 @@
+package com.estoquecentral.integration;
+
+import com.estoquecentral.reporting.adapter.in.dto.ProductAbcClassificationDTO;
+import com.estoquecentral.reporting.adapter.out.ProductAbcClassificationRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Integration tests for the ABC classification function (V086)
+ *
+ * <p>Feeds <code>dashboard_daily_product_rollup</code> directly and runs
+ * <code>classify_products_abc</code> through {@link ProductAbcClassificationRepository}: the
+ * product whose revenue crosses a class threshold stays in the upper class, the next one
+ * falls to the lower class, the first and last day of the window count and the day before
+ * does not, and active products without sales are C.
+ *
+ * <p>Run locally with Docker: <code>mvn test -Dtest=ProductAbcClassificationIntegrationTest</code>
+ */
+@DisplayName("Product ABC Classification Integration Tests")
+class ProductAbcClassificationIntegrationTest {
+
+    private static final String SCHEMA = "tenant_abc_classification";
+    private static final int WINDOW_DAYS = 30;
+    private static final BigDecimal CLASS_A_SHARE = new BigDecimal("0.80");
+    private static final BigDecimal CLASS_B_SHARE = new BigDecimal("0.95");
+
+    private static JdbcTemplate jdbc;
+    private static ProductAbcClassificationRepository repository;
+
+    private final UUID tenantId = UUID.randomUUID();
+    private final LocalDate today = LocalDate.now();
+    private UUID category;
+    private TenantTestData data;
+
+    @BeforeAll
+    static void setUp() {
+        DataSource dataSource = TenantTestDatabase.dataSource(SCHEMA);
+        jdbc = new JdbcTemplate(dataSource);
+        repository = new ProductAbcClassificationRepository(new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    @BeforeEach
+    void givenCategory() {
+        jdbc.execute("DELETE FROM dashboard_daily_product_rollup");
+        jdbc.execute("UPDATE products SET ativo = false");
+        data = new TenantTestData(jdbc, tenantId);
+        category = data.insertCategory("ABC");
+    }
+
+    @Test
+    @DisplayName("Should keep the product that reaches a threshold in the upper class")
+    void shouldClassifyAtThresholds() {
+        // Given - 50 + 30 reach exactly 80% of 100, 50 + 30 + 15 exactly 95%
+        UUID first = givenProduct("50.00", today);
+        UUID second = givenProduct("30.00", today.minusDays(3));
+        UUID third = givenProduct("15.00", today);
+        UUID fourth = givenProduct("5.00", today);
+
+        // When
+        int classified = repository.classify(WINDOW_DAYS, CLASS_A_SHARE, CLASS_B_SHARE);
+
+        // Then
+        assertThat(classified).isEqualTo(4);
+        assertThat(repository.findByWindow(WINDOW_DAYS, null))
+                .extracting(ProductAbcClassificationDTO::productId, ProductAbcClassificationDTO::abcClass,
+                        ProductAbcClassificationDTO::rankPosition)
+                .containsExactly(
+                        tuple(first, "A", 1),
+                        tuple(second, "A", 2),
+                        tuple(third, "B", 3),
+                        tuple(fourth, "C", 4));
+        assertThat(repository.findByWindow(WINDOW_DAYS, "A"))
+                .extracting(ProductAbcClassificationDTO::cumulativeShare)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("0.5"), new BigDecimal("0.8"));
+    }
+
+    @Test
+    @DisplayName("Should count the first and last day of the window only")
+    void shouldClassifyWithinWindow() {
+        // Given
+        UUID firstDay = givenProduct("60.00", today.minusDays(WINDOW_DAYS - 1));
+        UUID lastDay = givenProduct("40.00", today);
+        UUID beforeWindow = givenProduct("500.00", today.minusDays(WINDOW_DAYS));
+
+        // When
+        repository.classify(WINDOW_DAYS, CLASS_A_SHARE, CLASS_B_SHARE);
+
+        // Then - the sale before the window leaves its product without revenue
+        assertThat(repository.findByWindow(WINDOW_DAYS, null))
+                .extracting(ProductAbcClassificationDTO::productId, ProductAbcClassificationDTO::abcClass)
+                .containsExactly(
+                        tuple(firstDay, "A"),
+                        tuple(lastDay, "A"),
+                        tuple(beforeWindow, "C"));
+        assertThat(repository.findRuns())
+                .singleElement()
+                .satisfies(run -> {
+                    assertThat(run.windowStart()).isEqualTo(today.minusDays(WINDOW_DAYS - 1));
+                    assertThat(run.totalRevenue()).isEqualByComparingTo("100.00");
+                });
+    }
+
+    @Test
+    @DisplayName("Should classify active products without sales as C and leave inactive ones out")
+    void shouldClassifyProductsWithoutSales() {
+        // Given
+        UUID seller = givenProduct("10.00", today);
+        UUID unsold = givenProduct(null, null);
+        UUID inactive = givenProduct(null, null);
+        jdbc.update("UPDATE products SET ativo = false WHERE id = ?", inactive);
+
+        // When
+        repository.classify(WINDOW_DAYS, CLASS_A_SHARE, CLASS_B_SHARE);
+
+        // Then
+        assertThat(repository.findByWindow(WINDOW_DAYS, null))
+                .extracting(ProductAbcClassificationDTO::productId, ProductAbcClassificationDTO::abcClass)
+                .containsExactly(tuple(seller, "A"), tuple(unsold, "C"));
+    }
+
+    /** An active product with the given revenue on one day (no sale when revenue is null) */
+    private UUID givenProduct(String revenue, LocalDate saleDate) {
+        UUID id = data.insertProduct("ABC", category);
+        if (revenue != null) {
+            jdbc.update("INSERT INTO dashboard_daily_product_rollup (sale_date, product_id, order_count, item_count, "
+                            + "total_quantity, total_revenue, unit_price_sum) VALUES (?, ?, 1, 1, 1, ?, ?)",
+                    saleDate, id, new BigDecimal(revenue), new BigDecimal(revenue));
+        }
+        return id;
+    }
+}
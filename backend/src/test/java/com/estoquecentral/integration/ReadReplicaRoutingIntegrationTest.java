@@ -0,0 +1,152 @@
+package com.estoquecentral.integration;
+
+import com.estoquecentral.shared.tenant.ReadReplicaRoutingDataSource;
+import com.estoquecentral.shared.tenant.TenantContext;
+import com.estoquecentral.tenant.application.TenantProvisioner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration test for read-replica routing against a real streaming replica
+ *
+ * <p>Starts a primary and a hot-standby PostgreSQL (Bitnami images, built-in streaming
+ * replication) and checks that:
+ * <ul>
+ *   <li>read-only transactions run on the standby with the tenant search_path applied</li>
+ *   <li>read-write transactions run on the primary</li>
+ *   <li>reads right after a tenant's commit fall back to the primary (read-your-writes)</li>
+ * </ul>
+ *
+ * <p>Run locally with Docker: <code>mvn test -Dtest=ReadReplicaRoutingIntegrationTest</code>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@DisplayName("Read Replica Routing Integration Tests (Primary + Streaming Replica)")
+class ReadReplicaRoutingIntegrationTest {
+
+    private static final String IMAGE = "bitnami/postgresql:15";
+    private static final long READ_YOUR_WRITES_WINDOW_MS = 1000;
+
+    private static final Network network = Network.newNetwork();
+
+    @Container
+    private static final GenericContainer<?> primary = new GenericContainer<>(IMAGE)
+            .withNetwork(network)
+            .withNetworkAliases("pg-primary")
+            .withEnv("POSTGRESQL_REPLICATION_MODE", "master")
+            .withEnv("POSTGRESQL_REPLICATION_USER", "repl")
+            .withEnv("POSTGRESQL_REPLICATION_PASSWORD", "repl")
+            .withEnv("POSTGRESQL_USERNAME", "test")
+            .withEnv("POSTGRESQL_PASSWORD", "test")
+            .withEnv("POSTGRESQL_DATABASE", "testdb")
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 1)
+                    .withStartupTimeout(Duration.ofMinutes(2)));
+
+    @Container
+    private static final GenericContainer<?> replica = new GenericContainer<>(IMAGE)
+            .withNetwork(network)
+            .dependsOn(primary)
+            .withEnv("POSTGRESQL_REPLICATION_MODE", "slave")
+            .withEnv("POSTGRESQL_REPLICATION_USER", "repl")
+            .withEnv("POSTGRESQL_REPLICATION_PASSWORD", "repl")
+            .withEnv("POSTGRESQL_MASTER_HOST", "pg-primary")
+            .withEnv("POSTGRESQL_MASTER_PORT_NUMBER", "5432")
+            .withEnv("POSTGRESQL_PASSWORD", "test")
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*", 1)
+                    .withStartupTimeout(Duration.ofMinutes(2)));
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> jdbcUrl(primary));
+        registry.add("spring.datasource.username", () -> "test");
+        registry.add("spring.datasource.password", () -> "test");
+        registry.add("tenant.datasource.replica.url", () -> jdbcUrl(replica));
+        registry.add("tenant.datasource.replica.lag-check-interval-ms", () -> "100");
+        registry.add("tenant.datasource.replica.read-your-writes-window-ms", () -> READ_YOUR_WRITES_WINDOW_MS);
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TenantProvisioner tenantProvisioner;
+
+    private String createdSchemaName;
+
+    @AfterEach
+    void cleanup() {
+        TenantContext.clear();
+        if (createdSchemaName != null) {
+            tenantProvisioner.dropTenantSchema(createdSchemaName);
+            createdSchemaName = null;
+        }
+    }
+
+    @Test
+    @DisplayName("Should route read-only transactions to the replica with the tenant search_path")
+    void shouldRouteReadOnlyTransactionsToReplica() throws Exception {
+        // Given - a tenant schema with data, replicated to the standby
+        UUID tenantId = UUID.randomUUID();
+        createdSchemaName = tenantProvisioner.provisionTenantSchema(tenantId);
+        TenantContext.setTenantId(tenantId.toString());
+        assertThat(dataSource).isInstanceOf(ReadReplicaRoutingDataSource.class);
+
+        // When / Then - read-write work runs on the primary
+        assertThat(inTransaction(false, "SELECT pg_is_in_recovery()", Boolean.class)).isFalse();
+
+        // Then - right after the commit the tenant still reads from the primary
+        assertThat(inTransaction(true, "SELECT pg_is_in_recovery()", Boolean.class)).isFalse();
+
+        // Then - once the window expires, reads go to the replica in the tenant schema
+        Thread.sleep(READ_YOUR_WRITES_WINDOW_MS + 200);
+        awaitTrue(() -> inTransaction(true, "SELECT pg_is_in_recovery()", Boolean.class));
+        assertThat(inTransaction(true, "SELECT current_schema()", String.class)).isEqualTo(createdSchemaName);
+        assertThat(inTransaction(true, "SELECT COUNT(*) FROM profiles", Integer.class)).isEqualTo(3);
+    }
+
+    private <T> T inTransaction(boolean readOnly, String sql, Class<T> type) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> jdbcTemplate.queryForObject(sql, type));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met within 10s").isLessThan(deadline);
+            Thread.sleep(100);
+        }
+    }
+
+    private static String jdbcUrl(GenericContainer<?> container) {
+        return "jdbc:postgresql://" + container.getHost() + ":" + container.getMappedPort(5432) + "/testdb";
+    }
+}
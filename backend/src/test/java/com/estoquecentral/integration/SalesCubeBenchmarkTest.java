@@ -0,0 +1,149 @@
+package com.estoquecentral.integration;
+
+import com.estoquecentral.reporting.adapter.in.dto.SalesFilterDTO;
+import com.estoquecentral.reporting.adapter.in.dto.TopProductsFilterDTO;
+import com.estoquecentral.reporting.adapter.out.SalesReportRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark of the sales reports over a synthetic order history, live vs sales cube (V087)
+ *
+ * <p>Generates <code>sales-cube.benchmark.orders</code> orders (1 to 3 items each) spread over
+ * the last two years, times the 12-month reports with every day read live and then from the
+ * cube, and checks both return the same rows. Disabled unless the property is set:
+ *
+ * <p><code>mvn test -Dtest=SalesCubeBenchmarkTest -Dsales-cube.benchmark.orders=3000000</code>
+ */
+@EnabledIfSystemProperty(named = "sales-cube.benchmark.orders", matches = "\\d+")
+@DisplayName("Sales Cube Benchmark (live vs cube)")
+class SalesCubeBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesCubeBenchmarkTest.class);
+
+    private static final String SCHEMA = "tenant_sales_cube_benchmark";
+    private static final int RUNS = 3;
+
+
+    private static JdbcTemplate jdbc;
+    private static SalesReportRepository salesReportRepository;
+
+    @BeforeAll
+    static void setUp() {
+        DataSource dataSource = TenantTestDatabase.dataSource(SCHEMA);
+        jdbc = new JdbcTemplate(dataSource);
+        salesReportRepository = new SalesReportRepository(new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    @Test
+    @DisplayName("Should answer the 12-month reports from the cube faster and with the same rows")
+    void shouldBeFasterThanLive() {
+        int orders = Integer.parseInt(System.getProperty("sales-cube.benchmark.orders"));
+        long start = System.currentTimeMillis();
+        generateOrders(orders);
+        logger.info("Generated {} orders in {}ms", orders, System.currentTimeMillis() - start);
+
+        LocalDate today = LocalDate.now();
+        SalesFilterDTO byMonth = new SalesFilterDTO(today.minusMonths(12), today, null, "month");
+        SalesFilterDTO byWeek = new SalesFilterDTO(today.minusMonths(12), today, null, "week");
+        TopProductsFilterDTO topProducts = new TopProductsFilterDTO(today.minusMonths(12), today, null, null, "revenue", 50);
+        Supplier<List<Object>> reports = () -> List.of(
+                salesReportRepository.getSalesByPeriod(byMonth),
+                salesReportRepository.getSalesByDateAndChannel(byWeek),
+                salesReportRepository.getSalesReportByPeriod(byMonth),
+                salesReportRepository.getSalesTotals(byMonth),
+                salesReportRepository.getTopProducts(topProducts));
+
+        List<Object> live = reports.get();
+        long liveMillis = time(reports);
+
+        start = System.currentTimeMillis();
+        int days = salesReportRepository.refreshCube();
+        logger.info("Built {} cube days in {}ms", days, System.currentTimeMillis() - start);
+        jdbc.execute("ANALYZE sales_cube_daily; ANALYZE sales_cube_daily_products; ANALYZE sales_cube_daily_customers");
+
+        List<Object> cube = reports.get();
+        long cubeMillis = time(reports);
+
+        logger.info("12-month reports over {} orders: live {}ms, cube {}ms (best of {})",
+                orders, liveMillis, cubeMillis, RUNS);
+
+        assertThat(cube)
+                .usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .ignoringCollectionOrder()
+                .isEqualTo(live);
+        assertThat(cubeMillis).isLessThan(liveMillis);
+    }
+
+    private long time(Supplier<List<Object>> reports) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            reports.get();
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+        }
+        return best;
+    }
+
+    /**
+     * Bulk-loads the history with triggers off (session_replication_role), as an import would
+     */
+    private void generateOrders(int orders) {
+        UUID tenantId = UUID.randomUUID();
+
+        jdbc.execute("SET session_replication_role = replica");
+        try {
+            jdbc.update("INSERT INTO categories (name) SELECT 'Categoria ' || g FROM generate_series(1, 20) g");
+            jdbc.update("""
+                    INSERT INTO products (tenant_id, name, sku, category_id, price)
+                    SELECT ?, 'Produto ' || g, 'SKU-' || g,
+                           (SELECT id FROM categories ORDER BY name OFFSET g % 20 LIMIT 1), 10
+                    FROM generate_series(1, 2000) g
+                    """, tenantId);
+            jdbc.update("""
+                    INSERT INTO customers (tenant_id, customer_type, first_name, last_name)
+                    SELECT ?, 'INDIVIDUAL', 'Cliente', 'Benchmark ' || g
+                    FROM generate_series(1, 50000) g
+                    """, tenantId);
+            jdbc.update("""
+                    INSERT INTO orders (tenant_id, order_number, customer_id, status, payment_status,
+                                        subtotal, shipping_amount, total, created_at)
+                    SELECT ?, 'ORD-' || g, c.ids[1 + g % array_length(c.ids, 1)],
+                           (ARRAY['DELIVERED', 'SHIPPED', 'CONFIRMED', 'PENDING', 'CANCELLED'])[1 + g % 5],
+                           (ARRAY['CAPTURED', 'PENDING', 'AUTHORIZED'])[1 + g % 3],
+                           50 + g % 450, 10, 60 + g % 450,
+                           NOW() - (g % 730) * INTERVAL '1 day' - (g % 86400) * INTERVAL '1 second'
+                    FROM generate_series(1, ?) g,
+                         (SELECT array_agg(id) AS ids FROM customers) c
+                    """, tenantId, orders);
+            jdbc.update("""
+                    INSERT INTO order_items (tenant_id, order_id, product_id, product_name, product_sku,
+                                             quantity, unit_price, subtotal, total)
+                    SELECT o.tenant_id, o.id, p.ids[1 + abs(hashtext(o.id::text || n)) % array_length(p.ids, 1)],
+                           'Item', 'SKU', 1 + n, 20, 20 * (1 + n), 20 * (1 + n)
+                    FROM orders o
+                    CROSS JOIN (SELECT array_agg(id) AS ids FROM products) p
+                    CROSS JOIN LATERAL generate_series(1, 1 + abs(hashtext(o.id::text)) % 3) n
+                    """);
+        } finally {
+            jdbc.execute("SET session_replication_role = origin");
+        }
+        jdbc.execute("ANALYZE");
+    }
+}
@@ -0,0 +1,233 @@
+package com.estoquecentral.integration;
+
+import com.estoquecentral.reporting.adapter.in.dto.SalesFilterDTO;
+import com.estoquecentral.reporting.adapter.in.dto.TopProductsFilterDTO;
+import com.estoquecentral.reporting.adapter.out.SalesReportRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration test for the sales cube (V087) against PostgreSQL
+ *
+ * <p>Runs every {@link SalesReportRepository} cube-backed report twice: fully live (cube
+ * state reset, so every day is aggregated from orders) and after {@code refreshCube()} (closed
+ * days read from the cube, today live), and expects the same rows.
+ *
+ * <p>Run locally with Docker: <code>mvn test -Dtest=SalesCubeIntegrationTest</code>
+ */
+@DisplayName("Sales Cube Integration Tests (cube vs live)")
+class SalesCubeIntegrationTest {
+
+    private static final String SCHEMA = "tenant_sales_cube";
+
+
+    private static JdbcTemplate jdbc;
+    private static SalesReportRepository salesReportRepository;
+
+    private final UUID tenantId = UUID.randomUUID();
+    private final LocalDate today = LocalDate.now();
+    private UUID customerId;
+    private UUID otherCustomerId;
+    private UUID categoryId;
+    private UUID otherCategoryId;
+    private UUID keyboard;
+    private UUID mouse;
+    private UUID monitor;
+    private TenantTestData data;
+
+    @BeforeAll
+    static void setUp() {
+        DataSource dataSource = TenantTestDatabase.dataSource(SCHEMA);
+        jdbc = new JdbcTemplate(dataSource);
+        salesReportRepository = new SalesReportRepository(new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    @BeforeEach
+    void cleanUp() {
+        jdbc.execute("DELETE FROM order_items");
+        jdbc.execute("DELETE FROM orders");
+        jdbc.execute("DELETE FROM sales_cube_daily");
+        jdbc.execute("DELETE FROM sales_cube_daily_products");
+        jdbc.execute("DELETE FROM sales_cube_daily_customers");
+        jdbc.execute("DELETE FROM sales_cube_dirty_days");
+        jdbc.execute("UPDATE sales_cube_state SET built_through = NULL, refreshed_at = NULL");
+
+        data = new TenantTestData(jdbc, tenantId);
+        customerId = data.insertCustomer();
+        otherCustomerId = data.insertCustomer();
+        categoryId = data.insertCategory("Cubo");
+        otherCategoryId = data.insertCategory("Cubo");
+        keyboard = data.insertProduct("KBD", categoryId);
+        mouse = data.insertProduct("MSE", categoryId);
+        monitor = data.insertProduct("MON", otherCategoryId);
+    }
+
+    @Test
+    @DisplayName("Should build every closed day and match the live reports")
+    void shouldMatchLiveReportsAfterRefresh() {
+        givenOrders();
+        List<Object> live = reports();
+
+        int built = salesReportRepository.refreshCube();
+
+        assertThat(built).isEqualTo(400);
+        assertThat(jdbc.queryForObject("SELECT built_through FROM sales_cube_state", LocalDate.class))
+                .isEqualTo(today.minusDays(1));
+        assertSameReports(reports(), live);
+    }
+
+    @Test
+    @DisplayName("Should only rebuild the last closed day when nothing changed")
+    void shouldRebuildOnlyLastClosedDay() {
+        givenOrders();
+        salesReportRepository.refreshCube();
+
+        assertThat(salesReportRepository.refreshCube()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should rebuild closed days changed after they were built")
+    void shouldRebuildLateChangedDays() {
+        givenOrders();
+        salesReportRepository.refreshCube();
+
+        // Late changes: cancellation, payment capture, an extra item, a moved order
+        UUID late = insertOrder("CONFIRMED", "PENDING", customerId, daysAgo(30), "75.00");
+        data.insertItem(late, monitor, "1", "75.00");
+        jdbc.update("UPDATE orders SET status = 'CANCELLED' WHERE created_at::date = ?", Date.valueOf(today.minusDays(45)));
+        jdbc.update("UPDATE orders SET payment_status = 'CAPTURED' WHERE created_at::date = ?", Date.valueOf(today.minusDays(3)));
+        jdbc.update("UPDATE orders SET created_at = created_at - INTERVAL '1 day' WHERE created_at::date = ?",
+                Date.valueOf(today.minusDays(2)));
+        assertThat(jdbc.queryForList("SELECT sale_date FROM sales_cube_dirty_days ORDER BY sale_date", LocalDate.class))
+                .containsExactly(today.minusDays(45), today.minusDays(30), today.minusDays(3),
+                        today.minusDays(2));
+
+        List<Object> live = liveReports();
+        assertThat(salesReportRepository.refreshCube()).isEqualTo(5);
+
+        assertSameReports(reports(), live);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM sales_cube_dirty_days", Integer.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep reading today live after a refresh")
+    void shouldReadTodayLive() {
+        givenOrders();
+        salesReportRepository.refreshCube();
+
+        UUID order = insertOrder("PENDING", "PENDING", otherCustomerId, LocalDateTime.now(), "42.00");
+        data.insertItem(order, mouse, "2", "21.00");
+
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM sales_cube_dirty_days", Integer.class)).isZero();
+        assertSameReports(reports(), liveReports());
+        assertThat(salesReportRepository.getSalesTotals(filter(today, today, "day")).totalSales())
+                .isEqualByComparingTo("92.00");
+    }
+
+    private void givenOrders() {
+        // Oldest order opens the cube 400 days back
+        UUID first = insertOrder("DELIVERED", "CAPTURED", customerId, daysAgo(400), "100.00");
+        data.insertItem(first, keyboard, "2", "50.00");
+
+        // Several orders on a closed day, across customers
+        UUID delivered = insertOrder("DELIVERED", "CAPTURED", customerId, daysAgo(45), "250.00");
+        data.insertItem(delivered, keyboard, "3", "50.00");
+        data.insertItem(delivered, mouse, "4", "25.00");
+        UUID shipped = insertOrder("SHIPPED", "AUTHORIZED", otherCustomerId, daysAgo(45), "300.00");
+        data.insertItem(shipped, monitor, "1", "300.00");
+        insertOrder("CANCELLED", "REFUNDED", customerId, daysAgo(45), "999.00");
+
+        // Same customer on several days of a month (distinct customers per period)
+        for (int day = 10; day >= 2; day--) {
+            UUID order = insertOrder("CONFIRMED", day % 3 == 0 ? "CAPTURED" : "PENDING", customerId,
+                    daysAgo(day), day + "0.00");
+            data.insertItem(order, day % 2 == 0 ? mouse : monitor, "1", day + "0.00");
+        }
+
+        // Yesterday and today
+        UUID yesterday = insertOrder("PROCESSING", "PENDING", otherCustomerId, daysAgo(1), "60.00");
+        data.insertItem(yesterday, keyboard, "1", "60.00");
+        UUID now = insertOrder("PENDING", "PENDING", customerId, LocalDateTime.now(), "35.00");
+        data.insertItem(now, mouse, "1", "35.00");
+        insertOrder("PENDING", "PENDING", otherCustomerId, LocalDateTime.now(), "15.00");
+    }
+
+    /**
+     * Every cube-backed report, over open and closed ranges and each grouping
+     */
+    private List<Object> reports() {
+        List<Object> reports = new ArrayList<>();
+        for (String groupBy : List.of("day", "week", "month", "year")) {
+            SalesFilterDTO all = filter(null, null, groupBy);
+            SalesFilterDTO recent = filter(today.minusDays(60), today, groupBy);
+            SalesFilterDTO closed = filter(today.minusDays(400), today.minusDays(2), groupBy);
+            for (SalesFilterDTO filter : List.of(all, recent, closed)) {
+                reports.add(salesReportRepository.getSalesByDateAndChannel(filter));
+                reports.add(salesReportRepository.getSalesByPeriod(filter));
+                reports.add(salesReportRepository.getSalesReportByPeriod(filter));
+                reports.add(salesReportRepository.getSalesTotals(filter));
+            }
+        }
+        for (String orderBy : List.of("revenue", "quantity")) {
+            reports.add(salesReportRepository.getTopProducts(
+                    new TopProductsFilterDTO(null, null, null, null, orderBy, 10)));
+            reports.add(salesReportRepository.getTopProducts(
+                    new TopProductsFilterDTO(today.minusDays(60), today, categoryId, null, orderBy, 10)));
+            reports.add(salesReportRepository.getTopProducts(
+                    new TopProductsFilterDTO(null, today.minusDays(1), otherCategoryId, null, orderBy, 10)));
+        }
+        return reports;
+    }
+
+    /**
+     * The reports with every day aggregated from orders (cube state restored afterwards)
+     */
+    private List<Object> liveReports() {
+        LocalDate builtThrough = jdbc.queryForObject("SELECT built_through FROM sales_cube_state", LocalDate.class);
+        jdbc.update("UPDATE sales_cube_state SET built_through = NULL");
+        try {
+            return reports();
+        } finally {
+            jdbc.update("UPDATE sales_cube_state SET built_through = ?",
+                    builtThrough != null ? Date.valueOf(builtThrough) : null);
+        }
+    }
+
+    private void assertSameReports(List<Object> actual, List<Object> expected) {
+        assertThat(actual)
+                .usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .ignoringCollectionOrder()
+                .isEqualTo(expected);
+    }
+
+    private SalesFilterDTO filter(LocalDate startDate, LocalDate endDate, String groupBy) {
+        return new SalesFilterDTO(startDate, endDate, null, groupBy);
+    }
+
+    private LocalDateTime daysAgo(int days) {
+        return today.minusDays(days).atTime(12, 0);
+    }
+
+    /** Every order of the scenario carries 5.00 of discount and 5.00 of shipping */
+    private UUID insertOrder(String status, String paymentStatus, UUID customer, LocalDateTime createdAt,
+                             String total) {
+        return data.insertOrder(customer, status, paymentStatus, createdAt,
+                new BigDecimal(total), new BigDecimal("5"), new BigDecimal("5"), new BigDecimal(total));
+    }
+}
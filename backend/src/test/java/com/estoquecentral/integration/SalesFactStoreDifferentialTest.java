@@ -0,0 +1,182 @@
+package com.estoquecentral.integration;
+
+import com.estoquecentral.auth.adapter.out.TenantRepository;
+import com.estoquecentral.reporting.adapter.in.dto.SalesFilterDTO;
+import com.estoquecentral.reporting.adapter.in.dto.TopProductsFilterDTO;
+import com.estoquecentral.reporting.adapter.out.SalesFactRepository;
+import com.estoquecentral.reporting.adapter.out.SalesReportRepository;
+import com.estoquecentral.reporting.application.SalesCubeRefreshJob;
+import com.estoquecentral.reporting.application.SalesReportService;
+import com.estoquecentral.reporting.application.salesfacts.SalesFactStore;
+import com.estoquecentral.shared.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Differential test of the in-memory sales fact store against the SQL sales reports
+ *
+ * <p>Seeds random orders over 400 days (statuses, payments, customers, categories), builds the
+ * cube up to yesterday, adds live orders for today, then asks {@link SalesReportService} (served
+ * by the store) and {@link SalesReportRepository} (SQL) the same random reports and expects the
+ * same rows in the same order. Repeats after new orders are committed and the cube refresh job
+ * has run.
+ *
+ * <p>Run locally with Docker: <code>mvn test -Dtest=SalesFactStoreDifferentialTest</code>
+ */
+@DisplayName("Sales Fact Store Differential Tests (memory vs SQL)")
+class SalesFactStoreDifferentialTest {
+
+    private static final String SCHEMA = "tenant_sales_facts";
+    private static final String[] STATUSES = {"DELIVERED", "SHIPPED", "CONFIRMED", "PROCESSING", "PENDING", "CANCELLED", "REFUNDED"};
+    private static final String[] PAYMENT_STATUSES = {"CAPTURED", "AUTHORIZED", "PENDING"};
+    private static final String[] GROUP_BYS = {"day", "week", "month", "year"};
+    private static final int HISTORY_DAYS = 400;
+    private static final int FILTERS = 150;
+
+
+    private static JdbcTemplate jdbc;
+    private static SalesReportRepository salesReportRepository;
+    private static SalesFactStore salesFactStore;
+    private static SalesReportService salesReportService;
+    private static SalesCubeRefreshJob refreshJob;
+
+    private final Random random = new Random(20251107);
+    private final UUID tenantId = UUID.randomUUID();
+    private final LocalDate today = LocalDate.now();
+    private final List<UUID> customers = new ArrayList<>();
+    private final List<UUID> categories = new ArrayList<>();
+    private final List<UUID> products = new ArrayList<>();
+    private TenantTestData data;
+
+    @BeforeAll
+    @SuppressWarnings("unchecked")
+    static void setUp() {
+        DataSource dataSource = TenantTestDatabase.dataSource(SCHEMA);
+        jdbc = new JdbcTemplate(dataSource);
+        NamedParameterJdbcTemplate namedJdbc = new NamedParameterJdbcTemplate(dataSource);
+        salesReportRepository = new SalesReportRepository(namedJdbc);
+        salesFactStore = new SalesFactStore(new SalesFactRepository(namedJdbc),
+                mock(ObjectProvider.class, invocation -> null), true, 256, 60_000, 60_000);
+        refreshJob = new SalesCubeRefreshJob(mock(TenantRepository.class), salesReportRepository, salesFactStore);
+        salesReportService = new SalesReportService(salesReportRepository, salesFactStore);
+    }
+
+    @AfterEach
+    void clearTenant() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should answer random reports exactly as SQL, before and after new orders")
+    void shouldMatchSqlReports() {
+        TenantContext.setTenantId(tenantId.toString());
+        givenHistory();
+        assertThat(salesReportRepository.refreshCube()).isPositive();
+        givenOrdersToday(15);
+
+        assertThat(salesFactStore.current()).isPresent();
+        assertSameReports();
+
+        givenOrdersToday(5);
+        assertThat(refreshJob.refreshTenant(tenantId)).isNotNegative();
+        TenantContext.setTenantId(tenantId.toString());
+        assertSameReports();
+    }
+
+    private void assertSameReports() {
+        for (int i = 0; i < FILTERS; i++) {
+            SalesFilterDTO filter = randomFilter();
+            assertSame(salesReportService.getSalesByDateAndChannel(filter), salesReportRepository.getSalesByDateAndChannel(filter));
+            assertSame(salesReportService.getSalesByPeriod(filter), salesReportRepository.getSalesByPeriod(filter));
+            assertSame(salesReportService.getSalesReportByPeriod(filter), salesReportRepository.getSalesReportByPeriod(filter));
+            assertSame(salesReportService.getSalesTotals(filter), salesReportRepository.getSalesTotals(filter));
+
+            TopProductsFilterDTO topProducts = new TopProductsFilterDTO(filter.startDate(), filter.endDate(),
+                    random.nextInt(3) == 0 ? pick(categories) : null, null,
+                    random.nextBoolean() ? "revenue" : "quantity", 1 + random.nextInt(15));
+            assertSame(salesReportService.getTopProducts(topProducts), salesReportRepository.getTopProducts(topProducts));
+        }
+    }
+
+    private void assertSame(Object actual, Object expected) {
+        assertThat(actual)
+                .usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(expected);
+    }
+
+    private SalesFilterDTO randomFilter() {
+        LocalDate startDate = random.nextInt(4) == 0 ? null : today.minusDays(random.nextInt(HISTORY_DAYS + 20));
+        LocalDate endDate = random.nextInt(4) == 0 ? null : today.minusDays(random.nextInt(HISTORY_DAYS + 20));
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            LocalDate swap = startDate;
+            startDate = endDate;
+            endDate = swap;
+        }
+        return new SalesFilterDTO(startDate, endDate, null, GROUP_BYS[random.nextInt(GROUP_BYS.length)]);
+    }
+
+    private void givenHistory() {
+        data = new TenantTestData(jdbc, tenantId);
+        for (int i = 0; i < 30; i++) {
+            customers.add(data.insertCustomer());
+        }
+        for (int i = 0; i < 3; i++) {
+            categories.add(data.insertCategory("Fatos"));
+        }
+        for (int i = 0; i < 12; i++) {
+            products.add(data.insertProduct("P" + i, pick(categories)));
+        }
+        for (int i = 0; i < 600; i++) {
+            insertRandomOrder(today.minusDays(1 + random.nextInt(HISTORY_DAYS)).atTime(random.nextInt(24), random.nextInt(60)));
+        }
+    }
+
+    private void givenOrdersToday(int orders) {
+        for (int i = 0; i < orders; i++) {
+            insertRandomOrder(LocalDateTime.now().minusSeconds(random.nextInt(60)));
+        }
+    }
+
+    private void insertRandomOrder(LocalDateTime createdAt) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        List<Object[]> items = new ArrayList<>();
+        for (int item = 1 + random.nextInt(3); item > 0; item--) {
+            BigDecimal quantity = BigDecimal.valueOf(1 + random.nextInt(5));
+            BigDecimal unitPrice = BigDecimal.valueOf(500 + random.nextInt(20_000), 2);
+            items.add(new Object[]{pick(products), quantity, unitPrice});
+            subtotal = subtotal.add(quantity.multiply(unitPrice));
+        }
+        BigDecimal discount = BigDecimal.valueOf(random.nextInt(500), 2);
+        BigDecimal shipping = BigDecimal.valueOf(random.nextInt(2_000), 2);
+
+        UUID orderId = data.insertOrder(pick(customers), STATUSES[random.nextInt(STATUSES.length)],
+                PAYMENT_STATUSES[random.nextInt(PAYMENT_STATUSES.length)], createdAt,
+                subtotal, discount, shipping, subtotal.subtract(discount).add(shipping));
+        for (Object[] item : items) {
+            data.insertItem(orderId, (UUID) item[0], (BigDecimal) item[1], (BigDecimal) item[2]);
+        }
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
@@ -0,0 +1,97 @@
+package com.estoquecentral.integration;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Row factories for the tenant tables that repository-level integration tests seed
+ *
+ * <p>Inserts through plain SQL into the schema of a {@link TenantTestDatabase} pool, so only
+ * the database's own triggers react to the rows. Every row gets a random id, and codes that
+ * must be unique get it as a suffix; tests keep only their scenario-specific setup.
+ */
+final class TenantTestData {
+
+    private final JdbcTemplate jdbc;
+    private final UUID tenantId;
+
+    TenantTestData(JdbcTemplate jdbc, UUID tenantId) {
+        this.jdbc = jdbc;
+        this.tenantId = tenantId;
+    }
+
+    UUID insertCustomer() {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO customers (id, tenant_id, customer_type, first_name, last_name) "
+                + "VALUES (?, ?, 'INDIVIDUAL', 'Cliente', 'Teste')", id, tenantId);
+        return id;
+    }
+
+    /** A category named <code>name</code> plus its id (categories are not tenant-scoped) */
+    UUID insertCategory(String name) {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO categories (id, name) VALUES (?, ?)", id, name + " " + id);
+        return id;
+    }
+
+    /** A product priced 10 whose SKU is <code>sku</code> plus its id */
+    UUID insertProduct(String sku, UUID categoryId) {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO products (id, tenant_id, name, sku, category_id, price) VALUES (?, ?, ?, ?, ?, 10)",
+                id, tenantId, "Produto " + sku, sku + "-" + id, categoryId);
+        return id;
+    }
+
+    /** A location whose code is <code>code</code> plus its id */
+    UUID insertLocation(String code) {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO locations (id, tenant_id, code, name) VALUES (?, ?, ?, ?)",
+                id, tenantId, code + "-" + id, "Local " + code);
+        return id;
+    }
+
+    /** An order without discount or shipping (subtotal = total) */
+    UUID insertOrder(UUID customerId, String status, String paymentStatus, LocalDateTime createdAt, String total) {
+        return insertOrder(customerId, status, paymentStatus, createdAt,
+                new BigDecimal(total), BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal(total));
+    }
+
+    UUID insertOrder(UUID customerId, String status, String paymentStatus, LocalDateTime createdAt,
+                     BigDecimal subtotal, BigDecimal discount, BigDecimal shipping, BigDecimal total) {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO orders (id, tenant_id, order_number, customer_id, status, "
+                        + "payment_status, subtotal, discount_amount, shipping_amount, total, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                id, tenantId, "ORD-" + id, customerId, status, paymentStatus,
+                subtotal, discount, shipping, total, Timestamp.valueOf(createdAt));
+        return id;
+    }
+
+    UUID insertItem(UUID orderId, UUID productId, String quantity, String unitPrice) {
+        return insertItem(orderId, productId, new BigDecimal(quantity), new BigDecimal(unitPrice));
+    }
+
+    /** An order item whose subtotal and total are quantity x unit price */
+    UUID insertItem(UUID orderId, UUID productId, BigDecimal quantity, BigDecimal unitPrice) {
+        UUID id = UUID.randomUUID();
+        BigDecimal total = quantity.multiply(unitPrice);
+        jdbc.update("INSERT INTO order_items (id, tenant_id, order_id, product_id, product_name, product_sku, "
+                        + "quantity, unit_price, subtotal, total) VALUES (?, ?, ?, ?, 'Item', 'SKU', ?, ?, ?, ?)",
+                id, tenantId, orderId, productId, quantity, unitPrice, total, total);
+        return id;
+    }
+
+    /** A stock balance of a product at a location (no minimum when <code>minimum</code> is null) */
+    UUID insertInventory(UUID productId, UUID locationId, String quantity, String reserved, String minimum) {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO inventory (id, tenant_id, product_id, location_id, quantity, reserved_quantity, min_quantity) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                id, tenantId, productId, locationId, new BigDecimal(quantity), new BigDecimal(reserved),
+                minimum != null ? new BigDecimal(minimum) : null);
+        return id;
+    }
+}
@@ -0,0 +1,70 @@
+package com.estoquecentral.integration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shared PostgreSQL for repository-level integration tests
+ *
+ * <p>Starts one PostgreSQL container for the whole test run, applies the public migrations
+ * once and migrates each requested tenant schema with the real tenant migrations. Tests get
+ * a small pool whose connections default to that schema (as behind TenantAwareDataSource),
+ * without booting the Spring context of {@link BaseIntegrationTest}. Each test class uses
+ * its own schema, so classes do not see each other's rows.
+ *
+ * <p>The container and pools live until the JVM exits (Testcontainers removes the container).
+ * Run locally with Docker.
+ */
+final class TenantTestDatabase {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    private static final Map<String, HikariDataSource> DATA_SOURCES = new HashMap<>();
+
+    private TenantTestDatabase() {
+    }
+
+    /**
+     * Returns a pool for the given tenant schema, creating and migrating the schema on first use
+     *
+     * @param schema tenant schema name (e.g. "tenant_sales_cube")
+     * @return connections with <code>search_path</code> = schema, public
+     */
+    static synchronized HikariDataSource dataSource(String schema) {
+        HikariDataSource existing = DATA_SOURCES.get(schema);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (!POSTGRES.isRunning()) {
+            POSTGRES.start();
+            migrate("public", "classpath:db/migration/public");
+        }
+        migrate(schema, "classpath:db/migration/tenant");
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(POSTGRES.getJdbcUrl() + "&currentSchema=" + schema + ",public");
+        dataSource.setUsername(POSTGRES.getUsername());
+        dataSource.setPassword(POSTGRES.getPassword());
+        dataSource.setMaximumPoolSize(4);
+        DATA_SOURCES.put(schema, dataSource);
+        return dataSource;
+    }
+
+    private static void migrate(String schema, String location) {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .schemas(schema)
+                .locations(location)
+                .baselineOnMigrate(!"public".equals(schema))
+                .load()
+                .migrate();
+    }
+}
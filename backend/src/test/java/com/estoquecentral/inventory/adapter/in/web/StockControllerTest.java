@@ -0,0 +1,76 @@
+package com.estoquecentral.inventory.adapter.in.web;
+
+import com.estoquecentral.common.exception.GlobalExceptionHandler;
+import com.estoquecentral.inventory.application.InventoryService;
+import com.estoquecentral.inventory.application.StockService;
+import com.estoquecentral.reporting.adapter.out.ProductAbcClassificationRepository;
+import com.estoquecentral.reporting.application.ProductAbcClassificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit tests for StockController ABC filters
+ */
+@DisplayName("StockController Unit Tests")
+class StockControllerTest {
+
+    private final StockService stockService = mock(StockService.class);
+    private final UUID tenantId = UUID.randomUUID();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ProductAbcClassificationService abcClassificationService = new ProductAbcClassificationService(
+            mock(ProductAbcClassificationRepository.class), List.of(30, 90, 365), 90,
+            new BigDecimal("0.80"), new BigDecimal("0.95"));
+        mockMvc = MockMvcBuilders
+            .standaloneSetup(new StockController(stockService, mock(InventoryService.class), abcClassificationService))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+    }
+
+    @Test
+    @DisplayName("Should filter by the normalized class on the default window")
+    void shouldFilterByAbcClass() throws Exception {
+        mockMvc.perform(get("/api/stock").header("X-Tenant-ID", tenantId).param("abcClass", " a "))
+            .andExpect(status().isOk());
+
+        verify(stockService).getAllStock(tenantId, null, null, null, null, "A", 90);
+    }
+
+    @Test
+    @DisplayName("Should return 400 for an unknown ABC class")
+    void shouldRejectUnknownClass() throws Exception {
+        mockMvc.perform(get("/api/stock").header("X-Tenant-ID", tenantId).param("abcClass", "D"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.status").value(400));
+
+        verify(stockService, never()).getAllStock(any(), any(), any(), any(), any(), anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should return 400 for a window that is not computed")
+    void shouldRejectUnknownWindow() throws Exception {
+        mockMvc.perform(get("/api/stock").header("X-Tenant-ID", tenantId)
+                .param("abcClass", "B").param("abcWindowDays", "7"))
+            .andExpect(status().isBadRequest());
+
+        verify(stockService, never()).getAllStock(any(), any(), any(), any(), any(), any(), anyInt());
+    }
+}
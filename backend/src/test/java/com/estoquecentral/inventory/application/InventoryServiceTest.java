@@ -0,0 +1,241 @@
+package com.estoquecentral.inventory.application;
+
+import com.estoquecentral.catalog.adapter.out.ProductRepository;
+import com.estoquecentral.catalog.domain.Product;
+import com.estoquecentral.inventory.adapter.out.InventoryMovementRepository;
+import com.estoquecentral.inventory.adapter.out.InventoryRepository;
+import com.estoquecentral.inventory.adapter.out.LocationRepository;
+import com.estoquecentral.inventory.domain.Inventory;
+import com.estoquecentral.inventory.domain.InventoryMovement;
+import com.estoquecentral.inventory.domain.MovementReason;
+import com.estoquecentral.inventory.domain.StockChangedEvent;
+import com.estoquecentral.shared.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for InventoryService
+ *
+ * <p>Covers the atomic stock paths: each mutation is one conditional statement, and the
+ * current row is only read to explain a failed condition.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InventoryService Unit Tests")
+class InventoryServiceTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private InventoryMovementRepository movementRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private LocationRepository locationRepository;
+
+    @Mock
+    private StockMovementService stockMovementService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private InventoryService inventoryService;
+
+    private UUID tenantId;
+    private UUID productId;
+    private UUID locationId;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = UUID.randomUUID();
+        productId = UUID.randomUUID();
+        locationId = UUID.randomUUID();
+        userId = UUID.randomUUID();
+        TenantContext.setTenantId(tenantId.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should add stock to an existing row with a single increment")
+    void shouldAddStockToExistingRow() {
+        // Given
+        when(inventoryRepository.incrementQuantity(tenantId, productId, null, locationId, new BigDecimal("5")))
+                .thenReturn(Optional.of(inventory("15", "0")));
+
+        // When
+        Inventory result = inventoryService.addStock(productId, new BigDecimal("5"), locationId,
+                MovementReason.PURCHASE, null, null, null, userId);
+
+        // Then
+        assertThat(result.getQuantityAvailable()).isEqualByComparingTo("15");
+        assertMovement("10", "15");
+        verify(inventoryRepository, never()).upsertQuantity(any(), any(), any(), any());
+        verifyNoInteractions(productRepository);
+        verify(eventPublisher).publishEvent(new StockChangedEvent(tenantId, productId, null));
+    }
+
+    @Test
+    @DisplayName("Should create the first stock of a product with one upsert, without incrementing twice")
+    void shouldUpsertFirstStock() {
+        // Given
+        when(inventoryRepository.incrementQuantity(tenantId, productId, null, locationId, new BigDecimal("5")))
+                .thenReturn(Optional.empty());
+        when(productRepository.findByIdAndActive(productId)).thenReturn(Optional.of(product(true)));
+        when(inventoryRepository.upsertQuantity(tenantId, productId, locationId, new BigDecimal("5")))
+                .thenReturn(inventory("5", "0"));
+
+        // When
+        Inventory result = inventoryService.addStock(productId, new BigDecimal("5"), locationId,
+                MovementReason.INITIAL, null, null, null, userId);
+
+        // Then
+        assertThat(result.getQuantityAvailable()).isEqualByComparingTo("5");
+        assertMovement("0", "5");
+        verify(inventoryRepository, times(1)).incrementQuantity(any(), any(), any(), any(), any());
+        verify(inventoryRepository, times(1)).upsertQuantity(any(), any(), any(), any());
+        verify(inventoryRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should not create stock for a product that does not control inventory")
+    void shouldRejectFirstStockWithoutInventoryControl() {
+        // Given
+        when(inventoryRepository.incrementQuantity(any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(productRepository.findByIdAndActive(productId)).thenReturn(Optional.of(product(false)));
+
+        // When / Then
+        assertThatThrownBy(() -> inventoryService.addStock(productId, BigDecimal.ONE, locationId,
+                MovementReason.PURCHASE, null, null, null, userId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not control inventory");
+        verify(inventoryRepository, never()).upsertQuantity(any(), any(), any(), any());
+        verifyNoInteractions(movementRepository, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should remove stock with a single conditional decrement")
+    void shouldRemoveStock() {
+        // Given
+        when(inventoryRepository.decrementAvailable(tenantId, productId, null, locationId, new BigDecimal("4")))
+                .thenReturn(Optional.of(inventory("6", "1")));
+
+        // When
+        inventoryService.removeStock(productId, new BigDecimal("4"), locationId,
+                MovementReason.SALE, null, null, null, userId);
+
+        // Then
+        assertMovement("10", "6");
+        verify(inventoryRepository, never()).findByTenantIdAndProductIdAndLocationId(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should explain insufficient stock without writing a movement")
+    void shouldRejectRemovalOverAvailable() {
+        // Given - 5 on hand, 2 reserved: 3 for sale
+        when(inventoryRepository.decrementAvailable(tenantId, productId, null, locationId, new BigDecimal("4")))
+                .thenReturn(Optional.empty());
+        when(inventoryRepository.findByTenantIdAndProductIdAndLocationId(tenantId, productId, locationId))
+                .thenReturn(Optional.of(inventory("5", "2")));
+
+        // When / Then
+        assertThatThrownBy(() -> inventoryService.removeStock(productId, new BigDecimal("4"), locationId,
+                MovementReason.SALE, null, null, null, userId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Insufficient quantity for sale. Available: 3, Requested: 4");
+        verifyNoInteractions(movementRepository, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should explain a reservation over the quantity for sale")
+    void shouldRejectReservationOverAvailable() {
+        // Given
+        when(inventoryRepository.reserveAvailable(tenantId, productId, null, locationId, new BigDecimal("4")))
+                .thenReturn(Optional.empty());
+        when(inventoryRepository.findByTenantIdAndProductIdAndLocationId(tenantId, productId, locationId))
+                .thenReturn(Optional.of(inventory("5", "2")));
+
+        // When / Then
+        assertThatThrownBy(() -> inventoryService.reserveStock(productId, new BigDecimal("4"), locationId,
+                "ORDER", null, userId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Insufficient quantity for sale to reserve. Available: 3, Requested: 4");
+        verifyNoInteractions(movementRepository);
+    }
+
+    @Test
+    @DisplayName("Should explain releasing or fulfilling more than reserved")
+    void shouldRejectReleaseOverReserved() {
+        // Given
+        when(inventoryRepository.releaseReserved(any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(inventoryRepository.fulfillReserved(any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(inventoryRepository.findByTenantIdAndProductIdAndLocationId(tenantId, productId, locationId))
+                .thenReturn(Optional.of(inventory("5", "2")));
+
+        // When / Then
+        assertThatThrownBy(() -> inventoryService.unreserveStock(productId, new BigDecimal("3"), locationId,
+                "ORDER", null, userId))
+                .hasMessage("Cannot unreserve more than reserved. Reserved: 2, Requested: 3");
+        assertThatThrownBy(() -> inventoryService.fulfillReservation(productId, new BigDecimal("3"), locationId,
+                "SALE", null, userId))
+                .hasMessage("Cannot fulfill more than reserved. Reserved: 2, Requested: 3");
+        verifyNoInteractions(movementRepository);
+    }
+
+    @Test
+    @DisplayName("Should report a missing inventory row")
+    void shouldReportMissingRow() {
+        // Given
+        when(inventoryRepository.decrementAvailable(any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(inventoryRepository.findByTenantIdAndProductIdAndLocationId(tenantId, productId, locationId))
+                .thenReturn(Optional.empty());
+
+        // When / Then
+        assertThatThrownBy(() -> inventoryService.removeStock(productId, BigDecimal.ONE, locationId,
+                MovementReason.SALE, null, null, null, userId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Inventory not found for product: " + productId);
+    }
+
+    private void assertMovement(String quantityBefore, String quantityAfter) {
+        ArgumentCaptor<InventoryMovement> movement = ArgumentCaptor.forClass(InventoryMovement.class);
+        verify(movementRepository).save(movement.capture());
+        assertThat(movement.getValue().getQuantityBefore()).isEqualByComparingTo(quantityBefore);
+        assertThat(movement.getValue().getQuantityAfter()).isEqualByComparingTo(quantityAfter);
+    }
+
+    private Inventory inventory(String quantity, String reserved) {
+        Inventory inventory = new Inventory(tenantId, productId, locationId, new BigDecimal(quantity));
+        inventory.setReservedQuantity(new BigDecimal(reserved));
+        return inventory;
+    }
+
+    private static Product product(boolean controlsInventory) {
+        Product product = new Product();
+        product.setControlsInventory(controlsInventory);
+        return product;
+    }
+}
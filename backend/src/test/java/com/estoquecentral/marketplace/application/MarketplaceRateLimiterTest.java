@@ -0,0 +1,121 @@
+package com.estoquecentral.marketplace.application;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RRateLimiter;
+import org.redisson.api.RateIntervalUnit;
+import org.redisson.api.RateType;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisConnectionException;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MarketplaceRateLimiter
+ */
+@DisplayName("MarketplaceRateLimiter Unit Tests")
+class MarketplaceRateLimiterTest {
+
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private AtomicLong now;
+    private MarketplaceRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(0);
+        rateLimiter = new MarketplaceRateLimiter(5, 10, now::get);
+    }
+
+    @Test
+    @DisplayName("Should allow a burst and then space requests at the configured rate")
+    void shouldAllowBurstThenThrottle() {
+        UUID connectionId = UUID.randomUUID();
+
+        // Burst
+        for (int i = 0; i < 10; i++) {
+            assertThat(rateLimiter.reserve(connectionId)).isZero();
+        }
+
+        // 5 requests/second: the next callers wait 200ms, 400ms, ...
+        assertThat(rateLimiter.reserve(connectionId)).isEqualTo(ONE_SECOND / 5);
+        assertThat(rateLimiter.reserve(connectionId)).isEqualTo(2 * ONE_SECOND / 5);
+    }
+
+    @Test
+    @DisplayName("Should refill tokens over time up to the burst size")
+    void shouldRefillOverTime() {
+        UUID connectionId = UUID.randomUUID();
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.reserve(connectionId);
+        }
+
+        // One second later five tokens are back
+        now.addAndGet(ONE_SECOND);
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.reserve(connectionId)).isZero();
+        }
+        assertThat(rateLimiter.reserve(connectionId)).isPositive();
+
+        // Never more than the burst after a long pause
+        now.addAndGet(60 * ONE_SECOND);
+        for (int i = 0; i < 10; i++) {
+            assertThat(rateLimiter.reserve(connectionId)).isZero();
+        }
+        assertThat(rateLimiter.reserve(connectionId)).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should keep separate buckets per connection")
+    void shouldSeparateConnections() {
+        UUID busy = UUID.randomUUID();
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.reserve(busy);
+        }
+
+        assertThat(rateLimiter.reserve(busy)).isPositive();
+        assertThat(rateLimiter.reserve(UUID.randomUUID())).isZero();
+    }
+
+    @Test
+    @DisplayName("Should share one Redis rate limiter per connection across nodes")
+    void shouldUseSharedLimiter() {
+        // Given
+        UUID connectionId = UUID.randomUUID();
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        RRateLimiter shared = mock(RRateLimiter.class);
+        when(redissonClient.getRateLimiter("marketplace-rate-limit:" + connectionId)).thenReturn(shared);
+        MarketplaceRateLimiter distributed = new MarketplaceRateLimiter(redissonClient, 5, 10, now::get);
+
+        // When
+        distributed.acquire(connectionId);
+        distributed.acquire(connectionId);
+
+        // Then - burst of 10 per 2 seconds is 5 requests/second on average
+        verify(shared).trySetRate(RateType.OVERALL, 10, 2_000, RateIntervalUnit.MILLISECONDS);
+        verify(shared, times(2)).acquire();
+    }
+
+    @Test
+    @DisplayName("Should fall back to the local bucket while Redis is unavailable")
+    void shouldFallBackToLocalBucket() {
+        // Given
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        when(redissonClient.getRateLimiter(anyString())).thenThrow(new RedisConnectionException("down"));
+        MarketplaceRateLimiter distributed = new MarketplaceRateLimiter(redissonClient, 5, 1, now::get);
+        UUID connectionId = UUID.randomUUID();
+
+        // When
+        distributed.acquire(connectionId);
+
+        // Then - the local token was taken
+        assertThat(distributed.reserve(connectionId)).isEqualTo(ONE_SECOND / 5);
+    }
+}
@@ -0,0 +1,117 @@
+package com.estoquecentral.marketplace.application;
+
+import com.estoquecentral.marketplace.adapter.out.MarketplaceSellerTenantRepository;
+import com.estoquecentral.marketplace.domain.Marketplace;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MarketplaceSellerDirectory
+ */
+@DisplayName("MarketplaceSellerDirectory Unit Tests")
+class MarketplaceSellerDirectoryTest {
+
+    private static final Marketplace ML = Marketplace.MERCADO_LIVRE;
+    private static final String SELLER = "123456";
+
+    private final MarketplaceSellerTenantRepository repository = mock(MarketplaceSellerTenantRepository.class);
+    private final RedissonClient redissonClient = mock(RedissonClient.class);
+    private final RTopic topic = mock(RTopic.class);
+    private final UUID tenantId = UUID.randomUUID();
+
+    private AtomicLong now;
+    private MarketplaceSellerDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000);
+        when(redissonClient.getTopic("marketplace-seller-invalidation")).thenReturn(topic);
+        directory = new MarketplaceSellerDirectory(repository, redissonClient, 60_000, now::get);
+    }
+
+    @Test
+    @DisplayName("Should cache a resolved seller until the TTL expires")
+    void shouldExpireEntries() {
+        // Given
+        when(repository.findTenantId(ML, SELLER)).thenReturn(Optional.of(tenantId));
+
+        // When
+        directory.resolveTenant(ML, SELLER);
+        now.addAndGet(59_000);
+        directory.resolveTenant(ML, SELLER);
+        now.addAndGet(2_000);
+        Optional<UUID> resolved = directory.resolveTenant(ML, SELLER);
+
+        // Then
+        assertThat(resolved).contains(tenantId);
+        verify(repository, times(2)).findTenantId(ML, SELLER);
+    }
+
+    @Test
+    @DisplayName("Should drop the seller everywhere on disconnect")
+    void shouldEvictOnUnregister() {
+        // Given
+        when(repository.findTenantId(ML, SELLER)).thenReturn(Optional.of(tenantId), Optional.empty());
+        when(repository.delete(ML, SELLER, tenantId)).thenReturn(1);
+        directory.resolveTenant(ML, SELLER);
+
+        // When
+        directory.unregister(ML, SELLER, tenantId);
+
+        // Then
+        assertThat(directory.resolveTenant(ML, SELLER)).isEmpty();
+        verify(topic).publish("MERCADO_LIVRE:" + SELLER);
+    }
+
+    @Test
+    @DisplayName("Should broadcast when a seller moves to another tenant, not when the mapping is unchanged")
+    void shouldBroadcastOnlyWhenMoved() {
+        // Given
+        UUID otherTenant = UUID.randomUUID();
+        when(repository.upsert(ML, SELLER, tenantId)).thenReturn(0);
+        when(repository.upsert(ML, SELLER, otherTenant)).thenReturn(1);
+
+        // When
+        directory.register(ML, SELLER, tenantId);
+        directory.register(ML, SELLER, tenantId);
+        directory.register(ML, SELLER, otherTenant);
+
+        // Then
+        verify(repository, times(1)).upsert(ML, SELLER, tenantId);
+        verify(topic, times(1)).publish("MERCADO_LIVRE:" + SELLER);
+        assertThat(directory.resolveTenant(ML, SELLER)).contains(otherTenant);
+    }
+
+    @Test
+    @DisplayName("Should drop entries invalidated by another node")
+    @SuppressWarnings("unchecked")
+    void shouldApplyRemoteInvalidation() {
+        // Given
+        ArgumentCaptor<MessageListener<String>> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(topic).addListener(eq(String.class), listener.capture());
+        when(repository.findTenantId(ML, SELLER)).thenReturn(Optional.of(tenantId));
+        directory.resolveTenant(ML, SELLER);
+
+        // When
+        listener.getValue().onMessage("marketplace-seller-invalidation", "MERCADO_LIVRE:" + SELLER);
+        directory.resolveTenant(ML, SELLER);
+
+        // Then
+        verify(repository, times(2)).findTenantId(ML, SELLER);
+        verify(topic, never()).publish(any());
+    }
+}
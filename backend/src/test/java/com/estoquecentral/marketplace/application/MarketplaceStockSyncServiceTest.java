@@ -0,0 +1,98 @@
+package com.estoquecentral.marketplace.application;
+
+import com.estoquecentral.inventory.adapter.out.InventoryRepository;
+import com.estoquecentral.marketplace.adapter.out.MarketplaceListingRepository;
+import com.estoquecentral.marketplace.adapter.out.MarketplaceSyncLogRepository;
+import com.estoquecentral.marketplace.adapter.out.MarketplaceSyncQueueRepository;
+import com.estoquecentral.marketplace.domain.Marketplace;
+import com.estoquecentral.marketplace.domain.MarketplaceSyncQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MarketplaceStockSyncService queue processing
+ */
+@DisplayName("MarketplaceStockSyncService Unit Tests")
+class MarketplaceStockSyncServiceTest {
+
+    private static final int LEASE_SECONDS = 120;
+    private static final int CLAIM_SIZE = 5;
+
+    private final MarketplaceSyncQueueRepository queueRepository = mock(MarketplaceSyncQueueRepository.class);
+    private final MarketplaceListingRepository listingRepository = mock(MarketplaceListingRepository.class);
+    private final UUID tenantId = UUID.randomUUID();
+
+    private MarketplaceStockSyncService syncService;
+
+    @BeforeEach
+    void setUp() {
+        syncService = new MarketplaceStockSyncService(queueRepository, mock(MarketplaceSyncLogRepository.class),
+            listingRepository, mock(InventoryRepository.class), mock(MercadoLivreApiClient.class),
+            new SimpleMeterRegistry(), LEASE_SECONDS, CLAIM_SIZE);
+    }
+
+    @Test
+    @DisplayName("Should claim the batch a few items at a time, processing each claim before the next")
+    void shouldClaimInSmallChunks() {
+        // Given - every claim and every listing lookup is recorded in call order
+        List<String> calls = new ArrayList<>();
+        when(queueRepository.claimPendingItemsByTenant(eq(tenantId), anyInt(), eq(LEASE_SECONDS)))
+            .thenAnswer(invocation -> {
+                int limit = invocation.getArgument(1);
+                calls.add("claim " + limit);
+                return items(limit);
+            });
+        when(listingRepository.findByProductId(any())).thenAnswer(invocation -> {
+            calls.add("sync");
+            return List.of();
+        });
+
+        // When
+        int processed = syncService.processSyncQueueForTenant(tenantId, 12);
+
+        // Then
+        assertThat(processed).isEqualTo(12);
+        List<String> expected = new ArrayList<>();
+        for (int limit : new int[] {5, 5, 2}) {
+            expected.add("claim " + limit);
+            expected.addAll(Collections.nCopies(limit, "sync"));
+        }
+        assertThat(calls).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("Should stop claiming once the queue runs dry")
+    void shouldStopWhenDrained() {
+        // Given
+        when(queueRepository.claimPendingItemsByTenant(tenantId, CLAIM_SIZE, LEASE_SECONDS))
+            .thenReturn(items(5), items(3));
+
+        // When
+        int processed = syncService.processSyncQueueForTenant(tenantId, 50);
+
+        // Then
+        assertThat(processed).isEqualTo(8);
+        verify(queueRepository, times(2)).claimPendingItemsByTenant(tenantId, CLAIM_SIZE, LEASE_SECONDS);
+        verify(queueRepository, times(8)).releaseClaim(any(), any(), any(), anyInt(), any(), any(), any());
+    }
+
+    private List<MarketplaceSyncQueue> items(int count) {
+        List<MarketplaceSyncQueue> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(new MarketplaceSyncQueue(tenantId, UUID.randomUUID(), null, Marketplace.MERCADO_LIVRE));
+        }
+        return items;
+    }
+}
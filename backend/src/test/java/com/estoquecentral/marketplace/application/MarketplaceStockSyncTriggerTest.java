@@ -0,0 +1,90 @@
+package com.estoquecentral.marketplace.application;
+
+import com.estoquecentral.inventory.domain.StockChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MarketplaceStockSyncTrigger
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MarketplaceStockSyncTrigger Unit Tests")
+class MarketplaceStockSyncTriggerTest {
+
+    private static final Duration DEBOUNCE = Duration.ofMillis(2000);
+
+    @Mock
+    private MarketplaceStockSyncService syncService;
+
+    private MarketplaceStockSyncTrigger trigger;
+
+    @BeforeEach
+    void setUp() {
+        trigger = new MarketplaceStockSyncTrigger(syncService, DEBOUNCE.toMillis());
+    }
+
+    @Test
+    @DisplayName("Should queue a changed product right away, due after the debounce")
+    void shouldQueueChangedProduct() {
+        // Given
+        UUID tenantId = UUID.randomUUID();
+        UUID productId = UUID.randomUUID();
+
+        // When
+        trigger.onStockChanged(new StockChangedEvent(tenantId, productId, null));
+
+        // Then - queued without waiting for a flush
+        verify(syncService).enqueueStockSync(tenantId, List.of(productId), List.of(), DEBOUNCE);
+    }
+
+    @Test
+    @DisplayName("Should queue a changed variant by its variant id")
+    void shouldQueueChangedVariant() {
+        // Given
+        UUID tenantId = UUID.randomUUID();
+        UUID productId = UUID.randomUUID();
+        UUID variantId = UUID.randomUUID();
+
+        // When
+        trigger.onStockChanged(new StockChangedEvent(tenantId, productId, variantId));
+
+        // Then
+        verify(syncService).enqueueStockSync(tenantId, List.of(), List.of(variantId), DEBOUNCE);
+    }
+
+    @Test
+    @DisplayName("Should ignore changes without tenant or stock item")
+    void shouldIgnoreIncompleteChanges() {
+        // When
+        trigger.onStockChanged(new StockChangedEvent(null, UUID.randomUUID(), null));
+        trigger.onStockChanged(new StockChangedEvent(UUID.randomUUID(), null, null));
+
+        // Then
+        verifyNoInteractions(syncService);
+    }
+
+    @Test
+    @DisplayName("Should let a failed enqueue fail the stock change instead of losing the item")
+    void shouldPropagateEnqueueFailure() {
+        // Given
+        UUID tenantId = UUID.randomUUID();
+        UUID productId = UUID.randomUUID();
+        when(syncService.enqueueStockSync(tenantId, List.of(productId), List.of(), DEBOUNCE))
+            .thenThrow(new RuntimeException("database unavailable"));
+
+        // When / Then
+        assertThatThrownBy(() -> trigger.onStockChanged(new StockChangedEvent(tenantId, productId, null)))
+            .hasMessage("database unavailable");
+    }
+}
@@ -0,0 +1,115 @@
+package com.estoquecentral.marketplace.application;
+
+import com.estoquecentral.marketplace.adapter.out.MarketplaceConnectionRepository;
+import com.estoquecentral.marketplace.application.MercadoLivreConnectionCache.CachedConnection;
+import com.estoquecentral.marketplace.domain.EncryptedStringConverter;
+import com.estoquecentral.marketplace.domain.MarketplaceConnection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MercadoLivreConnectionCache
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MercadoLivreConnectionCache Unit Tests")
+class MercadoLivreConnectionCacheTest {
+
+    @Mock
+    private MarketplaceConnectionRepository connectionRepository;
+
+    @Mock
+    private EncryptedStringConverter encryptedStringConverter;
+
+    private AtomicLong now;
+    private MercadoLivreConnectionCache cache;
+    private UUID tenantId;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000);
+        cache = new MercadoLivreConnectionCache(connectionRepository, encryptedStringConverter, 60_000, now::get);
+        tenantId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Should query and decrypt once while the entry is fresh")
+    void shouldReuseEntryWithinTtl() {
+        // Given
+        givenConnectionWithToken("encrypted-1", "token-1");
+
+        // When
+        CachedConnection first = cache.get(tenantId);
+        now.addAndGet(59_000);
+        CachedConnection second = cache.get(tenantId);
+
+        // Then
+        assertThat(first.accessToken()).isEqualTo("token-1");
+        assertThat(second).isSameAs(first);
+        verify(connectionRepository, times(1)).findByTenantIdAndMarketplace(eq(tenantId), anyString());
+        verify(encryptedStringConverter, times(1)).decrypt("encrypted-1");
+    }
+
+    @Test
+    @DisplayName("Should reload after the TTL expires")
+    void shouldReloadAfterTtl() {
+        // Given
+        givenConnectionWithToken("encrypted-1", "token-1");
+        cache.get(tenantId);
+
+        // When
+        now.addAndGet(60_000);
+        cache.get(tenantId);
+
+        // Then
+        verify(connectionRepository, times(2)).findByTenantIdAndMarketplace(eq(tenantId), anyString());
+    }
+
+    @Test
+    @DisplayName("Should return the new token after invalidation")
+    void shouldReloadAfterInvalidate() {
+        // Given
+        givenConnectionWithToken("encrypted-1", "token-1");
+        cache.get(tenantId);
+
+        // When (token refreshed)
+        givenConnectionWithToken("encrypted-2", "token-2");
+        cache.invalidate(tenantId);
+
+        // Then
+        assertThat(cache.get(tenantId).accessToken()).isEqualTo("token-2");
+    }
+
+    @Test
+    @DisplayName("Should fail when the tenant has no connection")
+    void shouldFailWithoutConnection() {
+        when(connectionRepository.findByTenantIdAndMarketplace(eq(tenantId), anyString()))
+            .thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> cache.get(tenantId))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining(tenantId.toString());
+    }
+
+    private void givenConnectionWithToken(String encryptedToken, String token) {
+        MarketplaceConnection connection = new MarketplaceConnection();
+        connection.setTenantId(tenantId);
+        connection.setAccessToken(encryptedToken);
+        when(connectionRepository.findByTenantIdAndMarketplace(eq(tenantId), anyString()))
+            .thenReturn(Optional.of(connection));
+        when(encryptedStringConverter.decrypt(encryptedToken)).thenReturn(token);
+    }
+}
@@ -0,0 +1,191 @@
+package com.estoquecentral.marketplace.application;
+
+import com.estoquecentral.catalog.adapter.out.ProductRepository;
+import com.estoquecentral.marketplace.adapter.out.MarketplaceListingRepository;
+import com.estoquecentral.marketplace.application.dto.ImportListingsRequest;
+import com.estoquecentral.marketplace.application.dto.ImportListingsResponse;
+import com.estoquecentral.marketplace.application.dto.ListingPreviewProgress;
+import com.estoquecentral.marketplace.application.dto.ListingPreviewResponse;
+import com.estoquecentral.marketplace.application.dto.ml.MLItemResponse;
+import com.estoquecentral.marketplace.application.dto.ml.MLItemSearchResponse;
+import com.estoquecentral.marketplace.application.dto.ml.MLMultigetItemResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MercadoLivreProductImportService listing scan and item fetching
+ */
+@DisplayName("MercadoLivreProductImportService Unit Tests")
+class MercadoLivreProductImportServiceTest {
+
+    private static final String SEARCH = "/users/me/items/search";
+    private static final String MULTIGET = "/items?ids=";
+
+    private final MercadoLivreApiClient mlApiClient = mock(MercadoLivreApiClient.class);
+    private final UUID tenantId = UUID.randomUUID();
+
+    private MercadoLivreProductImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new MercadoLivreProductImportService(mlApiClient, mock(MarketplaceListingRepository.class),
+            mock(ProductRepository.class), mock(PlatformTransactionManager.class), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should follow the scroll ID through every scan page")
+    void shouldScanAllPages() {
+        // Given
+        when(mlApiClient.get(startsWith(SEARCH), eq(MLItemSearchResponse.class), eq(tenantId)))
+            .thenReturn(page(ids(0, 100), "s1"), page(ids(100, 150), "s2"), page(List.of(), null));
+        answerMultiget(Set.of());
+
+        // When
+        List<ListingPreviewResponse> previews = importService.getListingsPreview(tenantId);
+
+        // Then
+        assertThat(previews).extracting(ListingPreviewResponse::getListingId).containsExactlyElementsOf(ids(0, 150));
+        verify(mlApiClient).get(SEARCH + "?status=active&search_type=scan&limit=100", MLItemSearchResponse.class, tenantId);
+        verify(mlApiClient).get(SEARCH + "?status=active&search_type=scan&limit=100&scroll_id=s1", MLItemSearchResponse.class, tenantId);
+        verify(mlApiClient).get(SEARCH + "?status=active&search_type=scan&limit=100&scroll_id=s2", MLItemSearchResponse.class, tenantId);
+        assertThat(importService.getListingsPreviewProgress(tenantId)).hasValue(
+            new ListingPreviewProgress(ListingPreviewProgress.DONE, 150, 150, 150, List.of()));
+    }
+
+    @Test
+    @DisplayName("Should fetch item details in multiget chunks of 20")
+    void shouldChunkMultiget() {
+        // Given
+        when(mlApiClient.get(startsWith(SEARCH), eq(MLItemSearchResponse.class), eq(tenantId)))
+            .thenReturn(page(ids(0, 45), null));
+        answerMultiget(Set.of());
+
+        // When
+        importService.getListingsPreview(tenantId);
+
+        // Then
+        verify(mlApiClient).get(MULTIGET + String.join(",", ids(0, 20)), MLMultigetItemResponse[].class, tenantId);
+        verify(mlApiClient).get(MULTIGET + String.join(",", ids(20, 40)), MLMultigetItemResponse[].class, tenantId);
+        verify(mlApiClient).get(MULTIGET + String.join(",", ids(40, 45)), MLMultigetItemResponse[].class, tenantId);
+        verify(mlApiClient, never()).get(startsWith("/items/"), eq(MLItemResponse.class), eq(tenantId));
+    }
+
+    @Test
+    @DisplayName("Should fall back to single item GETs and report the IDs that still fail")
+    void shouldFallBackToSingleItems() {
+        // Given - the multiget of the only batch fails on both attempts
+        List<String> itemIds = ids(0, 3);
+        when(mlApiClient.get(startsWith(SEARCH), eq(MLItemSearchResponse.class), eq(tenantId)))
+            .thenReturn(page(itemIds, null));
+        when(mlApiClient.get(startsWith(MULTIGET), eq(MLMultigetItemResponse[].class), eq(tenantId)))
+            .thenThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+        when(mlApiClient.get("/items/MLB0", MLItemResponse.class, tenantId)).thenReturn(item("MLB0"));
+        when(mlApiClient.get("/items/MLB1", MLItemResponse.class, tenantId))
+            .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+        when(mlApiClient.get("/items/MLB2", MLItemResponse.class, tenantId))
+            .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        // When
+        List<ListingPreviewResponse> previews = importService.getListingsPreview(tenantId);
+
+        // Then - MLB1 failed, MLB2 no longer exists
+        verify(mlApiClient, times(2)).get(startsWith(MULTIGET), eq(MLMultigetItemResponse[].class), eq(tenantId));
+        assertThat(previews).extracting(ListingPreviewResponse::getListingId).containsExactly("MLB0");
+        assertThat(importService.getListingsPreviewProgress(tenantId)).hasValue(
+            new ListingPreviewProgress(ListingPreviewProgress.PARTIAL, 3, 3, 1, List.of("MLB1")));
+    }
+
+    @Test
+    @DisplayName("Should fetch multiget entries that failed with 5xx one by one")
+    void shouldRetryFailedEntries() {
+        // Given
+        when(mlApiClient.get(startsWith(SEARCH), eq(MLItemSearchResponse.class), eq(tenantId)))
+            .thenReturn(page(ids(0, 3), null));
+        answerMultiget(Set.of("MLB1"));
+        when(mlApiClient.get("/items/MLB1", MLItemResponse.class, tenantId)).thenReturn(item("MLB1"));
+
+        // When
+        List<ListingPreviewResponse> previews = importService.getListingsPreview(tenantId);
+
+        // Then
+        assertThat(previews).extracting(ListingPreviewResponse::getListingId).containsExactly("MLB0", "MLB1", "MLB2");
+        verify(mlApiClient).get("/items/MLB1", MLItemResponse.class, tenantId);
+    }
+
+    @Test
+    @DisplayName("Should report listings whose details could not be loaded as import errors")
+    void shouldReportFailedImports() {
+        // Given
+        when(mlApiClient.get(startsWith(MULTIGET), eq(MLMultigetItemResponse[].class), eq(tenantId)))
+            .thenReturn(null);
+        when(mlApiClient.get("/items/MLB7", MLItemResponse.class, tenantId))
+            .thenThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR));
+
+        // When
+        ImportListingsResponse response = importService.importListings(tenantId,
+            new ImportListingsRequest(List.of("MLB7")));
+
+        // Then
+        assertThat(response.getImported()).isZero();
+        assertThat(response.getErrors()).containsExactly(
+            "Failed to import MLB7: could not load item from Mercado Livre");
+    }
+
+    /** Multiget answers every requested ID; IDs in <code>failing</code> get a 500 entry. */
+    private void answerMultiget(Set<String> failing) {
+        when(mlApiClient.get(startsWith(MULTIGET), eq(MLMultigetItemResponse[].class), eq(tenantId)))
+            .thenAnswer(invocation -> {
+                String endpoint = invocation.getArgument(0);
+                return Arrays.stream(endpoint.substring(MULTIGET.length()).split(","))
+                    .map(id -> {
+                        MLMultigetItemResponse entry = new MLMultigetItemResponse();
+                        entry.setCode(failing.contains(id) ? 500 : 200);
+                        entry.setBody(failing.contains(id) ? null : item(id));
+                        return entry;
+                    })
+                    .toArray(MLMultigetItemResponse[]::new);
+            });
+    }
+
+    private static List<String> ids(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> "MLB" + i).collect(Collectors.toList());
+    }
+
+    private static MLItemSearchResponse page(List<String> results, String scrollId) {
+        MLItemSearchResponse page = new MLItemSearchResponse();
+        page.setResults(new ArrayList<>(results));
+        page.setScrollId(scrollId);
+        return page;
+    }
+
+    private static MLItemResponse item(String id) {
+        MLItemResponse item = new MLItemResponse();
+        item.setId(id);
+        item.setTitle("Item " + id);
+        return item;
+    }
+}
@@ -0,0 +1,109 @@
+package com.estoquecentral.marketplace.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MercadoLivreTokenRefresher
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MercadoLivreTokenRefresher Unit Tests")
+class MercadoLivreTokenRefresherTest {
+
+    @Mock
+    private MercadoLivreOAuthService oauthService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MercadoLivreTokenRefresher refresher;
+    private UUID connectionId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        refresher = new MercadoLivreTokenRefresher(oauthService, meterRegistry);
+        connectionId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Should run one refresh for concurrent callers and let the others reuse it")
+    void shouldCoalesceConcurrentRefreshes() throws Exception {
+        // Given: the first refresh blocks until released
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(oauthService.refreshToken(connectionId, "stale")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+
+        Thread leader = new Thread(() -> refresher.refresh(connectionId, "stale",
+            MercadoLivreTokenRefresher.Trigger.UNAUTHORIZED));
+        leader.start();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When: more callers hit the expired token while it runs
+        List<Thread> waiters = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Thread waiter = new Thread(() -> refresher.refresh(connectionId, "stale",
+                MercadoLivreTokenRefresher.Trigger.UNAUTHORIZED));
+            waiters.add(waiter);
+            waiter.start();
+        }
+        for (Thread waiter : waiters) {
+            while (waiter.getState() != Thread.State.WAITING) {
+                Thread.sleep(5);
+            }
+        }
+        release.countDown();
+        leader.join(5000);
+        for (Thread waiter : waiters) {
+            waiter.join(5000);
+        }
+
+        // Then
+        verify(oauthService, times(1)).refreshToken(connectionId, "stale");
+        assertThat(meterRegistry.get("marketplace.token.refresh").tag("trigger", "unauthorized")
+            .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should not count a refresh skipped because the token was already replaced")
+    void shouldNotCountSkippedRefresh() {
+        when(oauthService.refreshToken(connectionId, "stale")).thenReturn(false);
+
+        refresher.refresh(connectionId, "stale", MercadoLivreTokenRefresher.Trigger.PROACTIVE);
+
+        assertThat(meterRegistry.get("marketplace.token.refresh").tag("trigger", "proactive")
+            .counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should propagate a failed refresh and allow the next one")
+    void shouldPropagateFailure() {
+        when(oauthService.refreshToken(connectionId, "stale"))
+            .thenThrow(new RuntimeException("invalid_grant"))
+            .thenReturn(true);
+
+        assertThatThrownBy(() -> refresher.refresh(connectionId, "stale",
+            MercadoLivreTokenRefresher.Trigger.UNAUTHORIZED))
+            .hasMessage("invalid_grant");
+        refresher.refresh(connectionId, "stale", MercadoLivreTokenRefresher.Trigger.UNAUTHORIZED);
+
+        verify(oauthService, times(2)).refreshToken(connectionId, "stale");
+    }
+}
@@ -0,0 +1,119 @@
+package com.estoquecentral.marketplace.application;
+
+import com.estoquecentral.marketplace.adapter.out.MarketplaceWebhookInboxRepository;
+import com.estoquecentral.marketplace.application.dto.ml.MLWebhookNotification;
+import com.estoquecentral.marketplace.domain.Marketplace;
+import com.estoquecentral.marketplace.domain.MarketplaceWebhookTask;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MercadoLivreWebhookWorker
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MercadoLivreWebhookWorker Unit Tests")
+class MercadoLivreWebhookWorkerTest {
+
+    @Mock
+    private MarketplaceWebhookInboxRepository inboxRepository;
+
+    @Mock
+    private MarketplaceSellerDirectory sellerDirectory;
+
+    @Mock
+    private MercadoLivreOrderImportService orderImportService;
+
+    private MercadoLivreWebhookWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new MercadoLivreWebhookWorker(inboxRepository, sellerDirectory, orderImportService, 1, 120, 3);
+    }
+
+    @Test
+    @DisplayName("Should store order notifications and ignore other topics")
+    void shouldAcceptOnlyOrderNotifications() {
+        // Given
+        MLWebhookNotification order = notification("orders_v2", "/orders/2000001");
+        MLWebhookNotification item = notification("items", "/items/MLB1");
+
+        // When / Then
+        assertThat(worker.accept(order)).isTrue();
+        assertThat(worker.accept(item)).isFalse();
+        verify(inboxRepository).append(Marketplace.MERCADO_LIVRE, "orders_v2", "/orders/2000001", "123456");
+        verifyNoMoreInteractions(inboxRepository);
+    }
+
+    @Test
+    @DisplayName("Should import the order in the seller's tenant and complete the row")
+    void shouldImportOrderForResolvedTenant() {
+        // Given
+        UUID tenantId = UUID.randomUUID();
+        MarketplaceWebhookTask task = task(1);
+        when(sellerDirectory.resolveTenant(Marketplace.MERCADO_LIVRE, "123456")).thenReturn(Optional.of(tenantId));
+
+        // When
+        worker.process(task);
+
+        // Then
+        verify(orderImportService).importOrder(tenantId, "2000001");
+        verify(inboxRepository).complete(task);
+    }
+
+    @Test
+    @DisplayName("Should retry later when the seller is not mapped to a tenant yet")
+    void shouldRetryUnknownSeller() {
+        // Given
+        when(sellerDirectory.resolveTenant(any(), anyString())).thenReturn(Optional.empty());
+
+        // When
+        worker.process(task(2));
+
+        // Then
+        verify(inboxRepository).retryLater(any(UUID.class), eq(60L), anyString());
+        verifyNoInteractions(orderImportService);
+    }
+
+    @Test
+    @DisplayName("Should drop the row after the last attempt fails")
+    void shouldGiveUpAfterMaxAttempts() {
+        // Given
+        UUID tenantId = UUID.randomUUID();
+        MarketplaceWebhookTask task = task(3);
+        when(sellerDirectory.resolveTenant(any(), anyString())).thenReturn(Optional.of(tenantId));
+        doThrow(new RuntimeException("ML unavailable")).when(orderImportService).importOrder(tenantId, "2000001");
+
+        // When
+        worker.process(task);
+
+        // Then
+        verify(inboxRepository).delete(task.id());
+        verify(inboxRepository, never()).complete(any());
+    }
+
+    private static MarketplaceWebhookTask task(int attempts) {
+        return new MarketplaceWebhookTask(UUID.randomUUID(), Marketplace.MERCADO_LIVRE,
+            "orders_v2", "/orders/2000001", "123456", 1, attempts);
+    }
+
+    private static MLWebhookNotification notification(String topic, String resource) {
+        MLWebhookNotification notification = new MLWebhookNotification();
+        notification.setTopic(topic);
+        notification.setResource(resource);
+        notification.setUserId(123456L);
+        return notification;
+    }
+}
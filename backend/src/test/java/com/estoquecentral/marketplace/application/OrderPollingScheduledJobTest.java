@@ -0,0 +1,149 @@
+package com.estoquecentral.marketplace.application;
+
+import com.estoquecentral.auth.adapter.out.TenantRepository;
+import com.estoquecentral.marketplace.adapter.out.MarketplaceConnectionRepository;
+import com.estoquecentral.marketplace.adapter.out.MarketplaceOrderRepository;
+import com.estoquecentral.marketplace.application.dto.ml.MLOrderResponse;
+import com.estoquecentral.marketplace.application.dto.ml.MLOrderSearchResponse;
+import com.estoquecentral.marketplace.domain.MarketplaceConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OrderPollingScheduledJob
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderPollingScheduledJob Unit Tests")
+class OrderPollingScheduledJobTest {
+
+    @Mock
+    private MarketplaceConnectionRepository connectionRepository;
+
+    @Mock
+    private MarketplaceOrderRepository orderRepository;
+
+    @Mock
+    private MercadoLivreOrderImportService orderImportService;
+
+    @Mock
+    private MercadoLivreApiClient mlApiClient;
+
+    @Mock
+    private TenantRepository tenantRepository;
+
+    @Mock
+    private MarketplaceSellerDirectory sellerDirectory;
+
+    private OrderPollingScheduledJob job;
+    private UUID tenantId;
+    private MarketplaceConnection connection;
+
+    @BeforeEach
+    void setUp() {
+        job = new OrderPollingScheduledJob(connectionRepository, orderRepository, orderImportService,
+            mlApiClient, tenantRepository, sellerDirectory, 1, 24, 20);
+        tenantId = UUID.randomUUID();
+        connection = new MarketplaceConnection();
+        connection.setId(UUID.randomUUID());
+        connection.setUserIdMarketplace("123456");
+        connection.setOrdersPolledUntil(LocalDateTime.of(2025, 3, 25, 14, 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        job.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should search from the cursor, import only new orders and advance the cursor")
+    void shouldImportNewOrdersAndAdvanceCursor() {
+        // Given
+        MLOrderResponse known = order(1001L, "2025-03-25T10:59:00.000-04:00");
+        MLOrderResponse fresh = order(1002L, "2025-03-25T11:30:00.000-04:00");
+        when(mlApiClient.get(anyString(), eq(MLOrderSearchResponse.class), eq(tenantId)))
+            .thenReturn(searchResult(known, fresh));
+        when(orderRepository.findExistingOrderIds(eq(tenantId), anyString(), anyCollection()))
+            .thenReturn(List.of("1001"));
+
+        // When
+        job.pollOrdersForConnection(tenantId, connection);
+
+        // Then: one search call, starting 5 minutes before the cursor
+        ArgumentCaptor<String> endpoint = ArgumentCaptor.forClass(String.class);
+        verify(mlApiClient).get(endpoint.capture(), eq(MLOrderSearchResponse.class), eq(tenantId));
+        assertThat(endpoint.getValue())
+            .contains("seller=123456")
+            .contains("order.date_created.from=2025-03-25T13:55:00.000-00:00")
+            .contains("sort=date_asc");
+
+        verify(orderImportService).importOrder(tenantId, fresh);
+        verify(orderImportService, never()).importOrder(tenantId, known);
+        verify(connectionRepository).updateOrderPollingCursor(
+            connection.getId(), LocalDateTime.of(2025, 3, 25, 15, 30));
+    }
+
+    @Test
+    @DisplayName("Should keep the cursor before an order that failed to import")
+    void shouldNotSkipFailedOrder() {
+        // Given
+        MLOrderResponse first = order(1001L, "2025-03-25T14:10:00.000-00:00");
+        MLOrderResponse failing = order(1002L, "2025-03-25T14:20:00.000-00:00");
+        when(mlApiClient.get(anyString(), eq(MLOrderSearchResponse.class), eq(tenantId)))
+            .thenReturn(searchResult(first, failing));
+        when(orderRepository.findExistingOrderIds(eq(tenantId), anyString(), anyCollection()))
+            .thenReturn(List.of());
+        lenient().doThrow(new RuntimeException("duplicate")).when(orderImportService).importOrder(tenantId, failing);
+
+        // When
+        job.pollOrdersForConnection(tenantId, connection);
+
+        // Then
+        verify(connectionRepository).updateOrderPollingCursor(
+            connection.getId(), LocalDateTime.of(2025, 3, 25, 14, 10));
+    }
+
+    @Test
+    @DisplayName("Should leave the cursor alone when there are no new orders")
+    void shouldNotWriteCursorWithoutOrders() {
+        // Given
+        when(mlApiClient.get(anyString(), eq(MLOrderSearchResponse.class), eq(tenantId)))
+            .thenReturn(searchResult());
+
+        // When
+        job.pollOrdersForConnection(tenantId, connection);
+
+        // Then
+        verifyNoInteractions(orderImportService, orderRepository);
+        verify(connectionRepository, never()).updateOrderPollingCursor(any(), any());
+    }
+
+    private static MLOrderResponse order(Long id, String dateCreated) {
+        MLOrderResponse order = new MLOrderResponse();
+        order.setId(id);
+        order.setDateCreated(dateCreated);
+        return order;
+    }
+
+    private static MLOrderSearchResponse searchResult(MLOrderResponse... orders) {
+        MLOrderSearchResponse response = new MLOrderSearchResponse();
+        response.setResults(List.of(orders));
+        return response;
+    }
+}
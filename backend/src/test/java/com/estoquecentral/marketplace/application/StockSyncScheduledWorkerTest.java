@@ -0,0 +1,82 @@
+package com.estoquecentral.marketplace.application;
+
+import com.estoquecentral.marketplace.adapter.out.MarketplaceSyncDispatchRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for StockSyncScheduledWorker dispatching and per-round limits
+ */
+@DisplayName("StockSyncScheduledWorker Unit Tests")
+class StockSyncScheduledWorkerTest {
+
+    private final MarketplaceStockSyncService syncService = mock(MarketplaceStockSyncService.class);
+    private final MarketplaceSyncDispatchRepository dispatchRepository = mock(MarketplaceSyncDispatchRepository.class);
+    private final UUID tenantId = UUID.randomUUID();
+
+    private StockSyncScheduledWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new StockSyncScheduledWorker(syncService, dispatchRepository, 2, 10, 25);
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should only drain the tenants the dispatch query returns")
+    void shouldDrainOnlyDueTenants() {
+        // Given
+        UUID otherTenant = UUID.randomUUID();
+        when(dispatchRepository.findTenantsWithDueItems()).thenReturn(List.of(tenantId, otherTenant));
+
+        // When
+        worker.processStockSyncQueue();
+
+        // Then
+        verify(syncService, timeout(1_000)).processSyncQueueForTenant(eq(tenantId), anyInt());
+        verify(syncService, timeout(1_000)).processSyncQueueForTenant(eq(otherTenant), anyInt());
+        verifyNoMoreInteractions(syncService);
+    }
+
+    @Test
+    @DisplayName("Should stop a tenant drain at the per-round item cap")
+    void shouldCapItemsPerRound() {
+        // Given - a backlog larger than the cap: every claim comes back full
+        when(syncService.processSyncQueueForTenant(eq(tenantId), anyInt())).thenAnswer(invocation -> invocation.getArgument(1));
+
+        // When
+        worker.drainTenant(tenantId);
+
+        // Then - 10 + 10 + 5, the rest waits for the next round
+        verify(syncService, times(2)).processSyncQueueForTenant(tenantId, 10);
+        verify(syncService).processSyncQueueForTenant(tenantId, 5);
+        verifyNoMoreInteractions(syncService);
+    }
+
+    @Test
+    @DisplayName("Should stop a tenant drain when the queue runs out")
+    void shouldStopWhenQueueEmpties() {
+        // Given
+        when(syncService.processSyncQueueForTenant(tenantId, 10)).thenReturn(10, 3);
+
+        // When
+        worker.drainTenant(tenantId);
+
+        // Then
+        verify(syncService, times(2)).processSyncQueueForTenant(tenantId, 10);
+        verifyNoMoreInteractions(syncService);
+    }
+}
@@ -1,19 +1,25 @@
 package com.estoquecentral.purchasing.application;
 
 import com.estoquecentral.purchasing.adapter.out.PurchaseOrderRepository;
+import com.estoquecentral.shared.numbering.DocumentNumberService;
+import com.estoquecentral.shared.numbering.DocumentSequenceRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.LongSupplier;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -28,7 +34,12 @@ class OrderNumberGeneratorTest {
     @Mock
     private PurchaseOrderRepository purchaseOrderRepository;
 
-    @InjectMocks
+    @Mock
+    private DocumentSequenceRepository sequenceRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private OrderNumberGenerator orderNumberGenerator;
 
     private UUID tenantId;
@@ -36,6 +47,16 @@ class OrderNumberGeneratorTest {
     @BeforeEach
     void setUp() {
         tenantId = UUID.randomUUID();
+        orderNumberGenerator = new OrderNumberGenerator(purchaseOrderRepository,
+            new DocumentNumberService(sequenceRepository, transactionManager, 20, Set.of()));
+    }
+
+    /**
+     * First allocation of the month: the counter starts after the last issued number
+     */
+    private void givenNewMonthlyCounter() {
+        when(sequenceRepository.allocate(eq(tenantId), eq("PO"), anyString(), anyInt(), any()))
+            .thenAnswer(invocation -> invocation.<LongSupplier>getArgument(4).getAsLong());
     }
 
     @Test
@@ -47,6 +68,7 @@ class OrderNumberGeneratorTest {
 
         when(purchaseOrderRepository.findMaxPoNumberByTenantAndYearMonth(eq(tenantId), eq(yearMonth)))
             .thenReturn(Optional.empty());
+        givenNewMonthlyCounter();
 
         // When
         String poNumber = orderNumberGenerator.generateOrderNumber(tenantId);
@@ -68,6 +90,7 @@ class OrderNumberGeneratorTest {
 
         when(purchaseOrderRepository.findMaxPoNumberByTenantAndYearMonth(eq(tenantId), eq(yearMonth)))
             .thenReturn(Optional.of(existingPONumber));
+        givenNewMonthlyCounter();
 
         // When
         String poNumber = orderNumberGenerator.generateOrderNumber(tenantId);
@@ -86,6 +109,7 @@ class OrderNumberGeneratorTest {
 
         when(purchaseOrderRepository.findMaxPoNumberByTenantAndYearMonth(eq(tenantId), eq(yearMonth)))
             .thenReturn(Optional.of(existingPONumber));
+        givenNewMonthlyCounter();
 
         // When
         String poNumber = orderNumberGenerator.generateOrderNumber(tenantId);
@@ -0,0 +1,112 @@
+package com.estoquecentral.reporting.application;
+
+import com.estoquecentral.inventory.domain.StockChangedEvent;
+import com.estoquecentral.shared.cache.TenantCacheGenerations;
+import com.estoquecentral.shared.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DashboardCache invalidation from stock write paths
+ */
+@DisplayName("DashboardCache Unit Tests")
+class DashboardCacheTest {
+
+    private final UUID tenantId = UUID.randomUUID();
+    private final TenantCacheGenerations generations = new TenantCacheGenerations();
+    private DashboardCache dashboardCache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<CacheManager> cacheManager = mock(ObjectProvider.class);
+        when(cacheManager.getIfAvailable()).thenReturn(new ConcurrentMapCacheManager("dashboard"));
+        ObjectProvider<RedissonClient> redissonClient = mock(ObjectProvider.class);
+
+        dashboardCache = new DashboardCache(cacheManager, redissonClient, generations, 100, 30_000);
+        TenantContext.setTenantId(tenantId.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should invalidate the tenant once after the stock write commits")
+    void shouldInvalidateAfterCommit() {
+        // Given
+        dashboardCache.get("summary", () -> "before");
+        String namespace = generations.namespace("tenant:" + tenantId, "dashboard");
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When - two stock changes in the same transaction
+        dashboardCache.onStockChanged(new StockChangedEvent(tenantId, UUID.randomUUID(), null));
+        dashboardCache.onStockChanged(new StockChangedEvent(tenantId, UUID.randomUUID(), null));
+
+        // Then - nothing changes before the commit
+        assertThat(dashboardCache.<String>get("summary", () -> "after")).isEqualTo("before");
+
+        // When
+        completeTransaction(true);
+
+        // Then - one generation bump, and the next read reloads
+        assertThat(generations.namespace("tenant:" + tenantId, "dashboard")).isNotEqualTo(namespace).endsWith(".1");
+        assertThat(dashboardCache.<String>get("summary", () -> "after")).isEqualTo("after");
+    }
+
+    @Test
+    @DisplayName("Should keep the entries when the stock write rolls back")
+    void shouldNotInvalidateOnRollback() {
+        // Given
+        dashboardCache.get("summary", () -> "before");
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        dashboardCache.onStockChanged(new StockChangedEvent(tenantId, UUID.randomUUID(), null));
+        completeTransaction(false);
+
+        // Then
+        assertThat(dashboardCache.<String>get("summary", () -> "after")).isEqualTo("before");
+    }
+
+    @Test
+    @DisplayName("Should invalidate immediately outside a transaction")
+    void shouldInvalidateWithoutTransaction() {
+        // Given
+        dashboardCache.get("summary", () -> "before");
+
+        // When
+        dashboardCache.onStockChanged(new StockChangedEvent(tenantId, UUID.randomUUID(), null));
+
+        // Then
+        assertThat(dashboardCache.<String>get("summary", () -> "after")).isEqualTo("after");
+    }
+
+    private static void completeTransaction(boolean committed) {
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (committed) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(committed
+                ? TransactionSynchronization.STATUS_COMMITTED
+                : TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+}
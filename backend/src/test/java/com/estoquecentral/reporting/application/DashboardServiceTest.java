@@ -0,0 +1,99 @@
+package com.estoquecentral.reporting.application;
+
+import com.estoquecentral.config.DashboardExecutorConfig;
+import com.estoquecentral.reporting.adapter.in.dto.CompleteDashboardDTO;
+import com.estoquecentral.reporting.adapter.in.dto.PendingOrdersSummaryDTO;
+import com.estoquecentral.reporting.adapter.out.DashboardRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DashboardService complete dashboard fan-out
+ */
+@DisplayName("DashboardService Unit Tests")
+class DashboardServiceTest {
+
+    private static final long TIMEOUT_MS = 200;
+
+    private final DashboardRepository dashboardRepository = mock(DashboardRepository.class);
+    private final DashboardCache dashboardCache = mock(DashboardCache.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should drop a slow section at the deadline and return the others")
+    void shouldDropSlowSectionAtDeadline() {
+        // Given - the summary blocks until the test ends
+        executor = new DashboardExecutorConfig().dashboardExecutor(8, 64);
+        executor.initialize();
+        givenSections();
+        PendingOrdersSummaryDTO pending = new PendingOrdersSummaryDTO("PENDING", "PENDING", 1, 1,
+                BigDecimal.TEN, BigDecimal.TEN, LocalDateTime.now(), LocalDateTime.now(), 0);
+        when(dashboardRepository.getPendingOrdersSummary()).thenReturn(List.of(pending));
+        DashboardService service = new DashboardService(dashboardRepository, dashboardCache, executor, TIMEOUT_MS);
+
+        // When
+        long start = System.nanoTime();
+        CompleteDashboardDTO dashboard = service.getCompleteDashboard();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertThat(dashboard.unavailableSections()).containsExactly("summary");
+        assertThat(dashboard.summary()).isNull();
+        assertThat(dashboard.pendingOrders()).containsExactly(pending);
+        assertThat(elapsedMs).isBetween(TIMEOUT_MS, TIMEOUT_MS + 1_000);
+    }
+
+    @Test
+    @DisplayName("Should mark sections rejected by a saturated pool unavailable instead of running them on the caller")
+    void shouldNotRunRejectedSectionsOnCaller() {
+        // Given - one worker busy with the summary, no queue
+        executor = new DashboardExecutorConfig().dashboardExecutor(1, 0);
+        executor.initialize();
+        givenSections();
+        DashboardService service = new DashboardService(dashboardRepository, dashboardCache, executor, TIMEOUT_MS);
+
+        // When
+        CompleteDashboardDTO dashboard = service.getCompleteDashboard();
+
+        // Then
+        assertThat(dashboard.unavailableSections())
+            .containsExactly("summary", "salesByChannel", "criticalStock", "pendingOrders", "inventoryByLocation");
+        verify(dashboardRepository, never()).getDailySalesByChannel();
+        verify(dashboardRepository, never()).getPendingOrdersSummary();
+        verify(dashboardRepository, never()).getInventoryValueSummary();
+    }
+
+    /** The cache loads straight from the repository; the summary waits for {@link #release}. */
+    @SuppressWarnings("unchecked")
+    private void givenSections() {
+        when(dashboardCache.get(anyString(), any())).thenAnswer(invocation ->
+            ((Supplier<Object>) invocation.getArgument(1)).get());
+        when(dashboardCache.get(eq("summary"), any())).thenAnswer(invocation -> {
+            release.await();
+            return null;
+        });
+    }
+}
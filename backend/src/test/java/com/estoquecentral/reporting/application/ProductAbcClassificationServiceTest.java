@@ -0,0 +1,133 @@
+package com.estoquecentral.reporting.application;
+
+import com.estoquecentral.reporting.adapter.in.dto.AbcCurveRunDTO;
+import com.estoquecentral.reporting.adapter.out.ProductAbcClassificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductAbcClassificationService
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductAbcClassificationService Unit Tests")
+class ProductAbcClassificationServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 11, 7);
+    private static final BigDecimal A_SHARE = new BigDecimal("0.80");
+    private static final BigDecimal B_SHARE = new BigDecimal("0.95");
+
+    @Mock
+    private ProductAbcClassificationRepository repository;
+
+    private ProductAbcClassificationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ProductAbcClassificationService(repository, List.of(30, 90), 90, A_SHARE, B_SHARE);
+    }
+
+    @Test
+    @DisplayName("Should compute windows that were never computed")
+    void shouldComputeMissingWindows() {
+        givenRefresh(List.of());
+
+        assertThat(service.refreshCurrentTenant()).isEqualTo(2);
+
+        verify(repository).classify(30, A_SHARE, B_SHARE);
+        verify(repository).classify(90, A_SHARE, B_SHARE);
+    }
+
+    @Test
+    @DisplayName("Should skip windows without new revenue on the same day")
+    void shouldSkipUpToDateWindows() {
+        givenRefresh(List.of(), run(30, TODAY), run(90, TODAY));
+
+        assertThat(service.refreshCurrentTenant()).isZero();
+
+        verify(repository, never()).classify(anyInt(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should recompute only windows containing a day whose revenue changed")
+    void shouldRecomputeOnlyWindowsTouchedBySales() {
+        givenRefresh(List.of(TODAY.minusDays(45)), run(30, TODAY), run(90, TODAY));
+
+        assertThat(service.refreshCurrentTenant()).isEqualTo(1);
+
+        verify(repository).classify(90, A_SHARE, B_SHARE);
+        verify(repository, never()).classify(eq(30), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should recompute every window when the day rolls over")
+    void shouldRecomputeWhenWindowEndMoves() {
+        givenRefresh(List.of(), run(30, TODAY.minusDays(1)), run(90, TODAY.minusDays(1)));
+
+        assertThat(service.refreshCurrentTenant()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should drop windows that are no longer configured")
+    void shouldDropRemovedWindows() {
+        givenRefresh(List.of(), run(30, TODAY), run(90, TODAY), run(365, TODAY));
+
+        service.refreshCurrentTenant();
+
+        verify(repository).deleteWindowsOtherThan(List.of(30, 90));
+    }
+
+    @Test
+    @DisplayName("Should skip the tenant when another node holds the refresh lock")
+    void shouldSkipWhenLocked() {
+        when(repository.tryLockRefresh()).thenReturn(false);
+
+        assertThat(service.refreshCurrentTenant()).isEqualTo(-1);
+
+        verify(repository, never()).consumeChangedDays();
+    }
+
+    @Test
+    @DisplayName("Should reject windows that are not computed and unknown classes")
+    void shouldRejectInvalidFilters() {
+        assertThatThrownBy(() -> service.getClassification(7, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.getClassification(null, "D"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        service.getClassification(null, " b ");
+        verify(repository).findByWindow(90, "B");
+    }
+
+    @Test
+    @DisplayName("Should reject class shares out of order")
+    void shouldRejectInvalidShares() {
+        assertThatThrownBy(() -> new ProductAbcClassificationService(repository, List.of(90), 90, B_SHARE, A_SHARE))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private void givenRefresh(List<LocalDate> changedDays, AbcCurveRunDTO... runs) {
+        when(repository.tryLockRefresh()).thenReturn(true);
+        when(repository.consumeChangedDays()).thenReturn(changedDays);
+        when(repository.currentDate()).thenReturn(TODAY);
+        when(repository.findRuns()).thenReturn(List.of(runs));
+    }
+
+    private AbcCurveRunDTO run(int windowDays, LocalDate windowEnd) {
+        return new AbcCurveRunDTO(windowDays, windowEnd.minusDays(windowDays - 1L), windowEnd,
+                new BigDecimal("0.8000"), new BigDecimal("0.9500"), BigDecimal.TEN, 5, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,276 @@
+package com.estoquecentral.reporting.application.salesfacts;
+
+import com.estoquecentral.auth.adapter.out.TenantRepository;
+import com.estoquecentral.reporting.adapter.out.SalesFactRepository;
+import com.estoquecentral.reporting.adapter.out.SalesFactRepository.LoadedSalesFacts;
+import com.estoquecentral.reporting.adapter.out.SalesFactRepository.SalesCubeState;
+import com.estoquecentral.reporting.adapter.out.SalesFactRepository.SalesFactCounts;
+import com.estoquecentral.reporting.adapter.out.SalesReportRepository;
+import com.estoquecentral.reporting.application.SalesCubeRefreshJob;
+import com.estoquecentral.shared.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SalesFactStore
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SalesFactStore Unit Tests")
+class SalesFactStoreTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 11, 7);
+    private static final SalesCubeState STATE = new SalesCubeState(TODAY.minusDays(1), LocalDateTime.of(2025, 11, 7, 3, 0));
+
+    /** About 0.8 MB of facts: two tenants fit in 2 MB, three do not. */
+    private static final int CUSTOMERS_PER_TENANT = 7000;
+
+    @Mock
+    private SalesFactRepository repository;
+
+    @Mock
+    private ObjectProvider<RedissonClient> redissonClient;
+
+    @Mock
+    private SalesReportRepository salesReportRepository;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(repository.countClosedFacts()).thenReturn(new SalesFactCounts(1, 0, CUSTOMERS_PER_TENANT));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should answer from SQL when the store is disabled")
+    void shouldNotLoadWhenDisabled() {
+        SalesFactStore store = new SalesFactStore(repository, redissonClient, false, 256, 10_000, 60_000);
+        TenantContext.setTenantId("tenant-a");
+
+        assertThat(store.current()).isEmpty();
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Should answer from SQL without a tenant")
+    void shouldNotLoadWithoutTenant() {
+        SalesFactStore store = store(256, 10_000);
+
+        assertThat(store.current()).isEmpty();
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Should load a tenant once and reuse its facts while fresh")
+    void shouldReuseFreshFacts() {
+        SalesFactStore store = store(256, 60_000);
+        LoadedSalesFacts loaded = loaded(10);
+        when(repository.loadFacts()).thenReturn(loaded);
+        TenantContext.setTenantId("tenant-a");
+
+        assertThat(store.current()).contains(loaded.facts());
+        assertThat(store.current()).contains(loaded.facts());
+
+        verify(repository, times(1)).loadFacts();
+        verify(repository, never()).loadLiveFacts(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reload a tenant's facts after the cube refresh job refreshes its cube")
+    void shouldReloadAfterCubeRefreshJob() {
+        SalesFactStore store = store(256, 60_000);
+        SalesCubeRefreshJob refreshJob = new SalesCubeRefreshJob(mock(TenantRepository.class), salesReportRepository, store);
+        UUID tenantId = UUID.randomUUID();
+        LoadedSalesFacts loaded = loaded(10);
+        when(repository.loadFacts()).thenReturn(loaded);
+        when(repository.loadLiveFacts(STATE, loaded.facts().closed())).thenReturn(Optional.empty());
+        when(salesReportRepository.refreshCube()).thenReturn(1);
+        TenantContext.setTenantId(tenantId.toString());
+        store.current();
+
+        refreshJob.refreshTenant(tenantId);
+
+        TenantContext.setTenantId(tenantId.toString());
+        assertThat(store.current()).isPresent();
+        assertThat(store.current()).isPresent();
+        verify(repository, times(1)).loadLiveFacts(STATE, loaded.facts().closed());
+        verify(repository, times(2)).loadFacts();
+    }
+
+    @Test
+    @DisplayName("Should keep a tenant's facts when the cube refresh is skipped")
+    void shouldKeepFactsWhenCubeRefreshSkipped() {
+        SalesFactStore store = store(256, 60_000);
+        SalesCubeRefreshJob refreshJob = new SalesCubeRefreshJob(mock(TenantRepository.class), salesReportRepository, store);
+        UUID tenantId = UUID.randomUUID();
+        when(repository.loadFacts()).thenReturn(loaded(10));
+        when(salesReportRepository.refreshCube()).thenReturn(-1);
+        TenantContext.setTenantId(tenantId.toString());
+        store.current();
+
+        refreshJob.refreshTenant(tenantId);
+
+        TenantContext.setTenantId(tenantId.toString());
+        assertThat(store.current()).isPresent();
+        verify(repository, times(1)).loadFacts();
+        verify(repository, never()).loadLiveFacts(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reload the live days once they are older than the TTL")
+    void shouldReloadLiveDaysAfterTtl() {
+        SalesFactStore store = store(256, 0);
+        LoadedSalesFacts loaded = loaded(10);
+        when(repository.loadFacts()).thenReturn(loaded);
+        when(repository.loadLiveFacts(STATE, loaded.facts().closed())).thenReturn(Optional.of(live(loaded)));
+        TenantContext.setTenantId("tenant-a");
+
+        store.current();
+        store.current();
+        store.current();
+
+        verify(repository, times(1)).loadFacts();
+        verify(repository, times(2)).loadLiveFacts(STATE, loaded.facts().closed());
+    }
+
+    @Test
+    @DisplayName("Should reload everything when the cube was refreshed since the load")
+    void shouldReloadEverythingAfterCubeRefresh() {
+        SalesFactStore store = store(256, 0);
+        LoadedSalesFacts loaded = loaded(10);
+        when(repository.loadFacts()).thenReturn(loaded);
+        when(repository.loadLiveFacts(STATE, loaded.facts().closed())).thenReturn(Optional.empty());
+        TenantContext.setTenantId("tenant-a");
+
+        store.current();
+        assertThat(store.current()).contains(loaded.facts());
+
+        verify(repository, times(2)).loadFacts();
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used tenant when over the memory budget")
+    void shouldEvictLeastRecentlyUsedTenant() {
+        SalesFactStore store = store(2, 60_000);
+        when(repository.loadFacts()).thenAnswer(invocation -> loaded(CUSTOMERS_PER_TENANT));
+
+        current(store, "tenant-a");
+        current(store, "tenant-b");
+        current(store, "tenant-a");
+        current(store, "tenant-c");
+        verify(repository, times(3)).loadFacts();
+        assertThat(store.getTenantCount()).isEqualTo(2);
+        assertThat(store.getEstimatedBytes()).isLessThanOrEqualTo(2L * 1024 * 1024);
+
+        current(store, "tenant-a");
+        verify(repository, times(3)).loadFacts();
+
+        current(store, "tenant-b");
+        verify(repository, times(4)).loadFacts();
+    }
+
+    @Test
+    @DisplayName("Should answer from SQL for a tenant that does not fit in the budget")
+    void shouldNotKeepOversizedTenant() {
+        SalesFactStore store = store(1, 60_000);
+        when(repository.loadFacts()).thenAnswer(invocation -> loaded(2 * CUSTOMERS_PER_TENANT));
+        TenantContext.setTenantId("tenant-a");
+
+        assertThat(store.current()).isEmpty();
+        assertThat(store.current()).isEmpty();
+
+        verify(repository, times(1)).loadFacts();
+        assertThat(store.getEstimatedBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not read the facts of a tenant whose row counts exceed the budget")
+    void shouldCountBeforeLoadingOversizedTenant() {
+        SalesFactStore store = store(1, 60_000);
+        when(repository.countClosedFacts()).thenReturn(new SalesFactCounts(1, 0, 2 * 1024 * 1024 / 9));
+        TenantContext.setTenantId("tenant-a");
+
+        assertThat(store.current()).isEmpty();
+        assertThat(store.current()).isEmpty();
+
+        verify(repository, times(1)).countClosedFacts();
+        verify(repository, never()).loadFacts();
+        assertThat(store.getEstimatedBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should answer from SQL when loading fails and not retry before the backoff")
+    void shouldFallBackWhenLoadFails() {
+        SalesFactStore store = store(256, 60_000);
+        when(repository.loadFacts()).thenThrow(new IllegalStateException("replica unavailable"));
+        TenantContext.setTenantId("tenant-a");
+
+        assertThat(store.current()).isEmpty();
+        assertThat(store.current()).isEmpty();
+
+        verify(repository, times(1)).loadFacts();
+    }
+
+    @Test
+    @DisplayName("Should retry a failed load once the backoff has passed")
+    void shouldRetryFailedLoadAfterBackoff() {
+        SalesFactStore store = new SalesFactStore(repository, redissonClient, true, 256, 60_000, 0);
+        LoadedSalesFacts loaded = loaded(10);
+        when(repository.loadFacts())
+                .thenThrow(new IllegalStateException("replica unavailable"))
+                .thenReturn(loaded);
+        TenantContext.setTenantId("tenant-a");
+
+        assertThat(store.current()).isEmpty();
+        assertThat(store.current()).contains(loaded.facts());
+
+        verify(repository, times(2)).loadFacts();
+    }
+
+    private SalesFactStore store(long maxMemoryMb, long liveTtlMs) {
+        return new SalesFactStore(repository, redissonClient, true, maxMemoryMb, liveTtlMs, 60_000);
+    }
+
+    private static void current(SalesFactStore store, String tenantId) {
+        TenantContext.setTenantId(tenantId);
+        assertThat(store.current()).isPresent();
+    }
+
+    private static LoadedSalesFacts loaded(int customers) {
+        SalesFactSegment.Builder closed = SalesFactSegment.builder(null);
+        closed.addOrders(STATE.builtThrough(), customers, customers, BigDecimal.ONE,
+                new BigDecimal("100.00"), BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal("100.00"),
+                new BigDecimal("10.00"), new BigDecimal("90.00"), STATE.refreshedAt(), STATE.refreshedAt(),
+                customers, 0, new BigDecimal("100.00"));
+        for (int i = 0; i < customers; i++) {
+            closed.addCustomer(STATE.builtThrough(), UUID.randomUUID());
+        }
+        SalesFactSegment closedSegment = closed.build();
+        return new LoadedSalesFacts(STATE, new SalesFacts(closedSegment, SalesFactSegment.builder(closedSegment).build()));
+    }
+
+    private static SalesFactSegment live(LoadedSalesFacts loaded) {
+        return SalesFactSegment.builder(loaded.facts().closed()).build();
+    }
+}
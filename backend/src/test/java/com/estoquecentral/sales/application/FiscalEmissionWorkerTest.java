@@ -0,0 +1,129 @@
+package com.estoquecentral.sales.application;
+
+import com.estoquecentral.sales.adapter.out.FiscalEmissionOutboxRepository;
+import com.estoquecentral.sales.adapter.out.FiscalEventRepository;
+import com.estoquecentral.sales.adapter.out.SaleItemRepository;
+import com.estoquecentral.sales.adapter.out.SaleRepository;
+import com.estoquecentral.sales.domain.FiscalEmissionTask;
+import com.estoquecentral.sales.domain.FiscalEvent;
+import com.estoquecentral.sales.domain.FiscalEventType;
+import com.estoquecentral.sales.domain.NfceStatus;
+import com.estoquecentral.sales.domain.Sale;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FiscalEmissionWorker attempt limits and dead-lettering
+ */
+@DisplayName("FiscalEmissionWorker Unit Tests")
+class FiscalEmissionWorkerTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final FiscalEmissionOutboxRepository outboxRepository = mock(FiscalEmissionOutboxRepository.class);
+    private final SaleRepository saleRepository = mock(SaleRepository.class);
+    private final SaleItemRepository saleItemRepository = mock(SaleItemRepository.class);
+    private final FiscalEventRepository fiscalEventRepository = mock(FiscalEventRepository.class);
+    private final NfceService nfceService = mock(NfceService.class);
+
+    private final UUID tenantId = UUID.randomUUID();
+    private final UUID saleId = UUID.randomUUID();
+    private FiscalEmissionWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new FiscalEmissionWorker(outboxRepository, saleRepository, saleItemRepository,
+                fiscalEventRepository, nfceService, null, mock(PlatformTransactionManager.class),
+                2, 60, MAX_ATTEMPTS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should only claim rows below the attempt limit")
+    void shouldClaimWithAttemptLimit() {
+        // When
+        worker.pollOutbox();
+
+        // Then
+        verify(outboxRepository).deadLetterExhausted(MAX_ATTEMPTS);
+        verify(outboxRepository).claim(2, 60, MAX_ATTEMPTS);
+    }
+
+    @Test
+    @DisplayName("Should mark the sale of a dead-lettered row as FAILED for manual retry")
+    void shouldFailSaleOfDeadLetteredRow() {
+        // Given
+        Sale sale = pendingSale();
+        when(outboxRepository.deadLetterExhausted(MAX_ATTEMPTS))
+                .thenReturn(List.of(new FiscalEmissionTask(UUID.randomUUID(), tenantId, saleId, MAX_ATTEMPTS)));
+        when(saleRepository.findByTenantIdAndId(tenantId, saleId)).thenReturn(Optional.of(sale));
+
+        // When
+        worker.pollOutbox();
+
+        // Then
+        assertThat(sale.getNfceStatus()).isEqualTo(NfceStatus.FAILED);
+        assertThat(sale.getNfceErrorMessage()).isEqualTo("NFCe emission abandoned after 3 attempts");
+        verify(saleRepository).save(sale);
+        ArgumentCaptor<FiscalEvent> event = ArgumentCaptor.forClass(FiscalEvent.class);
+        verify(fiscalEventRepository).save(event.capture());
+        assertThat(event.getValue().getEventType()).isEqualTo(FiscalEventType.NFCE_FAILED);
+    }
+
+    @Test
+    @DisplayName("Should leave a sale alone when it was handled before being dead-lettered")
+    void shouldSkipHandledSale() {
+        // Given
+        Sale sale = pendingSale();
+        sale.markNfceAsEmitted("key", "<xml/>");
+        when(saleRepository.findByTenantIdAndId(tenantId, saleId)).thenReturn(Optional.of(sale));
+
+        // When
+        worker.abandon(new FiscalEmissionTask(UUID.randomUUID(), tenantId, saleId, MAX_ATTEMPTS));
+
+        // Then
+        verify(saleRepository, never()).save(any());
+        verifyNoInteractions(fiscalEventRepository);
+    }
+
+    @Test
+    @DisplayName("Should keep the row leased and record the error when a claim fails unexpectedly")
+    void shouldRecordErrorOfFailedClaim() throws Exception {
+        // Given
+        UUID rowId = UUID.randomUUID();
+        when(saleRepository.findByTenantIdAndId(tenantId, saleId)).thenReturn(Optional.of(pendingSale()));
+        when(nfceService.emitNfce(any(), any())).thenThrow(new IllegalStateException("connection reset"));
+
+        // When
+        worker.process(new FiscalEmissionTask(rowId, tenantId, saleId, 1));
+
+        // Then - not completed: the lease expires and the row is claimed again
+        verify(outboxRepository).recordError(rowId, "connection reset");
+        verify(outboxRepository, never()).complete(any());
+        verify(outboxRepository, never()).claim(anyInt(), anyInt(), anyInt());
+    }
+
+    private Sale pendingSale() {
+        Sale sale = new Sale();
+        sale.setId(saleId);
+        sale.setTenantId(tenantId);
+        return sale;
+    }
+}
@@ -0,0 +1,105 @@
+package com.estoquecentral.sales.application;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for NfceCircuitBreaker
+ */
+@DisplayName("NfceCircuitBreaker Unit Tests")
+class NfceCircuitBreakerTest {
+
+    private AtomicLong now;
+    private NfceCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000);
+        breaker = new NfceCircuitBreaker(3, 30_000, now::get);
+    }
+
+    @Test
+    @DisplayName("Should let full batches through while closed")
+    void shouldPermitBatchWhenClosed() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        assertThat(breaker.getState()).isEqualTo(NfceCircuitBreaker.State.CLOSED);
+        assertThat(breaker.permittedCalls(20)).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should open after consecutive failures and pause until the open period ends")
+    void shouldOpenAfterConsecutiveFailures() {
+        // When
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        // Then
+        assertThat(breaker.getState()).isEqualTo(NfceCircuitBreaker.State.OPEN);
+        assertThat(breaker.permittedCalls(20)).isZero();
+        now.addAndGet(10_000);
+        assertThat(breaker.remainingOpenMillis()).isEqualTo(20_000);
+        assertThat(breaker.permittedCalls(20)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should let a single probe through after the open period")
+    void shouldProbeOnceWhenHalfOpen() {
+        // Given
+        openCircuit();
+        now.addAndGet(30_000);
+
+        // When / Then
+        assertThat(breaker.permittedCalls(20)).isEqualTo(1);
+        assertThat(breaker.getState()).isEqualTo(NfceCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.permittedCalls(20)).isZero();
+
+        breaker.recordSuccess();
+        assertThat(breaker.getState()).isEqualTo(NfceCircuitBreaker.State.CLOSED);
+        assertThat(breaker.permittedCalls(20)).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should reopen when the probe fails")
+    void shouldReopenWhenProbeFails() {
+        // Given
+        openCircuit();
+        now.addAndGet(30_000);
+        breaker.permittedCalls(20);
+
+        // When
+        breaker.recordFailure();
+
+        // Then
+        assertThat(breaker.getState()).isEqualTo(NfceCircuitBreaker.State.OPEN);
+        assertThat(breaker.remainingOpenMillis()).isEqualTo(30_000);
+    }
+
+    @Test
+    @DisplayName("Should hand the probe to another caller when it did not reach the provider")
+    void shouldReleaseUnusedProbe() {
+        // Given
+        openCircuit();
+        now.addAndGet(30_000);
+        breaker.permittedCalls(20);
+
+        // When
+        breaker.releaseProbe();
+
+        // Then
+        assertThat(breaker.permittedCalls(20)).isEqualTo(1);
+    }
+
+    private void openCircuit() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordFailure();
+    }
+}
@@ -0,0 +1,115 @@
+package com.estoquecentral.sales.application;
+
+import com.estoquecentral.sales.domain.NfceRetryMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RBlockingQueue;
+import org.redisson.api.RDelayedQueue;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RetryQueueService dequeue and the legacy queue drain
+ */
+@DisplayName("RetryQueueService Unit Tests")
+@SuppressWarnings("unchecked")
+class RetryQueueServiceTest {
+
+    private final RedissonClient redissonClient = mock(RedissonClient.class);
+    private final RBlockingQueue<String> queue = mock(RBlockingQueue.class);
+    private final RDelayedQueue<String> delayedQueue = mock(RDelayedQueue.class);
+    private final RBlockingQueue<UUID> legacyQueue = mock(RBlockingQueue.class);
+    private final RDelayedQueue<UUID> legacyDelayed = mock(RDelayedQueue.class);
+    private final RLock lock = mock(RLock.class);
+
+    private RetryQueueService retryQueueService;
+
+    @BeforeEach
+    void setUp() {
+        doReturn(queue).when(redissonClient).getBlockingQueue("nfce-retry-messages", StringCodec.INSTANCE);
+        doReturn(delayedQueue).when(redissonClient).getDelayedQueue(queue);
+        doReturn(legacyQueue).when(redissonClient).getBlockingQueue("nfce-retry-queue");
+        doReturn(legacyDelayed).when(redissonClient).getDelayedQueue(legacyQueue);
+        when(redissonClient.getLock("nfce-retry-queue:drain")).thenReturn(lock);
+        retryQueueService = new RetryQueueService(redissonClient);
+    }
+
+    @Test
+    @DisplayName("Should take a single message per dequeue")
+    void shouldDequeueOneMessage() throws Exception {
+        // Given
+        NfceRetryMessage message = new NfceRetryMessage(UUID.randomUUID(), UUID.randomUUID(), 2);
+        when(queue.poll(500, TimeUnit.MILLISECONDS)).thenReturn(message.encode());
+
+        // When / Then
+        assertThat(retryQueueService.dequeue(500)).isEqualTo(message);
+        verify(queue, never()).poll(anyInt());
+    }
+
+    @Test
+    @DisplayName("Should return null when nothing is due or the message is malformed")
+    void shouldReturnNullWithoutMessage() throws Exception {
+        when(queue.poll(anyLong(), any())).thenReturn(null, "not-a-message");
+
+        assertThat(retryQueueService.dequeue(500)).isNull();
+        assertThat(retryQueueService.dequeue(500)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should move legacy sale IDs into the tenant-aware queue and delete the legacy queue")
+    void shouldDrainLegacyQueue() {
+        // Given
+        UUID tenantId = UUID.randomUUID();
+        UUID due = UUID.randomUUID();
+        UUID scheduled = UUID.randomUUID();
+        UUID orphan = UUID.randomUUID();
+        when(lock.tryLock()).thenReturn(true);
+        when(legacyQueue.readAll()).thenReturn(List.of(due, orphan));
+        when(legacyDelayed.readAll()).thenReturn(List.of(scheduled));
+
+        // When
+        int moved = retryQueueService.drainLegacyQueue(saleIds -> {
+            assertThat(saleIds).containsExactly(due, orphan, scheduled);
+            return Map.of(due, tenantId, scheduled, tenantId);
+        });
+
+        // Then - the orphan is dropped, the others become first retries
+        assertThat(moved).isEqualTo(2);
+        verify(delayedQueue).offer(eq(new NfceRetryMessage(tenantId, due, 0).encode()), anyLong(), eq(TimeUnit.SECONDS));
+        verify(delayedQueue).offer(eq(new NfceRetryMessage(tenantId, scheduled, 0).encode()), anyLong(), eq(TimeUnit.SECONDS));
+        verify(delayedQueue, times(2)).offer(any(), anyLong(), any());
+        verify(legacyQueue).delete();
+        verify(legacyDelayed).delete();
+        verify(lock).unlock();
+    }
+
+    @Test
+    @DisplayName("Should leave the legacy queue to the node that holds the drain lock")
+    void shouldSkipDrainWithoutLock() {
+        // Given
+        when(lock.tryLock()).thenReturn(false);
+
+        // When
+        int moved = retryQueueService.drainLegacyQueue(saleIds -> {
+            throw new AssertionError("should not resolve tenants");
+        });
+
+        // Then
+        assertThat(moved).isZero();
+        verifyNoInteractions(legacyQueue, legacyDelayed);
+    }
+}
@@ -0,0 +1,203 @@
+package com.estoquecentral.shared.cache;
+
+import com.estoquecentral.shared.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for TwoLevelTenantCache
+ *
+ * <p>Uses a {@link ConcurrentMapCache} as the shared (L2) cache.
+ */
+@DisplayName("TwoLevelTenantCache Unit Tests")
+class TwoLevelTenantCacheTest {
+
+    private static final long TTL_MS = 30_000;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private ConcurrentMapCache sharedCache;
+    private TwoLevelTenantCache cache;
+    private String tenantA;
+    private String tenantB;
+
+    @BeforeEach
+    void setUp() {
+        sharedCache = new ConcurrentMapCache("dashboard");
+        cache = new TwoLevelTenantCache("dashboard", 100, TTL_MS, sharedCache, new TenantCacheGenerations(), clock::get);
+        tenantA = UUID.randomUUID().toString();
+        tenantB = UUID.randomUUID().toString();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should keep entries isolated per tenant")
+    void shouldIsolateTenants() {
+        // When
+        TenantContext.setTenantId(tenantA);
+        String valueA = cache.get("summary", () -> "A");
+        TenantContext.setTenantId(tenantB);
+        String valueB = cache.get("summary", () -> "B");
+
+        // Then
+        assertThat(valueA).isEqualTo("A");
+        assertThat(valueB).isEqualTo("B");
+        TenantContext.setTenantId(tenantA);
+        assertThat(cache.<String>get("summary", () -> "reloaded")).isEqualTo("A");
+        assertThat(cache.getLoads()).isEqualTo(2);
+        assertThat(cache.getLocalHits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should collapse concurrent misses into a single load")
+    void shouldLoadOnceForConcurrentMisses() throws Exception {
+        // Given
+        int threads = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            // When
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    TenantContext.setTenantId(tenantA);
+                    try {
+                        return cache.get("summary", () -> {
+                            loads.incrementAndGet();
+                            loaderStarted.countDown();
+                            await(releaseLoader);
+                            return "value";
+                        });
+                    } finally {
+                        TenantContext.clear();
+                    }
+                }));
+            }
+            assertThat(loaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(100);
+            releaseLoader.countDown();
+
+            // Then
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+            }
+            assertThat(loads.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should expire L1 entries after the TTL and refill from L2")
+    void shouldExpireLocalEntries() {
+        // Given
+        TenantContext.setTenantId(tenantA);
+        cache.get("summary", () -> "v1");
+
+        // When
+        clock.addAndGet(TTL_MS + 1);
+        String value = cache.get("summary", () -> "v2");
+
+        // Then - L2 still holds v1 (its own TTL applies there)
+        assertThat(value).isEqualTo("v1");
+        assertThat(cache.getSharedHits()).isEqualTo(1);
+        assertThat(cache.getLoads()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should invalidate only the given tenant in L1 and L2")
+    void shouldInvalidateTenant() {
+        // Given
+        TenantContext.setTenantId(tenantA);
+        cache.get("summary", () -> "A1");
+        TenantContext.setTenantId(tenantB);
+        cache.get("summary", () -> "B1");
+
+        // When
+        cache.invalidateTenant(tenantA);
+
+        // Then
+        TenantContext.setTenantId(tenantA);
+        assertThat(cache.<String>get("summary", () -> "A2")).isEqualTo("A2");
+        TenantContext.setTenantId(tenantB);
+        assertThat(cache.<String>get("summary", () -> "B2")).isEqualTo("B1");
+    }
+
+    @Test
+    @DisplayName("Should not store a value loaded before an invalidation")
+    void shouldDiscardLoadRacingInvalidation() {
+        // Given
+        TenantContext.setTenantId(tenantA);
+
+        // When - the tenant is invalidated while the load runs
+        String value = cache.get("summary", () -> {
+            cache.invalidateLocal(tenantA);
+            return "stale";
+        });
+
+        // Then
+        assertThat(value).isEqualTo("stale");
+        assertThat(cache.getLocalSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should evict least recently used entries beyond the size bound")
+    void shouldBoundLocalSize() {
+        // Given
+        TwoLevelTenantCache smallCache = new TwoLevelTenantCache("dashboard", 2, TTL_MS, null, new TenantCacheGenerations(), clock::get);
+        TenantContext.setTenantId(tenantA);
+
+        // When
+        smallCache.get("a", () -> "a");
+        smallCache.get("b", () -> "b");
+        smallCache.get("a", () -> "a");
+        smallCache.get("c", () -> "c");
+
+        // Then - "b" was the least recently used
+        assertThat(smallCache.getLocalSize()).isEqualTo(2);
+        assertThat(smallCache.<String>get("b", () -> "b2")).isEqualTo("b2");
+    }
+
+    @Test
+    @DisplayName("Should propagate loader failures to every waiting caller and not cache them")
+    void shouldPropagateLoaderFailure() {
+        // Given
+        TenantContext.setTenantId(tenantA);
+
+        // When / Then
+        assertThatThrownBy(() -> cache.get("summary", () -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(cache.<String>get("summary", () -> "recovered")).isEqualTo("recovered");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.estoquecentral.shared.numbering;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for DocumentNumberService
+ *
+ * <p>Two service instances share one in-memory counter table, standing in for two
+ * application nodes and the document_sequences table.
+ */
+@DisplayName("DocumentNumberService Unit Tests")
+class DocumentNumberServiceTest {
+
+    private static final Clock NOVEMBER_2025 = Clock.fixed(Instant.parse("2025-11-15T12:00:00Z"), ZoneOffset.UTC);
+
+    private InMemorySequences sequences;
+    private UUID tenantId;
+
+    @BeforeEach
+    void setUp() {
+        sequences = new InMemorySequences();
+        tenantId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Should continue from the last number already issued in the month")
+    void shouldContinueFromLastIssuedNumber() {
+        // Given
+        DocumentNumberService service = newNode(20, Set.of());
+
+        // When
+        String first = service.nextNumber(tenantId, "SALE", yearMonth -> Optional.of("SALE-" + yearMonth + "-0041"));
+        String second = service.nextNumber(tenantId, "SALE", yearMonth -> Optional.empty());
+
+        // Then
+        assertThat(first).isEqualTo("SALE-202511-0042");
+        assertThat(second).isEqualTo("SALE-202511-0043");
+        assertThat(sequences.allocations.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep counters separate per tenant and prefix")
+    void shouldSeparateTenantsAndPrefixes() {
+        // Given
+        DocumentNumberService service = newNode(20, Set.of());
+        UUID otherTenant = UUID.randomUUID();
+
+        // When / Then
+        assertThat(service.nextNumber(tenantId, "SALE", yearMonth -> Optional.empty())).isEqualTo("SALE-202511-0001");
+        assertThat(service.nextNumber(tenantId, "PO", yearMonth -> Optional.empty())).isEqualTo("PO-202511-0001");
+        assertThat(service.nextNumber(otherTenant, "SALE", yearMonth -> Optional.empty())).isEqualTo("SALE-202511-0001");
+    }
+
+    @Test
+    @DisplayName("Should hand out unique numbers across parallel threads on two nodes")
+    void shouldGenerateUniqueNumbersAcrossThreadsAndNodes() throws Exception {
+        // Given
+        DocumentNumberService nodeA = newNode(20, Set.of());
+        DocumentNumberService nodeB = newNode(20, Set.of());
+        int threads = 16;
+        int numbersPerThread = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            // When
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                DocumentNumberService node = i % 2 == 0 ? nodeA : nodeB;
+                results.add(executor.submit(generate(node, start, numbersPerThread)));
+            }
+            start.countDown();
+
+            List<String> numbers = new ArrayList<>();
+            for (Future<List<String>> result : results) {
+                numbers.addAll(result.get(30, TimeUnit.SECONDS));
+            }
+
+            // Then
+            assertThat(numbers).hasSize(threads * numbersPerThread);
+            assertThat(numbers).doesNotHaveDuplicates();
+            assertThat(numbers).allMatch(number -> number.matches("SALE-202511-\\d{4,}"));
+            // One counter round trip per block, not per document
+            assertThat(sequences.allocations.get()).isLessThanOrEqualTo(threads * numbersPerThread / 20 + 2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should number gapless prefixes consecutively across two nodes")
+    void shouldGenerateGaplessNumbers() throws Exception {
+        // Given
+        DocumentNumberService nodeA = newNode(20, Set.of("SALE"));
+        DocumentNumberService nodeB = newNode(20, Set.of("SALE"));
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            // When
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(generate(i % 2 == 0 ? nodeA : nodeB, start, 100)));
+            }
+            start.countDown();
+
+            List<String> numbers = new ArrayList<>();
+            for (Future<List<String>> result : results) {
+                numbers.addAll(result.get(30, TimeUnit.SECONDS));
+            }
+
+            // Then - exactly 1..400, no gaps
+            assertThat(numbers.stream().map(number -> Integer.parseInt(number.substring(number.lastIndexOf('-') + 1))))
+                    .containsExactlyInAnyOrderElementsOf(java.util.stream.IntStream.rangeClosed(1, 400).boxed().toList());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Callable<List<String>> generate(DocumentNumberService node, CountDownLatch start, int count) {
+        return () -> {
+            start.await(5, TimeUnit.SECONDS);
+            List<String> numbers = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                numbers.add(node.nextNumber(tenantId, "SALE", yearMonth -> Optional.empty()));
+            }
+            return numbers;
+        };
+    }
+
+    private DocumentNumberService newNode(int blockSize, Set<String> gaplessPrefixes) {
+        return new DocumentNumberService(sequences, TransactionOperations.withoutTransaction(),
+                blockSize, gaplessPrefixes, NOVEMBER_2025);
+    }
+
+    /**
+     * Counter table with the same atomic semantics as the database statements.
+     */
+    private static class InMemorySequences extends DocumentSequenceRepository {
+
+        private final Map<String, Long> nextValues = new HashMap<>();
+        private final AtomicInteger allocations = new AtomicInteger();
+
+        InMemorySequences() {
+            super(null);
+        }
+
+        @Override
+        public synchronized long allocate(UUID tenantId, String prefix, String period, int count,
+                                          LongSupplier firstValue) {
+            allocations.incrementAndGet();
+            String key = tenantId + "|" + prefix + "|" + period;
+            long start = nextValues.containsKey(key) ? nextValues.get(key) : firstValue.getAsLong();
+            nextValues.put(key, start + count);
+            return start;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.estoquecentral.shared.security;
 
+import com.estoquecentral.auth.application.AuthPrincipalCache;
 import com.estoquecentral.auth.application.UserService;
 import com.estoquecentral.auth.domain.Role;
 import org.aspectj.lang.JoinPoint;
@@ -7,7 +8,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.access.AccessDeniedException;
@@ -34,6 +34,7 @@ import static org.mockito.Mockito.*;
  *   <li>AND logic - user needs all roles</li>
  *   <li>Access denied when user not authenticated</li>
  *   <li>Access denied when user has no profile</li>
+ *   <li>Roles cached per tenant + user until invalidated</li>
  * </ul>
  */
 @ExtendWith(MockitoExtension.class)
@@ -49,7 +50,7 @@ class RoleCheckAspectTest {
     @Mock
     private SecurityContext securityContext;
 
-    @InjectMocks
+    private AuthPrincipalCache principalCache;
     private RoleCheckAspect roleCheckAspect;
 
     private UUID userId;
@@ -57,6 +58,8 @@ class RoleCheckAspectTest {
 
     @BeforeEach
     void setUp() {
+        principalCache = new AuthPrincipalCache(100, 60_000);
+        roleCheckAspect = new RoleCheckAspect(userService, principalCache);
         userId = UUID.randomUUID();
         authentication = new UsernamePasswordAuthenticationToken(
                 userId.toString(),
@@ -266,6 +269,32 @@ class RoleCheckAspectTest {
         verify(userService, times(1)).getUserRoles(userId);
     }
 
+    @Test
+    @DisplayName("Should reuse cached roles until they are invalidated")
+    void shouldReuseCachedRolesUntilInvalidated() {
+        // Given
+        Role adminRole = new Role(UUID.randomUUID(), "ADMIN", "Admin", "SISTEMA");
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(userService.getUserRoles(userId)).thenReturn(List.of(adminRole), Collections.emptyList());
+
+        RequiresRole requiresRole = createRequiresRole(new String[]{"ADMIN"}, false);
+
+        // When - two calls hit the database once
+        roleCheckAspect.checkRole(joinPoint, requiresRole);
+        roleCheckAspect.checkRole(joinPoint, requiresRole);
+
+        // Then
+        verify(userService, times(1)).getUserRoles(userId);
+
+        // When - the user's profile changes
+        principalCache.invalidateUserRoles(userId);
+
+        // Then - the new (empty) roles are loaded and access is denied
+        assertThatThrownBy(() -> roleCheckAspect.checkRole(joinPoint, requiresRole))
+                .isInstanceOf(AccessDeniedException.class);
+        verify(userService, times(2)).getUserRoles(userId);
+    }
+
     /**
      * Helper method to create a RequiresRole annotation mock
      */
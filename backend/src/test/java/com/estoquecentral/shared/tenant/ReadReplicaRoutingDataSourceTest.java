@@ -0,0 +1,253 @@
+package com.estoquecentral.shared.tenant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReadReplicaRoutingDataSource and ReplicaStalenessGuard
+ *
+ * <p>Uses a real DataSourceTransactionManager so read-only detection goes through
+ * the same lazy connection path as in production.
+ */
+@DisplayName("ReadReplicaRoutingDataSource Unit Tests")
+class ReadReplicaRoutingDataSourceTest {
+
+    private static final long MAX_LAG_MS = 1000;
+    private static final long WINDOW_MS = 5000;
+
+    private DataSource primaryPool;
+    private DataSource replicaPool;
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private ReplicaStalenessGuard guard;
+    private ReadReplicaRoutingDataSource dataSource;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        primaryPool = mockPool();
+        replicaPool = mockPool();
+
+        guard = new ReplicaStalenessGuard(MAX_LAG_MS, WINDOW_MS, clock::get);
+        dataSource = new ReadReplicaRoutingDataSource(
+                new TenantAwareDataSource(primaryPool), new TenantAwareDataSource(replicaPool), guard);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+
+        TenantContext.setTenantId(UUID.randomUUID().toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should serve read-only transactions from the replica when it is up to date")
+    void shouldRouteReadOnlyToReplica() throws Exception {
+        // Given
+        guard.updateReplicaLag(10);
+
+        // When
+        useConnection(readOnlyTransaction);
+
+        // Then
+        verify(replicaPool).getConnection();
+        verify(primaryPool, never()).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should keep read-write transactions on the primary")
+    void shouldRouteReadWriteToPrimary() throws Exception {
+        // Given
+        guard.updateReplicaLag(10);
+
+        // When
+        useConnection(readWriteTransaction);
+
+        // Then
+        verify(primaryPool).getConnection();
+        verify(replicaPool, never()).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should read from the primary within the read-your-writes window of a commit")
+    void shouldReadYourWrites() throws Exception {
+        // Given
+        guard.updateReplicaLag(10);
+        useConnection(readWriteTransaction);
+
+        // When - read right after the commit
+        useConnection(readOnlyTransaction);
+
+        // Then
+        verify(primaryPool, times(2)).getConnection();
+        verify(replicaPool, never()).getConnection();
+
+        // When - another tenant is not affected, and the window expires
+        TenantContext.setTenantId(UUID.randomUUID().toString());
+        useConnection(readOnlyTransaction);
+        clock.addAndGet(WINDOW_MS + 1);
+        useConnection(readOnlyTransaction);
+
+        // Then
+        verify(replicaPool, times(2)).getConnection();
+        verify(primaryPool, times(2)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when the replica lags or was never sampled")
+    void shouldFallBackWhenReplicaLags() throws Exception {
+        // When - no lag sample yet
+        useConnection(readOnlyTransaction);
+
+        // When - lag above the threshold
+        guard.updateReplicaLag(MAX_LAG_MS + 1);
+        useConnection(readOnlyTransaction);
+
+        // Then
+        verify(primaryPool, times(2)).getConnection();
+        verify(replicaPool, never()).getConnection();
+        assertThat(guard.isReplicaHealthy()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when the replica is unreachable")
+    void shouldFallBackWhenReplicaFails() throws Exception {
+        // Given
+        guard.updateReplicaLag(10);
+        when(replicaPool.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        // When
+        useConnection(readOnlyTransaction);
+
+        // Then
+        verify(primaryPool).getConnection();
+        assertThat(guard.getReplicaLagMs()).isEqualTo(ReplicaStalenessGuard.UNKNOWN_LAG);
+    }
+
+    @Test
+    @DisplayName("Should not pin reads to the primary after a rollback or non-transactional work")
+    void shouldOnlyRecordCommittedWrites() throws Exception {
+        // Given
+        guard.updateReplicaLag(10);
+
+        // When - a read-write transaction rolls back
+        readWriteTransaction.executeWithoutResult(status -> {
+            try {
+                DataSourceUtils.getConnection(dataSource).createStatement();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            status.setRollbackOnly();
+        });
+
+        // When - work outside any transaction
+        dataSource.getConnection().createStatement();
+
+        // When
+        useConnection(readOnlyTransaction);
+
+        // Then
+        verify(primaryPool, times(2)).getConnection();
+        verify(replicaPool).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should read from the primary once the sampled replica lag exceeds the threshold")
+    void shouldSampleReplicaLag() throws Exception {
+        // Given - the replica reports a lag above the threshold
+        givenReplicaLag(MAX_LAG_MS + 500);
+
+        // When
+        dataSource.refreshReplicaLag();
+        useConnection(readOnlyTransaction);
+
+        // Then - the lag query ran on the replica, but the read went to the primary
+        assertThat(guard.getReplicaLagMs()).isEqualTo(MAX_LAG_MS + 500);
+        assertThat(guard.isReplicaHealthy()).isFalse();
+        verify(primaryPool).getConnection();
+        verify(replicaPool, times(1)).getConnection();
+
+        // When - the replica catches up
+        givenReplicaLag(10);
+        dataSource.refreshReplicaLag();
+        useConnection(readOnlyTransaction);
+
+        // Then
+        assertThat(guard.isReplicaHealthy()).isTrue();
+        verify(primaryPool).getConnection();
+        verify(replicaPool, times(3)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should treat the replica lag as unknown when it cannot be sampled")
+    void shouldReportUnknownLagWhenSamplingFails() throws Exception {
+        // Given
+        guard.updateReplicaLag(10);
+        when(replicaPool.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        // When
+        dataSource.refreshReplicaLag();
+
+        // Then
+        assertThat(guard.getReplicaLagMs()).isEqualTo(ReplicaStalenessGuard.UNKNOWN_LAG);
+        assertThat(guard.isReplicaHealthy()).isFalse();
+    }
+
+    private void givenReplicaLag(long lagMs) throws Exception {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(replicaPool.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(1);
+        when(resultSet.getLong(1)).thenReturn(lagMs);
+    }
+
+    private void useConnection(TransactionTemplate transaction) {
+        transaction.executeWithoutResult(status -> {
+            try {
+                // The lazy proxy fetches the physical connection on first real use
+                DataSourceUtils.getConnection(dataSource).createStatement();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private static DataSource mockPool() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        return pool;
+    }
+}
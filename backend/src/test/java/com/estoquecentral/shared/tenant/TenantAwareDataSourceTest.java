@@ -0,0 +1,212 @@
+package com.estoquecentral.shared.tenant;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import com.estoquecentral.shared.tenant.SchemaAffinityDataSource.BoundConnection;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TenantAwareDataSource schema affinity
+ *
+ * <p>Simulates a pool that hands out a proxy per checkout around the same physical
+ * connection wrapped by {@link SchemaAffinityDataSource}, as HikariCP does.
+ */
+@DisplayName("TenantAwareDataSource Unit Tests")
+class TenantAwareDataSourceTest {
+
+    private DataSource pool;
+    private Connection pooledConnection;
+    private Connection physicalConnection;
+    private Connection boundConnection;
+    private Statement statement;
+    private TenantAwareDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pool = mock(DataSource.class);
+        pooledConnection = mock(Connection.class);
+        physicalConnection = mock(Connection.class);
+        statement = mock(Statement.class);
+        boundConnection = SchemaAffinityDataSource.wrap(physicalConnection);
+
+        when(physicalConnection.createStatement()).thenReturn(statement);
+        when(pool.getConnection()).thenReturn(pooledConnection);
+        when(pooledConnection.isWrapperFor(BoundConnection.class)).thenReturn(true);
+        when(pooledConnection.unwrap(BoundConnection.class)).thenReturn((BoundConnection) boundConnection);
+        when(pooledConnection.getAutoCommit()).thenReturn(true);
+        when(pooledConnection.createStatement()).thenAnswer(invocation -> boundConnection.createStatement());
+
+        dataSource = new TenantAwareDataSource(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should set search_path only when the bound schema changes")
+    void shouldSkipRedundantSearchPath() throws Exception {
+        // Given
+        String tenantA = UUID.randomUUID().toString();
+        String tenantB = UUID.randomUUID().toString();
+
+        // When
+        TenantContext.setTenantId(tenantA);
+        dataSource.getConnection();
+        dataSource.getConnection();
+        TenantContext.setTenantId(tenantB);
+        dataSource.getConnection();
+
+        // Then
+        verify(statement).execute("SET search_path TO tenant_" + tenantA.replace("-", "") + ", public");
+        verify(statement).execute("SET search_path TO tenant_" + tenantB.replace("-", "") + ", public");
+        verify(statement, times(2)).execute(anyString());
+        assertThat(dataSource.getSearchPathSwitches()).isEqualTo(2);
+        assertThat(dataSource.getSearchPathHits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not remember binding when SET runs inside a transaction")
+    void shouldNotRememberBindingOutsideAutoCommit() throws Exception {
+        // Given
+        when(pooledConnection.getAutoCommit()).thenReturn(false);
+        TenantContext.setTenantId(UUID.randomUUID().toString());
+
+        // When
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        // Then
+        verify(statement, times(2)).execute(anyString());
+        assertThat(dataSource.getSearchPathHits()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should set search_path again after a statement on the connection failed")
+    void shouldForgetBindingAfterFailedStatement() throws Exception {
+        // Given
+        when(statement.executeUpdate("UPDATE broken")).thenThrow(new SQLException("syntax error"));
+        TenantContext.setTenantId(UUID.randomUUID().toString());
+        dataSource.getConnection();
+
+        // When
+        assertThatThrownBy(() -> boundConnection.createStatement().executeUpdate("UPDATE broken"))
+                .isInstanceOf(SQLException.class);
+        dataSource.getConnection();
+
+        // Then
+        verify(statement, times(2)).execute(anyString());
+        assertThat(dataSource.getSearchPathHits()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should set search_path again after the connection was rolled back")
+    void shouldForgetBindingAfterRollback() throws Exception {
+        // Given
+        TenantContext.setTenantId(UUID.randomUUID().toString());
+        dataSource.getConnection();
+
+        // When
+        boundConnection.rollback();
+        dataSource.getConnection();
+
+        // Then
+        verify(statement, times(2)).execute(anyString());
+        assertThat(dataSource.getSearchPathHits()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should set search_path on every checkout when connections carry no binding")
+    void shouldAlwaysSetSearchPathWithoutBoundConnection() throws Exception {
+        // Given
+        when(pooledConnection.isWrapperFor(BoundConnection.class)).thenReturn(false);
+        TenantContext.setTenantId(UUID.randomUUID().toString());
+
+        // When
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        // Then
+        verify(statement, times(2)).execute(anyString());
+        assertThat(dataSource.getSearchPathHits()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should run the schema initializer before checking out a connection")
+    void shouldInitializeSchemaBeforeCheckout() throws Exception {
+        // Given
+        String tenantId = UUID.randomUUID().toString();
+        TenantContext.setTenantId(tenantId);
+        dataSource.setSchemaInitializer(schemaName -> {
+            throw new IllegalStateException("migration failed");
+        });
+
+        // When / Then
+        assertThatThrownBy(() -> dataSource.getConnection())
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("tenant_" + tenantId.replace("-", ""));
+        verify(pool, never()).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should prefix prepared SQL with the bound schema")
+    void shouldScopePreparedStatementsBySchema() throws Exception {
+        // Given
+        String tenantId = UUID.randomUUID().toString();
+        TenantContext.setTenantId(tenantId);
+
+        // When
+        Connection connection = dataSource.getConnection();
+        connection.prepareStatement("SELECT 1");
+
+        // Then
+        verify(pooledConnection).prepareStatement("/* tenant_" + tenantId.replace("-", "") + " */ SELECT 1");
+        assertThat(connection).isNotEqualTo(dataSource.getConnection());
+    }
+
+    @Test
+    @DisplayName("Should hand out the raw connection when schema-scoped statements are disabled")
+    void shouldNotWrapWhenScopingDisabled() throws Exception {
+        // Given
+        dataSource.setSchemaScopedStatements(false);
+
+        // When
+        Connection connection = dataSource.getConnection();
+
+        // Then
+        assertThat(connection).isSameAs(pooledConnection);
+        verify(statement).execute("SET search_path TO public");
+    }
+
+    @Test
+    @DisplayName("Should publish hit ratio metric")
+    void shouldPublishHitRatio() throws Exception {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        dataSource.bindTo(registry);
+
+        // When
+        dataSource.getConnection();
+        dataSource.getConnection();
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        // Then
+        assertThat(registry.get("tenant.datasource.search_path.hit_ratio").gauge().value()).isEqualTo(0.75);
+        assertThat(registry.get("tenant.datasource.search_path").tag("outcome", "switch").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+}
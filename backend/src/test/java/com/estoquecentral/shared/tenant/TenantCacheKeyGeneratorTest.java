@@ -1,9 +1,11 @@
 package com.estoquecentral.shared.tenant;
 
+import com.estoquecentral.shared.cache.TenantCacheGenerations;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.cache.annotation.Cacheable;
 
 import java.lang.reflect.Method;
 import java.util.UUID;
@@ -18,12 +20,14 @@ import static org.assertj.core.api.Assertions.*;
 @DisplayName("TenantCacheKeyGenerator Unit Tests")
 class TenantCacheKeyGeneratorTest {
 
+    private TenantCacheGenerations generations;
     private TenantCacheKeyGenerator keyGenerator;
     private UUID tenantId;
 
     @BeforeEach
     void setUp() {
-        keyGenerator = new TenantCacheKeyGenerator();
+        generations = new TenantCacheGenerations();
+        keyGenerator = new TenantCacheKeyGenerator(generations);
         tenantId = UUID.randomUUID();
     }
 
@@ -97,7 +101,7 @@ class TenantCacheKeyGeneratorTest {
 
         // Then
         String keyStr = (String) key;
-        assertThat(keyStr).isEqualTo("tenant:" + tenantId + ":TestService:findAll");
+        assertThat(keyStr).isEqualTo("tenant:" + tenantId + ":g0.0:TestService:findAll");
     }
 
     @Test
@@ -205,6 +209,42 @@ class TenantCacheKeyGeneratorTest {
         assertThat(key1).isEqualTo(key2);
     }
 
+    @Test
+    @DisplayName("Should move keys to a new namespace when the tenant cache is invalidated")
+    void shouldChangeKeyWhenCacheGenerationIsBumped() throws Exception {
+        // Given
+        TenantContext.setTenantId(tenantId.toString());
+        Method method = TestService.class.getMethod("findProduct", UUID.class);
+        UUID productId = UUID.randomUUID();
+        String before = (String) keyGenerator.generate(new TestService(), method, productId);
+
+        // When
+        generations.invalidateCache("tenant:" + tenantId, "products");
+
+        // Then
+        String after = (String) keyGenerator.generate(new TestService(), method, productId);
+        assertThat(before).isEqualTo("tenant:" + tenantId + ":g0.0:TestService:findProduct:" + productId);
+        assertThat(after).isEqualTo("tenant:" + tenantId + ":g0.1:TestService:findProduct:" + productId);
+    }
+
+    @Test
+    @DisplayName("Should only invalidate the given tenant's namespace")
+    void shouldInvalidateOnlyGivenTenant() {
+        // Given
+        UUID otherTenant = UUID.randomUUID();
+        TenantContext.setTenantId(otherTenant.toString());
+        String otherBefore = keyGenerator.generateVersionedKey("products", "p-1");
+
+        // When
+        generations.invalidateTenant("tenant:" + tenantId);
+
+        // Then
+        assertThat(keyGenerator.generateVersionedKey("products", "p-1")).isEqualTo(otherBefore);
+        TenantContext.setTenantId(tenantId.toString());
+        assertThat(keyGenerator.generateVersionedKey("products", "p-1"))
+                .isEqualTo("tenant:" + tenantId + ":g1.0:products:p-1");
+    }
+
     /**
      * Mock service class for testing method reflection
      */
@@ -220,5 +260,10 @@ class TenantCacheKeyGeneratorTest {
         public Object findAll() {
             return null;
         }
+
+        @Cacheable("products")
+        public Object findProduct(UUID id) {
+            return null;
+        }
     }
 }
@@ -0,0 +1,105 @@
+package com.estoquecentral.shared.tenant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for TenantContextTaskDecorator
+ */
+@DisplayName("TenantContextTaskDecorator Unit Tests")
+class TenantContextTaskDecoratorTest {
+
+    private final TenantContextTaskDecorator decorator = new TenantContextTaskDecorator();
+    private ThreadPoolTaskExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setTaskDecorator(decorator);
+        executor.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        TenantContext.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should run task with the submitting thread's tenant and authentication")
+    void shouldPropagateTenantAndSecurityContext() throws Exception {
+        String tenantId = UUID.randomUUID().toString();
+        Authentication authentication = new UsernamePasswordAuthenticationToken("user", null, List.of());
+        TenantContext.setTenantId(tenantId);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        AtomicReference<String> seenTenant = new AtomicReference<>();
+        AtomicReference<Authentication> seenAuthentication = new AtomicReference<>();
+        CompletableFuture.runAsync(() -> {
+            seenTenant.set(TenantContext.getTenantId());
+            seenAuthentication.set(SecurityContextHolder.getContext().getAuthentication());
+        }, executor).get(5, TimeUnit.SECONDS);
+
+        assertThat(seenTenant.get()).isEqualTo(tenantId);
+        assertThat(seenAuthentication.get()).isSameAs(authentication);
+    }
+
+    @Test
+    @DisplayName("Should restore the running thread's own context after the task")
+    void shouldRestoreRunningThreadContext() {
+        String submitterTenant = UUID.randomUUID().toString();
+        TenantContext.setTenantId(submitterTenant);
+        Runnable decorated = decorator.decorate(
+                () -> assertThat(TenantContext.getTenantId()).isEqualTo(submitterTenant));
+
+        // Run the task on a thread that already has another tenant and authentication
+        String workerTenant = UUID.randomUUID().toString();
+        Authentication workerAuthentication = new UsernamePasswordAuthenticationToken("worker", null, List.of());
+        TenantContext.setTenantId(workerTenant);
+        SecurityContextHolder.getContext().setAuthentication(workerAuthentication);
+
+        decorated.run();
+
+        assertThat(TenantContext.getTenantId()).isEqualTo(workerTenant);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isSameAs(workerAuthentication);
+    }
+
+    @Test
+    @DisplayName("Should clear the tenant after the task when the thread had none")
+    void shouldClearTenantWhenThreadHadNone() {
+        TenantContext.setTenantId(UUID.randomUUID().toString());
+        Runnable decorated = decorator.decorate(() -> { });
+        TenantContext.clear();
+
+        decorated.run();
+
+        assertThat(TenantContext.getTenantId()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should run without tenant when submitted outside a tenant context")
+    void shouldRunWithoutTenantWhenNoneSet() throws Exception {
+        AtomicReference<String> seenTenant = new AtomicReference<>("unset");
+        CompletableFuture.runAsync(() -> seenTenant.set(TenantContext.getTenantId()), executor)
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(seenTenant.get()).isNull();
+    }
+}
@@ -0,0 +1,166 @@
+package com.estoquecentral.tenant;
+
+import com.estoquecentral.integration.BaseIntegrationTest;
+import com.estoquecentral.shared.tenant.config.TenantSchemaMigrator;
+import com.estoquecentral.shared.tenant.config.TenantSchemaTemplateService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark: Flyway replay vs template cloning for tenant provisioning
+ *
+ * <p>Provisions schemas both ways, prints the timings and checks that a cloned
+ * schema is structurally identical to a migrated one (tables, columns, sequences,
+ * indexes, constraints, views, functions, triggers, Flyway history) and draws ids
+ * from its own sequences.
+ */
+class TenantProvisioningBenchmarkTest extends BaseIntegrationTest {
+
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private TenantSchemaMigrator tenantSchemaMigrator;
+
+    @Autowired
+    private TenantSchemaTemplateService tenantSchemaTemplateService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    private final List<String> createdSchemas = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        tenantSchemaTemplateService.refreshTemplate();
+    }
+
+    @AfterEach
+    void cleanup() {
+        for (String schemaName : createdSchemas) {
+            jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + schemaName + " CASCADE");
+        }
+        createdSchemas.clear();
+    }
+
+    @Test
+    void clonedSchemaShouldMatchMigratedSchemaAndBeFaster() {
+        long migrateTotal = 0;
+        long cloneTotal = 0;
+        String migratedSchema = null;
+        String clonedSchema = null;
+
+        for (int i = 0; i < ROUNDS; i++) {
+            migratedSchema = newSchemaName();
+            long startTime = System.nanoTime();
+            jdbcTemplate.execute("CREATE SCHEMA " + migratedSchema);
+            tenantSchemaMigrator.migrate(migratedSchema);
+            migrateTotal += System.nanoTime() - startTime;
+
+            clonedSchema = newSchemaName();
+            startTime = System.nanoTime();
+            tenantSchemaTemplateService.cloneFromTemplate(clonedSchema);
+            cloneTotal += System.nanoTime() - startTime;
+        }
+
+        System.out.printf("Tenant provisioning (avg of %d): flyway replay %dms, template clone %dms%n",
+                ROUNDS, migrateTotal / ROUNDS / 1_000_000, cloneTotal / ROUNDS / 1_000_000);
+
+        assertSameStructure(migratedSchema, clonedSchema);
+        assertThat(cloneTotal).isLessThan(migrateTotal);
+    }
+
+    @Test
+    void clonedSchemaShouldNeedNoFurtherMigrations() {
+        String clonedSchema = newSchemaName();
+        tenantSchemaTemplateService.cloneFromTemplate(clonedSchema);
+
+        assertThat(tenantSchemaMigrator.migrate(clonedSchema)).isZero();
+    }
+
+    @Test
+    void clonedSchemaShouldDrawIdsFromItsOwnSequences() {
+        String clonedSchema = newSchemaName();
+        tenantSchemaTemplateService.cloneFromTemplate(clonedSchema);
+
+        String sequenceDefaults = """
+                SELECT table_name || '.' || column_name || ':' || column_default
+                FROM information_schema.columns
+                WHERE table_schema = :schema AND column_default LIKE 'nextval(%'
+                """;
+        assertThat(describe(clonedSchema, sequenceDefaults))
+                .isNotEmpty()
+                .allSatisfy(columnDefault -> assertThat(columnDefault).contains("'" + clonedSchema + "."));
+    }
+
+    @Test
+    void provisionFromTemplateShouldSeedDefaultProfiles() {
+        String schemaName = newSchemaName();
+
+        assertThat(tenantSchemaTemplateService.provisionFromTemplate(schemaName)).isTrue();
+
+        Integer profileCount = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + schemaName + ".profiles", Integer.class);
+        assertThat(profileCount).isEqualTo(3);
+    }
+
+    private void assertSameStructure(String expectedSchema, String actualSchema) {
+        // Column defaults may mention the schema (e.g. sequences), so strip the qualifier
+        String columns = """
+                SELECT table_name || '.' || column_name || ':' || data_type || ':' || is_nullable
+                       || ':' || coalesce(replace(column_default, :schema || '.', ''), '')
+                FROM information_schema.columns WHERE table_schema = :schema
+                ORDER BY 1
+                """;
+        String sequences = """
+                SELECT sequence_name || ':' || data_type || ':' || start_value || ':' || increment
+                FROM information_schema.sequences WHERE sequence_schema = :schema
+                ORDER BY 1
+                """;
+        String indexes = "SELECT indexname FROM pg_indexes WHERE schemaname = :schema ORDER BY 1";
+        String constraints = """
+                SELECT con.conname || ':' || con.contype FROM pg_constraint con
+                JOIN pg_namespace n ON n.oid = con.connamespace
+                WHERE n.nspname = :schema ORDER BY 1
+                """;
+        String views = "SELECT table_name FROM information_schema.views WHERE table_schema = :schema ORDER BY 1";
+        String functions = """
+                SELECT p.proname FROM pg_proc p JOIN pg_namespace n ON n.oid = p.pronamespace
+                WHERE n.nspname = :schema ORDER BY 1
+                """;
+        String triggers = """
+                SELECT trigger_name || ':' || event_manipulation || ':' || event_object_table
+                FROM information_schema.triggers WHERE trigger_schema = :schema ORDER BY 1
+                """;
+        for (String query : List.of(columns, sequences, indexes, constraints, views, functions, triggers)) {
+            assertThat(describe(actualSchema, query)).isEqualTo(describe(expectedSchema, query));
+        }
+
+        String flywayHistory = "SELECT version FROM %s.flyway_schema_history WHERE success ORDER BY installed_rank";
+        assertThat(jdbcTemplate.queryForList(flywayHistory.formatted(actualSchema), String.class))
+                .isEqualTo(jdbcTemplate.queryForList(flywayHistory.formatted(expectedSchema), String.class));
+    }
+
+    private List<String> describe(String schemaName, String query) {
+        return namedJdbcTemplate.queryForList(query, Map.of("schema", schemaName), String.class);
+    }
+
+    private String newSchemaName() {
+        String schemaName = "tenant_" + UUID.randomUUID().toString().replace("-", "");
+        createdSchemas.add(schemaName);
+        return schemaName;
+    }
+}